@@ -0,0 +1,68 @@
+package com.urbanevents.benchmarks;
+
+import com.urbanevents.metricas.domain.EstadoIncidencia;
+import com.urbanevents.metricas.service.CalculoMetricasService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculos de {@link CalculoMetricasService} que metricas hace por cada evento: duración entre instantes,
+ * clasificación del estado recibido (con estados en minúsculas y desconocidos, como llegan de registro) y tasas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculoMetricasBenchmark {
+    private static final String[] ESTADOS = {"RESUELTO", "cerrado", "RECHAZADO", "EN_PROGRESO", "registrada", null};
+
+    private final CalculoMetricasService service = new CalculoMetricasService();
+    private Instant creada;
+    private Instant resuelta;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        creada = Instant.parse("2025-03-01T10:15:30.123Z");
+        resuelta = creada.plusSeconds(3_600).plusMillis(456);
+    }
+
+    @Benchmark
+    public EstadoIncidencia clasificarEstado() {
+        siguiente = (siguiente + 1) % ESTADOS.length;
+        return service.clasificarEstado(ESTADOS[siguiente]);
+    }
+
+    /**
+     * Lo que hace MetricasService.procesarCambio sin acceso a datos.
+     */
+    @Benchmark
+    public void procesarCambio(Blackhole blackhole) {
+        siguiente = (siguiente + 1) % ESTADOS.length;
+        EstadoIncidencia estado = service.clasificarEstado(ESTADOS[siguiente]);
+        blackhole.consume(service.esResuelto(estado));
+        blackhole.consume(service.calcularTiempoEnMs(creada, resuelta));
+    }
+
+    @Benchmark
+    public void tasas(Blackhole blackhole) {
+        blackhole.consume(service.calcularTasaExito(613, 1_000));
+        blackhole.consume(service.calcularTasaFracaso(87, 1_000));
+        blackhole.consume(service.calcularTasaPendiente(300, 1_000));
+        blackhole.consume(service.msASegundosDouble(service.calcularTiempoEnMs(creada, resuelta)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.urbanevents.benchmarks;
+
+import com.github.luben.zstd.Zstd;
+import com.urbanevents.events.EventoIncidencia;
+import com.urbanevents.events.codec.CodecEventos;
+import com.urbanevents.events.codec.FormatoEvento;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificación y decodificación de cada evento de shared-events en JSON (v1) y Smile (v2).
+ * Además del tiempo por operación, {@code codificar} informa de los bytes por evento y de los bytes por evento
+ * de un lote de {@link #EVENTOS_LOTE} comprimido con zstd nivel 3 (lo que hace el productor de Kafka con
+ * compression.type=zstd), como contadores secundarios en el resultado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecEventosBenchmark {
+    static final int EVENTOS_LOTE = 500;
+    private static final int NIVEL_ZSTD = 3;
+
+    @Param({"creada", "priorizada", "notificada", "cambiada"})
+    String tipo;
+
+    @Param({"JSON", "SMILE"})
+    FormatoEvento formato;
+
+    // Descripción del alta y comentario del cambio de estado
+    @Param({"200", "2000"})
+    int longitudTexto;
+
+    private final CodecEventos codec = new CodecEventos();
+    private EventoIncidencia evento;
+    private Class<? extends EventoIncidencia> clase;
+    private byte[] codificado;
+    private long bytesZstdPorEvento;
+
+    @Setup
+    public void preparar() {
+        evento = EventosEjemplo.evento(tipo, formato, longitudTexto, 42);
+        clase = evento.getClass();
+        codificado = codec.codificar(evento);
+
+        ByteArrayOutputStream lote = new ByteArrayOutputStream();
+        for (int i = 0; i < EVENTOS_LOTE; i++) {
+            lote.writeBytes(codec.codificar(EventosEjemplo.evento(tipo, formato, longitudTexto, i)));
+        }
+        bytesZstdPorEvento = Zstd.compress(lote.toByteArray(), NIVEL_ZSTD).length / EVENTOS_LOTE;
+    }
+
+    @Benchmark
+    public byte[] codificar(Tamanos tamanos) {
+        byte[] datos = codec.codificar(evento);
+        tamanos.bytesPorEvento = datos.length;
+        tamanos.bytesZstdPorEvento = bytesZstdPorEvento;
+        return datos;
+    }
+
+    @Benchmark
+    public Object decodificar() {
+        return codec.decodificar(codificado, clase);
+    }
+
+    /**
+     * Tamaños publicados como métricas secundarias (se asignan, no se acumulan).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamanos {
+        public long bytesPorEvento;
+        public long bytesZstdPorEvento;
+    }
+}
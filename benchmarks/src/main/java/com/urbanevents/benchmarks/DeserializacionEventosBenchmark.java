@@ -0,0 +1,100 @@
+package com.urbanevents.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urbanevents.events.EventoIncidencia;
+import com.urbanevents.events.codec.CodecEventos;
+import com.urbanevents.events.codec.DeserializadorEvento;
+import com.urbanevents.events.codec.FormatoEvento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camino de lectura de los consumidores: el anterior (StringDeserializer y {@code ObjectMapper.readValue(String)})
+ * frente a {@link CodecEventos} y a los deserializadores de Kafka, que leen del buffer del registro.
+ * Pensado para ejecutarse con {@code -prof gc}: {@code gc.alloc.rate.norm} da los bytes asignados por mensaje.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeserializacionEventosBenchmark {
+    @Param({"creada", "priorizada", "notificada", "cambiada"})
+    String tipo;
+
+    @Param({"200", "2000"})
+    int longitudTexto;
+
+    // Como el ObjectMapper por defecto de los servicios Quarkus
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final CodecEventos codec = new CodecEventos();
+
+    private Class<? extends EventoIncidencia> clase;
+    private DeserializadorEvento<? extends EventoIncidencia> deserializador;
+    private byte[] json;
+    private ByteBuffer registroJson;
+    private ByteBuffer registroSmile;
+
+    @Setup
+    public void preparar() {
+        EventoIncidencia evento = EventosEjemplo.evento(tipo, FormatoEvento.JSON, longitudTexto, 42);
+        clase = evento.getClass();
+        deserializador = crearDeserializador(clase);
+        json = codec.codificar(evento, FormatoEvento.JSON);
+        registroJson = registro(json);
+        registroSmile = registro(codec.codificar(evento, FormatoEvento.SMILE));
+    }
+
+    @Benchmark
+    public Object objectMapperDesdeString() throws IOException {
+        // Lo que hacía StringDeserializer más el consumidor: dos pasadas sobre los bytes
+        return objectMapper.readValue(new String(json, StandardCharsets.UTF_8), clase);
+    }
+
+    @Benchmark
+    public Object codecDesdeBytes() {
+        return codec.decodificar(json, clase);
+    }
+
+    @Benchmark
+    public Object deserializadorKafkaJson() {
+        return deserializador.deserialize("incidencias", null, registroJson);
+    }
+
+    @Benchmark
+    public Object deserializadorKafkaSmile() {
+        return deserializador.deserialize("incidencias", null, registroSmile);
+    }
+
+    private <T extends EventoIncidencia> DeserializadorEvento<T> crearDeserializador(Class<T> tipoEvento) {
+        return new DeserializadorEvento<>(tipoEvento, codec);
+    }
+
+    // Trozo de un buffer mayor, como el valor de un registro dentro del lote que recibe el consumidor
+    private static ByteBuffer registro(byte[] valor) {
+        byte[] lote = new byte[valor.length + 64];
+        System.arraycopy(valor, 0, lote, 32, valor.length);
+        return ByteBuffer.wrap(lote, 32, valor.length).slice();
+    }
+}
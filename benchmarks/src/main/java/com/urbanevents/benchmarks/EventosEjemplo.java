@@ -0,0 +1,71 @@
+package com.urbanevents.benchmarks;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.EventoIncidencia;
+import com.urbanevents.events.IncidenciaChangedEvent;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.IncidenciaNotificadaEvent;
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import com.urbanevents.events.codec.FormatoEvento;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Eventos de ejemplo con textos de la longitud pedida, deterministas a partir de la semilla.
+ * Los textos se componen con palabras reales para que la compresión se parezca a la de producción.
+ */
+public final class EventosEjemplo {
+    public static final String[] TIPOS = {"creada", "priorizada", "notificada", "cambiada"};
+
+    private static final String[] PALABRAS = {
+            "farola", "apagada", "calle", "mayor", "esquina", "plaza", "vecinos", "incendio", "contenedor",
+            "semáforo", "averiado", "fuga", "agua", "tubería", "acera", "rota", "ruido", "noche", "obras",
+            "tráfico", "accidente", "parque", "banco", "árbol", "caído", "desde", "hace", "horas", "junto",
+            "portal", "número", "autobús", "parada", "bomberos", "urgente", "olor", "gas", "humo", "la", "el",
+            "de", "en", "con", "una", "muy", "sin", "luz", "y", "que", "del"};
+
+    private EventosEjemplo() {
+    }
+
+    public static EventoIncidencia evento(String tipo, FormatoEvento formato, int longitudTexto, long semilla) {
+        Random random = new Random(semilla);
+        long id = 1_000_000L + random.nextInt(1_000_000);
+        Instant ahora = Instant.parse("2025-03-01T10:15:30.123456Z").plusMillis(random.nextInt(86_400_000));
+        String version = formato.versionEsquema();
+        return switch (tipo) {
+            case "creada" -> new IncidenciaCreadaEvent(
+                    metadata("IncidenciaCreada", "registro-incidencias", version, "REGISTRADA", ahora, random),
+                    id, "alumbrado", texto(longitudTexto, random), "ciudadano", "Calle Mayor 12", ahora);
+            case "priorizada" -> new IncidenciaPriorizadaEvent(
+                    metadata("IncidenciaPriorizada", "priorizacion-incidencias", version, null, ahora, random),
+                    id, "ALTA", "se ha encontrado literal 'incendio' en el campo descripcion", ahora);
+            case "notificada" -> new IncidenciaNotificadaEvent(
+                    metadata("IncidenciaNotificada", "notificaciones-quarkus", version, null, ahora, random),
+                    id, "email", "alertas@urban-events.local", "ENVIADA", ahora);
+            case "cambiada" -> new IncidenciaChangedEvent(
+                    metadata("IncidenciaChanged", "registro-incidencias", version, "EN_PROGRESO", ahora, random),
+                    id, "EN_PROGRESO", texto(longitudTexto, random), ahora);
+            default -> throw new IllegalArgumentException("Tipo de evento desconocido: " + tipo);
+        };
+    }
+
+    private static EventMetadata metadata(String tipo, String servicio, String version, String estado,
+                                          Instant ahora, Random random) {
+        return new EventMetadata(new UUID(random.nextLong(), random.nextLong()).toString(), tipo, ahora, servicio,
+                version, estado);
+    }
+
+    static String texto(int longitud, Random random) {
+        StringBuilder texto = new StringBuilder(longitud + 16);
+        while (texto.length() < longitud) {
+            if (!texto.isEmpty()) {
+                texto.append(' ');
+            }
+            texto.append(PALABRAS[random.nextInt(PALABRAS.length)]);
+        }
+        texto.setLength(longitud);
+        return texto.toString();
+    }
+}
@@ -0,0 +1,150 @@
+package com.urbanevents.benchmarks;
+
+import com.urbanevents.priorizacion.domain.DecisionPrioridad;
+import com.urbanevents.priorizacion.domain.Prioridad;
+import com.urbanevents.priorizacion.service.PriorizacionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PriorizacionService#decidir}: se ejecuta una vez por cada incidencia creada. Recorre la descripción una
+ * sola vez con el autómata de palabras, así que su coste apenas depende del número de palabras configuradas.
+ * {@code referenciaContains} es la búsqueda anterior (calcularPrioridad y calcularMotivo, cada una con un contains
+ * por palabra), cuyo coste crece con la longitud por el número de palabras y en el caso MEDIA recorre la lista entera.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriorizacionBenchmark {
+    // Las de application.yml; el resto hasta palabrasCriticas son sintéticas
+    private static final List<String> PALABRAS_CONFIGURADAS =
+            List.of("incendio", "explosion", "explosivo", "heridos", "urgente");
+
+    // Vocabulario sin palabras críticas para que el caso MEDIA no encuentre ninguna
+    private static final String[] PALABRAS_NEUTRAS = {
+            "farola", "apagada", "calle", "mayor", "esquina", "plaza", "vecinos", "contenedor", "lleno", "semáforo",
+            "averiado", "fuga", "agua", "acera", "rota", "ruido", "noche", "obras", "tráfico", "parque", "banco",
+            "árbol", "desde", "hace", "horas", "junto", "portal", "número", "autobús", "parada", "la", "el", "de",
+            "en", "con", "una", "muy", "sin", "luz", "y", "que", "del"};
+
+    public enum Caso {
+        /** Ninguna palabra crítica: recorre toda la lista. */
+        MEDIA,
+        /** La última palabra de la lista, al final de la descripción. */
+        ALTA,
+        /** "grave" al final de la descripción. */
+        CRITICA
+    }
+
+    // Típicas de formulario, larga, descripción de sensor con volcado de datos y texto pegado de un informe
+    @Param({"60", "300", "2000", "20000"})
+    int longitudDescripcion;
+
+    @Param({"5", "50", "500", "2000"})
+    int palabrasCriticas;
+
+    @Param({"MEDIA", "ALTA", "CRITICA"})
+    Caso caso;
+
+    private PriorizacionService service;
+    private BusquedaPorContains referencia;
+    private String descripcion;
+
+    @Setup
+    public void preparar() {
+        List<String> palabras = new ArrayList<>(PALABRAS_CONFIGURADAS);
+        for (int i = palabras.size(); i < palabrasCriticas; i++) {
+            palabras.add("riesgo" + i);
+        }
+        service = new PriorizacionService(List.copyOf(palabras));
+        referencia = new BusquedaPorContains(List.copyOf(palabras));
+
+        String texto = texto(longitudDescripcion, new Random(42));
+        descripcion = switch (caso) {
+            case MEDIA -> texto;
+            case ALTA -> texto + " " + palabras.get(palabras.size() - 1);
+            case CRITICA -> texto + " grave";
+        };
+    }
+
+    @Benchmark
+    public DecisionPrioridad decidir() {
+        return service.decidir(descripcion);
+    }
+
+    @Benchmark
+    public void referenciaContains(Blackhole blackhole) {
+        blackhole.consume(referencia.calcularPrioridad(descripcion));
+        blackhole.consume(referencia.calcularMotivo(descripcion));
+    }
+
+    private static String texto(int longitud, Random random) {
+        StringBuilder texto = new StringBuilder(longitud + 16);
+        while (texto.length() < longitud) {
+            if (!texto.isEmpty()) {
+                texto.append(' ');
+            }
+            // Mayúsculas ocasionales: el servicio pasa la descripción a minúsculas
+            String palabra = PALABRAS_NEUTRAS[random.nextInt(PALABRAS_NEUTRAS.length)];
+            texto.append(random.nextInt(8) == 0 ? palabra.toUpperCase() : palabra);
+        }
+        texto.setLength(longitud);
+        return texto.toString();
+    }
+
+    /**
+     * Búsqueda de PriorizacionService antes del autómata: dos pasadas (prioridad y motivo), cada una pasando la
+     * descripción a minúsculas y con un contains por palabra.
+     */
+    static final class BusquedaPorContains {
+        private final List<String> palabrasCriticas;
+
+        BusquedaPorContains(List<String> palabrasCriticas) {
+            this.palabrasCriticas = palabrasCriticas;
+        }
+
+        Prioridad calcularPrioridad(String descripcion) {
+            String lower = descripcion.toLowerCase();
+            if (lower.contains("accidente") || lower.contains("grave")) {
+                return Prioridad.CRITICA;
+            }
+            for (String palabra : palabrasCriticas) {
+                if (lower.contains(palabra.toLowerCase())) {
+                    return Prioridad.ALTA;
+                }
+            }
+            return Prioridad.MEDIA;
+        }
+
+        String calcularMotivo(String descripcion) {
+            String lower = descripcion.toLowerCase();
+            if (lower.contains("accidente") || lower.contains("grave")) {
+                return "se ha encontrado palabra crítica 'accidente' o 'grave' en el campo descripcion";
+            }
+            for (String palabra : palabrasCriticas) {
+                if (lower.contains(palabra.toLowerCase())) {
+                    return String.format("se ha encontrado literal '%s' en el campo descripcion", palabra);
+                }
+            }
+            return "prioridad por defecto";
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.urbanevents.metricas.service;
+
+import com.urbanevents.metricas.domain.EstadoIncidencia;
+import com.urbanevents.metricas.domain.IncidenciaMetrica;
+import com.urbanevents.metricas.domain.MetricaAgregada;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recalculo de {@link AgregacionMetricasService} que se hace tras cada evento: el bucle de agregación sobre todas
+ * las incidencias de un tipo y prioridad, y los percentiles sobre los tiempos ya ordenados.
+ * En el paquete del servicio para acceder a sus métodos de paquete sin abrirlos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AgregacionMetricasBenchmark {
+    private static final EstadoIncidencia[] ESTADOS = EstadoIncidencia.values();
+
+    // Incidencias de un mismo tipo y prioridad
+    @Param({"100", "10000", "100000"})
+    int incidencias;
+
+    private final AgregacionMetricasService service = new AgregacionMetricasService();
+    private final MetricaAgregada agregada = new MetricaAgregada("alumbrado", "ALTA");
+    private List<IncidenciaMetrica> metricas;
+    private List<Long> tiemposOrdenados;
+
+    @Setup
+    public void preparar() {
+        service.calculoMetricasService = new CalculoMetricasService();
+        Random random = new Random(42);
+        Instant inicio = Instant.parse("2025-03-01T00:00:00Z");
+        metricas = new ArrayList<>(incidencias);
+        for (int i = 0; i < incidencias; i++) {
+            IncidenciaMetrica metrica = new IncidenciaMetrica((long) i, "alumbrado", inicio.plusSeconds(i));
+            metrica.estadoActual = ESTADOS[random.nextInt(ESTADOS.length)];
+            metrica.msPriorizacion = 50L + random.nextInt(5_000);
+            // Dos de cada tres resueltas, entre minutos y días
+            if (random.nextInt(3) > 0) {
+                metrica.msResolucion = 60_000L + (long) (random.nextDouble() * random.nextDouble() * 172_800_000L);
+            }
+            metricas.add(metrica);
+        }
+        tiemposOrdenados = metricas.stream()
+                .map(m -> m.msResolucion)
+                .filter(ms -> ms != null)
+                .sorted()
+                .toList();
+    }
+
+    @Benchmark
+    public MetricaAgregada agregar() {
+        service.agregar(agregada, metricas);
+        return agregada;
+    }
+
+    @Benchmark
+    public void percentiles(Blackhole blackhole) {
+        blackhole.consume(AgregacionMetricasService.percentil(tiemposOrdenados, 50));
+        blackhole.consume(AgregacionMetricasService.percentil(tiemposOrdenados, 95));
+        blackhole.consume(AgregacionMetricasService.percentil(tiemposOrdenados, 99));
+    }
+}
@@ -0,0 +1,45 @@
+package com.urbanevents.notificaciones.observer;
+
+import com.urbanevents.notificaciones.domain.EstadoNotificacion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderizado del email de alerta de {@link NotificacionEmailObserver} (asunto, texto y HTML), una vez por
+ * incidencia notificada. Solo se compila con el perfil notificaciones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlantillaEmailBenchmark {
+    private final Long incidenciaId = 1_234_567L;
+    private final Instant enviadaEn = Instant.parse("2025-03-01T10:15:30.123456Z");
+
+    @Benchmark
+    public String asunto() {
+        return PlantillaEmail.asunto(incidenciaId);
+    }
+
+    @Benchmark
+    public String texto() {
+        return PlantillaEmail.texto(incidenciaId, "email", EstadoNotificacion.NO_ENVIADA, enviadaEn);
+    }
+
+    @Benchmark
+    public String html() {
+        return PlantillaEmail.html(incidenciaId, "email", EstadoNotificacion.NO_ENVIADA, enviadaEn);
+    }
+}
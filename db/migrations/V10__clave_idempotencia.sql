@@ -0,0 +1,10 @@
+-- Migración V10: clave de idempotencia del alta de incidencias (cabecera Idempotency-Key)
+-- Respaldo de la caché en memoria: si dos reintentos llegan a la vez o la caché ya expulsó la clave,
+-- el índice único impide la segunda inserción. Índice parcial: las altas sin clave no ocupan entradas.
+
+ALTER TABLE registro_incidencias.incidencias
+	ADD COLUMN IF NOT EXISTS clave_idempotencia varchar(255) NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_incidencias_clave_idempotencia
+	ON registro_incidencias.incidencias USING btree (clave_idempotencia)
+	WHERE clave_idempotencia IS NOT NULL;
@@ -0,0 +1,40 @@
+-- Migración V11: historial append-only de cambios de estado y prioridad de cada incidencia
+-- Particionada por mes sobre ts: las inserciones solo tocan la partición del mes en curso y las
+-- particiones antiguas se pueden archivar con ALTER TABLE ... DETACH PARTITION sin borrar filas.
+-- Sin FK a incidencias para no añadir una comprobación por fila en la ruta de escritura.
+
+CREATE TABLE IF NOT EXISTS registro_incidencias.incidencia_transiciones (
+	id bigserial NOT NULL,
+	incidencia_id int8 NOT NULL,
+	campo varchar(20) NOT NULL,
+	valor varchar(100) NULL,
+	autor varchar(255) NULL,
+	ts timestamptz DEFAULT now() NOT NULL,
+	CONSTRAINT incidencia_transiciones_pkey PRIMARY KEY (id, ts)
+) PARTITION BY RANGE (ts);
+
+-- Se propaga a todas las particiones; sirve GET /incidencias/{id}/historial
+CREATE INDEX IF NOT EXISTS idx_incidencia_transiciones_incidencia_id_ts
+	ON registro_incidencias.incidencia_transiciones USING btree (incidencia_id, ts);
+
+-- Red de seguridad si falta la partición del mes (no debería recibir filas)
+CREATE TABLE IF NOT EXISTS registro_incidencias.incidencia_transiciones_default
+	PARTITION OF registro_incidencias.incidencia_transiciones DEFAULT;
+
+-- Crea (si no existe) la partición del mes que contiene `mes`, con límites en UTC
+CREATE OR REPLACE FUNCTION registro_incidencias.crear_particion_transiciones(mes date) RETURNS text AS $$
+DECLARE
+	inicio timestamp := date_trunc('month', mes);
+	nombre text := format('incidencia_transiciones_%s', to_char(inicio, 'YYYY_MM'));
+BEGIN
+	EXECUTE format(
+		'CREATE TABLE IF NOT EXISTS registro_incidencias.%I PARTITION OF registro_incidencias.incidencia_transiciones '
+			|| 'FOR VALUES FROM (%L) TO (%L)',
+		nombre, inicio AT TIME ZONE 'UTC', (inicio + interval '1 month') AT TIME ZONE 'UTC');
+	RETURN nombre;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Mes en curso y los dos siguientes; el servicio crea las posteriores (ParticionesTransicionesService)
+SELECT registro_incidencias.crear_particion_transiciones((date_trunc('month', now()) + make_interval(months => m))::date)
+FROM generate_series(0, 2) AS m;
@@ -0,0 +1,12 @@
+-- Migración V12: coordenadas y clave espacial (geohash) de las incidencias, sin PostGIS
+-- ubicacion se mantiene como texto. geohash usa la intercalación "C" para que el orden del índice sea el de los
+-- bytes: todas las celdas con un mismo prefijo quedan contiguas y "dentro de la celda X" es un rango del btree.
+
+ALTER TABLE registro_incidencias.incidencias
+	ADD COLUMN IF NOT EXISTS latitud float8 NULL,
+	ADD COLUMN IF NOT EXISTS longitud float8 NULL,
+	ADD COLUMN IF NOT EXISTS geohash varchar(12) COLLATE "C" NULL;
+
+CREATE INDEX IF NOT EXISTS idx_incidencias_geohash
+	ON registro_incidencias.incidencias USING btree (geohash)
+	WHERE geohash IS NOT NULL;
@@ -0,0 +1,14 @@
+-- Migración V13: búsqueda de texto completo sobre tipo y descripción (GET /incidencias/buscar)
+-- Columna tsvector generada con el diccionario 'spanish' (stemming y stopwords) e índice GIN, en lugar de
+-- LIKE '%...%' con recorrido secuencial. El tipo pesa más (A) que la descripción (B) en la relevancia.
+-- Añadir una columna STORED reescribe la tabla: en tablas grandes, aplicar en una ventana de mantenimiento.
+
+ALTER TABLE registro_incidencias.incidencias
+	ADD COLUMN IF NOT EXISTS busqueda tsvector
+	GENERATED ALWAYS AS (
+		setweight(to_tsvector('spanish', coalesce(tipo, '')), 'A')
+		|| setweight(to_tsvector('spanish', coalesce(descripcion, '')), 'B')
+	) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_incidencias_busqueda
+	ON registro_incidencias.incidencias USING gin (busqueda);
@@ -0,0 +1,6 @@
+-- Migración V14: contador de reportes agrupados por la deduplicación del alta
+-- Varios reportes del mismo tipo, cerca y en pocos minutos se suman a la incidencia existente en lugar de crear otra.
+-- Con DEFAULT constante PostgreSQL no reescribe la tabla.
+
+ALTER TABLE registro_incidencias.incidencias
+	ADD COLUMN IF NOT EXISTS reportes integer NOT NULL DEFAULT 1;
@@ -0,0 +1,7 @@
+-- Migración V15: payload del outbox en binario
+-- El registro codifica cada evento según su versión de esquema (v1 JSON, v2 Smile) y el relay lo publica tal cual.
+-- Las filas pendientes conservan su JSON como bytes UTF-8, que los consumidores siguen leyendo.
+-- La tabla solo contiene eventos aún no publicados, así que reescribirla es inmediato.
+
+ALTER TABLE registro_incidencias.outbox_eventos
+	ALTER COLUMN payload TYPE bytea USING convert_to(payload, 'UTF8');
@@ -0,0 +1,6 @@
+-- Migración V16: cabeceras de Kafka de cada evento del outbox
+-- Copia de EventMetadata (y de los campos de enrutado) que el relay publica como cabeceras para que los
+-- consumidores filtren sin decodificar el payload. Nula en las filas anteriores: se publican sin cabeceras.
+
+ALTER TABLE registro_incidencias.outbox_eventos
+	ADD COLUMN cabeceras jsonb;
@@ -0,0 +1,11 @@
+-- Migración V17: clave de idempotencia de los reportes agrupados
+-- Un alta con Idempotency-Key que la deduplicación suma a una incidencia existente no inserta incidencia: la clave
+-- se guarda en el comentario del reporte, para que un reintento tras expulsarla de la caché (o tras reiniciar) no
+-- cuente como otro reporte. Índice parcial: los comentarios sin clave no ocupan entradas.
+
+ALTER TABLE registro_incidencias.incidencia_comentarios
+	ADD COLUMN IF NOT EXISTS clave_idempotencia varchar(255) NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_incidencia_comentarios_clave_idempotencia
+	ON registro_incidencias.incidencia_comentarios USING btree (clave_idempotencia)
+	WHERE clave_idempotencia IS NOT NULL;
@@ -0,0 +1,27 @@
+-- Migración V6: tabla outbox de registro_incidencias
+-- Los eventos se escriben en la misma transacción que la incidencia y un relay
+-- en segundo plano los publica en Kafka. El trigger avisa al relay con NOTIFY
+-- (una vez por sentencia, y PostgreSQL solo entrega el aviso al hacer commit).
+
+CREATE TABLE IF NOT EXISTS registro_incidencias.outbox_eventos (
+	id bigserial NOT NULL,
+	agregado_id int8 NOT NULL,
+	topic varchar(255) NOT NULL,
+	tipo_evento varchar(100) NOT NULL,
+	payload text NOT NULL,
+	creado_en timestamptz DEFAULT now() NOT NULL,
+	CONSTRAINT outbox_eventos_pkey PRIMARY KEY (id)
+);
+
+CREATE OR REPLACE FUNCTION registro_incidencias.notificar_outbox_eventos() RETURNS trigger AS $$
+BEGIN
+	PERFORM pg_notify('outbox_eventos', '');
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_outbox_eventos_notificar ON registro_incidencias.outbox_eventos;
+CREATE TRIGGER trg_outbox_eventos_notificar
+	AFTER INSERT ON registro_incidencias.outbox_eventos
+	FOR EACH STATEMENT
+	EXECUTE FUNCTION registro_incidencias.notificar_outbox_eventos();
@@ -0,0 +1,18 @@
+-- Migración V7: reserva de identificadores en bloques de 50
+-- registro-incidencias asigna incidenciaId en memoria (GeneradorIdsPorBloques): cada nextval
+-- reserva el rango [valor, valor + 49]. Notificacion e IncidenciaMetrica usan el optimizador
+-- pooled de Hibernate con allocationSize = 50, que exige el mismo INCREMENT BY en la secuencia.
+-- setval deja cada secuencia por encima del id máximo existente, así que los nuevos rangos
+-- nunca se solapan con filas ya insertadas (los huecos que quedan son inofensivos).
+
+ALTER SEQUENCE registro_incidencias.incidencias_seq INCREMENT BY 50;
+SELECT setval('registro_incidencias.incidencias_seq',
+	GREATEST((SELECT COALESCE(MAX(id), 0) FROM registro_incidencias.incidencias), 1));
+
+ALTER SEQUENCE notificaciones.notificaciones_seq INCREMENT BY 50;
+SELECT setval('notificaciones.notificaciones_seq',
+	GREATEST((SELECT COALESCE(MAX(id), 0) FROM notificaciones.notificaciones), 1));
+
+ALTER SEQUENCE metricas.incidencias_metricas_seq INCREMENT BY 50;
+SELECT setval('metricas.incidencias_metricas_seq',
+	GREATEST((SELECT COALESCE(MAX(id), 0) FROM metricas.incidencias_metricas), 1));
@@ -0,0 +1,12 @@
+-- Migración V8: registro de comentarios append-only
+-- Cada comentario es una fila propia con autor y fecha; se añade con un único INSERT
+-- y se consulta paginado por incidencia (índice incidencia_id, id).
+
+ALTER TABLE registro_incidencias.incidencia_comentarios
+	ALTER COLUMN comentario TYPE varchar(2000),
+	ADD COLUMN IF NOT EXISTS autor varchar(255) NULL,
+	ADD COLUMN IF NOT EXISTS creado_en timestamptz DEFAULT now() NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_incidencia_comentarios_incidencia_id_id
+	ON registro_incidencias.incidencia_comentarios USING btree (incidencia_id, id);
+DROP INDEX IF EXISTS registro_incidencias.idx_incidencia_comentarios_incidencia_id;
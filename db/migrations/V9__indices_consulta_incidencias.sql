@@ -0,0 +1,17 @@
+-- Migración V9: índices para GET /incidencias (paginación keyset sobre (creada_en, id) descendente)
+-- Un índice por filtro con la clave de orden detrás: con igualdad sobre la primera columna, la condición
+-- (creada_en, id) < (?, ?) y el ORDER BY se resuelven recorriendo el índice, sin ordenar ni saltar filas.
+
+UPDATE registro_incidencias.incidencias SET creada_en = now() WHERE creada_en IS NULL;
+ALTER TABLE registro_incidencias.incidencias ALTER COLUMN creada_en SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_incidencias_creada_en_id
+	ON registro_incidencias.incidencias USING btree (creada_en DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_incidencias_tipo_creada_en_id
+	ON registro_incidencias.incidencias USING btree (tipo, creada_en DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_incidencias_estado_creada_en_id
+	ON registro_incidencias.incidencias USING btree (estado, creada_en DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_incidencias_prioridad_creada_en_id
+	ON registro_incidencias.incidencias USING btree (prioridad, creada_en DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_incidencias_origen_creada_en_id
+	ON registro_incidencias.incidencias USING btree (origen, creada_en DESC, id DESC);
@@ -0,0 +1,224 @@
+package com.urbanevents.carga;
+
+import com.urbanevents.events.EventoIncidencia;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.IncidenciaNotificadaEvent;
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.codec.CodecEventos;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lee incidencias.creadas, incidencias.priorizadas e incidencias.notificadas desde el final (sin grupo de
+ * consumidores, para no interferir con los servicios) y anota en la {@link Traza} de cada incidencia el
+ * {@code EventMetadata.timestamp} de cada evento. Con las trazas de un paso calcula un histograma por {@link Etapa}.
+ * Los instantes los ponen procesos distintos, así que las latencias solo son fiables con todo en la misma máquina
+ * (o con relojes sincronizados).
+ */
+final class Correlador implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(Correlador.class);
+    private static final List<String> TOPICS =
+            List.of(Topics.INCIDENCIAS_CREADAS, Topics.INCIDENCIAS_PRIORIZADAS, Topics.INCIDENCIAS_NOTIFICADAS);
+
+    private final Map<Long, Traza> trazas = new ConcurrentHashMap<>();
+    private final CodecEventos codec = CodecEventos.compartido();
+    private final AtomicLong ilegibles = new AtomicLong();
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final Thread hilo;
+    private volatile boolean cerrado;
+
+    Correlador(String bootstrapServers) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000);
+        consumer = new KafkaConsumer<>(props);
+
+        List<TopicPartition> particiones = new ArrayList<>();
+        for (String topic : TOPICS) {
+            List<PartitionInfo> info = consumer.partitionsFor(topic, Duration.ofSeconds(30));
+            if (info == null || info.isEmpty()) {
+                throw new IllegalStateException("No existe el topic " + topic);
+            }
+            info.forEach(p -> particiones.add(new TopicPartition(p.topic(), p.partition())));
+        }
+        consumer.assign(particiones);
+        consumer.seekToEnd(particiones);
+        // Resolver ya las posiciones: lo que se publique a partir de aquí se lee entero
+        particiones.forEach(consumer::position);
+
+        hilo = Thread.ofPlatform().name("correlador").daemon().start(this::consumir);
+    }
+
+    /**
+     * La incidencia {@code incidenciaId} la ha enviado este generador en el paso {@code paso}; {@code envio} es
+     * nulo cuando no hay petición HTTP que medir (modo kafka).
+     */
+    void enviada(long incidenciaId, int paso, Instant envio) {
+        Traza traza = traza(incidenciaId);
+        if (envio != null) {
+            traza.marcar(Hito.ENVIO, envio);
+        }
+        traza.enviadaEnPaso(paso);
+    }
+
+    void email(long incidenciaId, Instant recibido) {
+        traza(incidenciaId).marcar(Hito.EMAIL, recibido);
+    }
+
+    /**
+     * Incidencias del paso a las que aún les falta algún hito.
+     */
+    long abiertas(int paso, boolean conEmail) {
+        return trazas.values().stream()
+                .filter(t -> t.paso() == paso && !t.cerrada(conEmail))
+                .count();
+    }
+
+    /**
+     * Resumen del paso: cuántas incidencias llegaron a cada hito y un histograma (en microsegundos) por etapa.
+     */
+    ResultadoPaso resultado(int paso) {
+        Map<Hito, Long> conteos = new EnumMap<>(Hito.class);
+        Map<Etapa, Histogram> histogramas = new EnumMap<>(Etapa.class);
+        long enviadas = 0;
+        long altas = 0;
+        long primeraCreada = Long.MAX_VALUE;
+        long ultimaPriorizada = 0;
+        for (Traza traza : trazas.values()) {
+            if (traza.paso() != paso) {
+                continue;
+            }
+            enviadas++;
+            if (traza.seNotifica()) {
+                altas++;
+            }
+            for (Hito hito : Hito.values()) {
+                if (traza.tiene(hito)) {
+                    conteos.merge(hito, 1L, Long::sum);
+                }
+            }
+            for (Etapa etapa : Etapa.values()) {
+                if (traza.tiene(etapa.desde) && traza.tiene(etapa.hasta)) {
+                    // Relojes de procesos distintos: una diferencia negativa de pocos µs se cuenta como 0
+                    long micros = Math.max(0, traza.micros(etapa.hasta) - traza.micros(etapa.desde));
+                    histogramas.computeIfAbsent(etapa, e -> new Histogram(3)).recordValue(micros);
+                }
+            }
+            if (traza.tiene(Hito.CREADA) && traza.tiene(Hito.PRIORIZADA)) {
+                primeraCreada = Math.min(primeraCreada, traza.micros(Hito.CREADA));
+                ultimaPriorizada = Math.max(ultimaPriorizada, traza.micros(Hito.PRIORIZADA));
+            }
+        }
+        double segundosPriorizando = ultimaPriorizada > primeraCreada
+                ? (ultimaPriorizada - primeraCreada) / 1e6
+                : 0;
+        return new ResultadoPaso(paso, enviadas, altas, conteos, histogramas, segundosPriorizando);
+    }
+
+    long ilegibles() {
+        return ilegibles.get();
+    }
+
+    private Traza traza(long incidenciaId) {
+        return trazas.computeIfAbsent(incidenciaId, id -> new Traza());
+    }
+
+    private void consumir() {
+        try {
+            while (!cerrado) {
+                ConsumerRecords<String, byte[]> registros = consumer.poll(Duration.ofMillis(100));
+                for (ConsumerRecord<String, byte[]> registro : registros) {
+                    anotar(registro);
+                }
+            }
+        } catch (WakeupException e) {
+            if (!cerrado) {
+                throw e;
+            }
+        } finally {
+            consumer.close(Duration.ofSeconds(5));
+        }
+    }
+
+    private void anotar(ConsumerRecord<String, byte[]> registro) {
+        if (registro.value() == null) {
+            return;
+        }
+        try {
+            switch (registro.topic()) {
+                case Topics.INCIDENCIAS_CREADAS ->
+                        marcar(codec.decodificar(registro.value(), IncidenciaCreadaEvent.class), Hito.CREADA);
+                case Topics.INCIDENCIAS_PRIORIZADAS -> {
+                    IncidenciaPriorizadaEvent evento =
+                            codec.decodificar(registro.value(), IncidenciaPriorizadaEvent.class);
+                    // La prioridad antes que el hito: quien vea la traza priorizada ya sabe si se notifica
+                    traza(evento.incidenciaId()).prioridad(evento.prioridad());
+                    marcar(evento, Hito.PRIORIZADA);
+                }
+                case Topics.INCIDENCIAS_NOTIFICADAS ->
+                        marcar(codec.decodificar(registro.value(), IncidenciaNotificadaEvent.class), Hito.NOTIFICADA);
+                default -> {
+                }
+            }
+        } catch (RuntimeException e) {
+            if (ilegibles.getAndIncrement() == 0) {
+                logger.warn("Evento ilegible en {} (se ignoran los siguientes): {}", registro.topic(), e.getMessage());
+            }
+        }
+    }
+
+    private void marcar(EventoIncidencia evento, Hito hito) {
+        if (evento.incidenciaId() == null || evento.metadata() == null || evento.metadata().timestamp() == null) {
+            ilegibles.incrementAndGet();
+            return;
+        }
+        traza(evento.incidenciaId()).marcar(hito, evento.metadata().timestamp());
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        cerrado = true;
+        consumer.wakeup();
+        hilo.join(10_000);
+    }
+
+    /**
+     * Resultado de un paso. {@code segundosPriorizando} va del primer alta a la última priorización: las
+     * incidencias priorizadas entre ese tiempo dan el ritmo que ha sostenido el pipeline.
+     */
+    record ResultadoPaso(int paso, long enviadas, long altas, Map<Hito, Long> conteos,
+                         Map<Etapa, Histogram> histogramas, double segundosPriorizando) {
+
+        long conteo(Hito hito) {
+            return conteos.getOrDefault(hito, 0L);
+        }
+
+        double priorizadasPorSegundo() {
+            return segundosPriorizando == 0 ? 0 : conteo(Hito.PRIORIZADA) / segundosPriorizando;
+        }
+    }
+}
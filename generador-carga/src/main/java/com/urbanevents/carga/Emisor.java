@@ -0,0 +1,26 @@
+package com.urbanevents.carga;
+
+import java.util.Map;
+
+/**
+ * Envía al pipeline las incidencias que genera la carga, sin esperar a que termine cada envío (carga en bucle
+ * abierto: el ritmo lo marca el generador, no la respuesta del sistema). Cada incidencia enviada se da de alta
+ * en el {@link Correlador} con su id y el paso en curso.
+ */
+interface Emisor extends AutoCloseable {
+
+    void enviar(long secuencia, PerfilCarga.IncidenciaGenerada incidencia, int paso);
+
+    /**
+     * Envíos fallidos por causa (código HTTP, excepción...).
+     */
+    Map<String, Long> errores();
+
+    /**
+     * Espera a que terminen los envíos en curso (al acabar cada paso, antes de esperar a los eventos).
+     */
+    void esperar() throws InterruptedException;
+
+    @Override
+    void close() throws InterruptedException;
+}
@@ -0,0 +1,116 @@
+package com.urbanevents.carga;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.codec.CodecEventos;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Da de alta las incidencias con POST /incidencias. El id sale del IncidenciaCreada que devuelve la respuesta.
+ * Las peticiones en vuelo están acotadas: si el servicio no responde al ritmo pedido, los envíos que no caben se
+ * cuentan como error "saturado" en lugar de frenar el ritmo (lo que ocultaría la latencia real).
+ */
+final class EmisorHttp implements Emisor {
+    private final HttpClient client;
+    private final URI uri;
+    private final Correlador correlador;
+    private final CodecEventos codec = CodecEventos.compartido();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int maxEnVuelo;
+    private final Semaphore enVuelo;
+    private final Map<String, LongAdder> errores = new ConcurrentHashMap<>();
+
+    EmisorHttp(String url, int maxEnVuelo, Correlador correlador) {
+        this.uri = URI.create(url);
+        this.correlador = correlador;
+        this.maxEnVuelo = maxEnVuelo;
+        this.enVuelo = new Semaphore(maxEnVuelo);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @Override
+    public void enviar(long secuencia, PerfilCarga.IncidenciaGenerada incidencia, int paso) {
+        if (!enVuelo.tryAcquire()) {
+            error("saturado");
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(cuerpo(incidencia)))
+                .build();
+        Instant envio = Instant.now();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((respuesta, fallo) -> {
+                    try {
+                        if (fallo != null) {
+                            error(fallo.getClass().getSimpleName());
+                        } else if (respuesta.statusCode() / 100 != 2) {
+                            error("HTTP " + respuesta.statusCode());
+                        } else {
+                            IncidenciaCreadaEvent creada =
+                                    codec.decodificar(respuesta.body(), IncidenciaCreadaEvent.class);
+                            correlador.enviada(creada.incidenciaId(), paso, envio);
+                        }
+                    } catch (RuntimeException e) {
+                        error(e.getClass().getSimpleName());
+                    } finally {
+                        enVuelo.release();
+                    }
+                });
+    }
+
+    private byte[] cuerpo(PerfilCarga.IncidenciaGenerada incidencia) {
+        try {
+            return mapper.writeValueAsBytes(Map.of(
+                    "tipo", incidencia.tipo(),
+                    "descripcion", incidencia.descripcion(),
+                    "origen", incidencia.origen(),
+                    "ubicacion", incidencia.ubicacion()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void error(String causa) {
+        errores.computeIfAbsent(causa, c -> new LongAdder()).increment();
+    }
+
+    @Override
+    public Map<String, Long> errores() {
+        Map<String, Long> copia = new TreeMap<>();
+        errores.forEach((causa, n) -> copia.put(causa, n.sum()));
+        return copia;
+    }
+
+    @Override
+    public void esperar() throws InterruptedException {
+        if (enVuelo.tryAcquire(maxEnVuelo, 60, TimeUnit.SECONDS)) {
+            enVuelo.release(maxEnVuelo);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        esperar();
+        client.close();
+    }
+}
@@ -0,0 +1,83 @@
+package com.urbanevents.carga;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.EventoIncidencia;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.codec.SerializadorEvento;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publica IncidenciaCreada directamente en incidencias.creadas, sin pasar por registro: mide priorización y
+ * notificaciones aislados. Los ids parten de {@code idBase} para no chocar con los de registro; el evento se
+ * codifica como lo haría registro (formato según {@code versionEsquema}, cabeceras de CabecerasEvento).
+ */
+final class EmisorKafka implements Emisor {
+    private final KafkaProducer<String, EventoIncidencia> producer;
+    private final Correlador correlador;
+    private final long idBase;
+    private final String versionEsquema;
+    private final Map<String, LongAdder> errores = new ConcurrentHashMap<>();
+
+    EmisorKafka(String bootstrapServers, long idBase, String versionEsquema, Correlador correlador) {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SerializadorEvento.class);
+        // Misma configuración que el productor del outbox de registro
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd");
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+        this.producer = new KafkaProducer<>(props);
+        this.correlador = correlador;
+        this.idBase = idBase;
+        this.versionEsquema = versionEsquema;
+    }
+
+    @Override
+    public void enviar(long secuencia, PerfilCarga.IncidenciaGenerada incidencia, int paso) {
+        long id = idBase + secuencia;
+        Instant ahora = Instant.now();
+        EventMetadata metadata = new EventMetadata(UUID.randomUUID().toString(), "IncidenciaCreada", ahora,
+                PerfilCarga.ORIGEN, versionEsquema, "REGISTRADA");
+        IncidenciaCreadaEvent evento = new IncidenciaCreadaEvent(metadata, id, incidencia.tipo(),
+                incidencia.descripcion(), incidencia.origen(), incidencia.ubicacion(), ahora);
+        // Antes del envío: el evento puede leerse de vuelta antes de que vuelva el callback
+        correlador.enviada(id, paso, null);
+        producer.send(new ProducerRecord<>(Topics.INCIDENCIAS_CREADAS, evento.clave(), evento), (meta, fallo) -> {
+            if (fallo != null) {
+                errores.computeIfAbsent(fallo.getClass().getSimpleName(), c -> new LongAdder()).increment();
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Long> errores() {
+        Map<String, Long> copia = new TreeMap<>();
+        errores.forEach((causa, n) -> copia.put(causa, n.sum()));
+        return copia;
+    }
+
+    @Override
+    public void esperar() {
+        producer.flush();
+    }
+
+    @Override
+    public void close() {
+        producer.close(Duration.ofSeconds(30));
+    }
+}
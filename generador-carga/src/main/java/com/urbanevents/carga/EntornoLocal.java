@@ -0,0 +1,109 @@
+package com.urbanevents.carga;
+
+import com.urbanevents.events.Topics;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Sustitutos en proceso de la infraestructura de docker-compose para medir el pipeline en una sola máquina Linux:
+ * un broker Kafka en modo KRaft con los topics de incidencias ya creados y un PostgreSQL embebido con la base
+ * urban-events, el usuario pguser/localpass y las migraciones de db/migrations aplicadas. El SMTP lo pone
+ * {@link SumideroSmtp}. PostgreSQL embebido no arranca como root (initdb lo rechaza).
+ */
+final class EntornoLocal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(EntornoLocal.class);
+    static final String BASE_DATOS = "urban-events";
+    static final String USUARIO = "pguser";
+    static final String CONTRASENA = "localpass";
+
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final EmbeddedPostgres postgres;
+
+    private EntornoLocal(EmbeddedKafkaKraftBroker kafka, EmbeddedPostgres postgres) {
+        this.kafka = kafka;
+        this.postgres = postgres;
+    }
+
+    /**
+     * Arranca Kafka y PostgreSQL en los puertos indicados (0 = libre) y aplica las migraciones.
+     */
+    static EntornoLocal iniciar(int puertoKafka, int puertoPostgres, int particiones, Path migraciones)
+            throws IOException, SQLException {
+        if (!Files.isDirectory(migraciones)) {
+            throw new IllegalArgumentException("No existe el directorio de migraciones " + migraciones.toAbsolutePath()
+                    + " (opción --migraciones)");
+        }
+        // Mismas particiones que registro.topics.particiones: la clave reparte las incidencias entre consumidores
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, particiones,
+                Topics.TODOS.toArray(String[]::new));
+        if (puertoKafka > 0) {
+            kafka.kafkaPorts(puertoKafka);
+        }
+        kafka.brokerProperty("group.initial.rebalance.delay.ms", "0");
+        kafka.afterPropertiesSet();
+        logger.info("Kafka embebido en {}", kafka.getBrokersAsString());
+
+        EmbeddedPostgres postgres;
+        try {
+            postgres = EmbeddedPostgres.builder().setPort(puertoPostgres).start();
+        } catch (IOException | RuntimeException e) {
+            kafka.destroy();
+            throw e;
+        }
+        EntornoLocal entorno = new EntornoLocal(kafka, postgres);
+        try {
+            entorno.prepararBaseDatos(migraciones);
+        } catch (SQLException | RuntimeException e) {
+            entorno.close();
+            throw e;
+        }
+        logger.info("PostgreSQL embebido en {}", entorno.jdbcUrl());
+        return entorno;
+    }
+
+    private void prepararBaseDatos(Path migraciones) throws SQLException {
+        try (Connection conexion = postgres.getPostgresDatabase().getConnection();
+             Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("CREATE ROLE " + USUARIO + " LOGIN SUPERUSER PASSWORD '" + CONTRASENA + "'");
+            sentencia.execute("CREATE DATABASE \"" + BASE_DATOS + "\" OWNER " + USUARIO);
+        }
+        Flyway.configure()
+                .dataSource(jdbcUrl(), USUARIO, CONTRASENA)
+                // db/carga/beforeMigrate.sql crea lo que V2 y V5 usan antes de crearlo
+                .locations("filesystem:" + migraciones.toAbsolutePath(), "classpath:db/carga")
+                .load()
+                .migrate();
+    }
+
+    String bootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    int puertoPostgres() {
+        return postgres.getPort();
+    }
+
+    String jdbcUrl() {
+        return "jdbc:postgresql://localhost:" + postgres.getPort() + "/" + BASE_DATOS;
+    }
+
+    @Override
+    public void close() {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            logger.warn("Error parando PostgreSQL embebido: {}", e.getMessage());
+        }
+        kafka.destroy();
+    }
+}
@@ -0,0 +1,25 @@
+package com.urbanevents.carga;
+
+/**
+ * Tramos del pipeline de los que se obtiene un histograma de latencia: la diferencia entre dos {@link Hito}
+ * de la misma incidencia. Solo cuentan las incidencias en las que están los dos.
+ */
+enum Etapa {
+    ENVIO_CREADA("envio -> creada", Hito.ENVIO, Hito.CREADA),
+    CREADA_PRIORIZADA("creada -> priorizada", Hito.CREADA, Hito.PRIORIZADA),
+    PRIORIZADA_NOTIFICADA("priorizada -> notificada", Hito.PRIORIZADA, Hito.NOTIFICADA),
+    NOTIFICADA_EMAIL("notificada -> email", Hito.NOTIFICADA, Hito.EMAIL),
+    // Extremo a extremo: del alta al evento de notificación
+    CREADA_NOTIFICADA("creada -> notificada", Hito.CREADA, Hito.NOTIFICADA),
+    ENVIO_EMAIL("envio -> email", Hito.ENVIO, Hito.EMAIL);
+
+    final String nombre;
+    final Hito desde;
+    final Hito hasta;
+
+    Etapa(String nombre, Hito desde, Hito hasta) {
+        this.nombre = nombre;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+}
@@ -0,0 +1,254 @@
+package com.urbanevents.carga;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.common.ConsumerGroupState;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga del pipeline completo (registro → priorización → notificaciones) y medición de latencias por
+ * etapa a partir del {@code EventMetadata.timestamp} de cada evento.
+ *
+ * <pre>
+ * local  arranca Kafka, PostgreSQL y un sumidero SMTP en el propio proceso, escribe sus puertos en --entorno
+ *        (fichero para "source" de shell), espera a que los servicios se conecten y lanza la carga
+ * carga  lanza la carga contra una infraestructura ya en marcha (docker compose), sin medir el email
+ * </pre>
+ *
+ * La carga se hace por pasos de {@code --duracion}, uno por cada ritmo de {@code --tasas}, en bucle abierto. Tras
+ * cada paso se esperan los eventos pendientes (hasta {@code --espera-final}) y se imprime el informe. Ver
+ * scripts/carga-pipeline.sh para arrancar los servicios contra el modo local.
+ */
+public final class GeneradorCarga {
+    private static final String PALABRAS_POR_DEFECTO = "incendio,explosion,explosivo,heridos,urgente";
+
+    private GeneradorCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !List.of("local", "carga").contains(args[0])) {
+            System.err.println("""
+                    Uso: java -jar generador-carga.jar local|carga [--opcion=valor ...]
+                      --modo-envio=http|kafka      POST /incidencias o IncidenciaCreada directo a incidencias.creadas (http)
+                      --url=URL                    alta de incidencias (http://localhost:8081/incidencias)
+                      --tasas=50,100               incidencias por segundo de cada paso (50)
+                      --duracion=60s               duración de cada paso (60s)
+                      --calentamiento=10s          carga previa que no se mide (10s)
+                      --espera-final=60s           espera máxima a los eventos pendientes tras cada paso (60s)
+                      --tipos=alumbrado:4,...      mezcla de tipos con pesos (alumbrado:4,limpieza:3,seguridad:2,trafico:1)
+                      --densidad-palabras=0.2      fracción de descripciones con palabra clave (ALTA, se notifican)
+                      --palabras=a,b               palabras clave (las de priorizacion.palabras-criticas)
+                      --version-esquema=v1         formato de los eventos en modo kafka (v1 JSON, v2 Smile)
+                      --salida=DIR                 resumen.csv e histogramas .hgrm por paso y etapa
+                    carga:
+                      --kafka=HOST:PUERTO          bootstrap de Kafka (localhost:9092)
+                    local:
+                      --entorno=FICHERO            puertos de los sustitutos (target/entorno.env)
+                      --migraciones=DIR            migraciones Flyway (db/migrations)
+                      --puerto-kafka, --puerto-postgres, --puerto-smtp  (0: libre)
+                      --grupos=g1,g2               grupos de consumidores a esperar
+                                                   (priorizacion-service,notificaciones-quarkus-service)
+                      --espera-servicios=180s      espera máxima a que arranquen los servicios""");
+            System.exit(2);
+        }
+        Opciones opciones = Opciones.de(Arrays.copyOfRange(args, 1, args.length));
+        if (args[0].equals("local")) {
+            local(opciones);
+        } else {
+            String kafka = opciones.texto("kafka", "localhost:9092");
+            try (Correlador correlador = new Correlador(kafka)) {
+                ejecutar(opciones, kafka, correlador, false);
+            }
+        }
+    }
+
+    private static void local(Opciones opciones) throws Exception {
+        Path migraciones = Path.of(opciones.texto("migraciones", "db/migrations"));
+        try (EntornoLocal entorno = EntornoLocal.iniciar(opciones.entero("puerto-kafka", 0),
+                opciones.entero("puerto-postgres", 0), opciones.entero("particiones", 3), migraciones);
+             Correlador correlador = new Correlador(entorno.bootstrapServers());
+             SumideroSmtp smtp = new SumideroSmtp(opciones.entero("puerto-smtp", 0), correlador::email)) {
+            Path fichero = Path.of(opciones.texto("entorno", "target/entorno.env"));
+            escribirEntorno(fichero, Map.of(
+                    "KAFKA_BOOTSTRAP", entorno.bootstrapServers(),
+                    "PG_PUERTO", Integer.toString(entorno.puertoPostgres()),
+                    "JDBC_URL", entorno.jdbcUrl(),
+                    "SMTP_PUERTO", Integer.toString(smtp.puerto())));
+            System.out.println("Entorno local listo, puertos en " + fichero.toAbsolutePath());
+
+            boolean http = opciones.texto("modo-envio", "http").equals("http");
+            esperarServicios(entorno.bootstrapServers(),
+                    List.of(opciones.texto("grupos", "priorizacion-service,notificaciones-quarkus-service").split(",")),
+                    http ? urlSalud(opciones.texto("url", "http://localhost:8081/incidencias")) : null,
+                    opciones.duracion("espera-servicios", Duration.ofSeconds(180)));
+            ejecutar(opciones, entorno.bootstrapServers(), correlador, true);
+            System.out.println("Emails recibidos por el sumidero SMTP: " + smtp.recibidos());
+        }
+    }
+
+    private static void ejecutar(Opciones opciones, String kafka, Correlador correlador, boolean conEmail)
+            throws Exception {
+        PerfilCarga perfil = new PerfilCarga(
+                opciones.texto("tipos", "alumbrado:4,limpieza:3,seguridad:2,trafico:1"),
+                List.of(opciones.texto("palabras", PALABRAS_POR_DEFECTO).split(",")),
+                opciones.decimal("densidad-palabras", 0.2),
+                opciones.entero("semilla", 42));
+        double[] tasas = Arrays.stream(opciones.texto("tasas", "50").split(","))
+                .mapToDouble(t -> Double.parseDouble(t.trim()))
+                .toArray();
+        Duration duracion = opciones.duracion("duracion", Duration.ofSeconds(60));
+        Duration calentamiento = opciones.duracion("calentamiento", Duration.ofSeconds(10));
+        Duration esperaFinal = opciones.duracion("espera-final", Duration.ofSeconds(60));
+        String salida = opciones.texto("salida", null);
+        Informe informe = new Informe(System.out, salida == null ? null : Path.of(salida));
+
+        try (Emisor emisor = emisor(opciones, kafka, correlador)) {
+            long secuencia = 0;
+            if (!calentamiento.isZero()) {
+                // Paso 0: JIT, pools de conexiones y asignación de particiones; no se informa
+                secuencia = paso(emisor, perfil, tasas[0], calentamiento, 0, secuencia);
+                emisor.esperar();
+                esperarCierre(correlador, 0, conEmail, esperaFinal);
+            }
+            Map<String, Long> erroresPrevios = emisor.errores();
+            for (int i = 0; i < tasas.length; i++) {
+                int paso = i + 1;
+                secuencia = paso(emisor, perfil, tasas[i], duracion, paso, secuencia);
+                emisor.esperar();
+                long abiertas = esperarCierre(correlador, paso, conEmail, esperaFinal);
+                Map<String, Long> errores = emisor.errores();
+                informe.paso(correlador.resultado(paso), tasas[i], duracion.toSeconds(),
+                        diferencia(errores, erroresPrevios), abiertas);
+                erroresPrevios = errores;
+            }
+        }
+        if (correlador.ilegibles() > 0) {
+            System.out.println("Eventos que no se pudieron leer: " + correlador.ilegibles());
+        }
+    }
+
+    private static Emisor emisor(Opciones opciones, String kafka, Correlador correlador) {
+        if (opciones.texto("modo-envio", "http").equals("kafka")) {
+            // Por defecto ids muy por encima de los de registro
+            long idBase = Long.parseLong(opciones.texto("id-base", Long.toString(System.currentTimeMillis() * 1000)));
+            return new EmisorKafka(kafka, idBase, opciones.texto("version-esquema", "v1"), correlador);
+        }
+        return new EmisorHttp(opciones.texto("url", "http://localhost:8081/incidencias"),
+                opciones.entero("max-en-vuelo", 2000), correlador);
+    }
+
+    /**
+     * Envía a ritmo constante durante {@code duracion}. Si un envío se retrasa, los siguientes salen seguidos
+     * hasta recuperar el calendario: el ritmo ofrecido no depende de lo rápido que responda el sistema.
+     */
+    private static long paso(Emisor emisor, PerfilCarga perfil, double tasa, Duration duracion, int paso,
+                             long secuencia) {
+        long intervalo = (long) (1_000_000_000L / tasa);
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+        for (long i = 0; ; i++) {
+            long objetivo = inicio + i * intervalo;
+            if (objetivo >= fin) {
+                return secuencia;
+            }
+            long espera = objetivo - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            emisor.enviar(secuencia, perfil.siguiente(secuencia), paso);
+            secuencia++;
+        }
+    }
+
+    private static long esperarCierre(Correlador correlador, int paso, boolean conEmail, Duration maximo)
+            throws InterruptedException {
+        long limite = System.nanoTime() + maximo.toNanos();
+        long abiertas = correlador.abiertas(paso, conEmail);
+        while (abiertas > 0 && System.nanoTime() < limite) {
+            Thread.sleep(500);
+            abiertas = correlador.abiertas(paso, conEmail);
+        }
+        return abiertas;
+    }
+
+    /**
+     * Espera a que los consumidores de los servicios tengan particiones asignadas (leen desde el final, así que
+     * lo publicado antes se perdería) y, en modo http, a que registro responda.
+     */
+    private static void esperarServicios(String kafka, List<String> grupos, URI salud, Duration maximo)
+            throws InterruptedException, ExecutionException {
+        long limite = System.nanoTime() + maximo.toNanos();
+        System.out.println("Esperando a los servicios (grupos " + grupos + (salud == null ? "" : ", " + salud) + ")");
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafka));
+             HttpClient client = HttpClient.newHttpClient()) {
+            while (true) {
+                boolean listos = true;
+                for (ConsumerGroupDescription grupo : admin.describeConsumerGroups(grupos).all().get().values()) {
+                    listos &= grupo.state() == ConsumerGroupState.STABLE && !grupo.members().isEmpty();
+                }
+                if (listos && salud != null) {
+                    listos = responde(client, salud);
+                }
+                if (listos) {
+                    return;
+                }
+                if (System.nanoTime() > limite) {
+                    throw new IllegalStateException("Los servicios no están listos tras " + maximo.toSeconds() + " s");
+                }
+                Thread.sleep(1000);
+            }
+        }
+    }
+
+    private static boolean responde(HttpClient client, URI uri) throws InterruptedException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(2)).GET().build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static URI urlSalud(String urlAlta) {
+        return URI.create(urlAlta).resolve("/actuator/health");
+    }
+
+    private static void escribirEntorno(Path fichero, Map<String, String> valores) throws IOException {
+        StringBuilder contenido = new StringBuilder();
+        valores.forEach((clave, valor) -> contenido.append(clave).append('=').append(valor).append('\n'));
+        Path absoluto = fichero.toAbsolutePath();
+        Files.createDirectories(absoluto.getParent());
+        // Escritura atómica: el script espera a que exista el fichero y lo lee entero
+        Path temporal = Files.createTempFile(absoluto.getParent(), "entorno", ".tmp");
+        Files.writeString(temporal, contenido, StandardCharsets.UTF_8);
+        Files.move(temporal, absoluto, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Map<String, Long> diferencia(Map<String, Long> actual, Map<String, Long> anterior) {
+        Map<String, Long> resultado = new HashMap<>();
+        actual.forEach((causa, n) -> {
+            long delta = n - anterior.getOrDefault(causa, 0L);
+            if (delta > 0) {
+                resultado.put(causa, delta);
+            }
+        });
+        return resultado;
+    }
+}
@@ -0,0 +1,18 @@
+package com.urbanevents.carga;
+
+/**
+ * Momentos de una incidencia que se registran en su {@link Traza}. Salvo {@link #ENVIO} y {@link #EMAIL}, que
+ * anota el propio generador, son el {@code EventMetadata.timestamp} del evento correspondiente.
+ */
+enum Hito {
+    /** Petición POST /incidencias enviada (solo en modo http). */
+    ENVIO,
+    /** IncidenciaCreada, fijado por registro al dar de alta (o por el generador en modo kafka). */
+    CREADA,
+    /** IncidenciaPriorizada, fijado por priorización. */
+    PRIORIZADA,
+    /** IncidenciaNotificada, fijado por notificaciones. */
+    NOTIFICADA,
+    /** Email recibido por el sumidero SMTP (solo en modo local). */
+    EMAIL
+}
@@ -0,0 +1,83 @@
+package com.urbanevents.carga;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Presenta el resultado de cada paso: por consola una tabla de percentiles por etapa y, si hay directorio de
+ * salida, un CSV con una fila por paso y etapa (resumen.csv) y la distribución completa de cada histograma en
+ * formato .hgrm (se puede dibujar con el plotter de HdrHistogram).
+ */
+final class Informe {
+    private static final String CABECERA_CSV =
+            "paso,tasa_objetivo,enviadas,errores,priorizadas_por_s,etapa,n,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+
+    private final PrintStream consola;
+    private final Path salida;
+
+    Informe(PrintStream consola, Path salida) throws IOException {
+        this.consola = consola;
+        this.salida = salida;
+        if (salida != null) {
+            Files.createDirectories(salida);
+            Path resumen = salida.resolve("resumen.csv");
+            if (!Files.exists(resumen)) {
+                Files.writeString(resumen, CABECERA_CSV + "\n", StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    void paso(Correlador.ResultadoPaso resultado, double tasa, long segundos, Map<String, Long> errores, long abiertas)
+            throws IOException {
+        long totalErrores = errores.values().stream().mapToLong(Long::longValue).sum();
+        consola.printf(Locale.ROOT, "%n== Paso %d: %.0f incidencias/s durante %d s%n", resultado.paso(), tasa, segundos);
+        consola.printf(Locale.ROOT, "enviadas %d, errores %d%s, priorizadas como ALTA %d%n",
+                resultado.enviadas(), totalErrores, errores.isEmpty() ? "" : " " + errores, resultado.altas());
+        consola.printf(Locale.ROOT, "creadas %d, priorizadas %d, notificadas %d, emails %d, sin completar %d%n",
+                resultado.conteo(Hito.CREADA), resultado.conteo(Hito.PRIORIZADA), resultado.conteo(Hito.NOTIFICADA),
+                resultado.conteo(Hito.EMAIL), abiertas);
+        consola.printf(Locale.ROOT, "ritmo sostenido por priorizacion: %.1f incidencias/s%n",
+                resultado.priorizadasPorSegundo());
+        consola.printf(Locale.ROOT, "%-26s %8s %10s %10s %10s %10s %10s%n",
+                "etapa (ms)", "n", "p50", "p90", "p99", "p99.9", "max");
+        for (Etapa etapa : Etapa.values()) {
+            Histogram h = resultado.histogramas().get(etapa);
+            if (h == null) {
+                continue;
+            }
+            consola.printf(Locale.ROOT, "%-26s %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    etapa.nombre, h.getTotalCount(), ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9),
+                    h.getMaxValue() / 1000.0);
+            if (salida != null) {
+                escribir(resultado, tasa, totalErrores, etapa, h);
+            }
+        }
+    }
+
+    private void escribir(Correlador.ResultadoPaso resultado, double tasa, long errores, Etapa etapa, Histogram h)
+            throws IOException {
+        String fila = String.format(Locale.ROOT, "%d,%.1f,%d,%d,%.1f,%s,%d,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                resultado.paso(), tasa, resultado.enviadas(), errores, resultado.priorizadasPorSegundo(),
+                etapa.name().toLowerCase(Locale.ROOT), h.getTotalCount(), ms(h, 50), ms(h, 90), ms(h, 99),
+                ms(h, 99.9), h.getMaxValue() / 1000.0);
+        Files.writeString(salida.resolve("resumen.csv"), fila, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        Path hgrm = salida.resolve("paso" + resultado.paso() + "-" + etapa.name().toLowerCase(Locale.ROOT) + ".hgrm");
+        try (PrintStream fichero = new PrintStream(Files.newOutputStream(hgrm), false, StandardCharsets.UTF_8)) {
+            // Valores en µs, distribución en ms
+            h.outputPercentileDistribution(fichero, 1000.0);
+        }
+    }
+
+    private static double ms(Histogram h, double percentil) {
+        return h.getValueAtPercentile(percentil) / 1000.0;
+    }
+}
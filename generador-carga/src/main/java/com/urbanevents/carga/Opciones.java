@@ -0,0 +1,69 @@
+package com.urbanevents.carga;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opciones de línea de comandos con la forma {@code --clave=valor} ({@code --clave} sola equivale a {@code true}).
+ * Las duraciones admiten sufijo ms, s o m ({@code 500ms}, {@code 30s}, {@code 2m}); sin sufijo son segundos.
+ */
+final class Opciones {
+    private final Map<String, String> valores;
+
+    private Opciones(Map<String, String> valores) {
+        this.valores = valores;
+    }
+
+    static Opciones de(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Opción no válida: " + arg + " (se espera --clave=valor)");
+            }
+            int igual = arg.indexOf('=');
+            if (igual < 0) {
+                valores.put(arg.substring(2), "true");
+            } else {
+                valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+            }
+        }
+        return new Opciones(valores);
+    }
+
+    String texto(String clave, String porDefecto) {
+        return valores.getOrDefault(clave, porDefecto);
+    }
+
+    int entero(String clave, int porDefecto) {
+        String valor = valores.get(clave);
+        return valor == null ? porDefecto : Integer.parseInt(valor.trim());
+    }
+
+    double decimal(String clave, double porDefecto) {
+        String valor = valores.get(clave);
+        return valor == null ? porDefecto : Double.parseDouble(valor.trim());
+    }
+
+    boolean bandera(String clave) {
+        return Boolean.parseBoolean(valores.getOrDefault(clave, "false"));
+    }
+
+    Duration duracion(String clave, Duration porDefecto) {
+        String valor = valores.get(clave);
+        return valor == null ? porDefecto : duracion(valor.trim());
+    }
+
+    static Duration duracion(String valor) {
+        if (valor.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(valor.substring(0, valor.length() - 2)));
+        }
+        if (valor.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(valor.substring(0, valor.length() - 1)));
+        }
+        if (valor.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(valor.substring(0, valor.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(valor));
+    }
+}
@@ -0,0 +1,79 @@
+package com.urbanevents.carga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Genera las incidencias de la carga: el tipo sale de una mezcla con pesos ({@code alumbrado:5,limpieza:3}) y una
+ * fracción {@code densidadPalabras} de las descripciones lleva una de las palabras clave, que priorización
+ * convierte en ALTA y notificaciones en email. El resto usa frases sin ninguna palabra clave (prioridad MEDIA).
+ * Cada incidencia tiene una ubicación distinta para que el alta no las agrupe como duplicadas.
+ * No es seguro entre hilos: lo usa solo el hilo que marca el ritmo.
+ */
+final class PerfilCarga {
+    static final String ORIGEN = "generador-carga";
+
+    // Sin ninguna palabra de priorizacion.palabras-criticas ni "accidente"/"grave"
+    private static final List<String> FRASES = List.of(
+            "farola apagada en la esquina",
+            "contenedor lleno desde ayer",
+            "bache en la calzada junto al paso de peatones",
+            "ruido nocturno en el parque",
+            "semaforo en intermitente",
+            "pintadas en la fachada del centro cultural",
+            "rama caida en el carril bici",
+            "fuga de agua en una boca de riego");
+
+    private final List<String> tipos = new ArrayList<>();
+    private final int[] pesosAcumulados;
+    private final int pesoTotal;
+    private final List<String> palabrasClave;
+    private final double densidadPalabras;
+    private final Random random;
+
+    PerfilCarga(String mezclaTipos, List<String> palabrasClave, double densidadPalabras, long semilla) {
+        if (densidadPalabras < 0 || densidadPalabras > 1) {
+            throw new IllegalArgumentException("La densidad de palabras clave debe estar entre 0 y 1");
+        }
+        if (densidadPalabras > 0 && palabrasClave.isEmpty()) {
+            throw new IllegalArgumentException("Hace falta al menos una palabra clave");
+        }
+        String[] entradas = mezclaTipos.split(",");
+        pesosAcumulados = new int[entradas.length];
+        int total = 0;
+        for (int i = 0; i < entradas.length; i++) {
+            String[] partes = entradas[i].trim().split(":");
+            int peso = partes.length > 1 ? Integer.parseInt(partes[1].trim()) : 1;
+            if (partes[0].isBlank() || peso <= 0) {
+                throw new IllegalArgumentException("Tipo no válido en la mezcla: " + entradas[i]);
+            }
+            tipos.add(partes[0].trim());
+            total += peso;
+            pesosAcumulados[i] = total;
+        }
+        this.pesoTotal = total;
+        this.palabrasClave = List.copyOf(palabrasClave);
+        this.densidadPalabras = densidadPalabras;
+        this.random = new Random(semilla);
+    }
+
+    IncidenciaGenerada siguiente(long secuencia) {
+        int r = random.nextInt(pesoTotal);
+        int indice = 0;
+        while (pesosAcumulados[indice] <= r) {
+            indice++;
+        }
+        String frase = FRASES.get(random.nextInt(FRASES.size()));
+        boolean conPalabraClave = random.nextDouble() < densidadPalabras;
+        String descripcion = conPalabraClave
+                ? palabrasClave.get(random.nextInt(palabrasClave.size())) + ": " + frase
+                : frase;
+        return new IncidenciaGenerada(tipos.get(indice), descripcion, ORIGEN, "Calle Carga " + secuencia,
+                conPalabraClave);
+    }
+
+    record IncidenciaGenerada(String tipo, String descripcion, String origen, String ubicacion,
+                              boolean conPalabraClave) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.urbanevents.carga;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Servidor SMTP mínimo que acepta todo y descarta el contenido: sustituye a Mailhog en el modo local. De cada
+ * mensaje solo lee el asunto ("Alerta: Incidencia #123 priorizada", ver PlantillaEmail de notificaciones) para
+ * avisar de la incidencia y del instante de recepción. Una conexión por hilo virtual; sin TLS ni autenticación
+ * real (cualquier AUTH PLAIN se acepta).
+ */
+final class SumideroSmtp implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SumideroSmtp.class);
+    private static final Pattern ID_EN_ASUNTO = Pattern.compile("#(\\d+)");
+
+    private final ServerSocket servidor;
+    private final BiConsumer<Long, Instant> alRecibir;
+    private final AtomicLong recibidos = new AtomicLong();
+    private volatile boolean cerrado;
+
+    SumideroSmtp(int puerto, BiConsumer<Long, Instant> alRecibir) throws IOException {
+        this.servidor = new ServerSocket(puerto, 200, InetAddress.getLoopbackAddress());
+        this.alRecibir = alRecibir;
+        Thread.ofVirtual().name("smtp-aceptar").start(this::aceptar);
+    }
+
+    int puerto() {
+        return servidor.getLocalPort();
+    }
+
+    long recibidos() {
+        return recibidos.get();
+    }
+
+    private void aceptar() {
+        while (!cerrado) {
+            try {
+                Socket socket = servidor.accept();
+                Thread.ofVirtual().name("smtp-sesion").start(() -> atender(socket));
+            } catch (IOException e) {
+                if (!cerrado) {
+                    logger.warn("Error aceptando conexión SMTP: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        try (socket;
+             BufferedReader entrada = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream salida = socket.getOutputStream()) {
+            responder(salida, "220 sumidero-smtp");
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                String comando = linea.length() >= 4 ? linea.substring(0, 4).toUpperCase(Locale.ROOT) : linea;
+                switch (comando) {
+                    case "EHLO", "HELO" -> responder(salida, "250 sumidero-smtp");
+                    case "AUTH" -> {
+                        // AUTH PLAIN sin credenciales en la línea: llegan en la siguiente
+                        if (linea.trim().split("\\s+").length < 3) {
+                            responder(salida, "334 ");
+                            entrada.readLine();
+                        }
+                        responder(salida, "235 2.7.0 Autenticado");
+                    }
+                    case "DATA" -> {
+                        responder(salida, "354 Fin con <CRLF>.<CRLF>");
+                        leerMensaje(entrada);
+                        responder(salida, "250 2.0.0 Aceptado");
+                    }
+                    case "QUIT" -> {
+                        responder(salida, "221 2.0.0 Adios");
+                        return;
+                    }
+                    default -> responder(salida, "250 2.0.0 OK");
+                }
+            }
+        } catch (IOException e) {
+            if (!cerrado) {
+                logger.debug("Sesión SMTP interrumpida: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void leerMensaje(BufferedReader entrada) throws IOException {
+        Long incidenciaId = null;
+        boolean enCabeceras = true;
+        String linea;
+        while ((linea = entrada.readLine()) != null && !linea.equals(".")) {
+            if (linea.isEmpty()) {
+                enCabeceras = false;
+            } else if (enCabeceras && incidenciaId == null && linea.regionMatches(true, 0, "Subject:", 0, 8)) {
+                Matcher m = ID_EN_ASUNTO.matcher(linea);
+                if (m.find()) {
+                    incidenciaId = Long.valueOf(m.group(1));
+                }
+            }
+        }
+        Instant recibido = Instant.now();
+        recibidos.incrementAndGet();
+        if (incidenciaId != null) {
+            alRecibir.accept(incidenciaId, recibido);
+        }
+    }
+
+    private static void responder(OutputStream salida, String respuesta) throws IOException {
+        salida.write((respuesta + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        salida.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        cerrado = true;
+        servidor.close();
+    }
+}
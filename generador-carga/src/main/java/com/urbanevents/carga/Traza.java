@@ -0,0 +1,72 @@
+package com.urbanevents.carga;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Instantes (en microsegundos desde epoch, 0 si aún no ha llegado) de cada {@link Hito} de una incidencia.
+ * Los hitos llegan desde hilos distintos (respuesta HTTP, consumidor de Kafka, sumidero SMTP) y en cualquier
+ * orden: el evento de alta puede leerse antes de que llegue la respuesta del POST.
+ */
+final class Traza {
+    private static final int SIN_PASO = -1;
+
+    private final AtomicLongArray instantes = new AtomicLongArray(Hito.values().length);
+    // Paso de la carga en que se envió; SIN_PASO si no la ha enviado este generador
+    private volatile int paso = SIN_PASO;
+    private volatile String prioridad;
+
+    void marcar(Hito hito, Instant instante) {
+        // El primero gana: una reentrega del mismo evento no cambia el instante
+        instantes.compareAndSet(hito.ordinal(), 0, micros(instante));
+    }
+
+    long micros(Hito hito) {
+        return instantes.get(hito.ordinal());
+    }
+
+    boolean tiene(Hito hito) {
+        return micros(hito) != 0;
+    }
+
+    void enviadaEnPaso(int paso) {
+        this.paso = paso;
+    }
+
+    int paso() {
+        return paso;
+    }
+
+    void prioridad(String prioridad) {
+        this.prioridad = prioridad;
+    }
+
+    String prioridad() {
+        return prioridad;
+    }
+
+    /**
+     * Se notifica (y se espera su evento de notificación) solo lo priorizado como ALTA, igual que en
+     * notificaciones.
+     */
+    boolean seNotifica() {
+        return "alta".equalsIgnoreCase(prioridad);
+    }
+
+    /**
+     * Ya no se esperan más hitos: está priorizada y, si se notifica, notificada (y con email si se esperan).
+     */
+    boolean cerrada(boolean conEmail) {
+        if (!tiene(Hito.PRIORIZADA)) {
+            return false;
+        }
+        if (!seNotifica()) {
+            return true;
+        }
+        return tiene(Hito.NOTIFICADA) && (!conEmail || tiene(Hito.EMAIL));
+    }
+
+    private static long micros(Instant instante) {
+        return Math.max(1, instante.getEpochSecond() * 1_000_000L + instante.getNano() / 1_000);
+    }
+}
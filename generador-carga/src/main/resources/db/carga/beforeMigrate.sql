@@ -0,0 +1,22 @@
+-- Callback de Flyway del generador de carga: se ejecuta antes de aplicar db/migrations en la base vacía de
+-- PostgreSQL embebido. V2 y V5 usan secuencias (y V2 la tabla incidencias) antes de crearlas, porque se escribieron
+-- contra una base donde Hibernate ya las había creado; aquí se crean antes para que se apliquen sin tocarlas.
+-- La tabla incidencias es la misma que crea V2, cuyo CREATE TABLE IF NOT EXISTS queda sin efecto.
+CREATE SCHEMA IF NOT EXISTS registro_incidencias;
+CREATE SCHEMA IF NOT EXISTS notificaciones;
+
+CREATE SEQUENCE IF NOT EXISTS registro_incidencias.incidencias_seq START 1;
+CREATE SEQUENCE IF NOT EXISTS registro_incidencias.incidencia_comentarios_id_seq START 1;
+CREATE SEQUENCE IF NOT EXISTS notificaciones.notificaciones_seq START WITH 1;
+
+CREATE TABLE IF NOT EXISTS registro_incidencias.incidencias (
+	id int8 DEFAULT nextval('registro_incidencias.incidencias_seq'::regclass) NOT NULL,
+	tipo varchar(100) NOT NULL,
+	descripcion varchar(2000) NULL,
+	origen varchar(255) NULL,
+	ubicacion varchar(255) NULL,
+	estado varchar(50) NULL,
+	creada_en timestamptz DEFAULT now() NULL,
+	prioridad varchar(50) DEFAULT NULL::character varying NULL,
+	CONSTRAINT incidencias_pkey PRIMARY KEY (id)
+);
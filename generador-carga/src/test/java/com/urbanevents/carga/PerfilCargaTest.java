@@ -0,0 +1,60 @@
+package com.urbanevents.carga;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PerfilCargaTest {
+    private static final List<String> PALABRAS = List.of("incendio", "urgente");
+
+    @Test
+    void respetaLaMezclaDeTiposYLaDensidadDePalabrasClave() {
+        PerfilCarga perfil = new PerfilCarga("alumbrado:3,limpieza:1", PALABRAS, 0.25, 7);
+        Map<String, Integer> porTipo = new HashMap<>();
+        int conPalabra = 0;
+        Set<String> ubicaciones = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            PerfilCarga.IncidenciaGenerada incidencia = perfil.siguiente(i);
+            porTipo.merge(incidencia.tipo(), 1, Integer::sum);
+            boolean contiene = PALABRAS.stream().anyMatch(incidencia.descripcion()::contains);
+            assertThat(contiene).isEqualTo(incidencia.conPalabraClave());
+            if (contiene) {
+                conPalabra++;
+            }
+            ubicaciones.add(incidencia.ubicacion());
+        }
+
+        assertThat(porTipo.get("alumbrado") / 20_000.0).isBetween(0.73, 0.77);
+        assertThat(porTipo.get("limpieza") / 20_000.0).isBetween(0.23, 0.27);
+        assertThat(conPalabra / 20_000.0).isBetween(0.23, 0.27);
+        // Ubicaciones distintas: el alta no las agrupa como duplicadas
+        assertThat(ubicaciones).hasSize(20_000);
+    }
+
+    @Test
+    void sinDensidadNingunaDescripcionLlevaPalabrasDePriorizacion() {
+        PerfilCarga perfil = new PerfilCarga("alumbrado", PALABRAS, 0, 1);
+        List<String> todasLasDePriorizacion =
+                List.of("incendio", "explosion", "explosivo", "heridos", "urgente", "accidente", "grave");
+
+        for (int i = 0; i < 1_000; i++) {
+            String descripcion = perfil.siguiente(i).descripcion();
+            assertThat(todasLasDePriorizacion).noneMatch(descripcion::contains);
+        }
+    }
+
+    @Test
+    void rechazaMezclasYDensidadesNoValidas() {
+        assertThatThrownBy(() -> new PerfilCarga("alumbrado:0", PALABRAS, 0.1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PerfilCarga("alumbrado", PALABRAS, 1.5, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
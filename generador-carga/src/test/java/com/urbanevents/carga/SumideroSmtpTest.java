@@ -0,0 +1,50 @@
+package com.urbanevents.carga;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SumideroSmtpTest {
+
+    @Test
+    void aceptaElMensajeYAvisaConElIdDelAsunto() throws Exception {
+        Map<Long, Instant> recibidos = new ConcurrentHashMap<>();
+        try (SumideroSmtp sumidero = new SumideroSmtp(0, recibidos::put);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), sumidero.puerto());
+             BufferedReader entrada = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            OutputStream salida = socket.getOutputStream();
+            assertThat(entrada.readLine()).startsWith("220");
+            assertThat(enviar(salida, entrada, "EHLO cliente")).startsWith("250");
+            assertThat(enviar(salida, entrada, "MAIL FROM:<system@urban-events.local>")).startsWith("250");
+            assertThat(enviar(salida, entrada, "RCPT TO:<alertas@urban-events.local>")).startsWith("250");
+            assertThat(enviar(salida, entrada, "DATA")).startsWith("354");
+            assertThat(enviar(salida, entrada, """
+                    Subject: Alerta: Incidencia #4711 priorizada\r
+                    Content-Type: text/plain\r
+                    \r
+                    Incidencia ID: 99\r
+                    .""")).startsWith("250");
+            assertThat(enviar(salida, entrada, "QUIT")).startsWith("221");
+
+            assertThat(recibidos).containsOnlyKeys(4711L);
+            assertThat(sumidero.recibidos()).isEqualTo(1);
+        }
+    }
+
+    private static String enviar(OutputStream salida, BufferedReader entrada, String lineas) throws Exception {
+        salida.write((lineas + "\r\n").getBytes(StandardCharsets.UTF_8));
+        salida.flush();
+        return entrada.readLine();
+    }
+}
@@ -0,0 +1,19 @@
+package com.urbanevents.metricas.config;
+
+import com.urbanevents.events.metricas.MedidorEventos;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Temporizadores de shared-events para los cuatro consumidores: edad de cada evento al llegar, duración del
+ * tratamiento y tiempo en base de datos, por topic y tipo de evento. Se exponen en /q/metrics (Prometheus).
+ */
+public class EventosConfig {
+
+    @Produces
+    @Singleton
+    MedidorEventos medidorEventos(MeterRegistry registry) {
+        return new MedidorEventos(registry);
+    }
+}
@@ -1,7 +1,8 @@
 package com.urbanevents.metricas.consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urbanevents.events.IncidenciaChangedEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.metricas.MedidorEventos;
 import com.urbanevents.metricas.service.MetricasService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -22,27 +23,37 @@ public class IncidenciaChangedConsumer {
     MetricasService metricasService;
 
     @Inject
-    ObjectMapper objectMapper;
+    MedidorEventos medidor;
 
     /**
-     * Recibe mensajes del topic "incidencias-modificadas-metricas"
-     * y los procesa deserializando a IncidenciaChangedEvent.
+     * Recibe mensajes del topic "incidencias-modificadas-metricas" ya deserializados a IncidenciaChangedEvent
+     * (JSON o Smile, ver value.deserializer en application.properties).
      */
     @Incoming("incidencias-modificadas-metricas")
-    public void consume(String mensaje) {
+    public void consume(IncidenciaChangedEvent evento) {
+        if (evento == null) {
+            // Mensaje que no se ha podido deserializar (fail-on-deserialization-failure=false): se descarta
+            LOG.warn("Descartado mensaje IncidenciaChangedEvent no deserializable");
+            return;
+        }
+        medidor.recibido(Topics.INCIDENCIAS_CAMBIADAS, evento);
+        long inicio = medidor.inicio();
         try {
-            LOG.debugf("Recibido mensaje en incidencias-modificadas-metricas: %s", mensaje);
-
-            // Deserializar el mensaje JSON al evento
-            IncidenciaChangedEvent evento = objectMapper.readValue(mensaje, IncidenciaChangedEvent.class);
+            LOG.debugf("Recibido IncidenciaChangedEvent: incidencia %d", evento.incidenciaId());
 
-            // Procesar
-            metricasService.procesarCambio(evento);
+            // Procesar: la transacción de MetricasService es el tiempo en base de datos
+            medidor.bd(Topics.INCIDENCIAS_CAMBIADAS, tipoEvento(evento), () -> metricasService.procesarCambio(evento));
 
         } catch (Exception e) {
-            LOG.errorf("Error procesando mensaje IncidenciaChangedEvent: %s. Mensaje: %s", 
-                    e.getMessage(), mensaje);
+            LOG.errorf("Error procesando mensaje IncidenciaChangedEvent: %s. Incidencia: %d",
+                    e.getMessage(), evento.incidenciaId());
             // Nota: El reintento se maneja vía configuración de Kafka en application.properties
+        } finally {
+            medidor.procesado(Topics.INCIDENCIAS_CAMBIADAS, tipoEvento(evento), inicio);
         }
     }
+
+    private static String tipoEvento(IncidenciaChangedEvent evento) {
+        return evento.metadata() == null ? null : evento.metadata().eventType();
+    }
 }
@@ -1,7 +1,8 @@
 package com.urbanevents.metricas.consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.metricas.MedidorEventos;
 import com.urbanevents.metricas.service.MetricasService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -18,30 +19,40 @@ public class IncidenciaCreadaConsumer {
     private static final Logger LOG = Logger.getLogger(IncidenciaCreadaConsumer.class);
 
     @Inject
-    ObjectMapper objectMapper;
+    MetricasService metricasService;
 
     @Inject
-    MetricasService metricasService;
+    MedidorEventos medidor;
 
     /**
-     * Recibe mensajes del topic "incidencias-creadas-metricas"
-     * y los procesa deserializando a IncidenciaCreadaEvent.
+     * Recibe mensajes del topic "incidencias-creadas-metricas" ya deserializados a IncidenciaCreadaEvent
+     * (JSON o Smile, ver value.deserializer en application.properties).
      */
     @Incoming("incidencias-creadas-metricas")
-    public void consume(String mensaje) {
+    public void consume(IncidenciaCreadaEvent evento) {
+        if (evento == null) {
+            // Mensaje que no se ha podido deserializar (fail-on-deserialization-failure=false): se descarta
+            LOG.warn("Descartado mensaje IncidenciaCreadaEvent no deserializable");
+            return;
+        }
+        medidor.recibido(Topics.INCIDENCIAS_CREADAS, evento);
+        long inicio = medidor.inicio();
         try {
-            LOG.debugf("Recibido mensaje en incidencias-creadas-metricas: %s", mensaje);
+            LOG.debugf("Recibido IncidenciaCreadaEvent: incidencia %d", evento.incidenciaId());
 
-            // Deserializar el mensaje JSON al evento
-            IncidenciaCreadaEvent evento = objectMapper.readValue(mensaje, IncidenciaCreadaEvent.class);
-
-            // Procesar
-            metricasService.procesarCreacion(evento);
+            // Procesar: la transacción de MetricasService es el tiempo en base de datos
+            medidor.bd(Topics.INCIDENCIAS_CREADAS, tipoEvento(evento), () -> metricasService.procesarCreacion(evento));
 
         } catch (Exception e) {
-            LOG.errorf("Error procesando mensaje IncidenciaCreadaEvent: %s. Mensaje: %s", 
-                    e.getMessage(), mensaje);
+            LOG.errorf("Error procesando mensaje IncidenciaCreadaEvent: %s. Incidencia: %d",
+                    e.getMessage(), evento.incidenciaId());
             // Nota: El reintento se maneja vía configuración de Kafka en application.properties
+        } finally {
+            medidor.procesado(Topics.INCIDENCIAS_CREADAS, tipoEvento(evento), inicio);
         }
     }
+
+    private static String tipoEvento(IncidenciaCreadaEvent evento) {
+        return evento.metadata() == null ? null : evento.metadata().eventType();
+    }
 }
@@ -1,7 +1,8 @@
 package com.urbanevents.metricas.consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urbanevents.events.IncidenciaNotificadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.metricas.MedidorEventos;
 import com.urbanevents.metricas.service.MetricasService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -21,27 +22,37 @@ public class IncidenciaNotificadaConsumer {
     MetricasService metricasService;
 
     @Inject
-    ObjectMapper objectMapper;
+    MedidorEventos medidor;
 
     /**
-     * Recibe mensajes del topic "incidencias-notificadas-metricas"
-     * y los procesa deserializando a IncidenciaNotificadaEvent.
+     * Recibe mensajes del topic "incidencias-notificadas-metricas" ya deserializados a IncidenciaNotificadaEvent
+     * (JSON o Smile, ver value.deserializer en application.properties).
      */
     @Incoming("incidencias-notificadas-metricas")
-    public void consume(String mensaje) {
+    public void consume(IncidenciaNotificadaEvent evento) {
+        if (evento == null) {
+            // Mensaje que no se ha podido deserializar (fail-on-deserialization-failure=false): se descarta
+            LOG.warn("Descartado mensaje IncidenciaNotificadaEvent no deserializable");
+            return;
+        }
+        medidor.recibido(Topics.INCIDENCIAS_NOTIFICADAS, evento);
+        long inicio = medidor.inicio();
         try {
-            LOG.debugf("Recibido mensaje en incidencias-notificadas-metricas: %s", mensaje);
-
-            // Deserializar el mensaje JSON al evento
-            IncidenciaNotificadaEvent evento = objectMapper.readValue(mensaje, IncidenciaNotificadaEvent.class);
+            LOG.debugf("Recibido IncidenciaNotificadaEvent: incidencia %d", evento.incidenciaId());
 
-            // Procesar
-            metricasService.procesarNotificacion(evento);
+            // Procesar: la transacción de MetricasService es el tiempo en base de datos
+            medidor.bd(Topics.INCIDENCIAS_NOTIFICADAS, tipoEvento(evento), () -> metricasService.procesarNotificacion(evento));
 
         } catch (Exception e) {
-            LOG.errorf("Error procesando mensaje IncidenciaNotificadaEvent: %s. Mensaje: %s", 
-                    e.getMessage(), mensaje);
+            LOG.errorf("Error procesando mensaje IncidenciaNotificadaEvent: %s. Incidencia: %d",
+                    e.getMessage(), evento.incidenciaId());
             // Nota: El reintento se maneja vía configuración de Kafka en application.properties
+        } finally {
+            medidor.procesado(Topics.INCIDENCIAS_NOTIFICADAS, tipoEvento(evento), inicio);
         }
     }
+
+    private static String tipoEvento(IncidenciaNotificadaEvent evento) {
+        return evento.metadata() == null ? null : evento.metadata().eventType();
+    }
 }
@@ -1,7 +1,8 @@
 package com.urbanevents.metricas.consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.metricas.MedidorEventos;
 import com.urbanevents.metricas.service.MetricasService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -21,27 +22,37 @@ public class IncidenciaPriorizadaConsumer {
     MetricasService metricasService;
 
     @Inject
-    ObjectMapper objectMapper;
+    MedidorEventos medidor;
 
     /**
-     * Recibe mensajes del topic "incidencias-priorizadas-metricas"
-     * y los procesa deserializando a IncidenciaPriorizadaEvent.
+     * Recibe mensajes del topic "incidencias-priorizadas-metricas" ya deserializados a IncidenciaPriorizadaEvent
+     * (JSON o Smile, ver value.deserializer en application.properties).
      */
     @Incoming("incidencias-priorizadas-metricas")
-    public void consume(String mensaje) {
+    public void consume(IncidenciaPriorizadaEvent evento) {
+        if (evento == null) {
+            // Mensaje que no se ha podido deserializar (fail-on-deserialization-failure=false): se descarta
+            LOG.warn("Descartado mensaje IncidenciaPriorizadaEvent no deserializable");
+            return;
+        }
+        medidor.recibido(Topics.INCIDENCIAS_PRIORIZADAS, evento);
+        long inicio = medidor.inicio();
         try {
-            LOG.debugf("Recibido mensaje en incidencias-priorizadas-metricas: %s", mensaje);
-
-            // Deserializar el mensaje JSON al evento
-            IncidenciaPriorizadaEvent evento = objectMapper.readValue(mensaje, IncidenciaPriorizadaEvent.class);
+            LOG.debugf("Recibido IncidenciaPriorizadaEvent: incidencia %d", evento.incidenciaId());
 
-            // Procesar
-            metricasService.procesarPriorizacion(evento);
+            // Procesar: la transacción de MetricasService es el tiempo en base de datos
+            medidor.bd(Topics.INCIDENCIAS_PRIORIZADAS, tipoEvento(evento), () -> metricasService.procesarPriorizacion(evento));
 
         } catch (Exception e) {
-            LOG.errorf("Error procesando mensaje IncidenciaPriorizadaEvent: %s. Mensaje: %s", 
-                    e.getMessage(), mensaje);
+            LOG.errorf("Error procesando mensaje IncidenciaPriorizadaEvent: %s. Incidencia: %d",
+                    e.getMessage(), evento.incidenciaId());
             // Nota: El reintento se maneja vía configuración de Kafka en application.properties
+        } finally {
+            medidor.procesado(Topics.INCIDENCIAS_PRIORIZADAS, tipoEvento(evento), inicio);
         }
     }
+
+    private static String tipoEvento(IncidenciaPriorizadaEvent evento) {
+        return evento.metadata() == null ? null : evento.metadata().eventType();
+    }
 }
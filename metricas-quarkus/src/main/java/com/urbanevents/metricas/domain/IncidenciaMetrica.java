@@ -18,7 +18,7 @@ public class IncidenciaMetrica {
     @Id
     @Column(name = "id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incidencias_metricas_seq")
-    @SequenceGenerator(name = "incidencias_metricas_seq", sequenceName = "metricas.incidencias_metricas_seq", allocationSize = 1)
+    @SequenceGenerator(name = "incidencias_metricas_seq", sequenceName = "metricas.incidencias_metricas_seq", allocationSize = 50)
     public Long id;
 
     @NotNull
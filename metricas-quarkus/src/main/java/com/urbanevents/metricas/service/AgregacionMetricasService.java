@@ -37,9 +37,20 @@ public class AgregacionMetricasService {
             agregada = new MetricaAgregada(tipo, prioridad);
         }
 
-            // Obtener todas las incidencias de este tipo y prioridad
-            List<IncidenciaMetrica> incidencias = incidenciaMetricaRepository.findByTipoAndPrioridad(tipo, prioridad);
+        // Obtener todas las incidencias de este tipo y prioridad
+        List<IncidenciaMetrica> incidencias = incidenciaMetricaRepository.findByTipoAndPrioridad(tipo, prioridad);
 
+        agregar(agregada, incidencias);
+
+        // Guardar (Panache maneja automáticamente persist vs update)
+        metricaAgregadaRepository.persist(agregada);
+    }
+
+    /**
+     * Calcula sobre {@code agregada} los conteos, tiempos, percentiles y tasas de las incidencias.
+     * Sin acceso a datos, para poder medirlo aislado (módulo benchmarks).
+     */
+    void agregar(MetricaAgregada agregada, List<IncidenciaMetrica> incidencias) {
             // Calcular conteos
             long total = incidencias.size();
             long resuelta = incidencias.stream()
@@ -107,16 +118,13 @@ public class AgregacionMetricasService {
 
             // Actualizar fecha
             agregada.fechaActualizacion = Instant.now();
-
-            // Guardar (Panache maneja automáticamente persist vs update)
-            metricaAgregadaRepository.persist(agregada);
     }
 
     /**
      * Calcula un percentil de una lista de números.
      * Por ejemplo, percentil(lista, 95) retorna el valor del p95.
      */
-    private long percentil(List<Long> valores, int percentil) {
+    static long percentil(List<Long> valores, int percentil) {
         if (valores.isEmpty()) {
             return 0;
         }
@@ -0,0 +1,27 @@
+package com.urbanevents.notificaciones.config;
+
+import com.urbanevents.events.codec.CodecEventos;
+import com.urbanevents.events.metricas.MedidorEventos;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Códec de eventos de shared-events para el consumidor, que decodifica solo lo que no descarta por cabeceras.
+ * Es la misma instancia que usa SerializadorEvento en el productor: comparten lectores y escritores.
+ * Los tiempos del consumidor (edad, procesamiento, base de datos) van a /q/metrics con {@link MedidorEventos}.
+ */
+public class EventosConfig {
+
+    @Produces
+    @Singleton
+    CodecEventos codecEventos() {
+        return CodecEventos.compartido();
+    }
+
+    @Produces
+    @Singleton
+    MedidorEventos medidorEventos(MeterRegistry registry) {
+        return new MedidorEventos(registry);
+    }
+}
@@ -1,7 +1,10 @@
 package com.urbanevents.notificaciones.consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.codec.CabecerasEvento;
+import com.urbanevents.events.codec.CodecEventos;
+import com.urbanevents.events.metricas.MedidorEventos;
 import com.urbanevents.notificaciones.domain.EstadoNotificacion;
 import com.urbanevents.notificaciones.domain.Notificacion;
 import com.urbanevents.notificaciones.domain.NotificacionCreadaEvent;
@@ -10,61 +13,79 @@ import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 import org.jboss.logging.Logger;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 
 @ApplicationScoped
 public class IncidenciaPriorizadaConsumer {
 
     private static final Logger LOG = Logger.getLogger(IncidenciaPriorizadaConsumer.class);
+    private static final String TIPO_EVENTO = "IncidenciaPriorizada";
 
     @Inject
-    ObjectMapper objectMapper;
+    CodecEventos codec;
 
     @Inject
     Event<NotificacionCreadaEvent> notificacionEvent;
 
+    @Inject
+    MedidorEventos medidor;
+
     @ConfigProperty(name = "notificaciones.destinatarios")
     String destinatarios;
 
+    /**
+     * El procesamiento medido en {@link MedidorEventos} va desde la llegada del mensaje hasta que termina el Uni
+     * (guardado y disparo del evento de dominio; el email lo envía después el observer).
+     */
     @Incoming("incidencias-priorizadas")
-    public Uni<Void> onMessage(String eventJson) {
-        return Uni.createFrom().item(eventJson)
-            .onItem().transform(json -> {
-                try {
-                    return objectMapper.readValue(json, IncidenciaPriorizadaEvent.class);
-                } catch (Exception e) {
-                    throw new RuntimeException("Error deserializando evento", e);
-                }
-            })
+    public Uni<Void> onMessage(ConsumerRecord<String, byte[]> registro) {
+        long inicio = medidor.inicio();
+        return procesar(registro)
+            .onTermination().invoke(() -> medidor.procesado(Topics.INCIDENCIAS_PRIORIZADAS, TIPO_EVENTO, inicio));
+    }
+
+    private Uni<Void> procesar(ConsumerRecord<String, byte[]> registro) {
+        // Prioridad en la cabecera y id de la incidencia en la clave: lo que no se notifica no llega a decodificarse.
+        // Los mensajes sin cabecera (productores anteriores) o con una clave que no es un id siguen el camino completo
+        String prioridadCabecera = CabecerasEvento.leer(registro.headers(), CabecerasEvento.PRIORIDAD);
+        Long idClave = prioridadCabecera != null ? idIncidencia(registro.key()) : null;
+        if (idClave != null && !seNotifica(prioridadCabecera)) {
+            // La edad, también desde cabeceras
+            medidor.recibido(Topics.INCIDENCIAS_PRIORIZADAS,
+                CabecerasEvento.leer(registro.headers(), CabecerasEvento.EVENT_TYPE),
+                instante(CabecerasEvento.leer(registro.headers(), CabecerasEvento.TIMESTAMP)));
+            return ignorar(idClave, prioridadCabecera)
+                .onFailure().invoke(e -> LOG.errorf(e, "Error procesando mensaje"))
+                .onFailure().recoverWithNull();
+        }
+
+        return Uni.createFrom().item(registro.value())
+            // JSON o Smile, según la versión de esquema con la que publicó priorización
+            .onItem().transform(datos -> codec.decodificar(datos, IncidenciaPriorizadaEvent.class))
             .onItem().transformToUni(event -> {
+                medidor.recibido(Topics.INCIDENCIAS_PRIORIZADAS, event);
                 LOG.infof("Recibida incidencia priorizada: %s con prioridad %s", event.incidenciaId(), event.prioridad());
 
-                Instant now = Instant.now();
-                
                 // Filtrar solo incidencias de alta prioridad para enviar email
-                if (!"alta".equalsIgnoreCase(event.prioridad())) {
-                    LOG.infof("Incidencia %s con prioridad %s no será notificada - guardando como IGNORAR", event.incidenciaId(), event.prioridad());
-                    
-                    // Guardar notificación con estado IGNORAR, sin canal, destino ni contenido
-                    Notificacion notificacion = new Notificacion(event.incidenciaId(), null, null, EstadoNotificacion.IGNORAR, now);
-                    
-                    return Panache.withTransaction(() -> notificacion.persist())
-                        .onItem().invoke(persisted -> {
-                            LOG.infof("Notificación guardada para incidencia %s con estado IGNORAR", event.incidenciaId());
-                        })
-                        .replaceWithVoid();
+                if (!seNotifica(event.prioridad())) {
+                    return ignorar(event.incidenciaId(), event.prioridad());
                 }
 
+                Instant now = Instant.now();
                 String canal = "email";
 
                 // Guardar notificación en la base de datos de forma reactiva con transacción
                 Notificacion notificacion = new Notificacion(event.incidenciaId(), canal, destinatarios, EstadoNotificacion.NO_ENVIADA, now);
                 
+                long inicioBd = medidor.inicio();
                 return Panache.withTransaction(() -> notificacion.persist())
+                    .onTermination().invoke(() -> medidor.bd(Topics.INCIDENCIAS_PRIORIZADAS, TIPO_EVENTO, inicioBd))
                     .onItem().invoke(persisted -> {
                         // Castear el resultado de persist a Notificacion
                         Notificacion notif = (Notificacion) persisted;
@@ -79,4 +100,48 @@ public class IncidenciaPriorizadaConsumer {
             .onFailure().invoke(e -> LOG.errorf(e, "Error procesando mensaje"))
             .onFailure().recoverWithNull();
     }
+
+    private static boolean seNotifica(String prioridad) {
+        return "alta".equalsIgnoreCase(prioridad);
+    }
+
+    // Sin excepciones: una clave nula o no numérica no debe escapar del manejo de fallos del Uni
+    private static Long idIncidencia(String clave) {
+        if (clave == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(clave);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Instant instante(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(texto);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Guarda la notificación con estado IGNORAR, sin canal, destino ni contenido.
+     */
+    private Uni<Void> ignorar(Long incidenciaId, String prioridad) {
+        LOG.infof("Incidencia %s con prioridad %s no será notificada - guardando como IGNORAR", incidenciaId, prioridad);
+
+        Notificacion notificacion = new Notificacion(incidenciaId, null, null, EstadoNotificacion.IGNORAR, Instant.now());
+
+        long inicioBd = medidor.inicio();
+        return Panache.withTransaction(() -> notificacion.persist())
+            .onTermination().invoke(() -> medidor.bd(Topics.INCIDENCIAS_PRIORIZADAS, TIPO_EVENTO, inicioBd))
+            .onItem().invoke(persisted -> {
+                LOG.infof("Notificación guardada para incidencia %s con estado IGNORAR", incidenciaId);
+            })
+            .replaceWithVoid();
+    }
 }
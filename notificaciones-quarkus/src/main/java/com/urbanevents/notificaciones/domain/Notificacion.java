@@ -21,7 +21,7 @@ public class Notificacion extends PanacheEntityBase {
     
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notificaciones_seq")
-    @SequenceGenerator(name = "notificaciones_seq", sequenceName = "notificaciones.notificaciones_seq", allocationSize = 1)
+    @SequenceGenerator(name = "notificaciones_seq", sequenceName = "notificaciones.notificaciones_seq", allocationSize = 50)
     public Long id;
 
     @Column(name = "incidencia_id")
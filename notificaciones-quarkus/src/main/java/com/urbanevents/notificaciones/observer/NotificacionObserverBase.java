@@ -1,6 +1,5 @@
 package com.urbanevents.notificaciones.observer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urbanevents.events.EventMetadata;
 import com.urbanevents.events.IncidenciaNotificadaEvent;
 import com.urbanevents.notificaciones.domain.Notificacion;
@@ -8,6 +7,7 @@ import io.smallrye.mutiny.Uni;
 import io.smallrye.reactive.messaging.MutinyEmitter;
 import io.smallrye.reactive.messaging.kafka.Record;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.jboss.logging.Logger;
 
@@ -22,12 +22,13 @@ public abstract class NotificacionObserverBase {
 
     private static final Logger LOG = Logger.getLogger(NotificacionObserverBase.class);
 
-    @Inject
-    protected ObjectMapper objectMapper;
+    // v1 JSON, v2 Smile: el formato con el que se publica IncidenciaNotificada
+    @ConfigProperty(name = "notificaciones.eventos.version-esquema", defaultValue = "v1")
+    protected String versionEsquema;
 
     @Inject
     @Channel("incidencias-notificadas")
-    protected MutinyEmitter<Record<String, String>> emitter;
+    protected MutinyEmitter<Record<String, IncidenciaNotificadaEvent>> emitter;
 
     /**
      * Publica el evento de notificación en la cola de Kafka.
@@ -43,7 +44,7 @@ public abstract class NotificacionObserverBase {
                 "IncidenciaNotificada",
                 now,
                 "notificaciones-quarkus",
-                "v1"
+                versionEsquema
             );
 
             // Crear evento de notificación
@@ -56,11 +57,9 @@ public abstract class NotificacionObserverBase {
                 now
             );
 
-            // Serializar el evento a JSON
-            String eventJson = objectMapper.writeValueAsString(notificadaEvent);
-            
-            // Publicar en Kafka de forma reactiva
-            Record<String, String> record = Record.of(String.valueOf(notificacion.incidenciaId), eventJson);
+            // Publicar en Kafka de forma reactiva, con el id de la incidencia como clave. SerializadorEvento lo
+            // codifica en el formato de su versión de esquema y añade la metadata en cabeceras
+            Record<String, IncidenciaNotificadaEvent> record = Record.of(notificadaEvent.clave(), notificadaEvent);
             
             return emitter.send(record)
                 .invoke(() -> LOG.infof("Evento publicado en Kafka para incidencia %d", notificacion.incidenciaId))
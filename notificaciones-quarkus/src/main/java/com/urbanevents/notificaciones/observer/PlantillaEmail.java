@@ -0,0 +1,84 @@
+package com.urbanevents.notificaciones.observer;
+
+import com.urbanevents.notificaciones.domain.EstadoNotificacion;
+
+import java.time.Instant;
+
+/**
+ * Asunto y cuerpos (texto y HTML) del email de alerta.
+ * Sin dependencias de Quarkus ni de la entidad, para poder medir su coste aislado (módulo benchmarks).
+ */
+final class PlantillaEmail {
+
+    private PlantillaEmail() {
+    }
+
+    static String asunto(Long incidenciaId) {
+        return String.format("Alerta: Incidencia #%d priorizada", incidenciaId);
+    }
+
+    /**
+     * Construye el contenido de texto plano del email.
+     */
+    static String texto(Long incidenciaId, String canal, EstadoNotificacion estado, Instant enviadaEn) {
+        return String.format(
+            "Se ha detectado una alerta de alta prioridad.\n\n" +
+            "Detalles:\n" +
+            "- Incidencia ID: %d\n" +
+            "- Canal: %s\n" +
+            "- Estado: %s\n" +
+            "- Fecha: %s\n\n" +
+            "Por favor, revise la incidencia en el sistema de gestión.\n\n" +
+            "---\n" +
+            "Este es un correo automático. No responda a este mensaje.",
+            incidenciaId,
+            canal,
+            estado,
+            enviadaEn
+        );
+    }
+
+    /**
+     * Construye el contenido en formato HTML del email.
+     */
+    static String html(Long incidenciaId, String canal, EstadoNotificacion estado, Instant enviadaEn) {
+        return String.format(
+            "<html>\n" +
+            "<head><meta charset=\"UTF-8\"></head>\n" +
+            "<body style=\"font-family: Arial, sans-serif;\">\n" +
+            "<h2 style=\"color: #d32f2f;\">Alerta de Alta Prioridad</h2>\n" +
+            "<p>Se ha detectado una alerta que requiere atención inmediata.</p>\n" +
+            "<table border=\"1\" cellpadding=\"10\" style=\"border-collapse: collapse;\">\n" +
+            "  <tr>\n" +
+            "    <td style=\"font-weight: bold;\" bgcolor=\"#f5f5f5\">Incidencia ID</td>\n" +
+            "    <td>%d</td>\n" +
+            "  </tr>\n" +
+            "  <tr>\n" +
+            "    <td style=\"font-weight: bold;\" bgcolor=\"#f5f5f5\">Canal</td>\n" +
+            "    <td>%s</td>\n" +
+            "  </tr>\n" +
+            "  <tr>\n" +
+            "    <td style=\"font-weight: bold;\" bgcolor=\"#f5f5f5\">Estado</td>\n" +
+            "    <td>%s</td>\n" +
+            "  </tr>\n" +
+            "  <tr>\n" +
+            "    <td style=\"font-weight: bold;\" bgcolor=\"#f5f5f5\">Fecha</td>\n" +
+            "    <td>%s</td>\n" +
+            "  </tr>\n" +
+            "</table>\n" +
+            "<p style=\"margin-top: 20px; color: #666;\">\n" +
+            "Por favor, revise la incidencia en el <a href=\"http://localhost:3000\" style=\"color: #1976d2;\">sistema de gestión</a>.\n" +
+            "</p>\n" +
+            "<hr style=\"border: none; border-top: 1px solid #ddd; margin: 20px 0;\">\n" +
+            "<p style=\"color: #999; font-size: 12px;\">\n" +
+            "Este es un correo automático generado por Urban Events. No responda a este mensaje.\n" +
+            "</p>\n" +
+            "</body>\n" +
+            "</html>",
+            incidenciaId,
+            canal,
+            estado,
+            enviadaEn
+        );
+    }
+}
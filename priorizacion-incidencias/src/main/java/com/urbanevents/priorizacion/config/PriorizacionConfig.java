@@ -1,9 +1,18 @@
 package com.urbanevents.priorizacion.config;
 
+import com.urbanevents.events.codec.CodecEventos;
+import com.urbanevents.events.codec.CodecEventosMessageConverter;
+import com.urbanevents.events.metricas.MedidorEventos;
 import com.urbanevents.priorizacion.service.PriorizacionService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.Arrays;
 import java.util.List;
@@ -19,4 +28,34 @@ public class PriorizacionConfig {
                 .toList();
         return new PriorizacionService(lista, delaySegundos);
     }
+
+    /**
+     * Conversor de los bindings con content-type application/vnd.urbanevents.evento: lee JSON y Smile y escribe
+     * en el formato de la versión de esquema del evento.
+     */
+    @Bean
+    public MessageConverter codecEventosMessageConverter() {
+        return new CodecEventosMessageConverter(CodecEventos.compartido());
+    }
+
+    /**
+     * Edad, procesamiento y tiempo en base de datos de las incidencias creadas consumidas (/actuator/prometheus).
+     */
+    @Bean
+    public MedidorEventos medidorEventos(MeterRegistry meterRegistry) {
+        return new MedidorEventos(meterRegistry);
+    }
+
+    /**
+     * Reintentos del consumidor en modo batch, donde el binder ignora max-attempts: el consumidor lanza
+     * BatchListenerFailedException con la posición del evento que falló, este handler confirma los anteriores y
+     * vuelve a entregar desde él. Agotados los reintentos registra ese evento en el log y sigue con el resto.
+     */
+    @Bean
+    public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> reintentosLote(
+            @Value("${priorizacion.reintentos.intervalo-ms:1000}") long intervaloMs,
+            @Value("${priorizacion.reintentos.maximo:2}") long maximo) {
+        return (container, destino, grupo) ->
+                container.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(intervaloMs, maximo)));
+    }
 }
@@ -3,74 +3,272 @@ package com.urbanevents.priorizacion.consumer;
 import com.urbanevents.events.EventMetadata;
 import com.urbanevents.events.IncidenciaCreadaEvent;
 import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.codec.CabecerasEvento;
+import com.urbanevents.events.metricas.MedidorEventos;
+import com.urbanevents.priorizacion.domain.DecisionPrioridad;
 import com.urbanevents.priorizacion.domain.Prioridad;
 import com.urbanevents.priorizacion.domain.PrioridadIncidencia;
 import com.urbanevents.priorizacion.domain.PrioridadRepository;
 import com.urbanevents.priorizacion.service.PriorizacionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
 
 /**
- * Procesador funcional de eventos de incidencias creadas usando Spring Cloud Stream.
+ * Procesador de eventos de incidencias creadas usando Spring Cloud Stream.
  * Consume eventos de incidencias creadas y produce eventos de incidencias priorizadas.
+ *
+ * Trabaja en modo batch: los registros de un poll se agrupan por incidencia y cada grupo se prioriza, en orden,
+ * en su propio hilo virtual. El retardo de priorizacion.delay-segundos solo duerme ese hilo virtual, no el hilo
+ * del consumidor ni un hilo de plataforma. El lote termina cuando todas sus incidencias están guardadas y
+ * publicadas (productor síncrono), de modo que el offset que se confirma nunca adelanta a lo procesado.
+ * Por eso cada hilo del contenedor no hace el siguiente poll hasta que acaba el grupo más lento del anterior: las
+ * incidencias en vuelo por hilo están acotadas por max.poll.records (y por los grupos con varios eventos, que van
+ * de uno en uno), y priorizacion.en-vuelo solo limita el total del servicio cuando se juntan los polls de los
+ * tres hilos del contenedor.
+ *
+ * Si falla un evento se lanza {@link BatchListenerFailedException} con su posición en el lote: el error handler
+ * del contenedor (PriorizacionConfig) confirma los anteriores, que ya están publicados, y vuelve a entregar desde
+ * ese. Los eventos posteriores del lote que ya se habían publicado se recuerdan y se saltan al volver a llegar,
+ * porque notificaciones no descarta duplicados y mandaría dos veces la misma alerta.
  */
 @Component
 public class IncidenciaCreadaConsumer {
     private static final Logger logger = LoggerFactory.getLogger(IncidenciaCreadaConsumer.class);
-    
+    static final String BINDING_SALIDA = "publicarIncidenciaPriorizada-out-0";
+    private static final ThreadFactory HILOS = Thread.ofVirtual().name("priorizacion-", 0).factory();
+
     private final PriorizacionService priorizacionService;
     private final PrioridadRepository repository;
+    private final StreamBridge streamBridge;
+    private final MedidorEventos medidor;
+    private final String versionEsquema;
+    // Compartido por los hilos del contenedor: limita el total de incidencias en vuelo del servicio
+    private final Semaphore enVuelo;
+    // Por hilo del contenedor: eventId de los eventos ya publicados tras el fallo de su último lote, que el error
+    // handler vuelve a entregar en el siguiente poll de ese mismo hilo
+    private final ThreadLocal<Set<String>> publicadosTrasFallo = ThreadLocal.withInitial(Set::of);
 
     public IncidenciaCreadaConsumer(PriorizacionService priorizacionService,
-                                    PrioridadRepository repository) {
+                                    PrioridadRepository repository,
+                                    StreamBridge streamBridge,
+                                    MedidorEventos medidor,
+                                    @Value("${priorizacion.eventos.version-esquema:v1}") String versionEsquema,
+                                    @Value("${priorizacion.en-vuelo:256}") int enVuelo) {
         this.priorizacionService = priorizacionService;
         this.repository = repository;
+        this.streamBridge = streamBridge;
+        this.medidor = medidor;
+        this.versionEsquema = versionEsquema;
+        this.enVuelo = new Semaphore(enVuelo);
     }
 
     /**
-     * Función que procesa eventos de incidencias creadas y genera eventos priorizados.
-     * Spring Cloud Stream automáticamente conecta esta función a Kafka mediante la configuración.
+     * Función que consume lotes de incidencias creadas y publica sus eventos priorizados por
+     * {@value #BINDING_SALIDA}.
+     * Requiere {@code consumer.batch-mode: true} en el binding (application.yml).
+     * Cada evento anota en {@link MedidorEventos} su edad al llegar, la duración de su tratamiento (con el retardo
+     * de priorizacion.delay-segundos) y la del save.
      */
     @Bean
-    public Function<IncidenciaCreadaEvent, IncidenciaPriorizadaEvent> procesarIncidencia() {
-        return event -> {
-            logger.info("Procesando incidencia creada: {}", event.incidenciaId());
-            
-            // Calcular prioridad y motivo
-            Prioridad prioridad = priorizacionService.calcularPrioridad(event.descripcion());
-            String motivo = priorizacionService.calcularMotivo(event.descripcion());
-            Instant now = Instant.now();
-
-            // Persistir la prioridad calculada
-            repository.save(new PrioridadIncidencia(event.incidenciaId(), prioridad, motivo, now));
-            logger.info("Incidencia {} priorizada como: {} (motivo: {})", 
-                       event.incidenciaId(), prioridad, motivo);
-
-            // Crear evento de salida
-            EventMetadata metadata = new EventMetadata(
-                UUID.randomUUID().toString(), 
-                "IncidenciaPriorizada",
-                now, 
-                "priorizacion-incidencias", 
-                "v1",null
-            );
-            
-            IncidenciaPriorizadaEvent priorizadaEvent = new IncidenciaPriorizadaEvent(
-                metadata, 
-                event.incidenciaId(), 
-                prioridad.name(), 
-                motivo, 
-                now
-            );
-            
-            logger.info("Publicando evento de incidencia priorizada: {}", event.incidenciaId());
-            return priorizadaEvent;
-        };
+    public Consumer<List<IncidenciaCreadaEvent>> procesarIncidencia() {
+        return this::procesarLote;
+    }
+
+    void procesarLote(List<IncidenciaCreadaEvent> eventos) {
+        Set<String> yaPublicados = publicadosTrasFallo.get();
+        // La clave de Kafka es el id de la incidencia: dentro de un grupo se respeta el orden de la partición.
+        // Cada grupo guarda las posiciones de sus eventos en el lote.
+        Map<Long, List<Integer>> porIncidencia = new LinkedHashMap<>();
+        for (int i = 0; i < eventos.size(); i++) {
+            IncidenciaCreadaEvent event = eventos.get(i);
+            medidor.recibido(Topics.INCIDENCIAS_CREADAS, event);
+            porIncidencia.computeIfAbsent(event.incidenciaId(), id -> new ArrayList<>()).add(i);
+        }
+
+        Lote lote = new Lote(eventos, yaPublicados);
+        // close() espera a que terminen todos los grupos
+        try (ExecutorService hilos = Executors.newThreadPerTaskExecutor(HILOS)) {
+            for (List<Integer> grupo : porIncidencia.values()) {
+                hilos.execute(() -> procesarEnOrden(lote, grupo));
+            }
+        }
+        publicadosTrasFallo.set(lote.publicadosTrasFallo());
+        if (lote.fallo != null) {
+            // Se confirma hasta el anterior al que falló y el resto se vuelve a entregar (ver PriorizacionConfig)
+            throw new BatchListenerFailedException(String.format("Incidencia %d sin priorizar (posición %d de %d)",
+                    eventos.get(lote.primerFallo).incidenciaId(), lote.primerFallo, eventos.size()),
+                    lote.fallo, lote.primerFallo);
+        }
+    }
+
+    /**
+     * Prioriza los eventos de una incidencia de uno en uno. Si uno falla no se sigue con los siguientes, para no
+     * publicar un evento posterior antes que uno anterior de la misma incidencia; tampoco se empieza ninguno que
+     * vaya detrás del primer fallo del lote, porque se va a volver a entregar.
+     */
+    private void procesarEnOrden(Lote lote, List<Integer> grupo) {
+        for (int posicion : grupo) {
+            IncidenciaCreadaEvent event = lote.eventos.get(posicion);
+            if (posicion > lote.primerFallo) {
+                return;
+            }
+            if (lote.yaPublicado(event)) {
+                logger.debug("Incidencia {} ya publicada antes de volver a entregarse", event.incidenciaId());
+                continue;
+            }
+            try {
+                enVuelo.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lote.fallo(posicion, e);
+                return;
+            }
+            long inicio = medidor.inicio();
+            try {
+                publicar(priorizar(event));
+                lote.publicado(posicion);
+            } catch (RuntimeException e) {
+                logger.error("Error priorizando la incidencia {}", event.incidenciaId(), e);
+                lote.fallo(posicion, e);
+                return;
+            } finally {
+                medidor.procesado(Topics.INCIDENCIAS_CREADAS, tipoEvento(event), inicio);
+                enVuelo.release();
+            }
+        }
+    }
+
+    private Message<IncidenciaPriorizadaEvent> priorizar(IncidenciaCreadaEvent event) {
+        logger.info("Procesando incidencia creada: {}", event.incidenciaId());
+
+        // Calcular prioridad y motivo en una sola pasada por la descripción
+        DecisionPrioridad decision = priorizacionService.decidir(event.descripcion());
+        Prioridad prioridad = decision.prioridad();
+        String motivo = decision.motivo();
+        Instant now = Instant.now();
+
+        // Persistir la prioridad calculada
+        medidor.bd(Topics.INCIDENCIAS_CREADAS, tipoEvento(event),
+                () -> repository.save(new PrioridadIncidencia(event.incidenciaId(), prioridad, motivo, now)));
+        logger.info("Incidencia {} priorizada como: {} (motivo: {})",
+                   event.incidenciaId(), prioridad, motivo);
+
+        // Crear evento de salida
+        EventMetadata metadata = new EventMetadata(
+            UUID.randomUUID().toString(),
+            "IncidenciaPriorizada",
+            now,
+            "priorizacion-incidencias",
+            versionEsquema, null
+        );
+
+        IncidenciaPriorizadaEvent priorizadaEvent = new IncidenciaPriorizadaEvent(
+            metadata,
+            event.incidenciaId(),
+            prioridad.name(),
+            motivo,
+            now
+        );
+
+        // La clave de salida es el id de la incidencia, igual que la de entrada, para que sus eventos sigan en
+        // orden en incidencias.priorizadas. La metadata y la prioridad viajan también en cabeceras
+        // (CabecerasEvento) para que notificaciones descarte lo que no notifica sin decodificar el evento.
+        MessageBuilder<IncidenciaPriorizadaEvent> mensaje = MessageBuilder.withPayload(priorizadaEvent)
+            .setHeader(KafkaHeaders.KEY, priorizadaEvent.clave());
+        // En bytes: el binder serializaría a JSON cualquier otro tipo de cabecera
+        CabecerasEvento.de(priorizadaEvent)
+            .forEach((nombre, valor) -> mensaje.setHeader(nombre, CabecerasEvento.bytes(valor)));
+        return mensaje.build();
+    }
+
+    private void publicar(Message<IncidenciaPriorizadaEvent> mensaje) {
+        logger.info("Publicando evento de incidencia priorizada: {}", mensaje.getPayload().incidenciaId());
+        // Con producer.sync el envío vuelve cuando el broker confirma (o lanza si falla)
+        if (!streamBridge.send(BINDING_SALIDA, mensaje)) {
+            throw new IllegalStateException("No se ha podido publicar la incidencia priorizada "
+                    + mensaje.getPayload().incidenciaId());
+        }
+    }
+
+    private static String tipoEvento(IncidenciaCreadaEvent event) {
+        return event.metadata() == null ? null : event.metadata().eventType();
+    }
+
+    /**
+     * Estado compartido por los grupos de un lote: el primer evento que falló y los que se han publicado.
+     */
+    private static final class Lote {
+        private final List<IncidenciaCreadaEvent> eventos;
+        private final Set<String> yaPublicados;
+        private final Set<Integer> publicados = ConcurrentHashMap.newKeySet();
+        private volatile int primerFallo = Integer.MAX_VALUE;
+        private Throwable fallo;
+
+        private Lote(List<IncidenciaCreadaEvent> eventos, Set<String> yaPublicados) {
+            this.eventos = eventos;
+            this.yaPublicados = yaPublicados;
+        }
+
+        private boolean yaPublicado(IncidenciaCreadaEvent event) {
+            return event.metadata() != null && yaPublicados.contains(event.metadata().eventId());
+        }
+
+        private void publicado(int posicion) {
+            publicados.add(posicion);
+        }
+
+        private synchronized void fallo(int posicion, Throwable causa) {
+            if (posicion < primerFallo) {
+                primerFallo = posicion;
+                fallo = causa;
+            }
+        }
+
+        /**
+         * Eventos publicados detrás del primer fallo, que se volverán a entregar.
+         */
+        private Set<String> publicadosTrasFallo() {
+            if (fallo == null) {
+                return Set.of();
+            }
+            Set<String> ids = new HashSet<>();
+            for (int posicion : publicados) {
+                IncidenciaCreadaEvent event = eventos.get(posicion);
+                if (posicion > primerFallo && event.metadata() != null) {
+                    ids.add(event.metadata().eventId());
+                }
+            }
+            // Los que ya se saltaron en este lote y siguen detrás del fallo vuelven a llegar en el próximo
+            for (int posicion = primerFallo + 1; posicion < eventos.size(); posicion++) {
+                if (yaPublicado(eventos.get(posicion))) {
+                    ids.add(eventos.get(posicion).metadata().eventId());
+                }
+            }
+            return ids;
+        }
     }
 }
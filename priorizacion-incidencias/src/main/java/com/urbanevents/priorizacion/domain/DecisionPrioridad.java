@@ -0,0 +1,25 @@
+package com.urbanevents.priorizacion.domain;
+
+import java.util.List;
+
+/**
+ * Resultado de priorizar una descripción: la prioridad, el motivo que se guarda con ella y las palabras
+ * encontradas (críticas y configuradas) con su posición en la descripción, por orden de aparición.
+ */
+public record DecisionPrioridad(Prioridad prioridad, String motivo, List<Coincidencia> coincidencias) {
+    public static final String MOTIVO_POR_DEFECTO = "prioridad por defecto";
+
+    public DecisionPrioridad {
+        coincidencias = List.copyOf(coincidencias);
+    }
+
+    public static DecisionPrioridad porDefecto() {
+        return new DecisionPrioridad(Prioridad.MEDIA, MOTIVO_POR_DEFECTO, List.of());
+    }
+
+    /**
+     * Palabra tal y como está configurada y posición [inicio, fin) en la descripción original.
+     */
+    public record Coincidencia(String palabra, int inicio, int fin) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.urbanevents.priorizacion.service;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Autómata de Aho-Corasick sobre una lista de palabras: encuentra todas sus apariciones (también solapadas o
+ * dentro de otras palabras, como String.contains) en una sola pasada por el texto, sin crear cadenas. Se compila
+ * una vez y es inmutable, así que se comparte entre hilos.
+ *
+ * Texto y palabras se comparan plegados carácter a carácter: en minúsculas y sin tildes ni diéresis (la ñ se
+ * conserva). Como el plegado no cambia la longitud, las posiciones de las coincidencias son las del texto original.
+ */
+final class AutomataPalabras {
+    private static final int RAIZ = 0;
+    private static final int SIN_NODO = -1;
+    private static final int[] SIN_SALIDAS = new int[0];
+
+    // Latín-1 y Latín extendido A/B, donde están las letras con tilde del español y vecinos
+    private static final char[] PLEGADO = new char[0x250];
+
+    static {
+        for (char c = 0; c < PLEGADO.length; c++) {
+            char base = c == 'ñ' || c == 'Ñ'
+                    ? c
+                    : Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+            PLEGADO[c] = Character.toLowerCase(base);
+        }
+    }
+
+    /**
+     * Recibe cada coincidencia: índice de la palabra en la lista del constructor y su posición [inicio, fin).
+     */
+    interface Visitante {
+        void coincidencia(int palabra, int inicio, int fin);
+    }
+
+    private final int[] longitudes;
+    // Transiciones de cada nodo: caracteres ordenados y nodo destino (búsqueda binaria)
+    private final char[][] caracteres;
+    private final int[][] destinos;
+    // La raíz es el nodo más visitado: tabla directa para los caracteres plegados más comunes
+    private final int[] raiz = new int[PLEGADO.length];
+    private final int[] fallo;
+    // Primer nodo desde este (él mismo incluido) en la cadena de fallos que termina alguna palabra
+    private final int[] primeraSalida;
+    private final int[][] salidas;
+
+    AutomataPalabras(List<String> palabras) {
+        longitudes = new int[palabras.size()];
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<int[]> terminan = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminan.add(SIN_SALIDAS);
+
+        for (int i = 0; i < palabras.size(); i++) {
+            String palabra = palabras.get(i);
+            longitudes[i] = palabra.length();
+            if (palabra.isEmpty()) {
+                continue;
+            }
+            int nodo = RAIZ;
+            for (int j = 0; j < palabra.length(); j++) {
+                char c = plegar(palabra.charAt(j));
+                Integer hijo = trie.get(nodo).get(c);
+                if (hijo == null) {
+                    hijo = trie.size();
+                    trie.get(nodo).put(c, hijo);
+                    trie.add(new TreeMap<>());
+                    terminan.add(SIN_SALIDAS);
+                }
+                nodo = hijo;
+            }
+            int[] anteriores = terminan.get(nodo);
+            int[] ampliadas = Arrays.copyOf(anteriores, anteriores.length + 1);
+            ampliadas[anteriores.length] = i;
+            terminan.set(nodo, ampliadas);
+        }
+
+        int nodos = trie.size();
+        caracteres = new char[nodos][];
+        destinos = new int[nodos][];
+        salidas = terminan.toArray(int[][]::new);
+        for (int n = 0; n < nodos; n++) {
+            Map<Character, Integer> transiciones = trie.get(n);
+            caracteres[n] = new char[transiciones.size()];
+            destinos[n] = new int[transiciones.size()];
+            int k = 0;
+            for (Map.Entry<Character, Integer> t : transiciones.entrySet()) {
+                caracteres[n][k] = t.getKey();
+                destinos[n][k] = t.getValue();
+                k++;
+            }
+        }
+        Arrays.fill(raiz, RAIZ);
+        for (int k = 0; k < caracteres[RAIZ].length; k++) {
+            if (caracteres[RAIZ][k] < raiz.length) {
+                raiz[caracteres[RAIZ][k]] = destinos[RAIZ][k];
+            }
+        }
+
+        // Enlaces de fallo por niveles: el del hijo sale del fallo del padre
+        fallo = new int[nodos];
+        primeraSalida = new int[nodos];
+        primeraSalida[RAIZ] = SIN_NODO;
+        Queue<Integer> pendientes = new ArrayDeque<>();
+        for (int hijo : destinos[RAIZ]) {
+            fallo[hijo] = RAIZ;
+            primeraSalida[hijo] = salidas[hijo].length > 0 ? hijo : SIN_NODO;
+            pendientes.add(hijo);
+        }
+        while (!pendientes.isEmpty()) {
+            int nodo = pendientes.remove();
+            for (int k = 0; k < caracteres[nodo].length; k++) {
+                int hijo = destinos[nodo][k];
+                fallo[hijo] = avanzar(fallo[nodo], caracteres[nodo][k]);
+                primeraSalida[hijo] = salidas[hijo].length > 0 ? hijo : primeraSalida[fallo[hijo]];
+                pendientes.add(hijo);
+            }
+        }
+    }
+
+    /**
+     * Recorre {@code texto} una vez y avisa de cada palabra encontrada, por orden de posición final.
+     */
+    void recorrer(CharSequence texto, Visitante visitante) {
+        int nodo = RAIZ;
+        for (int i = 0; i < texto.length(); i++) {
+            nodo = avanzar(nodo, plegar(texto.charAt(i)));
+            for (int n = primeraSalida[nodo]; n != SIN_NODO; n = primeraSalida[fallo[n]]) {
+                for (int palabra : salidas[n]) {
+                    visitante.coincidencia(palabra, i + 1 - longitudes[palabra], i + 1);
+                }
+            }
+        }
+    }
+
+    private int avanzar(int nodo, char c) {
+        while (true) {
+            if (nodo == RAIZ) {
+                return c < raiz.length ? raiz[c] : transicion(RAIZ, c, RAIZ);
+            }
+            int destino = transicion(nodo, c, SIN_NODO);
+            if (destino != SIN_NODO) {
+                return destino;
+            }
+            nodo = fallo[nodo];
+        }
+    }
+
+    private int transicion(int nodo, char c, int siNoHay) {
+        int k = Arrays.binarySearch(caracteres[nodo], c);
+        return k >= 0 ? destinos[nodo][k] : siNoHay;
+    }
+
+    static char plegar(char c) {
+        return c < PLEGADO.length ? PLEGADO[c] : Character.toLowerCase(c);
+    }
+}
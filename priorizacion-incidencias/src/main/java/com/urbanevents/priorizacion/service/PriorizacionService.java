@@ -1,7 +1,9 @@
 package com.urbanevents.priorizacion.service;
 
+import com.urbanevents.priorizacion.domain.DecisionPrioridad;
 import com.urbanevents.priorizacion.domain.Prioridad;
 
+import java.util.ArrayList;
 import java.util.List;
 /**
  * Servicio para calcular la prioridad de una incidencia basada en su descripción.
@@ -9,38 +11,52 @@ import java.util.List;
  * Si se encuentra alguna palabra crítica como "accidente" o "grave", la prioridad es CRITICA.
  * Si se encuentra otras palabras críticas, la prioridad es ALTA. De lo contrario, es MEDIA.
  * Este servicio es simple y se puede mejorar con técnicas más avanzadas como análisis de sentimientos o aprendizaje automático, pero cumple con el requisito básico de priorización basado en palabras clave.
+ *
+ * Todas las palabras se compilan al crear el servicio en un {@link AutomataPalabras}, que recorre la descripción
+ * una sola vez sin distinguir mayúsculas ni tildes, sea cual sea el número de palabras configuradas.
  *  */
 public class PriorizacionService {
-    private final List<String> palabrasCriticas;
+    // Índices 0 y 1 del autómata; las configuradas van detrás, en su orden
+    private static final List<String> PALABRAS_PRIORIDAD_CRITICA = List.of("accidente", "grave");
+    private static final String MOTIVO_CRITICA =
+            "se ha encontrado palabra crítica 'accidente' o 'grave' en el campo descripcion";
+
     private final int delaySegundos;
+    private final AutomataPalabras automata;
+    private final String[] palabras;
+    private final String[] motivos;
 
     public PriorizacionService(List<String> palabrasCriticas) {
-        this.palabrasCriticas = palabrasCriticas;
-        this.delaySegundos = 0;
+        this(palabrasCriticas, 0);
     }
 
     public PriorizacionService(List<String> palabrasCriticas, int delaySegundos) {
-        this.palabrasCriticas = palabrasCriticas;
         this.delaySegundos = delaySegundos;
+
+        List<String> todas = new ArrayList<>(PALABRAS_PRIORIDAD_CRITICA);
+        todas.addAll(palabrasCriticas);
+        this.automata = new AutomataPalabras(todas);
+        this.palabras = todas.toArray(String[]::new);
+        this.motivos = new String[palabras.length];
+        for (int i = 0; i < palabras.length; i++) {
+            motivos[i] = i < PALABRAS_PRIORIDAD_CRITICA.size()
+                    ? MOTIVO_CRITICA
+                    : String.format("se ha encontrado literal '%s' en el campo descripcion", palabras[i]);
+        }
     }
 
-    public Prioridad calcularPrioridad(String descripcion) {
+    /**
+     * Prioridad, motivo y palabras encontradas en una sola pasada por la descripción. Aplica el retardo
+     * configurado (priorizacion.delay-segundos) una vez: el consumidor lo llama desde un hilo virtual, donde
+     * dormir libera el hilo de plataforma.
+     */
+    public DecisionPrioridad decidir(String descripcion) {
         aplicarDelay();
-        if (descripcion == null) {
-            return Prioridad.MEDIA;
-        }
-        String lower = descripcion.toLowerCase();
-        // Palabras que indican prioridad CRITICA
-        if (lower.contains("accidente") || lower.contains("grave")) {
-            return Prioridad.CRITICA;
-        }
-        // Palabras que indican prioridad ALTA
-        for (String palabra : palabrasCriticas) {
-            if (lower.contains(palabra.toLowerCase())) {
-                return Prioridad.ALTA;
-            }
-        }
-        return Prioridad.MEDIA;
+        return evaluar(descripcion);
+    }
+
+    public Prioridad calcularPrioridad(String descripcion) {
+        return decidir(descripcion).prioridad();
     }
 
     private void aplicarDelay() {
@@ -55,24 +71,37 @@ public class PriorizacionService {
     }
 
     public String calcularMotivo(String descripcion) {
+        return evaluar(descripcion).motivo();
+    }
+
+    private DecisionPrioridad evaluar(String descripcion) {
         if (descripcion == null) {
-            return "prioridad por defecto";
-        }
-        String lower = descripcion.toLowerCase();
-        // Palabras que indican prioridad CRITICA
-        if (lower.contains("accidente") || lower.contains("grave")) {
-            return "se ha encontrado palabra crítica 'accidente' o 'grave' en el campo descripcion";
+            return DecisionPrioridad.porDefecto();
         }
-        // Palabras que indican prioridad ALTA
-        for (String palabra : palabrasCriticas) {
-            if (lower.contains(palabra.toLowerCase())) {
-                return String.format("se ha encontrado literal '%s' en el campo descripcion", palabra);
-            }
+        Evaluacion evaluacion = new Evaluacion();
+        automata.recorrer(descripcion, evaluacion);
+        if (evaluacion.primera == Integer.MAX_VALUE) {
+            return DecisionPrioridad.porDefecto();
         }
-        return "prioridad por defecto";
+        // Con varias configuradas manda la primera de la lista, no la primera que aparece en el texto
+        Prioridad prioridad = evaluacion.primera < PALABRAS_PRIORIDAD_CRITICA.size()
+                ? Prioridad.CRITICA
+                : Prioridad.ALTA;
+        return new DecisionPrioridad(prioridad, motivos[evaluacion.primera], evaluacion.coincidencias);
     }
 
     public int getDelaySegundos() {
         return delaySegundos;
     }
+
+    private final class Evaluacion implements AutomataPalabras.Visitante {
+        private final List<DecisionPrioridad.Coincidencia> coincidencias = new ArrayList<>();
+        private int primera = Integer.MAX_VALUE;
+
+        @Override
+        public void coincidencia(int palabra, int inicio, int fin) {
+            coincidencias.add(new DecisionPrioridad.Coincidencia(palabras[palabra], inicio, fin));
+            primera = Math.min(primera, palabra);
+        }
+    }
 }
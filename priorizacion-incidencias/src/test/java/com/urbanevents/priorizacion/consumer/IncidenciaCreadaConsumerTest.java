@@ -3,30 +3,48 @@ package com.urbanevents.priorizacion.consumer;
 import com.urbanevents.events.EventMetadata;
 import com.urbanevents.events.IncidenciaCreadaEvent;
 import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.codec.CabecerasEvento;
+import com.urbanevents.events.metricas.MedidorEventos;
+import com.urbanevents.priorizacion.domain.DecisionPrioridad;
 import com.urbanevents.priorizacion.domain.Prioridad;
 import com.urbanevents.priorizacion.domain.PrioridadIncidencia;
 import com.urbanevents.priorizacion.domain.PrioridadRepository;
 import com.urbanevents.priorizacion.service.PriorizacionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
-import java.util.function.Function;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
  * Test del procesador funcional de incidencias creadas.
- * Con Spring Cloud Stream el testing es más simple: solo probamos la función pura.
+ * Con Spring Cloud Stream el testing es más simple: solo probamos la función, con StreamBridge simulado.
  */
 @ExtendWith(MockitoExtension.class)
 class IncidenciaCreadaConsumerTest {
@@ -36,21 +54,27 @@ class IncidenciaCreadaConsumerTest {
     @Mock
     private PrioridadRepository repository;
 
+    @Mock
+    private StreamBridge streamBridge;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
     private IncidenciaCreadaConsumer consumer;
-    private Function<IncidenciaCreadaEvent, IncidenciaPriorizadaEvent> procesarIncidencia;
+    private Consumer<List<IncidenciaCreadaEvent>> procesarIncidencia;
 
     @BeforeEach
     void setUp() {
-        consumer = new IncidenciaCreadaConsumer(priorizacionService, repository);
+        consumer = new IncidenciaCreadaConsumer(priorizacionService, repository, streamBridge,
+                new MedidorEventos(registry), "v2", 256);
         procesarIncidencia = consumer.procesarIncidencia();
     }
 
     @Test
     void procesaIncidenciaConPrioridadAltaYGeneraEventoDeSalida() {
         // Arrange
-        when(priorizacionService.calcularPrioridad(anyString())).thenReturn(Prioridad.ALTA);
-        when(priorizacionService.calcularMotivo(anyString())).thenReturn("se ha encontrado literal 'incendio' en el campo descripcion");
+        when(priorizacionService.decidir(anyString())).thenReturn(new DecisionPrioridad(Prioridad.ALTA,
+                "se ha encontrado literal 'incendio' en el campo descripcion", List.of()));
         when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(streamBridge.send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), any())).thenReturn(true);
 
         IncidenciaCreadaEvent inputEvent = new IncidenciaCreadaEvent(
                 new EventMetadata(UUID.randomUUID().toString(), "IncidenciaCreada", Instant.now(), "test", "v1"),
@@ -63,7 +87,14 @@ class IncidenciaCreadaConsumerTest {
         );
 
         // Act
-        IncidenciaPriorizadaEvent outputEvent = procesarIncidencia.apply(inputEvent);
+        Message<IncidenciaPriorizadaEvent> salida = procesar(inputEvent);
+        IncidenciaPriorizadaEvent outputEvent = salida.getPayload();
+
+        // Assert - La clave de Kafka es el id de la incidencia (misma partición que el resto de sus eventos)
+        assertThat(salida.getHeaders().get(KafkaHeaders.KEY)).isEqualTo("1");
+        // La prioridad viaja también en cabecera para filtrar sin decodificar
+        assertThat(salida.getHeaders().get(CabecerasEvento.PRIORIDAD, byte[].class))
+                .isEqualTo(CabecerasEvento.bytes("ALTA"));
 
         // Assert - Verificar que se persistió la prioridad
         ArgumentCaptor<PrioridadIncidencia> captor = ArgumentCaptor.forClass(PrioridadIncidencia.class);
@@ -78,14 +109,24 @@ class IncidenciaCreadaConsumerTest {
         assertThat(outputEvent.motivo()).isEqualTo("se ha encontrado literal 'incendio' en el campo descripcion");
         assertThat(outputEvent.metadata().eventType()).isEqualTo("IncidenciaPriorizada");
         assertThat(outputEvent.metadata().sourceService()).isEqualTo("priorizacion-incidencias");
+        // La versión de esquema configurada decide el formato (v2: Smile) con el que se publica
+        assertThat(outputEvent.metadata().schemaVersion()).isEqualTo("v2");
+
+        // Assert - Edad, procesamiento y save medidos por topic y tipo de evento de entrada
+        for (String timer : new String[]{MedidorEventos.EDAD, MedidorEventos.PROCESAMIENTO, MedidorEventos.BD}) {
+            assertThat(registry.get(timer)
+                    .tags("topic", Topics.INCIDENCIAS_CREADAS, "evento", "IncidenciaCreada").timer().count())
+                    .isEqualTo(1);
+        }
     }
 
     @Test
     void procesaIncidenciaConPrioridadCriticaYGeneraEventoDeSalida() {
         // Arrange
-        when(priorizacionService.calcularPrioridad(anyString())).thenReturn(Prioridad.CRITICA);
-        when(priorizacionService.calcularMotivo(anyString())).thenReturn("se ha encontrado palabra crítica 'accidente' o 'grave' en el campo descripcion");
+        when(priorizacionService.decidir(anyString())).thenReturn(new DecisionPrioridad(Prioridad.CRITICA,
+                "se ha encontrado palabra crítica 'accidente' o 'grave' en el campo descripcion", List.of()));
         when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(streamBridge.send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), any())).thenReturn(true);
 
         IncidenciaCreadaEvent inputEvent = new IncidenciaCreadaEvent(
                 new EventMetadata(UUID.randomUUID().toString(), "IncidenciaCreada", Instant.now(), "test", "v1"),
@@ -98,7 +139,7 @@ class IncidenciaCreadaConsumerTest {
         );
 
         // Act
-        IncidenciaPriorizadaEvent outputEvent = procesarIncidencia.apply(inputEvent);
+        IncidenciaPriorizadaEvent outputEvent = procesar(inputEvent).getPayload();
 
         // Assert - Verificar que se persistió la prioridad
         ArgumentCaptor<PrioridadIncidencia> captor = ArgumentCaptor.forClass(PrioridadIncidencia.class);
@@ -118,9 +159,10 @@ class IncidenciaCreadaConsumerTest {
     @Test
     void procesaIncidenciaConPrioridadMediaCuandoNoHayPalabrasCriticas() {
         // Arrange
-        when(priorizacionService.calcularPrioridad(anyString())).thenReturn(Prioridad.MEDIA);
-        when(priorizacionService.calcularMotivo(anyString())).thenReturn("prioridad por defecto");
+        when(priorizacionService.decidir(anyString())).thenReturn(new DecisionPrioridad(Prioridad.MEDIA,
+                "prioridad por defecto", List.of()));
         when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(streamBridge.send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), any())).thenReturn(true);
 
         IncidenciaCreadaEvent inputEvent = new IncidenciaCreadaEvent(
                 new EventMetadata(UUID.randomUUID().toString(), "IncidenciaCreada", Instant.now(), "test", "v1"),
@@ -133,7 +175,7 @@ class IncidenciaCreadaConsumerTest {
         );
 
         // Act
-        IncidenciaPriorizadaEvent outputEvent = procesarIncidencia.apply(inputEvent);
+        IncidenciaPriorizadaEvent outputEvent = procesar(inputEvent).getPayload();
 
         // Assert
         ArgumentCaptor<PrioridadIncidencia> captor = ArgumentCaptor.forClass(PrioridadIncidencia.class);
@@ -143,4 +185,89 @@ class IncidenciaCreadaConsumerTest {
         assertThat(outputEvent.prioridad()).isEqualTo("MEDIA");
         assertThat(outputEvent.motivo()).isEqualTo("prioridad por defecto");
     }
-}
\ No newline at end of file
+
+    @Test
+    void priorizaIncidenciasDistintasALaVezYLasDeUnaMismaEnOrden() throws InterruptedException {
+        // Dos incidencias distintas solo terminan si están en vuelo a la vez
+        CountDownLatch ambasEnVuelo = new CountDownLatch(2);
+        List<String> orden = new CopyOnWriteArrayList<>();
+        when(priorizacionService.decidir(anyString())).thenAnswer(invocation -> {
+            String descripcion = invocation.getArgument(0);
+            if (descripcion.startsWith("primera")) {
+                ambasEnVuelo.countDown();
+                assertThat(ambasEnVuelo.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+            orden.add(descripcion);
+            return DecisionPrioridad.porDefecto();
+        });
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(streamBridge.send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), any())).thenReturn(true);
+
+        procesarIncidencia.accept(List.of(
+                evento(1L, "primera de 1"), evento(2L, "primera de 2"), evento(1L, "segunda de 1")));
+
+        assertThat(orden).containsExactlyInAnyOrder("primera de 1", "primera de 2", "segunda de 1");
+        assertThat(orden.indexOf("primera de 1")).isLessThan(orden.indexOf("segunda de 1"));
+        assertThat(registry.get(MedidorEventos.PROCESAMIENTO).timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void siFallaUnaIncidenciaNoSigueConSusEventosYSeñalaSuPosicionEnElLote() {
+        when(priorizacionService.decidir(anyString())).thenAnswer(invocation -> {
+            if ("falla".equals(invocation.getArgument(0))) {
+                throw new IllegalStateException("enriquecimiento caído");
+            }
+            return DecisionPrioridad.porDefecto();
+        });
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(streamBridge.send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), any())).thenReturn(true);
+
+        assertThatThrownBy(() -> procesarIncidencia.accept(List.of(
+                evento(3L, "antes"), evento(2L, "bien"), evento(1L, "falla"), evento(1L, "después del fallo"))))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(2));
+
+        // Las otras incidencias se publican; el evento posterior de la que falla no se adelanta
+        verify(priorizacionService, never()).decidir("después del fallo");
+        verify(streamBridge, times(2)).send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), any());
+    }
+
+    @Test
+    void alVolverAEntregarseElLoteNoRepiteLoYaPublicadoTrasElFallo() {
+        AtomicBoolean caido = new AtomicBoolean(true);
+        when(priorizacionService.decidir(anyString())).thenAnswer(invocation -> {
+            if ("falla".equals(invocation.getArgument(0)) && caido.get()) {
+                throw new IllegalStateException("enriquecimiento caído");
+            }
+            return DecisionPrioridad.porDefecto();
+        });
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(streamBridge.send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), any())).thenReturn(true);
+        IncidenciaCreadaEvent falla = evento(1L, "falla");
+        IncidenciaCreadaEvent bien = evento(2L, "bien");
+
+        assertThatThrownBy(() -> procesarIncidencia.accept(List.of(evento(3L, "antes"), falla, bien)))
+                .isInstanceOf(BatchListenerFailedException.class);
+        caido.set(false);
+        // El error handler vuelve a entregar desde el que falló
+        procesarIncidencia.accept(List.of(falla, bien, evento(4L, "nuevo")));
+
+        verify(priorizacionService, times(1)).decidir("bien");
+        verify(priorizacionService, times(2)).decidir("falla");
+        verify(streamBridge, times(4)).send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<IncidenciaPriorizadaEvent> procesar(IncidenciaCreadaEvent event) {
+        procesarIncidencia.accept(List.of(event));
+        ArgumentCaptor<Message<IncidenciaPriorizadaEvent>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge).send(eq(IncidenciaCreadaConsumer.BINDING_SALIDA), captor.capture());
+        return captor.getValue();
+    }
+
+    private static IncidenciaCreadaEvent evento(Long incidenciaId, String descripcion) {
+        return new IncidenciaCreadaEvent(
+                new EventMetadata(UUID.randomUUID().toString(), "IncidenciaCreada", Instant.now(), "test", "v1"),
+                incidenciaId, "servicio", descripcion, "sensor", "plaza", Instant.now());
+    }
+}
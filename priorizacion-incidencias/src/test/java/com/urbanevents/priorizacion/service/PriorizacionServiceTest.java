@@ -1,9 +1,14 @@
 package com.urbanevents.priorizacion.service;
 
+import com.urbanevents.priorizacion.domain.DecisionPrioridad;
+import com.urbanevents.priorizacion.domain.DecisionPrioridad.Coincidencia;
 import com.urbanevents.priorizacion.domain.Prioridad;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -29,4 +34,67 @@ class PriorizacionServiceTest {
     void devuelveMediaCuandoDescripcionEsNull() {
         assertThat(service.calcularPrioridad(null)).isEqualTo(Prioridad.MEDIA);
     }
-}
\ No newline at end of file
+
+    @Test
+    void decideEnUnaPasadaSinDistinguirMayusculasNiTildesYDevuelveLasPosiciones() {
+        PriorizacionService conTildes = new PriorizacionService(List.of("explosión", "incendio"));
+
+        DecisionPrioridad decision = conTildes.decidir("INCENDIO tras una EXPLOSION");
+
+        assertThat(decision.prioridad()).isEqualTo(Prioridad.ALTA);
+        // Manda el orden de la lista configurada, no el de aparición en el texto
+        assertThat(decision.motivo()).isEqualTo("se ha encontrado literal 'explosión' en el campo descripcion");
+        assertThat(decision.coincidencias())
+                .containsExactly(new Coincidencia("incendio", 0, 8), new Coincidencia("explosión", 18, 27));
+    }
+
+    @Test
+    void lasPalabrasDeCriticaPrevalecenYSeEncuentranDentroDeOtras() {
+        DecisionPrioridad decision = service.decidir("Fuego urgente, heridos GRAVEMENTE");
+
+        assertThat(decision.prioridad()).isEqualTo(Prioridad.CRITICA);
+        assertThat(decision.motivo())
+                .isEqualTo("se ha encontrado palabra crítica 'accidente' o 'grave' en el campo descripcion");
+        assertThat(decision.coincidencias()).extracting(Coincidencia::palabra)
+                .containsExactly("fuego", "urgente", "grave");
+        assertThat(service.decidir("farola apagada")).isEqualTo(DecisionPrioridad.porDefecto());
+    }
+
+    @Test
+    void coincideConLaBusquedaPorContainsConMilesDePalabras() {
+        Random random = new Random(7);
+        List<String> palabras = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            palabras.add(palabraAleatoria(random, 2 + random.nextInt(5)));
+        }
+        PriorizacionService muchas = new PriorizacionService(palabras);
+
+        for (int i = 0; i < 500; i++) {
+            String descripcion = palabraAleatoria(random, random.nextInt(200));
+            assertThat(muchas.decidir(descripcion).motivo()).isEqualTo(motivoPorContains(descripcion, palabras));
+        }
+    }
+
+    // Búsqueda anterior al autómata, palabra por palabra, como referencia
+    private static String motivoPorContains(String descripcion, List<String> palabras) {
+        String lower = descripcion.toLowerCase(Locale.ROOT);
+        if (lower.contains("accidente") || lower.contains("grave")) {
+            return "se ha encontrado palabra crítica 'accidente' o 'grave' en el campo descripcion";
+        }
+        for (String palabra : palabras) {
+            if (lower.contains(palabra.toLowerCase(Locale.ROOT))) {
+                return String.format("se ha encontrado literal '%s' en el campo descripcion", palabra);
+            }
+        }
+        return DecisionPrioridad.MOTIVO_POR_DEFECTO;
+    }
+
+    // Alfabeto pequeño para que haya coincidencias solapadas y prefijos comunes
+    private static String palabraAleatoria(Random random, int longitud) {
+        StringBuilder palabra = new StringBuilder(longitud);
+        for (int i = 0; i < longitud; i++) {
+            palabra.append("abcdegrvAE ".charAt(random.nextInt(11)));
+        }
+        return palabra.toString();
+    }
+}
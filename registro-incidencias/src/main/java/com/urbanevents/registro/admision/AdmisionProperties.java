@@ -0,0 +1,40 @@
+package com.urbanevents.registro.admision;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Límites de admisión por origen ({@code registro.admision}). Los orígenes que no aparecen en {@code origenes}
+ * usan {@code por-defecto}, cada uno con su propio cubo.
+ */
+@ConfigurationProperties("registro.admision")
+public record AdmisionProperties(
+        @DefaultValue("true") boolean habilitada,
+        @DefaultValue Limite porDefecto,
+        Map<String, Limite> origenes,
+        // Cubos en memoria como máximo; un cubo inactivo más de "inactividad" se descarta (volvería lleno igualmente)
+        @DefaultValue("100000") long maxOrigenes,
+        @DefaultValue("10m") Duration inactividad,
+        // Valores distintos de la etiqueta "origen" en las métricas; el resto no se registra
+        @DefaultValue("200") int maxOrigenesMetricas
+) {
+    public AdmisionProperties {
+        origenes = origenes == null ? Map.of() : Map.copyOf(origenes);
+    }
+
+    /**
+     * Tokens repuestos por segundo y capacidad del cubo (peticiones seguidas admitidas con el cubo lleno).
+     */
+    public record Limite(
+            @DefaultValue("50") double tasaPorSegundo,
+            @DefaultValue("100") int rafaga
+    ) {
+    }
+
+    Limite limite(String origen) {
+        return origenes.getOrDefault(origen, porDefecto);
+    }
+}
@@ -0,0 +1,53 @@
+package com.urbanevents.registro.admision;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cubo de tokens sin bloqueos. En lugar de guardar tokens e instante de la última recarga (dos valores que
+ * habría que actualizar juntos), guarda un único instante: cuándo volverá a estar lleno el cubo (formulación GCRA,
+ * equivalente). Consumir n tokens lo adelanta n intervalos con un compareAndSet; si queda más allá de la capacidad,
+ * la petición se rechaza y la diferencia es el tiempo que falta para que haya tokens.
+ */
+final class CuboTokens {
+    private final long intervaloNanos;
+    private final long capacidadNanos;
+    private final AtomicLong llenoEn;
+
+    CuboTokens(AdmisionProperties.Limite limite, long ahora) {
+        if (limite.tasaPorSegundo() <= 0 || limite.rafaga() < 1) {
+            throw new IllegalArgumentException("Límite de admisión no válido: " + limite);
+        }
+        this.intervaloNanos = Math.max(1L, Math.round(1_000_000_000d / limite.tasaPorSegundo()));
+        this.capacidadNanos = intervaloNanos * limite.rafaga();
+        this.llenoEn = new AtomicLong(ahora);
+    }
+
+    /**
+     * @return 0 si se han consumido los tokens; si no, nanosegundos hasta que los haya
+     *         (o -1 si nunca cabrán porque superan la capacidad del cubo)
+     */
+    long consumir(int tokens, long ahora) {
+        long coste = intervaloNanos * tokens;
+        if (coste > capacidadNanos) {
+            return -1;
+        }
+        while (true) {
+            long actual = llenoEn.get();
+            long siguiente = Math.max(actual, ahora) + coste;
+            long espera = siguiente - ahora - capacidadNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (llenoEn.compareAndSet(actual, siguiente)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Reintegra tokens consumidos por una petición que finalmente no se admite.
+     */
+    void devolver(int tokens) {
+        llenoEn.addAndGet(-intervaloNanos * tokens);
+    }
+}
@@ -0,0 +1,97 @@
+package com.urbanevents.registro.admision;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Control de admisión de altas por origen: un cubo de tokens por valor de {@code origen}, para que un sensor
+ * desbocado no sature el registro ni el resto del pipeline.
+ * Los cubos viven en una caché Caffeine acotada (tabla hash concurrente por segmentos, lecturas sin bloqueo) y
+ * cada cubo se actualiza con CAS, así que las peticiones de orígenes distintos no compiten entre sí.
+ * Métricas: registro.admision.aceptadas y registro.admision.rechazadas, etiquetadas por origen.
+ */
+public class LimitadorOrigenes {
+    static final String PREFIJO_METRICAS = "registro.admision";
+
+    private final AdmisionProperties propiedades;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier reloj;
+    private final Cache<String, Origen> origenes;
+
+    public LimitadorOrigenes(AdmisionProperties propiedades, MeterRegistry meterRegistry, LongSupplier reloj) {
+        this.propiedades = propiedades;
+        this.meterRegistry = meterRegistry;
+        this.reloj = reloj;
+        this.origenes = Caffeine.newBuilder()
+                .maximumSize(propiedades.maxOrigenes())
+                .expireAfterAccess(propiedades.inactividad())
+                .build();
+    }
+
+    /**
+     * Admite una petición del origen o lanza {@link OrigenLimitadoException}.
+     */
+    public void admitir(String origen) {
+        if (!propiedades.habilitada()) {
+            return;
+        }
+        Origen estado = origen(origen);
+        long espera = estado.cubo().consumir(1, reloj.getAsLong());
+        if (espera != 0) {
+            estado.rechazadas().increment();
+            throw new OrigenLimitadoException(origen, segundos(espera));
+        }
+        estado.aceptadas().increment();
+    }
+
+    /**
+     * Admite un lote completo (peticiones por origen) o ninguna: si algún origen no tiene tokens suficientes,
+     * se devuelven los ya consumidos de los demás.
+     */
+    public void admitir(Map<String, Integer> peticionesPorOrigen) {
+        if (!propiedades.habilitada()) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        List<Map.Entry<Origen, Integer>> consumidos = new ArrayList<>(peticionesPorOrigen.size());
+        for (Map.Entry<String, Integer> peticiones : peticionesPorOrigen.entrySet()) {
+            Origen estado = origen(peticiones.getKey());
+            long espera = estado.cubo().consumir(peticiones.getValue(), ahora);
+            if (espera != 0) {
+                consumidos.forEach(consumido -> consumido.getKey().cubo().devolver(consumido.getValue()));
+                estado.rechazadas().increment(peticiones.getValue());
+                if (espera < 0) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "El lote supera la ráfaga permitida para el origen " + peticiones.getKey());
+                }
+                throw new OrigenLimitadoException(peticiones.getKey(), segundos(espera));
+            }
+            consumidos.add(Map.entry(estado, peticiones.getValue()));
+        }
+        consumidos.forEach(consumido -> consumido.getKey().aceptadas().increment(consumido.getValue()));
+    }
+
+    private Origen origen(String origen) {
+        return origenes.get(origen, clave -> new Origen(
+                new CuboTokens(propiedades.limite(clave), reloj.getAsLong()),
+                Counter.builder(PREFIJO_METRICAS + ".aceptadas").tag("origen", clave).register(meterRegistry),
+                Counter.builder(PREFIJO_METRICAS + ".rechazadas").tag("origen", clave).register(meterRegistry)));
+    }
+
+    private static long segundos(long nanos) {
+        return Math.max(1L, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private record Origen(CuboTokens cubo, Counter aceptadas, Counter rechazadas) {
+    }
+}
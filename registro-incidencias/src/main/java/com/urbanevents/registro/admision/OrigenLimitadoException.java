@@ -0,0 +1,28 @@
+package com.urbanevents.registro.admision;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 429 con cabecera Retry-After (segundos enteros, redondeados hacia arriba).
+ */
+public class OrigenLimitadoException extends ResponseStatusException {
+    private final long reintentarEnSegundos;
+
+    public OrigenLimitadoException(String origen, long reintentarEnSegundos) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Límite de peticiones superado para el origen " + origen);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(reintentarEnSegundos));
+        return headers;
+    }
+}
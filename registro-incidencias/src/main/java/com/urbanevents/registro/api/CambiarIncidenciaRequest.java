@@ -11,6 +11,13 @@ public record CambiarIncidenciaRequest(
 
         @Nullable
         @Size(max = 2000, message = "El comentario no puede exceder 2000 caracteres")
-        String comentario
+        String comentario,
+
+        @Nullable
+        @Size(max = 255, message = "El autor no puede exceder 255 caracteres")
+        String autor
 ) {
+    public CambiarIncidenciaRequest(String nuevoEstado, String comentario) {
+        this(nuevoEstado, comentario, null);
+    }
 }
@@ -0,0 +1,17 @@
+package com.urbanevents.registro.api;
+
+import com.urbanevents.registro.domain.ComentarioIncidencia;
+
+import java.time.Instant;
+
+public record ComentarioResponse(
+        Long id,
+        String comentario,
+        String autor,
+        Instant creadoEn
+) {
+    public static ComentarioResponse desde(ComentarioIncidencia comentario) {
+        return new ComentarioResponse(comentario.getId(), comentario.getComentario(), comentario.getAutor(),
+                comentario.getCreadoEn());
+    }
+}
@@ -0,0 +1,26 @@
+package com.urbanevents.registro.api;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Estado de una importación: progreso, ritmo y los primeros errores por línea.
+ * {@code mensaje} solo se informa si la importación ha fallado; las filas de los bloques ya confirmados se quedan.
+ */
+public record ImportacionResponse(
+        String id,
+        String formato,
+        String estado,
+        boolean publicarEventos,
+        long leidas,
+        long insertadas,
+        long rechazadas,
+        double filasPorSegundo,
+        Instant iniciadaEn,
+        Instant finalizadaEn,
+        String mensaje,
+        List<ErrorLinea> errores
+) {
+    public record ErrorLinea(long linea, List<String> errores) {
+    }
+}
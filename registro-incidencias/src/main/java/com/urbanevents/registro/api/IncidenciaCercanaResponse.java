@@ -0,0 +1,23 @@
+package com.urbanevents.registro.api;
+
+import com.urbanevents.registro.domain.IncidenciaUbicada;
+
+import java.time.Instant;
+
+public record IncidenciaCercanaResponse(
+        Long id,
+        String tipo,
+        String estado,
+        String prioridad,
+        String ubicacion,
+        Instant creadaEn,
+        double latitud,
+        double longitud,
+        long distanciaMetros
+) {
+    public static IncidenciaCercanaResponse desde(IncidenciaUbicada incidencia, double distanciaMetros) {
+        return new IncidenciaCercanaResponse(incidencia.id(), incidencia.tipo(), incidencia.estado(),
+                incidencia.prioridad(), incidencia.ubicacion(), incidencia.creadaEn(), incidencia.latitud(),
+                incidencia.longitud(), Math.round(distanciaMetros));
+    }
+}
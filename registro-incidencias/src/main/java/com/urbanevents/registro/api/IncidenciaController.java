@@ -1,65 +1,176 @@
 package com.urbanevents.registro.api;
 
-import com.urbanevents.events.EventMetadata;
 import com.urbanevents.events.IncidenciaCreadaEvent;
 import com.urbanevents.events.IncidenciaChangedEvent;
-import com.urbanevents.registro.domain.Incidencia;
-import com.urbanevents.registro.domain.IncidenciaRepository;
+import com.urbanevents.registro.admision.LimitadorOrigenes;
+import com.urbanevents.registro.domain.FiltroIncidencias;
+import com.urbanevents.registro.service.AltaIdempotenteService;
+import com.urbanevents.registro.service.ComentarioService;
+import com.urbanevents.registro.service.ConsultaIncidenciasService;
+import com.urbanevents.registro.service.ImportacionService;
+import com.urbanevents.registro.service.IncidenciaLoteService;
+import com.urbanevents.registro.service.IncidenciaService;
+import com.urbanevents.registro.service.LecturaIncidenciasService;
+import com.urbanevents.registro.service.ProximidadService;
 
 import io.swagger.v3.oas.annotations.Parameter;
 
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 import jakarta.validation.Valid;
 
-import java.time.Instant;
-import java.util.UUID;
-import java.util.Optional;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/incidencias")
 public class IncidenciaController {
-    private final IncidenciaRepository repository;
-    private final StreamBridge streamBridge;
+    private final IncidenciaService incidenciaService;
+    private final AltaIdempotenteService altaIdempotenteService;
+    private final IncidenciaLoteService loteService;
+    private final ComentarioService comentarioService;
+    private final ConsultaIncidenciasService consultaService;
+    private final ProximidadService proximidadService;
+    private final LimitadorOrigenes limitadorOrigenes;
+    private final ImportacionService importacionService;
+    private final LecturaIncidenciasService lecturaService;
+
+    public IncidenciaController(IncidenciaService incidenciaService,
+                                AltaIdempotenteService altaIdempotenteService,
+                                IncidenciaLoteService loteService,
+                                ComentarioService comentarioService,
+                                ConsultaIncidenciasService consultaService,
+                                ProximidadService proximidadService,
+                                LimitadorOrigenes limitadorOrigenes,
+                                ImportacionService importacionService,
+                                LecturaIncidenciasService lecturaService) {
+        this.incidenciaService = incidenciaService;
+        this.altaIdempotenteService = altaIdempotenteService;
+        this.loteService = loteService;
+        this.comentarioService = comentarioService;
+        this.consultaService = consultaService;
+        this.proximidadService = proximidadService;
+        this.limitadorOrigenes = limitadorOrigenes;
+        this.importacionService = importacionService;
+        this.lecturaService = lecturaService;
+    }
 
-    public IncidenciaController(IncidenciaRepository repository,
-                                StreamBridge streamBridge) {
-        this.repository = repository;
-        this.streamBridge = streamBridge;
+    /**
+     * Listado de incidencias, de la más reciente a la más antigua, paginado por cursor.
+     * {@code campos} limita las propiedades devueltas (p. ej. {@code campos=id,estado,prioridad}).
+     */
+    @GetMapping
+    public PaginaIncidenciasResponse listar(
+            @RequestParam(name = "tipo", required = false) String tipo,
+            @RequestParam(name = "estado", required = false) String estado,
+            @RequestParam(name = "prioridad", required = false) String prioridad,
+            @RequestParam(name = "origen", required = false) String origen,
+            @RequestParam(name = "campos", required = false) List<String> campos,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limite", defaultValue = "50") int limite) {
+        return consultaService.listar(new FiltroIncidencias(tipo, estado, prioridad, origen), campos, cursor, limite);
     }
 
+    /**
+     * Incidencia por id, servida desde caché. Con {@code If-None-Match} igual al ETag actual responde 304 sin cuerpo,
+     * para que quien consulta periódicamente (p. ej. esperando la prioridad) no descargue nada si no ha cambiado.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<IncidenciaResponse> obtener(
+            @Parameter(description = "ID de la incidencia", required = true)
+            @PathVariable(name = "id") Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        LecturaIncidenciasService.IncidenciaVersionada incidencia = lecturaService.obtener(id);
+        // no-cache: los clientes pueden guardar la respuesta pero deben revalidarla con el ETag en cada consulta
+        if (coincideEtag(ifNoneMatch, incidencia.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(incidencia.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(incidencia.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(incidencia.incidencia());
+    }
+
+    /**
+     * Registra la incidencia y su evento en la misma transacción.
+     * El evento se publica en Kafka de forma asíncrona desde el outbox.
+     * Con {@code Idempotency-Key}, un reintento devuelve el evento original sin crear otra incidencia.
+     * Cada origen tiene un límite de altas por segundo; al superarlo responde 429 con Retry-After. Un reintento
+     * con una clave ya registrada no cuenta para el límite.
+     */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public IncidenciaCreadaEvent crear(@Valid @RequestBody NuevaIncidenciaRequest request) throws Exception {
-        Instant now = Instant.now();
-        Incidencia incidencia = new Incidencia(null, request.tipo(), request.descripcion(), request.origen(),
-                request.ubicacion(), "REGISTRADA", now);
-        repository.save(incidencia);
-
-        Long generatedId = incidencia.getId();
-
-        EventMetadata metadata = new EventMetadata(UUID.randomUUID().toString(), "IncidenciaCreada",
-                now, "registro-incidencias", "v1",incidencia.getEstado());
-        IncidenciaCreadaEvent event = new IncidenciaCreadaEvent(metadata, generatedId, request.tipo(),
-                request.descripcion(), request.origen(), request.ubicacion(), now);
-
-        // Enviar evento a Kafka usando StreamBridge
-        try {
-            streamBridge.send("incidenciasCreadas-out-0", event);
-        } catch (Exception e) {
-            System.err.println("Error enviando mensaje a Kafka: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Error enviando evento a Kafka", e);
+    public IncidenciaCreadaEvent crear(
+            @RequestHeader(name = "Idempotency-Key", required = false) String claveIdempotencia,
+            @Valid @RequestBody NuevaIncidenciaRequest request) {
+        return altaIdempotenteService.crear(request, claveIdempotencia,
+                () -> limitadorOrigenes.admitir(request.origen()));
+    }
+
+    /**
+     * Alta de varias incidencias en una sola petición.
+     * Cada elemento se valida por separado: los inválidos se devuelven como rechazados
+     * sin impedir el registro del resto del lote.
+     * Cada elemento cuenta para el límite de su origen; si algún origen lo supera se rechaza el lote entero (429).
+     */
+    @PostMapping("/lote")
+    @ResponseStatus(HttpStatus.OK)
+    public ResultadoLoteResponse crearLote(@RequestBody List<NuevaIncidenciaRequest> requests) {
+        if (requests != null) {
+            Map<String, Integer> porOrigen = requests.stream()
+                    .filter(Objects::nonNull)
+                    .map(NuevaIncidenciaRequest::origen)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toMap(origen -> origen, origen -> 1, Integer::sum));
+            limitadorOrigenes.admitir(porOrigen);
         }
-        return event;
+        return loteService.crearLote(requests);
+    }
+
+    /**
+     * Importación masiva (cargas históricas) desde NDJSON o CSV con cabecera, leída en streaming.
+     * Responde al terminar con el estado final; mientras tanto el progreso se consulta en
+     * GET /incidencias/importaciones/{id}. Con {@code eventos=omitir} no se publica IncidenciaCreada.
+     */
+    @PostMapping(path = "/importaciones", consumes = {"application/x-ndjson", "text/csv"})
+    public ImportacionResponse importar(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(name = "eventos", defaultValue = "publicar") String eventos,
+            InputStream cuerpo) {
+        boolean publicarEventos = switch (eventos) {
+            case "publicar" -> true;
+            case "omitir" -> false;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "eventos debe ser publicar u omitir");
+        };
+        return importacionService.importar(ImportacionService.Formato.desde(contentType), cuerpo, publicarEventos);
+    }
+
+    @GetMapping("/importaciones")
+    public List<ImportacionResponse> listarImportaciones() {
+        return importacionService.listar();
+    }
+
+    @GetMapping("/importaciones/{id}")
+    public ImportacionResponse estadoImportacion(@PathVariable(name = "id") String id) {
+        return importacionService.estado(id);
     }
 
     @PostMapping("/{id}/cambios")
@@ -67,54 +178,68 @@ public class IncidenciaController {
     public IncidenciaChangedEvent cambiarIncidencia(
             @Parameter(description = "ID de la incidencia", required = true)            
             @PathVariable(name = "id") Long id,
-            @Valid @RequestBody CambiarIncidenciaRequest request) throws Exception {
-        
-        // 1. Validar que la incidencia existe
-        Optional<Incidencia> incidenciaOpt = repository.findById(id);
-        if (incidenciaOpt.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Incidencia no encontrada");
-        }
+            @Valid @RequestBody CambiarIncidenciaRequest request) {
+        return incidenciaService.cambiar(id, request);
+    }
 
-        Incidencia incidencia = incidenciaOpt.get();
-        Instant now = Instant.now();
+    /**
+     * Búsqueda de texto completo (diccionario español) en tipo y descripción, ordenada por relevancia.
+     */
+    @GetMapping("/buscar")
+    public PaginaBusquedaResponse buscar(
+            @RequestParam(name = "q") String q,
+            @RequestParam(name = "estado", required = false) String estado,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limite", defaultValue = "20") int limite) {
+        return consultaService.buscar(q, estado, cursor, limite);
+    }
 
-        // 2. Actualizar estado
-        incidencia.setEstado(request.nuevoEstado());
+    /**
+     * Incidencias a menos de {@code radio} metros del punto, de la más cercana a la más lejana.
+     */
+    @GetMapping("/cercanas")
+    public List<IncidenciaCercanaResponse> cercanas(
+            @RequestParam(name = "lat") double lat,
+            @RequestParam(name = "lon") double lon,
+            @RequestParam(name = "radio") double radio,
+            @RequestParam(name = "estado", required = false) String estado,
+            @RequestParam(name = "limite", defaultValue = "100") int limite) {
+        return proximidadService.cercanas(lat, lon, radio, estado, limite);
+    }
 
-        // 3. Agregar comentario si está presente
-        if (request.comentario() != null && !request.comentario().trim().isEmpty()) {
-            incidencia.agregarComentario(request.comentario());
-        }
+    /**
+     * Evolución de la incidencia: cada cambio de estado o prioridad con su fecha.
+     */
+    @GetMapping("/{id}/historial")
+    public List<TransicionResponse> historial(
+            @Parameter(description = "ID de la incidencia", required = true)
+            @PathVariable(name = "id") Long id) {
+        return consultaService.historial(id);
+    }
 
-        // 4. Guardar en BD
-        repository.save(incidencia);
-
-        // 5. Crear evento
-        EventMetadata metadata = new EventMetadata(
-                UUID.randomUUID().toString(),
-                "IncidenciaChanged",
-                now,
-                "registro-incidencias",
-                "v1",incidencia.getEstado()
-        );
-
-        IncidenciaChangedEvent event = new IncidenciaChangedEvent(
-                metadata,
-                id,
-                request.nuevoEstado(),
-                request.comentario(),
-                now
-        );
-
-        // 6. Publicar evento a Kafka
-        try {
-            streamBridge.send("incidenciasChanges-out-0", event);
-        } catch (Exception e) {
-            System.err.println("Error enviando evento a Kafka: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Error enviando evento a Kafka", e);
-        }
+    /**
+     * Comentarios de la incidencia en orden de alta, paginados.
+     */
+    @GetMapping("/{id}/comentarios")
+    public PaginaComentariosResponse listarComentarios(
+            @Parameter(description = "ID de la incidencia", required = true)
+            @PathVariable(name = "id") Long id,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return comentarioService.listar(id, page, size);
+    }
 
-        return event;
+    // If-None-Match admite una lista de ETags, débiles (W/) o "*"
+    private static boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || (valor.startsWith("W/") ? valor.substring(2) : valor).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
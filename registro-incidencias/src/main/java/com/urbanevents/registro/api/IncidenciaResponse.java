@@ -0,0 +1,28 @@
+package com.urbanevents.registro.api;
+
+import com.urbanevents.registro.domain.Incidencia;
+
+import java.time.Instant;
+
+/**
+ * Respuesta de GET /incidencias/{id}.
+ */
+public record IncidenciaResponse(
+        Long id,
+        String tipo,
+        String descripcion,
+        String origen,
+        String ubicacion,
+        String estado,
+        String prioridad,
+        Double latitud,
+        Double longitud,
+        int reportes,
+        Instant creadaEn
+) {
+    public static IncidenciaResponse desde(Incidencia incidencia) {
+        return new IncidenciaResponse(incidencia.getId(), incidencia.getTipo(), incidencia.getDescripcion(),
+                incidencia.getOrigen(), incidencia.getUbicacion(), incidencia.getEstado(), incidencia.getPrioridad(),
+                incidencia.getLatitud(), incidencia.getLongitud(), incidencia.getReportes(), incidencia.getCreadaEn());
+    }
+}
@@ -0,0 +1,21 @@
+package com.urbanevents.registro.api;
+
+import java.time.Instant;
+
+/**
+ * Una línea de POST /incidencias/importaciones (objeto NDJSON o fila CSV): los campos del alta más
+ * {@code creadaEn} opcional, para conservar la fecha original en las cargas históricas.
+ */
+public record LineaImportacion(
+        String tipo,
+        String descripcion,
+        String origen,
+        String ubicacion,
+        Double latitud,
+        Double longitud,
+        Instant creadaEn
+) {
+    public NuevaIncidenciaRequest request() {
+        return new NuevaIncidenciaRequest(tipo, descripcion, origen, ubicacion, latitud, longitud);
+    }
+}
@@ -1,8 +1,16 @@
 package com.urbanevents.registro.api;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+/**
+ * Alta de incidencia. {@code ubicacion} sigue siendo obligatoria como texto; las coordenadas son opcionales
+ * y, si faltan, se intentan resolver desde el nomenclátor a partir de {@code ubicacion}.
+ */
 public record NuevaIncidenciaRequest(
         @NotBlank
         @Size(max = 100)
@@ -17,6 +25,23 @@ public record NuevaIncidenciaRequest(
 
         @NotBlank
         @Size(max = 255)
-        String ubicacion
+        String ubicacion,
+
+        @DecimalMin("-90.0")
+        @DecimalMax("90.0")
+        Double latitud,
+
+        @DecimalMin("-180.0")
+        @DecimalMax("180.0")
+        Double longitud
 ) {
+    public NuevaIncidenciaRequest(String tipo, String descripcion, String origen, String ubicacion) {
+        this(tipo, descripcion, origen, ubicacion, null, null);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "latitud y longitud deben indicarse juntas")
+    public boolean isCoordenadasCompletas() {
+        return (latitud == null) == (longitud == null);
+    }
 }
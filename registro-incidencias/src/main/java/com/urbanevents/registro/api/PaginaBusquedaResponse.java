@@ -0,0 +1,14 @@
+package com.urbanevents.registro.api;
+
+import com.urbanevents.registro.domain.ResultadoBusqueda;
+
+import java.util.List;
+
+/**
+ * Página de GET /incidencias/buscar, de mayor a menor relevancia. {@code siguienteCursor} es null en la última página.
+ */
+public record PaginaBusquedaResponse(
+        List<ResultadoBusqueda> resultados,
+        String siguienteCursor
+) {
+}
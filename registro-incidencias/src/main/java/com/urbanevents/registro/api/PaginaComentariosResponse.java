@@ -0,0 +1,15 @@
+package com.urbanevents.registro.api;
+
+import java.util.List;
+
+/**
+ * Página de comentarios de una incidencia. {@code haySiguiente} indica si existe la página
+ * {@code pagina + 1}; no se devuelve el total para no contar todas las filas en cada consulta.
+ */
+public record PaginaComentariosResponse(
+        List<ComentarioResponse> comentarios,
+        int pagina,
+        int tamano,
+        boolean haySiguiente
+) {
+}
@@ -0,0 +1,15 @@
+package com.urbanevents.registro.api;
+
+import com.urbanevents.registro.domain.IncidenciaResumen;
+
+import java.util.List;
+
+/**
+ * Página de GET /incidencias. {@code siguienteCursor} se pasa como {@code cursor} para pedir la
+ * página siguiente; es null cuando no hay más resultados.
+ */
+public record PaginaIncidenciasResponse(
+        List<IncidenciaResumen> incidencias,
+        String siguienteCursor
+) {
+}
@@ -0,0 +1,34 @@
+package com.urbanevents.registro.api;
+
+import com.urbanevents.events.IncidenciaCreadaEvent;
+
+import java.util.List;
+
+/**
+ * Respuesta del alta por lotes: un resultado por cada elemento recibido, en el mismo orden.
+ */
+public record ResultadoLoteResponse(
+        int total,
+        int aceptadas,
+        int rechazadas,
+        List<Item> resultados
+) {
+    /**
+     * Resultado individual. Si {@code aceptada} es false, {@code evento} es null y
+     * {@code errores} contiene los motivos del rechazo.
+     */
+    public record Item(
+            int indice,
+            boolean aceptada,
+            IncidenciaCreadaEvent evento,
+            List<String> errores
+    ) {
+        public static Item aceptada(int indice, IncidenciaCreadaEvent evento) {
+            return new Item(indice, true, evento, List.of());
+        }
+
+        public static Item rechazada(int indice, List<String> errores) {
+            return new Item(indice, false, null, errores);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.urbanevents.registro.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.urbanevents.registro.domain.Transicion;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransicionResponse(
+        String campo,
+        String valor,
+        String autor,
+        Instant ts
+) {
+    public static TransicionResponse desde(Transicion transicion) {
+        return new TransicionResponse(transicion.campo(), transicion.valor(), transicion.autor(), transicion.ts());
+    }
+}
@@ -0,0 +1,29 @@
+package com.urbanevents.registro.config;
+
+import com.urbanevents.registro.admision.AdmisionProperties;
+import com.urbanevents.registro.admision.LimitadorOrigenes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limitación de altas por origen (registro.admision). El origen llega en el cuerpo de la petición, así que
+ * cualquier valor crea un cubo: la caché de cubos y las etiquetas de las métricas están acotadas.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmisionProperties.class)
+public class AdmisionConfig {
+
+    @Bean
+    public LimitadorOrigenes limitadorOrigenes(AdmisionProperties propiedades, MeterRegistry meterRegistry) {
+        return new LimitadorOrigenes(propiedades, meterRegistry, System::nanoTime);
+    }
+
+    @Bean
+    public MeterFilter limiteEtiquetasOrigen(AdmisionProperties propiedades) {
+        return MeterFilter.maximumAllowableTags("registro.admision", "origen",
+                propiedades.maxOrigenesMetricas(), MeterFilter.deny());
+    }
+}
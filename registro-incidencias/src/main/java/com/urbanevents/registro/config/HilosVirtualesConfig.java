@@ -0,0 +1,97 @@
+package com.urbanevents.registro.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.postgresql.Driver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo de ejecución con hilos virtuales (perfil {@code hilos-virtuales}, que activa
+ * {@code spring.threads.virtual.enabled}).
+ * Spring Boot ya mueve Tomcat y los executors propios a hilos virtuales; el consumidor de Spring Cloud Stream
+ * lo mueve el customizer de contenedores de {@link KafkaConfig} (el binder solo admite uno) y aquí se añaden las
+ * salvaguardas contra pinning:
+ * - el driver de PostgreSQL debe ser 42.6+ (sustituyó sus bloques synchronized por ReentrantLock),
+ * - un stream de JFR registra cada evento jdk.VirtualThreadPinned por encima del umbral.
+ * El número de conexiones de Hikari sigue acotando la concurrencia real contra la base de datos.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class HilosVirtualesConfig {
+    private static final Logger logger = LoggerFactory.getLogger(HilosVirtualesConfig.class);
+
+    @Bean
+    public DetectorPinning detectorPinning(@Value("${registro.hilos-virtuales.umbral-pinning-ms:20}") long umbralMs) {
+        comprobarDriverJdbc();
+        return new DetectorPinning(Duration.ofMillis(umbralMs));
+    }
+
+    private void comprobarDriverJdbc() {
+        Driver driver = new Driver();
+        int major = driver.getMajorVersion();
+        int minor = driver.getMinorVersion();
+        if (major < 42 || (major == 42 && minor < 6)) {
+            logger.warn("Driver PostgreSQL {}.{}: usa bloques synchronized que fijan hilos virtuales a su carrier; "
+                    + "se recomienda 42.6 o superior con spring.threads.virtual.enabled", major, minor);
+        } else {
+            logger.info("Hilos virtuales activos con driver PostgreSQL {}.{} (sin synchronized en E/S)", major, minor);
+        }
+    }
+
+    /**
+     * Escucha con JFR los eventos de pinning de hilos virtuales y los registra con la pila que los causa.
+     */
+    public static class DetectorPinning implements SmartLifecycle {
+        private final Duration umbral;
+        private final AtomicLong eventos = new AtomicLong();
+        private RecordingStream stream;
+
+        public DetectorPinning(Duration umbral) {
+            this.umbral = umbral;
+        }
+
+        @Override
+        public void start() {
+            stream = new RecordingStream();
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(umbral).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", this::registrar);
+            stream.startAsync();
+        }
+
+        private void registrar(RecordedEvent evento) {
+            long total = eventos.incrementAndGet();
+            RecordedFrame origen = evento.getStackTrace() == null || evento.getStackTrace().getFrames().isEmpty()
+                    ? null : evento.getStackTrace().getFrames().get(0);
+            logger.warn("Hilo virtual fijado a su carrier durante {} ms (total {}) en {}",
+                    evento.getDuration().toMillis(), total,
+                    origen == null ? "?" : origen.getMethod().getType().getName() + "." + origen.getMethod().getName());
+        }
+
+        public long getEventos() {
+            return eventos.get();
+        }
+
+        @Override
+        public void stop() {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return stream != null;
+        }
+    }
+}
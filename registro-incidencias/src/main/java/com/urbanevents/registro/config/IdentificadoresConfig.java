@@ -0,0 +1,76 @@
+package com.urbanevents.registro.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.urbanevents.events.IncidenciaChangedEvent;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.id.GeneradorIds;
+import com.urbanevents.events.id.GeneradorIdsPorBloques;
+import com.urbanevents.events.id.GeneradorIdsTemporales;
+import com.urbanevents.registro.api.ComentarioResponse;
+import com.urbanevents.registro.api.IncidenciaCercanaResponse;
+import com.urbanevents.registro.api.IncidenciaResponse;
+import com.urbanevents.registro.domain.IncidenciaResumen;
+import com.urbanevents.registro.domain.ResultadoBusqueda;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Asignación de incidenciaId antes de tocar la base de datos.
+ * - bloques (por defecto): un nextval de registro_incidencias.incidencias_seq reserva
+ *   {@code tamano-bloque} ids; exige que la secuencia tenga INCREMENT BY igual (migración V7).
+ * - temporal: ids de 64 bits ordenados por tiempo generados en memoria; cada instancia necesita su propio nodo.
+ *
+ * Los ids temporales pasan de 2^53, el mayor entero exacto en un number de JavaScript, así que con esa estrategia
+ * las respuestas del API los serializan como texto ({@link #idsComoTexto()}). Con bloques siguen siendo números,
+ * como hasta ahora. Los eventos de Kafka no cambian: sus consumidores son Java y leen el id como long.
+ */
+@Configuration
+public class IdentificadoresConfig {
+    private static final String SQL_RESERVAR_BLOQUE = "SELECT nextval('registro_incidencias.incidencias_seq')";
+
+    @Bean
+    public GeneradorIds generadorIdsIncidencias(JdbcTemplate jdbcTemplate,
+                                                @Value("${registro.ids.estrategia:bloques}") String estrategia,
+                                                @Value("${registro.ids.tamano-bloque:50}") int tamanoBloque,
+                                                @Value("${registro.ids.nodo:0}") long nodo) {
+        return switch (estrategia) {
+            case "bloques" -> new GeneradorIdsPorBloques(
+                    tamano -> jdbcTemplate.queryForObject(SQL_RESERVAR_BLOQUE, Long.class), tamanoBloque);
+            case "temporal" -> new GeneradorIdsTemporales(nodo);
+            default -> throw new IllegalArgumentException("registro.ids.estrategia no soportada: " + estrategia);
+        };
+    }
+
+    /**
+     * Con ids temporales, el {@code id} de las respuestas y el {@code incidenciaId} de los eventos que devuelven el
+     * alta y el cambio de estado van como texto. Solo afecta al ObjectMapper de Spring (respuestas HTTP); el outbox
+     * codifica los eventos con CodecEventos.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "registro.ids.estrategia", havingValue = "temporal")
+    public Jackson2ObjectMapperBuilderCustomizer idsComoTexto() {
+        return builder -> builder
+                .mixIn(IncidenciaResponse.class, IdComoTexto.class)
+                .mixIn(IncidenciaResumen.class, IdComoTexto.class)
+                .mixIn(IncidenciaCercanaResponse.class, IdComoTexto.class)
+                .mixIn(ComentarioResponse.class, IdComoTexto.class)
+                .mixIn(ResultadoBusqueda.class, IdComoTexto.class)
+                .mixIn(IncidenciaCreadaEvent.class, IdIncidenciaComoTexto.class)
+                .mixIn(IncidenciaChangedEvent.class, IdIncidenciaComoTexto.class);
+    }
+
+    private abstract static class IdComoTexto {
+        @JsonSerialize(using = ToStringSerializer.class)
+        abstract Long id();
+    }
+
+    private abstract static class IdIncidenciaComoTexto {
+        @JsonSerialize(using = ToStringSerializer.class)
+        abstract Long incidenciaId();
+    }
+}
@@ -1,14 +1,86 @@
 package com.urbanevents.registro.config;
 
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.codec.CodecEventos;
+import com.urbanevents.events.codec.CodecEventosMessageConverter;
+import com.urbanevents.events.metricas.MedidorEventos;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.util.backoff.FixedBackOff;
 
 /**
- * Configuración de Spring Cloud Stream para registro-incidencias.
- * La mayoría de la configuración se encuentra en application.yml
+ * Configuración de Kafka para registro-incidencias.
+ * Los bindings del consumidor están en application.yml; aquí se declaran los topics de {@link Topics}, que
+ * KafkaAdmin crea al arrancar si no existen (o amplía si tienen menos particiones de las configuradas).
+ * Los eventos se codifican con {@link CodecEventos}: el outbox al escribir y el binding de entrada (content-type
+ * {@code application/vnd.urbanevents.evento}) al leer, en JSON o Smile.
  */
 @Configuration
+@EnableConfigurationProperties(TopicsProperties.class)
 public class KafkaConfig {
-    // La configuración de bindings y serialización se maneja a través de application.yml
-    // Spring Cloud Stream automáticamente maneja la serialización basada en los tipos de las functions
-}
 
+    @Bean
+    public CodecEventos codecEventos() {
+        return CodecEventos.compartido();
+    }
+
+    @Bean
+    public MessageConverter codecEventosMessageConverter(CodecEventos codecEventos) {
+        return new CodecEventosMessageConverter(codecEventos);
+    }
+
+    /**
+     * Edad, procesamiento y tiempo en base de datos de los eventos consumidos (/actuator/prometheus).
+     */
+    @Bean
+    public MedidorEventos medidorEventos(MeterRegistry meterRegistry) {
+        return new MedidorEventos(meterRegistry);
+    }
+
+    /**
+     * Contenedores de los bindings de entrada (consumirIncidenciaPriorizada). El binder admite un único
+     * customizer, así que aquí va todo:
+     * - Reintentos en modo batch, donde el binder ignora max-attempts: el consumidor lanza
+     *   BatchListenerFailedException con la posición del evento que falló, este handler confirma los anteriores y
+     *   vuelve a entregar desde él. Agotados los reintentos registra ese evento en el log y sigue con el resto.
+     * - Con spring.threads.virtual.enabled (perfil hilos-virtuales), el listener en hilos virtuales
+     *   (ver {@link HilosVirtualesConfig}).
+     */
+    @Bean
+    public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> contenedoresEntrada(
+            @Value("${registro.consumidor.reintentos.intervalo-ms:1000}") long intervaloMs,
+            @Value("${registro.consumidor.reintentos.maximo:2}") long maximo,
+            @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales) {
+        return (container, destino, grupo) -> {
+            container.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(intervaloMs, maximo)));
+            if (hilosVirtuales) {
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-" + destino + "-");
+                executor.setVirtualThreads(true);
+                container.getContainerProperties().setListenerTaskExecutor(executor);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "registro.topics.crear", havingValue = "true", matchIfMissing = true)
+    public KafkaAdmin.NewTopics topicsIncidencias(TopicsProperties propiedades) {
+        return new KafkaAdmin.NewTopics(Topics.TODOS.stream()
+                .map(topic -> TopicBuilder.name(topic)
+                        .partitions(propiedades.particiones(topic))
+                        .replicas(propiedades.replicas())
+                        .build())
+                .toArray(NewTopic[]::new));
+    }
+}
@@ -0,0 +1,12 @@
+package com.urbanevents.registro.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas @Scheduled del servicio (p. ej. la creación anticipada de particiones).
+ */
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
@@ -0,0 +1,26 @@
+package com.urbanevents.registro.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Topics que crea el registro al arrancar ({@code registro.topics}). {@code particiones} marca el máximo de
+ * consumidores en paralelo de cada grupo; un topic concreto puede tener su propio número en {@code por-topic}.
+ */
+@ConfigurationProperties("registro.topics")
+public record TopicsProperties(
+        @DefaultValue("true") boolean crear,
+        @DefaultValue("3") int particiones,
+        @DefaultValue("1") short replicas,
+        Map<String, Integer> porTopic
+) {
+    public TopicsProperties {
+        porTopic = porTopic == null ? Map.of() : Map.copyOf(porTopic);
+    }
+
+    int particiones(String topic) {
+        return porTopic.getOrDefault(topic, particiones);
+    }
+}
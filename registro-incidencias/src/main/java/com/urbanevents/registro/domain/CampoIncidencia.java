@@ -0,0 +1,39 @@
+package com.urbanevents.registro.domain;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Campos proyectables en GET /incidencias. Solo se consultan las columnas pedidas;
+ * id y creadaEn se leen siempre porque forman el cursor.
+ */
+public enum CampoIncidencia {
+    ID("id", "id"),
+    TIPO("tipo", "tipo"),
+    DESCRIPCION("descripcion", "descripcion"),
+    ORIGEN("origen", "origen"),
+    UBICACION("ubicacion", "ubicacion"),
+    ESTADO("estado", "estado"),
+    PRIORIDAD("prioridad", "prioridad"),
+    CREADA_EN("creadaEn", "creada_en");
+
+    private final String nombre;
+    private final String columna;
+
+    CampoIncidencia(String nombre, String columna) {
+        this.nombre = nombre;
+        this.columna = columna;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getColumna() {
+        return columna;
+    }
+
+    public static Optional<CampoIncidencia> porNombre(String nombre) {
+        return Arrays.stream(values()).filter(campo -> campo.nombre.equals(nombre)).findFirst();
+    }
+}
@@ -0,0 +1,78 @@
+package com.urbanevents.registro.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+
+/**
+ * Comentario de una incidencia. El registro es append-only: cada comentario se inserta
+ * como una fila independiente y nunca se reescribe la colección completa.
+ */
+@Entity
+@Table(name = "incidencia_comentarios")
+public class ComentarioIncidencia {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long incidenciaId;
+
+    @NotBlank
+    @Size(max = 2000)
+    private String comentario;
+
+    @Size(max = 255)
+    private String autor;
+
+    private Instant creadoEn;
+
+    // Idempotency-Key del reporte agrupado que generó el comentario; única en base de datos (V17)
+    @Size(max = 255)
+    @Column(name = "clave_idempotencia")
+    private String claveIdempotencia;
+
+    protected ComentarioIncidencia() {
+    }
+
+    public ComentarioIncidencia(Long incidenciaId, String comentario, String autor, Instant creadoEn) {
+        this.incidenciaId = incidenciaId;
+        this.comentario = comentario;
+        this.autor = autor;
+        this.creadoEn = creadoEn;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getIncidenciaId() {
+        return incidenciaId;
+    }
+
+    public String getComentario() {
+        return comentario;
+    }
+
+    public String getAutor() {
+        return autor;
+    }
+
+    public Instant getCreadoEn() {
+        return creadoEn;
+    }
+
+    public String getClaveIdempotencia() {
+        return claveIdempotencia;
+    }
+
+    public void setClaveIdempotencia(String claveIdempotencia) {
+        this.claveIdempotencia = claveIdempotencia;
+    }
+}
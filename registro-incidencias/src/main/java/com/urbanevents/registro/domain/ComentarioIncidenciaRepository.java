@@ -0,0 +1,17 @@
+package com.urbanevents.registro.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ComentarioIncidenciaRepository extends JpaRepository<ComentarioIncidencia, Long> {
+
+    /**
+     * Comentarios en orden de alta. Slice evita el COUNT(*) que haría Page.
+     */
+    Slice<ComentarioIncidencia> findByIncidenciaIdOrderByIdAsc(Long incidenciaId, Pageable pageable);
+
+    Optional<ComentarioIncidencia> findByClaveIdempotencia(String claveIdempotencia);
+}
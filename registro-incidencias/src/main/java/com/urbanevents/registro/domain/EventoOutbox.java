@@ -0,0 +1,24 @@
+package com.urbanevents.registro.domain;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Fila de la tabla outbox: un evento pendiente de publicar en Kafka.
+ * El payload se guarda ya codificado (JSON o Smile) para que el relay no tenga que conocer los tipos de evento,
+ * y las cabeceras de Kafka ya calculadas (copia de la metadata, ver CabecerasEvento) por el mismo motivo.
+ */
+public record EventoOutbox(
+        Long id,
+        Long agregadoId,
+        String topic,
+        String tipoEvento,
+        byte[] payload,
+        Map<String, String> cabeceras,
+        Instant creadoEn
+) {
+    public EventoOutbox(Long agregadoId, String topic, String tipoEvento, byte[] payload,
+                        Map<String, String> cabeceras, Instant creadoEn) {
+        this(null, agregadoId, topic, tipoEvento, payload, cabeceras, creadoEn);
+    }
+}
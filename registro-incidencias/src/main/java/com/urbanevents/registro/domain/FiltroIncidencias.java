@@ -0,0 +1,12 @@
+package com.urbanevents.registro.domain;
+
+/**
+ * Filtros por igualdad de GET /incidencias; los valores null no filtran.
+ */
+public record FiltroIncidencias(
+        String tipo,
+        String estado,
+        String prioridad,
+        String origen
+) {
+}
@@ -1,27 +1,29 @@
 package com.urbanevents.registro.domain;
 
+import com.urbanevents.registro.geo.Coordenadas;
+import com.urbanevents.registro.geo.Geohash;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
-import jakarta.persistence.ElementCollection;
-import jakarta.persistence.CollectionTable;
-import jakarta.persistence.Column;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * El id lo asigna la aplicación (GeneradorIds) antes de persistir; Persistable permite que
+ * save() haga un INSERT directo en lugar de un merge con SELECT previo.
+ * Los comentarios viven en {@link ComentarioIncidencia} y nunca se cargan con la incidencia.
+ */
 @Entity
 @Table(name = "incidencias")
-public class Incidencia {
+public class Incidencia implements Persistable<Long> {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incidencias_seq")
-    @SequenceGenerator(name = "incidencias_seq", sequenceName = "registro_incidencias.incidencias_seq", allocationSize = 1)
     private Long id;
     
     @NotBlank
@@ -45,11 +47,24 @@ public class Incidencia {
     @Size(max = 50)
     private String prioridad;
     private Instant creadaEn;
-    
-    @ElementCollection
-    @CollectionTable(name = "incidencia_comentarios", joinColumns = @jakarta.persistence.JoinColumn(name = "incidencia_id"))
-    @Column(name = "comentario")
-    private List<String> comentarios = new ArrayList<>();
+
+    // Coordenadas WGS84 y su geohash (precisión 9), opcionales; ubicacion se mantiene como texto
+    private Double latitud;
+    private Double longitud;
+
+    @Size(max = 12)
+    private String geohash;
+
+    // Cabecera Idempotency-Key del alta; única en base de datos (V10)
+    @Size(max = 255)
+    @Column(name = "clave_idempotencia")
+    private String claveIdempotencia;
+
+    // Reportes agrupados en esta incidencia por la deduplicación del alta (V14)
+    private int reportes = 1;
+
+    @Transient
+    private boolean nueva = true;
 
     public Incidencia() {
     }
@@ -65,10 +80,22 @@ public class Incidencia {
         this.creadaEn = creadaEn;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
 
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+
     public String getTipo() {
         return tipo;
     }
@@ -109,18 +136,33 @@ public class Incidencia {
         this.id = id;
     }
 
-    public List<String> getComentarios() {
-        return comentarios;
+    public Double getLatitud() {
+        return latitud;
+    }
+
+    public Double getLongitud() {
+        return longitud;
+    }
+
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public int getReportes() {
+        return reportes;
+    }
+
+    public void ubicar(Coordenadas coordenadas) {
+        this.latitud = coordenadas.latitud();
+        this.longitud = coordenadas.longitud();
+        this.geohash = Geohash.codificar(coordenadas);
     }
 
-    public void setComentarios(List<String> comentarios) {
-        this.comentarios = comentarios;
+    public String getClaveIdempotencia() {
+        return claveIdempotencia;
     }
 
-    public void agregarComentario(String comentario) {
-        if (this.comentarios == null) {
-            this.comentarios = new ArrayList<>();
-        }
-        this.comentarios.add(comentario);
+    public void setClaveIdempotencia(String claveIdempotencia) {
+        this.claveIdempotencia = claveIdempotencia;
     }
 }
@@ -0,0 +1,163 @@
+package com.urbanevents.registro.domain;
+
+import com.urbanevents.registro.geo.Coordenadas;
+import com.urbanevents.registro.geo.Geohash;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas de lectura sobre incidencias con paginación keyset sobre (creada_en, id) descendente.
+ * La condición {@code (creada_en, id) < (:creadaEn, :id)} la resuelve un índice compuesto (migración V9),
+ * así que cualquier página cuesta lo mismo que la primera, a diferencia de OFFSET.
+ */
+@Repository
+public class IncidenciaConsultaRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public IncidenciaConsultaRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param despuesDeCreadaEn creada_en de la última fila de la página anterior (null en la primera página)
+     * @param despuesDeId       id de la última fila de la página anterior (null en la primera página)
+     */
+    public List<IncidenciaResumen> buscar(FiltroIncidencias filtro, Set<CampoIncidencia> campos,
+                                          Instant despuesDeCreadaEn, Long despuesDeId, int limite) {
+        Set<CampoIncidencia> columnas = EnumSet.of(CampoIncidencia.ID, CampoIncidencia.CREADA_EN);
+        columnas.addAll(campos);
+
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(columnas.stream().map(CampoIncidencia::getColumna).collect(Collectors.joining(", ")))
+                .append(" FROM registro_incidencias.incidencias WHERE true");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        agregarIgualdad(sql, params, "tipo", filtro.tipo());
+        agregarIgualdad(sql, params, "estado", filtro.estado());
+        agregarIgualdad(sql, params, "prioridad", filtro.prioridad());
+        agregarIgualdad(sql, params, "origen", filtro.origen());
+
+        if (despuesDeCreadaEn != null && despuesDeId != null) {
+            sql.append(" AND (creada_en, id) < (:cursorCreadaEn, :cursorId)");
+            params.addValue("cursorCreadaEn", Timestamp.from(despuesDeCreadaEn));
+            params.addValue("cursorId", despuesDeId);
+        }
+
+        sql.append(" ORDER BY creada_en DESC, id DESC LIMIT :limite");
+        params.addValue("limite", limite);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> mapear(rs, columnas));
+    }
+
+    /**
+     * Búsqueda de texto completo ordenada por relevancia y paginada por cursor sobre (relevancia, id).
+     * El índice GIN sobre busqueda (V13) resuelve la coincidencia; la relevancia se calcula solo sobre las filas
+     * que coinciden. {@code consulta} admite la sintaxis de websearch_to_tsquery ("frase", -excluir, OR).
+     */
+    public List<ResultadoBusqueda> buscarTexto(String consulta, String estado, Float despuesDeRelevancia,
+                                               Long despuesDeId, int limite) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT * FROM (SELECT id, tipo, descripcion, estado, prioridad, ubicacion, creada_en, "
+                        + "ts_rank_cd(busqueda, q) AS relevancia "
+                        + "FROM registro_incidencias.incidencias, websearch_to_tsquery('spanish', :consulta) q "
+                        + "WHERE busqueda @@ q");
+        MapSqlParameterSource params = new MapSqlParameterSource("consulta", consulta);
+        agregarIgualdad(sql, params, "estado", estado);
+        sql.append(") r");
+        if (despuesDeRelevancia != null && despuesDeId != null) {
+            sql.append(" WHERE (relevancia, id) < (CAST(:cursorRelevancia AS real), :cursorId)");
+            params.addValue("cursorRelevancia", despuesDeRelevancia);
+            params.addValue("cursorId", despuesDeId);
+        }
+        sql.append(" ORDER BY relevancia DESC, id DESC LIMIT :limite");
+        params.addValue("limite", limite);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new ResultadoBusqueda(
+                rs.getLong("id"),
+                rs.getString("tipo"),
+                rs.getString("descripcion"),
+                rs.getString("estado"),
+                rs.getString("prioridad"),
+                rs.getString("ubicacion"),
+                rs.getTimestamp("creada_en").toInstant(),
+                rs.getFloat("relevancia")));
+    }
+
+    /**
+     * Candidatas de una búsqueda por proximidad: un rango del índice geohash por cada celda de la cobertura
+     * (BitmapOr en PostgreSQL) y después el rectángulo exacto sobre latitud/longitud.
+     * Antes del límite se ordenan por una distancia aproximada al centro (plana, con la longitud escalada por el
+     * coseno de la latitud): si el rectángulo tiene más filas que {@code limite}, se quedan fuera las más lejanas
+     * y no unas cualesquiera. La distancia real la calcula el llamante.
+     */
+    public List<IncidenciaUbicada> buscarEnCeldas(Set<String> prefijos, Geohash.Rectangulo rectangulo,
+                                                  Coordenadas centro, String estado, int limite) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, tipo, estado, prioridad, ubicacion, creada_en, latitud, longitud "
+                        + "FROM registro_incidencias.incidencias WHERE (");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int i = 0;
+        for (String prefijo : prefijos) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            // '{' sigue a 'z' (último símbolo base32) en orden de bytes
+            sql.append("(geohash >= :desde").append(i).append(" AND geohash < :hasta").append(i).append(')');
+            params.addValue("desde" + i, prefijo);
+            params.addValue("hasta" + i, prefijo + '{');
+            i++;
+        }
+        sql.append(") AND latitud BETWEEN :latMin AND :latMax AND longitud BETWEEN :lonMin AND :lonMax");
+        params.addValue("latMin", rectangulo.latMin());
+        params.addValue("latMax", rectangulo.latMax());
+        params.addValue("lonMin", rectangulo.lonMin());
+        params.addValue("lonMax", rectangulo.lonMax());
+        agregarIgualdad(sql, params, "estado", estado);
+        sql.append(" ORDER BY (latitud - :lat) * (latitud - :lat)"
+                + " + (longitud - :lon) * (longitud - :lon) * :cos2Lat LIMIT :limite");
+        params.addValue("lat", centro.latitud());
+        params.addValue("lon", centro.longitud());
+        double cosLat = Math.cos(Math.toRadians(centro.latitud()));
+        params.addValue("cos2Lat", cosLat * cosLat);
+        params.addValue("limite", limite);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new IncidenciaUbicada(
+                rs.getLong("id"),
+                rs.getString("tipo"),
+                rs.getString("estado"),
+                rs.getString("prioridad"),
+                rs.getString("ubicacion"),
+                rs.getTimestamp("creada_en").toInstant(),
+                rs.getDouble("latitud"),
+                rs.getDouble("longitud")));
+    }
+
+    private static void agregarIgualdad(StringBuilder sql, MapSqlParameterSource params, String columna, String valor) {
+        if (valor != null) {
+            sql.append(" AND ").append(columna).append(" = :").append(columna);
+            params.addValue(columna, valor);
+        }
+    }
+
+    private static IncidenciaResumen mapear(ResultSet rs, Set<CampoIncidencia> columnas) throws SQLException {
+        return new IncidenciaResumen(
+                rs.getLong("id"),
+                columnas.contains(CampoIncidencia.TIPO) ? rs.getString("tipo") : null,
+                columnas.contains(CampoIncidencia.DESCRIPCION) ? rs.getString("descripcion") : null,
+                columnas.contains(CampoIncidencia.ORIGEN) ? rs.getString("origen") : null,
+                columnas.contains(CampoIncidencia.UBICACION) ? rs.getString("ubicacion") : null,
+                columnas.contains(CampoIncidencia.ESTADO) ? rs.getString("estado") : null,
+                columnas.contains(CampoIncidencia.PRIORIDAD) ? rs.getString("prioridad") : null,
+                rs.getTimestamp("creada_en").toInstant());
+    }
+}
@@ -0,0 +1,88 @@
+package com.urbanevents.registro.domain;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Acceso JDBC para la inserción y actualización masiva de incidencias.
+ * Evita el ciclo de vida de JPA cuando se registran lotes: las incidencias llegan con el id ya
+ * asignado por GeneradorIds y las filas se envían como un batch JDBC, que el driver reescribe
+ * como INSERT multi-fila (reWriteBatchedInserts).
+ */
+@Repository
+public class IncidenciaLoteRepository {
+    private static final String SQL_INSERTAR =
+            "INSERT INTO registro_incidencias.incidencias "
+                    + "(id, tipo, descripcion, origen, ubicacion, estado, creada_en, prioridad, latitud, longitud, geohash) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Una sola sentencia por lote: unnest de dos arrays equivale a un VALUES (id, prioridad), ... pero con forma fija,
+    // así que el driver reutiliza el mismo prepared statement sea cual sea el tamaño del lote.
+    // El CTE escribe además la transición en el historial para las incidencias que existen.
+    private static final String SQL_ACTUALIZAR_PRIORIDADES =
+            "WITH actualizadas AS ("
+                    + "UPDATE registro_incidencias.incidencias i SET prioridad = v.prioridad "
+                    + "FROM unnest(?::int8[], ?::varchar[]) AS v(id, prioridad) "
+                    + "WHERE i.id = v.id RETURNING i.id, i.prioridad) "
+                    + "INSERT INTO registro_incidencias.incidencia_transiciones (incidencia_id, campo, valor, ts) "
+                    + "SELECT id, '" + Transicion.CAMPO_PRIORIDAD + "', prioridad, now() FROM actualizadas "
+                    + "RETURNING incidencia_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IncidenciaLoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta todas las incidencias (con el id ya asignado) en una sola transacción.
+     */
+    @Transactional
+    public void insertarLote(List<Incidencia> incidencias, int tamanoBatch) {
+        if (incidencias.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, incidencias, tamanoBatch, (ps, incidencia) -> {
+            ps.setLong(1, incidencia.getId());
+            ps.setString(2, incidencia.getTipo());
+            ps.setString(3, incidencia.getDescripcion());
+            ps.setString(4, incidencia.getOrigen());
+            ps.setString(5, incidencia.getUbicacion());
+            ps.setString(6, incidencia.getEstado());
+            ps.setTimestamp(7, Timestamp.from(incidencia.getCreadaEn()));
+            ps.setString(8, incidencia.getPrioridad());
+            ps.setObject(9, incidencia.getLatitud(), Types.DOUBLE);
+            ps.setObject(10, incidencia.getLongitud(), Types.DOUBLE);
+            ps.setString(11, incidencia.getGeohash());
+        });
+    }
+
+    /**
+     * Aplica todas las prioridades con un único UPDATE ... FROM y registra cada cambio en el historial.
+     * @param prioridades prioridad por id de incidencia (sin ids repetidos)
+     * @return ids actualizados; los que falten no existen en la tabla
+     */
+    public Set<Long> actualizarPrioridades(Map<Long, String> prioridades) {
+        if (prioridades.isEmpty()) {
+            return Set.of();
+        }
+        Long[] ids = prioridades.keySet().toArray(Long[]::new);
+        String[] valores = prioridades.values().toArray(String[]::new);
+        List<Long> actualizados = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_ACTUALIZAR_PRIORIDADES);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setArray(2, con.createArrayOf("varchar", valores));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+        return new HashSet<>(actualizados);
+    }
+}
@@ -1,6 +1,30 @@
 package com.urbanevents.registro.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
 
 public interface IncidenciaRepository extends JpaRepository<Incidencia, Long> {
+
+    Optional<Incidencia> findByClaveIdempotencia(String claveIdempotencia);
+
+    /**
+     * Cambia el estado con un UPDATE directo, sin cargar la incidencia.
+     * @return filas actualizadas (0 si la incidencia no existe)
+     */
+    @Modifying
+    @Query("update Incidencia i set i.estado = :estado where i.id = :id")
+    int actualizarEstado(@Param("id") Long id, @Param("estado") String estado);
+
+    /**
+     * Suma un reporte a la incidencia si no está cerrada (V14).
+     * @return filas actualizadas (0 si no existe o ya está cerrada)
+     */
+    @Modifying
+    @Query("update Incidencia i set i.reportes = i.reportes + 1 where i.id = :id and i.estado not in :cerrados")
+    int sumarReporte(@Param("id") Long id, @Param("cerrados") Collection<String> estadosCerrados);
 }
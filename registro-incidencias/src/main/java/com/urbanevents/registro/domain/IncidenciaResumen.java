@@ -0,0 +1,25 @@
+package com.urbanevents.registro.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Proyección de una incidencia para listados. Los campos no pedidos quedan a null
+ * y no se serializan.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IncidenciaResumen(
+        Long id,
+        String tipo,
+        String descripcion,
+        String origen,
+        String ubicacion,
+        String estado,
+        String prioridad,
+        Instant creadaEn
+) {
+    public IncidenciaResumen sinCreadaEn() {
+        return new IncidenciaResumen(id, tipo, descripcion, origen, ubicacion, estado, prioridad, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.urbanevents.registro.domain;
+
+import java.time.Instant;
+
+/**
+ * Incidencia con coordenadas, candidata de una búsqueda por proximidad.
+ */
+public record IncidenciaUbicada(
+        Long id,
+        String tipo,
+        String estado,
+        String prioridad,
+        String ubicacion,
+        Instant creadaEn,
+        double latitud,
+        double longitud
+) {
+}
@@ -0,0 +1,135 @@
+package com.urbanevents.registro.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso JDBC a registro_incidencias.outbox_eventos.
+ * Las escrituras participan en la transacción activa (la misma que guarda la incidencia).
+ */
+@Repository
+public class OutboxRepository {
+    /** Canal de LISTEN/NOTIFY usado por el trigger de la tabla outbox. */
+    public static final String CANAL_NOTIFICACION = "outbox_eventos";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO registro_incidencias.outbox_eventos "
+                    + "(agregado_id, topic, tipo_evento, payload, cabeceras, creado_en) "
+                    + "VALUES (?, ?, ?, ?, ?::jsonb, ?)";
+
+    private static final String SQL_PENDIENTES =
+            "SELECT id, agregado_id, topic, tipo_evento, payload, cabeceras, creado_en "
+                    + "FROM registro_incidencias.outbox_eventos WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String SQL_ELIMINAR =
+            "DELETE FROM registro_incidencias.outbox_eventos WHERE id = ANY (?)";
+
+    // Un único relay activo a la vez entre todas las instancias, para que el orden por incidencia dependa solo
+    // de él (ver OutboxRelay).
+    // Candado de sesión: lo retiene la conexión de LISTEN del relay, que no es del pool, mientras siga abierta.
+    private static final String SQL_CANDADO_RELAY =
+            "SELECT pg_try_advisory_lock(hashtext('registro_incidencias.outbox_eventos'))";
+
+    private static final TypeReference<Map<String, String>> TIPO_CABECERAS = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final RowMapper<EventoOutbox> mapper;
+
+    public OutboxRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.mapper = (rs, rowNum) -> new EventoOutbox(
+                rs.getLong("id"),
+                rs.getLong("agregado_id"),
+                rs.getString("topic"),
+                rs.getString("tipo_evento"),
+                rs.getBytes("payload"),
+                leerCabeceras(rs.getString("cabeceras")),
+                rs.getTimestamp("creado_en").toInstant());
+    }
+
+    public void insertar(EventoOutbox evento) {
+        jdbcTemplate.update(SQL_INSERTAR, evento.agregadoId(), evento.topic(), evento.tipoEvento(),
+                evento.payload(), escribirCabeceras(evento.cabeceras()), Timestamp.from(evento.creadoEn()));
+    }
+
+    public void insertarLote(List<EventoOutbox> eventos, int tamanoBatch) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, eventos, tamanoBatch, (ps, evento) -> {
+            ps.setLong(1, evento.agregadoId());
+            ps.setString(2, evento.topic());
+            ps.setString(3, evento.tipoEvento());
+            ps.setBytes(4, evento.payload());
+            ps.setString(5, escribirCabeceras(evento.cabeceras()));
+            ps.setTimestamp(6, Timestamp.from(evento.creadoEn()));
+        });
+    }
+
+    /**
+     * Intenta adquirir el candado del relay en la sesión de {@code conexion}. Se libera cuando termina la sesión:
+     * {@code conexion} no debe ser del pool, que la reutilizaría con el candado todavía retenido.
+     */
+    public boolean adquirirCandadoRelay(Connection conexion) throws SQLException {
+        try (Statement st = conexion.createStatement();
+             ResultSet rs = st.executeQuery(SQL_CANDADO_RELAY)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Eventos pendientes con id mayor que {@code despuesDeId}, en orden de inserción.
+     */
+    public List<EventoOutbox> pendientesDesde(long despuesDeId, int limite) {
+        return jdbcTemplate.query(SQL_PENDIENTES, mapper, despuesDeId, limite);
+    }
+
+    public int eliminar(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(SQL_ELIMINAR);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    private String escribirCabeceras(Map<String, String> cabeceras) {
+        if (cabeceras == null || cabeceras.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(cabeceras);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pueden serializar las cabeceras del evento", e);
+        }
+    }
+
+    // Filas anteriores a V16: sin cabeceras
+    private Map<String, String> leerCabeceras(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, TIPO_CABECERAS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cabeceras del outbox no válidas: " + json, e);
+        }
+    }
+}
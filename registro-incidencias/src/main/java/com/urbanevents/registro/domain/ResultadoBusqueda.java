@@ -0,0 +1,18 @@
+package com.urbanevents.registro.domain;
+
+import java.time.Instant;
+
+/**
+ * Incidencia encontrada por texto, con su relevancia (ts_rank_cd).
+ */
+public record ResultadoBusqueda(
+        Long id,
+        String tipo,
+        String descripcion,
+        String estado,
+        String prioridad,
+        String ubicacion,
+        Instant creadaEn,
+        float relevancia
+) {
+}
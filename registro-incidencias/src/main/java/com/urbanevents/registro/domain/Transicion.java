@@ -0,0 +1,17 @@
+package com.urbanevents.registro.domain;
+
+import java.time.Instant;
+
+/**
+ * Entrada del historial de una incidencia: valor que tomó {@code campo} (estado o prioridad) en {@code ts}.
+ */
+public record Transicion(
+        Long incidenciaId,
+        String campo,
+        String valor,
+        String autor,
+        Instant ts
+) {
+    public static final String CAMPO_ESTADO = "estado";
+    public static final String CAMPO_PRIORIDAD = "prioridad";
+}
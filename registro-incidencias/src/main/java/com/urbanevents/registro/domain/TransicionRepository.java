@@ -0,0 +1,59 @@
+package com.urbanevents.registro.domain;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Acceso JDBC a registro_incidencias.incidencia_transiciones (particionada por mes, migración V11).
+ * Solo inserciones y lecturas: el historial nunca se modifica.
+ */
+@Repository
+public class TransicionRepository {
+    private static final String SQL_INSERTAR =
+            "INSERT INTO registro_incidencias.incidencia_transiciones (incidencia_id, campo, valor, autor, ts) "
+                    + "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SQL_HISTORIAL =
+            "SELECT incidencia_id, campo, valor, autor, ts FROM registro_incidencias.incidencia_transiciones "
+                    + "WHERE incidencia_id = ? ORDER BY ts, id LIMIT ?";
+
+    private static final String SQL_CREAR_PARTICION =
+            "SELECT registro_incidencias.crear_particion_transiciones(?)";
+
+    private static final RowMapper<Transicion> MAPPER = (rs, rowNum) -> new Transicion(
+            rs.getLong("incidencia_id"),
+            rs.getString("campo"),
+            rs.getString("valor"),
+            rs.getString("autor"),
+            rs.getTimestamp("ts").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransicionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertar(Transicion transicion) {
+        jdbcTemplate.update(SQL_INSERTAR, transicion.incidenciaId(), transicion.campo(), transicion.valor(),
+                transicion.autor(), Timestamp.from(transicion.ts()));
+    }
+
+    /**
+     * Historial en orden cronológico; el índice (incidencia_id, ts) evita ordenar.
+     */
+    public List<Transicion> historial(Long incidenciaId, int limite) {
+        return jdbcTemplate.query(SQL_HISTORIAL, MAPPER, incidenciaId, limite);
+    }
+
+    /**
+     * Crea la partición del mes indicado si no existe y devuelve su nombre.
+     */
+    public String crearParticion(LocalDate mes) {
+        return jdbcTemplate.queryForObject(SQL_CREAR_PARTICION, String.class, mes);
+    }
+}
@@ -0,0 +1,20 @@
+package com.urbanevents.registro.geo;
+
+/**
+ * Punto WGS84 en grados decimales.
+ */
+public record Coordenadas(double latitud, double longitud) {
+    private static final double RADIO_TIERRA_METROS = 6_371_008.8;
+
+    /**
+     * Distancia de círculo máximo (haversine) en metros.
+     */
+    public double distanciaMetros(Coordenadas otra) {
+        double dLat = Math.toRadians(otra.latitud - latitud);
+        double dLon = Math.toRadians(otra.longitud - longitud);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitud)) * Math.cos(Math.toRadians(otra.latitud))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_METROS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,131 @@
+package com.urbanevents.registro.geo;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Codificación geohash (base32) y cálculo de las celdas que cubren un rectángulo.
+ * Las celdas de un mismo prefijo son contiguas en orden lexicográfico, así que un índice btree sobre la columna
+ * geohash resuelve "dentro de la celda X" como un rango {@code [X, X + '{')}.
+ */
+public final class Geohash {
+    /** Precisión almacenada en incidencias: celdas de ~4,8 m x 4,8 m. */
+    public static final int PRECISION_ALMACENADA = 9;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final double METROS_POR_GRADO_LATITUD = 111_320.0;
+
+    private Geohash() {
+    }
+
+    public static String codificar(double latitud, double longitud, int precision) {
+        double latMin = -90, latMax = 90, lonMin = -180, lonMax = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean esLongitud = true;
+        int bit = 0;
+        int caracter = 0;
+        while (hash.length() < precision) {
+            if (esLongitud) {
+                double medio = (lonMin + lonMax) / 2;
+                if (longitud >= medio) {
+                    caracter = (caracter << 1) | 1;
+                    lonMin = medio;
+                } else {
+                    caracter <<= 1;
+                    lonMax = medio;
+                }
+            } else {
+                double medio = (latMin + latMax) / 2;
+                if (latitud >= medio) {
+                    caracter = (caracter << 1) | 1;
+                    latMin = medio;
+                } else {
+                    caracter <<= 1;
+                    latMax = medio;
+                }
+            }
+            esLongitud = !esLongitud;
+            if (++bit == 5) {
+                hash.append(BASE32[caracter]);
+                bit = 0;
+                caracter = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    public static String codificar(Coordenadas coordenadas) {
+        return codificar(coordenadas.latitud(), coordenadas.longitud(), PRECISION_ALMACENADA);
+    }
+
+    /**
+     * Rectángulo que contiene el círculo de {@code radioMetros} alrededor del centro.
+     */
+    public static Rectangulo rectangulo(Coordenadas centro, double radioMetros) {
+        double dLat = radioMetros / METROS_POR_GRADO_LATITUD;
+        double cosLat = Math.max(Math.cos(Math.toRadians(centro.latitud())), 1e-6);
+        double dLon = Math.min(radioMetros / (METROS_POR_GRADO_LATITUD * cosLat), 180);
+        return new Rectangulo(
+                Math.max(-90, centro.latitud() - dLat), Math.min(90, centro.latitud() + dLat),
+                Math.max(-180, centro.longitud() - dLon), Math.min(180, centro.longitud() + dLon));
+    }
+
+    /**
+     * Prefijos geohash que cubren el rectángulo, con la precisión más fina que no supera {@code maxCeldas}.
+     * No trata el cruce del antimeridiano (el rectángulo se recorta a [-180, 180]).
+     */
+    public static Set<String> cobertura(Rectangulo rectangulo, int maxCeldas) {
+        for (int precision = PRECISION_ALMACENADA; precision > 1; precision--) {
+            double alto = altoCelda(precision);
+            double ancho = anchoCelda(precision);
+            long filas = (long) Math.floor(rectangulo.latMax() / alto) - (long) Math.floor(rectangulo.latMin() / alto) + 1;
+            long columnas = (long) Math.floor(rectangulo.lonMax() / ancho) - (long) Math.floor(rectangulo.lonMin() / ancho) + 1;
+            if (filas * columnas <= maxCeldas) {
+                return celdas(rectangulo, precision, alto, ancho);
+            }
+        }
+        return celdas(rectangulo, 1, altoCelda(1), anchoCelda(1));
+    }
+
+    /**
+     * Celdas de la precisión indicada que tocan el rectángulo.
+     */
+    public static Set<String> celdas(Rectangulo rectangulo, int precision) {
+        return celdas(rectangulo, precision, altoCelda(precision), anchoCelda(precision));
+    }
+
+    private static Set<String> celdas(Rectangulo r, int precision, double alto, double ancho) {
+        Set<String> prefijos = new TreeSet<>();
+        for (double lat = r.latMin(); ; lat += alto) {
+            double latCelda = Math.min(lat, r.latMax());
+            for (double lon = r.lonMin(); ; lon += ancho) {
+                prefijos.add(codificar(latCelda, Math.min(lon, r.lonMax()), precision));
+                if (lon >= r.lonMax()) {
+                    break;
+                }
+            }
+            if (lat >= r.latMax()) {
+                break;
+            }
+        }
+        return prefijos;
+    }
+
+    private static double altoCelda(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    private static double anchoCelda(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /**
+     * Rectángulo en grados, con los extremos incluidos.
+     */
+    public record Rectangulo(double latMin, double latMax, double lonMin, double lonMax) {
+        public boolean contiene(Coordenadas punto) {
+            return punto.latitud() >= latMin && punto.latitud() <= latMax
+                    && punto.longitud() >= lonMin && punto.longitud() <= lonMax;
+        }
+    }
+}
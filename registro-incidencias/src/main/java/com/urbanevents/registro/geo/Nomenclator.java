@@ -0,0 +1,92 @@
+package com.urbanevents.registro.geo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Resuelve textos de ubicación a coordenadas con un nomenclátor local cargado en memoria al arrancar.
+ * Formato del fichero: {@code ubicacion;latitud;longitud} por línea, con {@code #} para comentarios.
+ * Las claves se normalizan (minúsculas, sin tildes, espacios simples) para que "Plaza  Mayor" y
+ * "plaza mayor" den el mismo resultado.
+ */
+@Component
+public class Nomenclator {
+    private static final Logger logger = LoggerFactory.getLogger(Nomenclator.class);
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final Map<String, Coordenadas> coordenadasPorUbicacion;
+
+    @Autowired
+    public Nomenclator(@Value("${registro.geo.nomenclator:classpath:nomenclator.csv}") Resource fichero) {
+        this.coordenadasPorUbicacion = cargar(fichero);
+    }
+
+    public Nomenclator(Map<String, Coordenadas> entradas) {
+        Map<String, Coordenadas> normalizadas = new HashMap<>();
+        entradas.forEach((ubicacion, coordenadas) -> normalizadas.put(normalizar(ubicacion), coordenadas));
+        this.coordenadasPorUbicacion = Map.copyOf(normalizadas);
+    }
+
+    public Optional<Coordenadas> resolver(String ubicacion) {
+        if (ubicacion == null || ubicacion.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(coordenadasPorUbicacion.get(normalizar(ubicacion)));
+    }
+
+    public int tamano() {
+        return coordenadasPorUbicacion.size();
+    }
+
+    public static String normalizar(String texto) {
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinTildes.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static Map<String, Coordenadas> cargar(Resource fichero) {
+        if (!fichero.exists()) {
+            logger.warn("Nomenclátor {} no encontrado; las ubicaciones de texto no se geolocalizarán", fichero);
+            return Map.of();
+        }
+        Map<String, Coordenadas> entradas = new HashMap<>();
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(fichero.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            int numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank() || linea.startsWith("#")) {
+                    continue;
+                }
+                String[] campos = linea.split(";");
+                try {
+                    entradas.put(normalizar(campos[0]),
+                            new Coordenadas(Double.parseDouble(campos[1].trim()), Double.parseDouble(campos[2].trim())));
+                } catch (RuntimeException e) {
+                    logger.warn("Línea {} del nomenclátor ignorada: {}", numero, linea);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el nomenclátor " + fichero, e);
+        }
+        logger.info("Nomenclátor cargado: {} ubicaciones", entradas.size());
+        return Map.copyOf(entradas);
+    }
+}
@@ -1,50 +1,131 @@
 package com.urbanevents.registro.listeners;
 
 import com.urbanevents.events.IncidenciaPriorizadaEvent;
-import com.urbanevents.registro.domain.Incidencia;
-import com.urbanevents.registro.domain.IncidenciaRepository;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.metricas.MedidorEventos;
+import com.urbanevents.registro.domain.IncidenciaLoteRepository;
+import com.urbanevents.registro.service.IncidenciasModificadas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
  * Consumidor de eventos de incidencias priorizadas usando Spring Cloud Stream.
- * Procesa los eventos de incidencias priorizadas y actualiza el estado en la base de datos.
+ * Trabaja en modo batch: recibe todos los registros de un poll y aplica sus prioridades con un único
+ * UPDATE set-based, en lugar de un findById y un save por mensaje. En {@link MedidorEventos} la edad se anota
+ * por evento y el procesamiento y el UPDATE, por lote.
+ * Si el UPDATE del lote falla, los eventos se aplican de uno en uno para encontrar el que falla, y se lanza
+ * {@link BatchListenerFailedException} con su posición: el error handler del contenedor (KafkaConfig) confirma
+ * los anteriores, ya aplicados, y vuelve a entregar desde ese.
  */
 @Component
 public class IncidenciaPriorizadaConsumer {
     private static final Logger logger = LoggerFactory.getLogger(IncidenciaPriorizadaConsumer.class);
+    private static final String TIPO_EVENTO = "IncidenciaPriorizada";
     
-    private final IncidenciaRepository repository;
+    private final IncidenciaLoteRepository loteRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MedidorEventos medidor;
+    private final Counter aplicadas;
+    private final Counter noEncontradas;
 
-    public IncidenciaPriorizadaConsumer(IncidenciaRepository repository) {
-        this.repository = repository;
+    public IncidenciaPriorizadaConsumer(IncidenciaLoteRepository loteRepository, MeterRegistry meterRegistry,
+                                        ApplicationEventPublisher eventPublisher, MedidorEventos medidor) {
+        this.loteRepository = loteRepository;
+        this.eventPublisher = eventPublisher;
+        this.medidor = medidor;
+        this.aplicadas = Counter.builder("registro.priorizaciones.aplicadas").register(meterRegistry);
+        this.noEncontradas = Counter.builder("registro.priorizaciones.no_encontradas").register(meterRegistry);
     }
 
     /**
-     * Función que consume eventos de incidencias priorizadas.
-     * Spring Cloud Stream automáticamente conecta esta función a Kafka mediante la configuración.
+     * Función que consume lotes de eventos de incidencias priorizadas.
+     * Requiere {@code consumer.batch-mode: true} en el binding (application.yml).
      */
     @Bean
-    public Consumer<IncidenciaPriorizadaEvent> consumirIncidenciaPriorizada() {
-        return event -> {
-            logger.info("Recibido evento de incidencia priorizada: {}", event.incidenciaId());
-            
-            @SuppressWarnings("null")
-            Optional<Incidencia> incidenciaOpt = repository.findById(event.incidenciaId());
-            
-            if (incidenciaOpt.isPresent()) {
-                Incidencia incidencia = incidenciaOpt.get();
-                incidencia.setPrioridad(event.prioridad());
-                repository.save(incidencia);
-                logger.info("Incidencia {} actualizada con prioridad: {}", event.incidenciaId(), event.prioridad());
-            } else {
-                logger.warn("Incidencia con id {} no encontrada en la base de datos", event.incidenciaId());
+    public Consumer<List<IncidenciaPriorizadaEvent>> consumirIncidenciaPriorizada() {
+        return this::aplicarPrioridades;
+    }
+
+    void aplicarPrioridades(List<IncidenciaPriorizadaEvent> eventos) {
+        long inicio = medidor.inicio();
+        try {
+            aplicar(eventos);
+        } finally {
+            medidor.procesado(Topics.INCIDENCIAS_PRIORIZADAS, TIPO_EVENTO, inicio);
+        }
+    }
+
+    private void aplicar(List<IncidenciaPriorizadaEvent> eventos) {
+        // Si una incidencia aparece varias veces en el lote, prevalece el último evento (orden de la partición)
+        Map<Long, String> prioridades = new LinkedHashMap<>();
+        for (IncidenciaPriorizadaEvent event : eventos) {
+            medidor.recibido(Topics.INCIDENCIAS_PRIORIZADAS, event);
+            prioridades.put(event.incidenciaId(), event.prioridad());
+        }
+
+        Set<Long> actualizadas;
+        try {
+            actualizadas = medidor.bd(Topics.INCIDENCIAS_PRIORIZADAS, TIPO_EVENTO,
+                    () -> loteRepository.actualizarPrioridades(prioridades));
+        } catch (RuntimeException e) {
+            logger.warn("Falló el UPDATE del lote de {} eventos de priorización; se aplican de uno en uno",
+                    eventos.size(), e);
+            aplicarDeUnoEnUno(eventos);
+            return;
+        }
+        registrar(prioridades.keySet(), actualizadas);
+        logger.info("Lote de {} eventos de priorización: {} incidencias actualizadas",
+                eventos.size(), actualizadas.size());
+    }
+
+    /**
+     * Aplica los eventos en orden, cada uno con su UPDATE. Si uno falla, lanza BatchListenerFailedException con
+     * su posición en el lote.
+     */
+    private void aplicarDeUnoEnUno(List<IncidenciaPriorizadaEvent> eventos) {
+        Set<Long> aplicados = new LinkedHashSet<>();
+        Set<Long> actualizadas = new HashSet<>();
+        for (int i = 0; i < eventos.size(); i++) {
+            IncidenciaPriorizadaEvent event = eventos.get(i);
+            try {
+                actualizadas.addAll(loteRepository.actualizarPrioridades(
+                        Collections.singletonMap(event.incidenciaId(), event.prioridad())));
+            } catch (RuntimeException e) {
+                registrar(aplicados, actualizadas);
+                throw new BatchListenerFailedException(
+                        "Priorización de la incidencia " + event.incidenciaId() + " sin aplicar", e, i);
             }
-        };
+            aplicados.add(event.incidenciaId());
+        }
+        registrar(aplicados, actualizadas);
+    }
+
+    private void registrar(Set<Long> aplicados, Set<Long> actualizadas) {
+        aplicadas.increment(actualizadas.size());
+        if (!actualizadas.isEmpty()) {
+            // GET /incidencias/{id} deja de servir la prioridad anterior desde caché
+            eventPublisher.publishEvent(new IncidenciasModificadas(actualizadas));
+        }
+
+        if (actualizadas.size() < aplicados.size()) {
+            List<Long> faltan = aplicados.stream().filter(id -> !actualizadas.contains(id)).toList();
+            noEncontradas.increment(faltan.size());
+            logger.warn("{} incidencias priorizadas no encontradas en la base de datos: {}", faltan.size(), faltan);
+        }
     }
 }
@@ -0,0 +1,219 @@
+package com.urbanevents.registro.outbox;
+
+import com.urbanevents.events.EventoIncidencia;
+import com.urbanevents.events.codec.CabecerasEvento;
+import com.urbanevents.registro.domain.EventoOutbox;
+import com.urbanevents.registro.domain.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Relay del patrón transactional outbox.
+ * Un hilo dedicado recorre registro_incidencias.outbox_eventos en lotes ordenados por id y los publica en Kafka,
+ * con el id de la incidencia como clave y la metadata del evento en cabeceras, en modo pipeline: no espera la confirmación de un lote para leer y enviar
+ * el siguiente. Los envíos en vuelo están acotados por {@link VentanaEnvios} (backpressure si el broker se
+ * ralentiza) y cada fila se borra cuando el productor confirma su envío.
+ * Entre vaciados queda bloqueado en LISTEN hasta que el trigger de la tabla hace NOTIFY
+ * (con un timeout de seguridad), así que no hay polling continuo contra la base de datos.
+ *
+ * Solo publica la instancia que tiene el candado consultivo de sesión. El LISTEN y el candado van en una conexión
+ * propia, fuera del pool de Hikari: el pool no limpia el estado de sesión al devolver una conexión, así que una
+ * conexión del pool que volviera con el candado lo dejaría retenido por una sesión ociosa. Al cerrar la conexión
+ * propia termina la sesión y PostgreSQL libera ambos. La entrega es at-least-once: lo no confirmado sigue en la
+ * tabla y se reenvía en la siguiente vuelta.
+ *
+ * Orden por incidencia: el productor idempotente mantiene el orden de los envíos que llegan al broker, pero un
+ * envío puede fallar después de que otros posteriores de la misma clave ya estén en vuelo. Cuando falla el de
+ * una incidencia, la vuelta deja de enviar sus filas siguientes y tampoco borra las posteriores que se hayan
+ * confirmado: la siguiente vuelta reenvía la fallida y, detrás, esas mismas filas. En Kafka puede haber
+ * duplicados, pero el último evento de cada incidencia es siempre el último que se registró.
+ */
+@Component
+public class OutboxRelay implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // Datos de spring.datasource para abrir la conexión de LISTEN sin pasar por el pool
+    private final DataSourceProperties datosConexion;
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final VentanaEnvios ventana;
+    private final boolean habilitado;
+    private final int tamanoLote;
+    private final long esperaMaximaMs;
+    private final long timeoutEnvioMs;
+
+    // Filas confirmadas por el broker pendientes de borrar; las escribe el hilo de E/S del productor
+    private final Queue<EventoOutbox> confirmados = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+    private Thread hilo;
+
+    public OutboxRelay(DataSourceProperties datosConexion,
+                       OutboxRepository outboxRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${registro.outbox.habilitado:true}") boolean habilitado,
+                       @Value("${registro.outbox.tamano-lote:500}") int tamanoLote,
+                       @Value("${registro.outbox.max-en-vuelo:2000}") int maxEnVuelo,
+                       @Value("${registro.outbox.espera-maxima-ms:5000}") long esperaMaximaMs,
+                       @Value("${registro.outbox.timeout-envio-ms:30000}") long timeoutEnvioMs) {
+        this.datosConexion = datosConexion;
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.ventana = new VentanaEnvios(maxEnVuelo, meterRegistry);
+        this.habilitado = habilitado;
+        this.tamanoLote = tamanoLote;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.timeoutEnvioMs = timeoutEnvioMs;
+    }
+
+    @Override
+    public void start() {
+        if (!habilitado) {
+            logger.info("Relay del outbox deshabilitado (registro.outbox.habilitado=false)");
+            return;
+        }
+        running = true;
+        hilo = Thread.ofPlatform().name("outbox-relay").daemon().start(this::bucle);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void bucle() {
+        while (running) {
+            try (Connection escucha = abrirConexionEscucha()) {
+                try (Statement st = escucha.createStatement()) {
+                    st.execute("LISTEN " + OutboxRepository.CANAL_NOTIFICACION);
+                }
+                PGConnection pg = escucha.unwrap(PGConnection.class);
+                boolean activo = false;
+                while (running) {
+                    // Si otra instancia tiene el candado, esta solo escucha y lo reintenta en cada despertar
+                    if (activo || (activo = outboxRepository.adquirirCandadoRelay(escucha))) {
+                        publicarPendientes();
+                    }
+                    pg.getNotifications((int) esperaMaximaMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.error("Error en el relay del outbox, reintentando", e);
+                dormir(esperaMaximaMs);
+            }
+        }
+    }
+
+    private Connection abrirConexionEscucha() throws SQLException {
+        return DriverManager.getConnection(datosConexion.determineUrl(), datosConexion.determineUsername(),
+                datosConexion.determinePassword());
+    }
+
+    /**
+     * Publica todo lo pendiente y devuelve cuántos eventos se han enviado.
+     * Avanza por id sin esperar confirmaciones entre lotes; al terminar espera a que se vacíe la ventana
+     * y la siguiente vuelta vuelve a empezar desde el principio de la tabla, lo que recoge tanto los envíos
+     * fallidos como las filas con id menor confirmadas después (los ids se asignan antes del commit).
+     * Tras el primer fallo termina la vuelta al acabar el lote en curso.
+     */
+    int publicarPendientes() throws InterruptedException {
+        // Incidencia -> id de su primera fila fallida en esta vuelta. El productor ejecuta los callbacks de una
+        // partición en orden, así que el fallo queda anotado antes de confirmar las filas siguientes de la clave
+        Map<Long, Long> fallidas = new ConcurrentHashMap<>();
+        long ultimoId = 0;
+        int enviados = 0;
+        List<EventoOutbox> lote;
+        do {
+            lote = outboxRepository.pendientesDesde(ultimoId, tamanoLote);
+            for (EventoOutbox evento : lote) {
+                long id = evento.id();
+                ultimoId = id;
+                if (fallidas.containsKey(evento.agregadoId())) {
+                    // Se queda en la tabla hasta que se confirme la fila que falló
+                    continue;
+                }
+                // Clave = id de la incidencia: sus eventos van a la misma partición y se consumen en orden
+                ProducerRecord<String, byte[]> registro = new ProducerRecord<>(evento.topic(), null,
+                        EventoIncidencia.clave(evento.agregadoId()), evento.payload(),
+                        CabecerasEvento.kafka(evento.cabeceras()));
+                ventana.enviar(() -> kafkaTemplate.send(registro),
+                        (resultado, error) -> {
+                            if (error == null) {
+                                confirmados.add(evento);
+                            } else if (fallidas.putIfAbsent(evento.agregadoId(), id) == null) {
+                                logger.warn("Fallo publicando el evento {} del outbox (incidencia {}); se reintentará",
+                                        id, evento.agregadoId(), error);
+                            }
+                        });
+                enviados++;
+            }
+            eliminarConfirmados(fallidas);
+        } while (running && fallidas.isEmpty() && lote.size() == tamanoLote);
+
+        if (!ventana.esperarVacia(timeoutEnvioMs)) {
+            logger.warn("Quedan {} envíos del outbox sin confirmar tras {} ms", ventana.enVuelo(), timeoutEnvioMs);
+        }
+        eliminarConfirmados(fallidas);
+        if (enviados > 0) {
+            logger.debug("Publicados {} eventos del outbox", enviados);
+        }
+        return enviados;
+    }
+
+    /**
+     * Borra las filas confirmadas salvo las posteriores a un fallo de su misma incidencia, que se reenviarán
+     * detrás de la fallida.
+     */
+    private void eliminarConfirmados(Map<Long, Long> fallidas) {
+        List<Long> ids = new ArrayList<>();
+        EventoOutbox evento;
+        while ((evento = confirmados.poll()) != null) {
+            Long primeraFallida = fallidas.get(evento.agregadoId());
+            if (primeraFallida == null || evento.id() < primeraFallida) {
+                ids.add(evento.id());
+            }
+        }
+        outboxRepository.eliminar(ids);
+    }
+
+    private void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
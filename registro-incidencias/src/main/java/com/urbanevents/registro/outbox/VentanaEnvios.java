@@ -0,0 +1,95 @@
+package com.urbanevents.registro.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Ventana acotada de envíos en vuelo.
+ * Cada envío ocupa un permiso hasta que el productor lo confirma o falla; cuando la ventana está llena
+ * {@link #enviar} bloquea al llamante, de modo que un broker lento frena al relay en lugar de acumular
+ * envíos sin límite en memoria.
+ * Métricas: envíos en vuelo, latencia de confirmación, espera por falta de hueco y envíos fallidos.
+ */
+class VentanaEnvios {
+    private final int maxEnVuelo;
+    private final Semaphore permisos;
+    private final Timer latenciaConfirmacion;
+    private final Timer esperaVentana;
+    private final Counter fallidos;
+
+    VentanaEnvios(int maxEnVuelo, MeterRegistry registry) {
+        this.maxEnVuelo = maxEnVuelo;
+        this.permisos = new Semaphore(maxEnVuelo);
+        Gauge.builder("outbox.envios.en_vuelo", this, VentanaEnvios::enVuelo)
+                .description("Eventos enviados a Kafka pendientes de confirmación")
+                .register(registry);
+        this.latenciaConfirmacion = Timer.builder("outbox.envios.confirmacion")
+                .description("Tiempo desde el envío hasta la confirmación del broker")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.esperaVentana = Timer.builder("outbox.envios.espera_ventana")
+                .description("Tiempo bloqueado esperando hueco en la ventana de envíos")
+                .register(registry);
+        this.fallidos = Counter.builder("outbox.envios.fallidos")
+                .description("Envíos rechazados o caducados en el productor")
+                .register(registry);
+    }
+
+    /**
+     * Ocupa un hueco de la ventana (bloqueando si está llena) y lanza el envío.
+     * {@code alCompletar} se ejecuta antes de liberar el hueco, así que tras {@link #esperarVacia}
+     * todos los callbacks han terminado.
+     */
+    <T> void enviar(Supplier<CompletableFuture<T>> envio, BiConsumer<? super T, ? super Throwable> alCompletar)
+            throws InterruptedException {
+        long inicioEspera = System.nanoTime();
+        permisos.acquire();
+        esperaVentana.record(System.nanoTime() - inicioEspera, TimeUnit.NANOSECONDS);
+
+        long inicio = System.nanoTime();
+        CompletableFuture<T> futuro;
+        try {
+            futuro = envio.get();
+        } catch (RuntimeException e) {
+            permisos.release();
+            fallidos.increment();
+            throw e;
+        }
+        futuro.whenComplete((resultado, error) -> {
+            try {
+                if (error != null) {
+                    fallidos.increment();
+                } else {
+                    latenciaConfirmacion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+                alCompletar.accept(resultado, error);
+            } finally {
+                permisos.release();
+            }
+        });
+    }
+
+    /**
+     * Espera a que se confirmen (o fallen) todos los envíos en vuelo.
+     * @return false si vence el timeout con envíos aún pendientes
+     */
+    boolean esperarVacia(long timeoutMs) throws InterruptedException {
+        if (!permisos.tryAcquire(maxEnVuelo, timeoutMs, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        permisos.release(maxEnVuelo);
+        return true;
+    }
+
+    int enVuelo() {
+        return maxEnVuelo - permisos.availablePermits();
+    }
+}
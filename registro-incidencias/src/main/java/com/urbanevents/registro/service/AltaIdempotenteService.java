@@ -0,0 +1,87 @@
+package com.urbanevents.registro.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Alta de incidencias con cabecera Idempotency-Key.
+ * Un reintento con la misma clave devuelve el IncidenciaCreadaEvent original sin insertar ni publicar otra vez.
+ * Primero se consulta una caché acotada en memoria (tamaño máximo y TTL); si la clave ya no está en caché,
+ * la columna única clave_idempotencia actúa de respaldo, también ante reintentos simultáneos.
+ * No es transaccional a propósito: la violación de unicidad se captura después del rollback del alta.
+ * La admisión (límite por origen) se comprueba solo cuando la clave no está registrada: un reintento con la misma
+ * clave recibe la respuesta original aunque su origen no tenga tokens, en lugar de un 429.
+ * El alta en sí pasa por la deduplicación, así que un reintento no cuenta como un reporte más: si el reporte se
+ * sumó a una incidencia existente, la clave queda en su comentario (índice único de V17) y el reintento devuelve
+ * el alta de esa incidencia.
+ */
+@Service
+public class AltaIdempotenteService {
+    private static final Logger logger = LoggerFactory.getLogger(AltaIdempotenteService.class);
+
+    private final DeduplicacionService deduplicacionService;
+    private final IncidenciaService incidenciaService;
+    private final Cache<String, IncidenciaCreadaEvent> altasRecientes;
+
+    public AltaIdempotenteService(DeduplicacionService deduplicacionService,
+                                  IncidenciaService incidenciaService,
+                                  @Value("${registro.idempotencia.max-entradas:10000}") long maxEntradas,
+                                  @Value("${registro.idempotencia.ttl:24h}") Duration ttl) {
+        this.deduplicacionService = deduplicacionService;
+        this.incidenciaService = incidenciaService;
+        this.altasRecientes = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param admision se ejecuta justo antes de un alta nueva y puede rechazarla lanzando una excepción
+     */
+    public IncidenciaCreadaEvent crear(NuevaIncidenciaRequest request, String claveIdempotencia, Runnable admision) {
+        if (claveIdempotencia == null || claveIdempotencia.isBlank()) {
+            admision.run();
+            return deduplicacionService.crear(request, null);
+        }
+        if (claveIdempotencia.length() > 255) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key no puede exceder 255 caracteres");
+        }
+
+        IncidenciaCreadaEvent enCache = altasRecientes.getIfPresent(claveIdempotencia);
+        if (enCache != null) {
+            logger.debug("Alta repetida con Idempotency-Key {} resuelta desde caché", claveIdempotencia);
+            return enCache;
+        }
+
+        Optional<IncidenciaCreadaEvent> registrada = incidenciaService.buscarAltaPorClave(claveIdempotencia);
+        if (registrada.isPresent()) {
+            altasRecientes.put(claveIdempotencia, registrada.get());
+            return registrada.get();
+        }
+
+        admision.run();
+        IncidenciaCreadaEvent event;
+        try {
+            event = deduplicacionService.crear(request, claveIdempotencia);
+        } catch (DataIntegrityViolationException e) {
+            // Otro reintento con la misma clave se confirmó entre la búsqueda y el alta
+            event = incidenciaService.buscarAltaPorClave(claveIdempotencia).orElseThrow(() -> e);
+            logger.info("Alta concurrente con Idempotency-Key {}: se devuelve la incidencia {}",
+                    claveIdempotencia, event.incidenciaId());
+        }
+        altasRecientes.put(claveIdempotencia, event);
+        return event;
+    }
+}
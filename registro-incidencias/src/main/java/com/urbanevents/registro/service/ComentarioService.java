@@ -0,0 +1,82 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.registro.api.ComentarioResponse;
+import com.urbanevents.registro.api.PaginaComentariosResponse;
+import com.urbanevents.registro.domain.ComentarioIncidencia;
+import com.urbanevents.registro.domain.ComentarioIncidenciaRepository;
+import com.urbanevents.registro.domain.IncidenciaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Registro append-only de comentarios: se añaden con un INSERT y se leen por páginas.
+ */
+@Service
+public class ComentarioService {
+    private final ComentarioIncidenciaRepository comentarioRepository;
+    private final IncidenciaRepository incidenciaRepository;
+    private final int maxTamanoPagina;
+
+    public ComentarioService(ComentarioIncidenciaRepository comentarioRepository,
+                             IncidenciaRepository incidenciaRepository,
+                             @Value("${registro.comentarios.max-tamano-pagina:100}") int maxTamanoPagina) {
+        this.comentarioRepository = comentarioRepository;
+        this.incidenciaRepository = incidenciaRepository;
+        this.maxTamanoPagina = maxTamanoPagina;
+    }
+
+    public void agregar(Long incidenciaId, String comentario, String autor, Instant instante) {
+        agregar(incidenciaId, comentario, autor, instante, null);
+    }
+
+    /**
+     * Con clave de idempotencia el INSERT se hace en el momento (saveAndFlush), para que una clave repetida falle
+     * con DataIntegrityViolationException dentro de la transacción que la usa.
+     */
+    public void agregar(Long incidenciaId, String comentario, String autor, Instant instante,
+                        String claveIdempotencia) {
+        ComentarioIncidencia nuevo = new ComentarioIncidencia(incidenciaId, comentario, autor, instante);
+        if (claveIdempotencia == null) {
+            comentarioRepository.save(nuevo);
+            return;
+        }
+        nuevo.setClaveIdempotencia(claveIdempotencia);
+        comentarioRepository.saveAndFlush(nuevo);
+    }
+
+    /**
+     * Incidencia a la que se sumó el reporte que llegó con esta clave de idempotencia.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> incidenciaDeReporte(String claveIdempotencia) {
+        return comentarioRepository.findByClaveIdempotencia(claveIdempotencia)
+                .map(ComentarioIncidencia::getIncidenciaId);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaComentariosResponse listar(Long incidenciaId, int pagina, int tamano) {
+        if (pagina < 0 || tamano < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paginación no válida");
+        }
+        int tamanoEfectivo = Math.min(tamano, maxTamanoPagina);
+        Slice<ComentarioIncidencia> slice = comentarioRepository.findByIncidenciaIdOrderByIdAsc(
+                incidenciaId, PageRequest.of(pagina, tamanoEfectivo));
+
+        // Solo se comprueba la existencia cuando no hay comentarios, para no añadir una consulta al caso normal
+        if (!slice.hasContent() && !incidenciaRepository.existsById(incidenciaId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Incidencia no encontrada");
+        }
+
+        return new PaginaComentariosResponse(
+                slice.getContent().stream().map(ComentarioResponse::desde).toList(),
+                pagina, tamanoEfectivo, slice.hasNext());
+    }
+}
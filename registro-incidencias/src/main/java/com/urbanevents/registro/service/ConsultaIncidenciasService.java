@@ -0,0 +1,124 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.registro.api.PaginaBusquedaResponse;
+import com.urbanevents.registro.api.PaginaIncidenciasResponse;
+import com.urbanevents.registro.api.TransicionResponse;
+import com.urbanevents.registro.domain.CampoIncidencia;
+import com.urbanevents.registro.domain.FiltroIncidencias;
+import com.urbanevents.registro.domain.IncidenciaConsultaRepository;
+import com.urbanevents.registro.domain.IncidenciaRepository;
+import com.urbanevents.registro.domain.IncidenciaResumen;
+import com.urbanevents.registro.domain.ResultadoBusqueda;
+import com.urbanevents.registro.domain.Transicion;
+import com.urbanevents.registro.domain.TransicionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lecturas de incidencias: listado con filtros, proyección de campos y paginación por cursor,
+ * búsqueda de texto completo e historial.
+ */
+@Service
+public class ConsultaIncidenciasService {
+    private final IncidenciaConsultaRepository consultaRepository;
+    private final TransicionRepository transicionRepository;
+    private final IncidenciaRepository incidenciaRepository;
+    private final int maxLimite;
+    private final int maxHistorial;
+
+    public ConsultaIncidenciasService(IncidenciaConsultaRepository consultaRepository,
+                                      TransicionRepository transicionRepository,
+                                      IncidenciaRepository incidenciaRepository,
+                                      @Value("${registro.consulta.max-limite:200}") int maxLimite,
+                                      @Value("${registro.historial.max-entradas:1000}") int maxHistorial) {
+        this.consultaRepository = consultaRepository;
+        this.transicionRepository = transicionRepository;
+        this.incidenciaRepository = incidenciaRepository;
+        this.maxLimite = maxLimite;
+        this.maxHistorial = maxHistorial;
+    }
+
+    /**
+     * Búsqueda de texto completo en tipo y descripción, de mayor a menor relevancia.
+     */
+    public PaginaBusquedaResponse buscar(String consulta, String estado, String cursor, int limite) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El parámetro q es obligatorio");
+        }
+        if (limite < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El límite debe ser mayor que 0");
+        }
+        int limiteEfectivo = Math.min(limite, maxLimite);
+        CursorBusqueda desde = cursor == null || cursor.isBlank() ? null : CursorBusqueda.decodificar(cursor);
+
+        List<ResultadoBusqueda> filas = consultaRepository.buscarTexto(consulta, estado,
+                desde != null ? desde.relevancia() : null, desde != null ? desde.id() : null, limiteEfectivo + 1);
+
+        if (filas.size() <= limiteEfectivo) {
+            return new PaginaBusquedaResponse(filas, null);
+        }
+        List<ResultadoBusqueda> pagina = filas.subList(0, limiteEfectivo);
+        ResultadoBusqueda ultima = pagina.get(pagina.size() - 1);
+        return new PaginaBusquedaResponse(pagina, new CursorBusqueda(ultima.relevancia(), ultima.id()).codificar());
+    }
+
+    /**
+     * Cambios de estado y prioridad de la incidencia en orden cronológico (como mucho {@code max-entradas}).
+     */
+    public List<TransicionResponse> historial(Long incidenciaId) {
+        List<Transicion> transiciones = transicionRepository.historial(incidenciaId, maxHistorial);
+        if (transiciones.isEmpty() && !incidenciaRepository.existsById(incidenciaId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Incidencia no encontrada");
+        }
+        return transiciones.stream().map(TransicionResponse::desde).toList();
+    }
+
+    /**
+     * @param campos campos a devolver (todos si es null o vacío)
+     * @param cursor {@code siguienteCursor} de la página anterior, o null para la primera
+     */
+    public PaginaIncidenciasResponse listar(FiltroIncidencias filtro, List<String> campos, String cursor, int limite) {
+        if (limite < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El límite debe ser mayor que 0");
+        }
+        int limiteEfectivo = Math.min(limite, maxLimite);
+        Set<CampoIncidencia> proyeccion = resolverCampos(campos);
+        CursorIncidencias desde = cursor == null || cursor.isBlank() ? null : CursorIncidencias.decodificar(cursor);
+
+        // Se pide una fila más para saber si hay página siguiente sin contar
+        List<IncidenciaResumen> filas = consultaRepository.buscar(filtro, proyeccion,
+                desde != null ? desde.creadaEn() : null, desde != null ? desde.id() : null, limiteEfectivo + 1);
+
+        boolean haySiguiente = filas.size() > limiteEfectivo;
+        List<IncidenciaResumen> pagina = haySiguiente ? filas.subList(0, limiteEfectivo) : filas;
+        String siguienteCursor = null;
+        if (haySiguiente) {
+            IncidenciaResumen ultima = pagina.get(pagina.size() - 1);
+            siguienteCursor = new CursorIncidencias(ultima.creadaEn(), ultima.id()).codificar();
+        }
+
+        if (!proyeccion.contains(CampoIncidencia.CREADA_EN)) {
+            pagina = pagina.stream().map(IncidenciaResumen::sinCreadaEn).toList();
+        }
+        return new PaginaIncidenciasResponse(pagina, siguienteCursor);
+    }
+
+    private static Set<CampoIncidencia> resolverCampos(List<String> campos) {
+        if (campos == null || campos.isEmpty()) {
+            return EnumSet.allOf(CampoIncidencia.class);
+        }
+        Set<CampoIncidencia> resultado = EnumSet.noneOf(CampoIncidencia.class);
+        for (String nombre : campos) {
+            resultado.add(CampoIncidencia.porNombre(nombre.trim())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Campo no soportado: " + nombre)));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,31 @@
+package com.urbanevents.registro.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición (relevancia, id) del último resultado de una búsqueda de texto, como texto opaco.
+ * Float.toString conserva el valor exacto del real de PostgreSQL, así que la comparación del cursor no pierde filas.
+ */
+record CursorBusqueda(float relevancia, long id) {
+    private static final char SEPARADOR = ',';
+
+    String codificar() {
+        String valor = Float.toString(relevancia) + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CursorBusqueda decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            return new CursorBusqueda(Float.parseFloat(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor no válido");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.urbanevents.registro.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Posición (creada_en, id) de la última incidencia devuelta, codificada como texto opaco para el cliente.
+ */
+record CursorIncidencias(Instant creadaEn, long id) {
+    private static final char SEPARADOR = ',';
+
+    String codificar() {
+        String valor = creadaEn.toString() + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CursorIncidencias decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            return new CursorIncidencias(Instant.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor no válido");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import com.urbanevents.registro.geo.Coordenadas;
+import com.urbanevents.registro.geo.Geohash;
+import com.urbanevents.registro.geo.Nomenclator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Agrupa reportes casi duplicados: una farola averiada genera varios avisos (sensores y vecinos) en pocos minutos.
+ * Si en la ventana hay un alta del mismo tipo a menos de {@code radio-m} metros (o, sin coordenadas, con la misma
+ * ubicación normalizada), el reporte se suma a esa incidencia en lugar de crear otra con su priorización,
+ * su notificación y sus métricas.
+ * El índice es local a cada instancia: con varias réplicas, dos reportes que caen en réplicas distintas no se agrupan.
+ * Tampoco se agrupan dos primeros reportes simultáneos (ninguno está aún en el índice).
+ */
+@Service
+public class DeduplicacionService {
+    private static final Logger logger = LoggerFactory.getLogger(DeduplicacionService.class);
+
+    // Celdas de ~150 m: con un radio de ese orden la búsqueda toca como mucho 3x3 celdas
+    private static final int PRECISION_CELDA = 7;
+
+    private final IncidenciaService incidenciaService;
+    private final GeolocalizacionService geolocalizacionService;
+    private final boolean habilitada;
+    private final double radioMetros;
+    private final IndiceReportesRecientes indice;
+    private final Counter agrupados;
+
+    @Autowired
+    public DeduplicacionService(IncidenciaService incidenciaService,
+                                GeolocalizacionService geolocalizacionService,
+                                MeterRegistry meterRegistry,
+                                @Value("${registro.deduplicacion.habilitada:true}") boolean habilitada,
+                                @Value("${registro.deduplicacion.ventana:10m}") Duration ventana,
+                                @Value("${registro.deduplicacion.radio-m:100}") double radioMetros,
+                                @Value("${registro.deduplicacion.max-por-clave:8}") int maxPorClave) {
+        this(incidenciaService, geolocalizacionService, meterRegistry, habilitada, ventana, radioMetros, maxPorClave,
+                System::currentTimeMillis);
+    }
+
+    DeduplicacionService(IncidenciaService incidenciaService, GeolocalizacionService geolocalizacionService,
+                         MeterRegistry meterRegistry, boolean habilitada, Duration ventana, double radioMetros,
+                         int maxPorClave, LongSupplier reloj) {
+        this.incidenciaService = incidenciaService;
+        this.geolocalizacionService = geolocalizacionService;
+        this.habilitada = habilitada;
+        this.radioMetros = radioMetros;
+        this.indice = new IndiceReportesRecientes(ventana.toMillis(), maxPorClave, reloj);
+        this.agrupados = Counter.builder("registro.deduplicacion.agrupados").register(meterRegistry);
+    }
+
+    /**
+     * Da de alta la incidencia o, si es un duplicado reciente, suma el reporte a la existente y devuelve su evento de alta.
+     */
+    public IncidenciaCreadaEvent crear(NuevaIncidenciaRequest request, String claveIdempotencia) {
+        if (!habilitada) {
+            return incidenciaService.crear(request, claveIdempotencia);
+        }
+        Optional<Coordenadas> coordenadas = geolocalizacionService.localizar(request);
+        String tipo = request.tipo().trim().toLowerCase(Locale.ROOT);
+
+        Set<String> clavesCercanas = coordenadas
+                .map(punto -> Geohash.celdas(Geohash.rectangulo(punto, radioMetros), PRECISION_CELDA).stream()
+                        .map(celda -> tipo + "|" + celda)
+                        .collect(Collectors.toSet()))
+                .orElseGet(() -> Set.of(claveTexto(tipo, request.ubicacion())));
+
+        for (IndiceReportesRecientes.Reporte candidato : indice.recientes(clavesCercanas)) {
+            if (coordenadas.isPresent() && (candidato.coordenadas() == null
+                    || coordenadas.get().distanciaMetros(candidato.coordenadas()) > radioMetros)) {
+                continue;
+            }
+            Long incidenciaId = candidato.evento().incidenciaId();
+            if (incidenciaService.agregarReporte(incidenciaId, request, claveIdempotencia)) {
+                agrupados.increment();
+                logger.debug("Reporte de {} agrupado en la incidencia {}", request.origen(), incidenciaId);
+                return candidato.evento();
+            }
+            indice.descartar(incidenciaId);
+        }
+
+        IncidenciaCreadaEvent evento = incidenciaService.crear(request, claveIdempotencia, coordenadas);
+        indice.registrar(coordenadas
+                        .map(punto -> tipo + "|" + Geohash.codificar(punto.latitud(), punto.longitud(), PRECISION_CELDA))
+                        .orElseGet(() -> claveTexto(tipo, request.ubicacion())),
+                evento, coordenadas.orElse(null));
+        return evento;
+    }
+
+    private static String claveTexto(String tipo, String ubicacion) {
+        return tipo + "|@" + Nomenclator.normalizar(ubicacion);
+    }
+}
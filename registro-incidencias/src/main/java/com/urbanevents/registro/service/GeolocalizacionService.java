@@ -0,0 +1,28 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import com.urbanevents.registro.geo.Coordenadas;
+import com.urbanevents.registro.geo.Nomenclator;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Coordenadas de una incidencia nueva: las recibidas en la petición o, si no vienen,
+ * las del nomenclátor para su texto de ubicación.
+ */
+@Service
+public class GeolocalizacionService {
+    private final Nomenclator nomenclator;
+
+    public GeolocalizacionService(Nomenclator nomenclator) {
+        this.nomenclator = nomenclator;
+    }
+
+    public Optional<Coordenadas> localizar(NuevaIncidenciaRequest request) {
+        if (request.latitud() != null && request.longitud() != null) {
+            return Optional.of(new Coordenadas(request.latitud(), request.longitud()));
+        }
+        return nomenclator.resolver(request.ubicacion());
+    }
+}
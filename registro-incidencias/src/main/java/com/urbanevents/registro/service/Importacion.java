@@ -0,0 +1,84 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.registro.api.ImportacionResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado mutable de una importación en curso. Lo actualiza el hilo que lee la petición y lo leen las consultas
+ * de estado desde otros hilos, así que los contadores son atómicos y el resumen es una instantánea.
+ */
+final class Importacion {
+    enum Estado { EN_CURSO, COMPLETADA, FALLIDA }
+
+    private final String id;
+    private final ImportacionService.Formato formato;
+    private final boolean publicarEventos;
+    private final int maxErrores;
+    private final Instant iniciadaEn = Instant.now();
+    private final long inicioNanos = System.nanoTime();
+    private final AtomicLong leidas = new AtomicLong();
+    private final AtomicLong insertadas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final Queue<ImportacionResponse.ErrorLinea> errores = new ConcurrentLinkedQueue<>();
+
+    private volatile Estado estado = Estado.EN_CURSO;
+    private volatile Instant finalizadaEn;
+    private volatile long finNanos;
+    private volatile String mensaje;
+
+    Importacion(String id, ImportacionService.Formato formato, boolean publicarEventos, int maxErrores) {
+        this.id = id;
+        this.formato = formato;
+        this.publicarEventos = publicarEventos;
+        this.maxErrores = maxErrores;
+    }
+
+    String id() {
+        return id;
+    }
+
+    void leida() {
+        leidas.incrementAndGet();
+    }
+
+    void insertadas(int filas) {
+        insertadas.addAndGet(filas);
+    }
+
+    // Se cuentan todas las rechazadas, pero solo se guardan los primeros maxErrores motivos
+    void rechazada(long linea, List<String> motivos) {
+        if (rechazadas.incrementAndGet() <= maxErrores) {
+            errores.add(new ImportacionResponse.ErrorLinea(linea, motivos));
+        }
+    }
+
+    void completar() {
+        finalizar(Estado.COMPLETADA, null);
+    }
+
+    void fallar(String mensaje) {
+        finalizar(Estado.FALLIDA, mensaje);
+    }
+
+    private void finalizar(Estado estado, String mensaje) {
+        this.finNanos = System.nanoTime();
+        this.finalizadaEn = Instant.now();
+        this.mensaje = mensaje;
+        this.estado = estado;
+    }
+
+    ImportacionResponse resumen() {
+        Estado actual = estado;
+        long nanos = (actual == Estado.EN_CURSO ? System.nanoTime() : finNanos) - inicioNanos;
+        long filas = leidas.get();
+        double filasPorSegundo = nanos > 0 ? filas / (nanos / 1e9) : 0;
+        return new ImportacionResponse(id, formato.name(), actual.name(), publicarEventos, filas, insertadas.get(),
+                rechazadas.get(), Math.round(filasPorSegundo * 10) / 10.0, iniciadaEn, finalizadaEn, mensaje,
+                List.copyOf(errores));
+    }
+}
@@ -0,0 +1,283 @@
+package com.urbanevents.registro.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.id.GeneradorIds;
+import com.urbanevents.registro.api.ImportacionResponse;
+import com.urbanevents.registro.api.LineaImportacion;
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import com.urbanevents.registro.domain.EventoOutbox;
+import com.urbanevents.registro.domain.Incidencia;
+import com.urbanevents.registro.domain.IncidenciaLoteRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Importación masiva de incidencias (cargas históricas) desde un cuerpo NDJSON o CSV.
+ * El cuerpo se lee en streaming línea a línea: en memoria solo hay un bloque de {@code tamano-bloque} filas.
+ * Cada línea se valida como un alta normal; las inválidas se cuentan y se anotan sin detener la importación.
+ * Cada bloque se inserta con batches JDBC y se confirma en su propia transacción, junto con sus eventos
+ * en el outbox si {@code publicarEventos}; si la importación falla a mitad, los bloques anteriores se quedan.
+ * El estado (progreso, ritmo, errores por línea) se guarda en memoria durante {@code retencion}.
+ */
+@Service
+public class ImportacionService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionService.class);
+
+    public enum Formato {
+        NDJSON, CSV;
+
+        private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+        public static Formato desde(String contentType) {
+            MediaType tipo = MediaType.parseMediaType(contentType);
+            if (TEXT_CSV.isCompatibleWith(tipo)) {
+                return CSV;
+            }
+            if (MediaType.APPLICATION_NDJSON.isCompatibleWith(tipo)) {
+                return NDJSON;
+            }
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Formatos admitidos: application/x-ndjson, text/csv");
+        }
+    }
+
+    private final IncidenciaLoteRepository loteRepository;
+    private final OutboxService outboxService;
+    private final GeneradorIds generadorIds;
+    private final GeolocalizacionService geolocalizacionService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader lectorJson;
+    private final ObjectReader lectorCsv;
+    private final int tamanoBloque;
+    private final int tamanoBatchJdbc;
+    private final int maxErrores;
+    private final Cache<String, Importacion> importaciones;
+
+    public ImportacionService(IncidenciaLoteRepository loteRepository,
+                              OutboxService outboxService,
+                              GeneradorIds generadorIds,
+                              GeolocalizacionService geolocalizacionService,
+                              Validator validator,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${registro.importacion.tamano-bloque:5000}") int tamanoBloque,
+                              @Value("${registro.lote.tamano-batch-jdbc:500}") int tamanoBatchJdbc,
+                              @Value("${registro.importacion.max-errores:1000}") int maxErrores,
+                              @Value("${registro.importacion.max-importaciones:100}") long maxImportaciones,
+                              @Value("${registro.importacion.retencion:24h}") Duration retencion) {
+        this.loteRepository = loteRepository;
+        this.outboxService = outboxService;
+        this.generadorIds = generadorIds;
+        this.geolocalizacionService = geolocalizacionService;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.lectorJson = objectMapper.readerFor(LineaImportacion.class);
+        // Columnas por nombre según la cabecera; todo se lee como texto y se convierte aquí para informar por línea
+        this.lectorCsv = new CsvMapper().enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE)
+                .readerFor(Map.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.tamanoBloque = tamanoBloque;
+        this.tamanoBatchJdbc = tamanoBatchJdbc;
+        this.maxErrores = maxErrores;
+        this.importaciones = Caffeine.newBuilder()
+                .maximumSize(maxImportaciones)
+                .expireAfterWrite(retencion)
+                .build();
+    }
+
+    /**
+     * Importa todo el cuerpo en el hilo de la petición y devuelve el estado final.
+     * Mientras dura, el progreso puede consultarse con {@link #estado(String)} o {@link #listar()}.
+     */
+    public ImportacionResponse importar(Formato formato, InputStream cuerpo, boolean publicarEventos) {
+        Importacion importacion = new Importacion(UUID.randomUUID().toString(), formato, publicarEventos, maxErrores);
+        importaciones.put(importacion.id(), importacion);
+        logger.info("Importación {} iniciada ({}, eventos: {})", importacion.id(), formato, publicarEventos);
+
+        List<Fila> bloque = new ArrayList<>(tamanoBloque);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8))) {
+            LectorLineas lector = formato == Formato.CSV ? lectorCsv(reader) : lectorNdjson(reader);
+            LineaLeida leida;
+            while ((leida = lector.siguiente()) != null) {
+                importacion.leida();
+                List<String> errores = leida.error() != null ? List.of(leida.error()) : validar(leida.linea().request());
+                if (!errores.isEmpty()) {
+                    importacion.rechazada(leida.numero(), errores);
+                    continue;
+                }
+                bloque.add(new Fila(leida.linea().request(), leida.linea().creadaEn()));
+                if (bloque.size() == tamanoBloque) {
+                    guardar(bloque, publicarEventos);
+                    importacion.insertadas(bloque.size());
+                    bloque.clear();
+                }
+            }
+            guardar(bloque, publicarEventos);
+            importacion.insertadas(bloque.size());
+            importacion.completar();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Importación {} interrumpida", importacion.id(), e);
+            importacion.fallar(e.getMessage());
+        }
+        ImportacionResponse resumen = importacion.resumen();
+        logger.info("Importación {} {}: {} leídas, {} insertadas, {} rechazadas ({} filas/s)", resumen.id(),
+                resumen.estado(), resumen.leidas(), resumen.insertadas(), resumen.rechazadas(), resumen.filasPorSegundo());
+        return resumen;
+    }
+
+    public ImportacionResponse estado(String id) {
+        return Optional.ofNullable(importaciones.getIfPresent(id))
+                .map(Importacion::resumen)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Importación no encontrada"));
+    }
+
+    /**
+     * Importaciones retenidas, de la más reciente a la más antigua.
+     */
+    public List<ImportacionResponse> listar() {
+        return importaciones.asMap().values().stream()
+                .map(Importacion::resumen)
+                .sorted(Comparator.comparing(ImportacionResponse::iniciadaEn).reversed())
+                .toList();
+    }
+
+    private void guardar(List<Fila> bloque, boolean publicarEventos) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        Instant ahora = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        long[] ids = generadorIds.siguientes(bloque.size());
+        List<Incidencia> incidencias = new ArrayList<>(bloque.size());
+        for (int i = 0; i < bloque.size(); i++) {
+            Fila fila = bloque.get(i);
+            NuevaIncidenciaRequest request = fila.request();
+            Incidencia incidencia = new Incidencia(ids[i], request.tipo(), request.descripcion(), request.origen(),
+                    request.ubicacion(), "REGISTRADA", fila.creadaEn() != null ? fila.creadaEn() : ahora);
+            geolocalizacionService.localizar(request).ifPresent(incidencia::ubicar);
+            incidencias.add(incidencia);
+        }
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            loteRepository.insertarLote(incidencias, tamanoBatchJdbc);
+            if (publicarEventos) {
+                List<EventoOutbox> eventos = new ArrayList<>(incidencias.size());
+                for (Incidencia incidencia : incidencias) {
+                    IncidenciaCreadaEvent evento = IncidenciaService.eventoCreada(incidencia,
+                            UUID.randomUUID().toString(), outboxService.versionEsquema());
+                    eventos.add(outboxService.crearEvento(Topics.INCIDENCIAS_CREADAS, incidencia.getId(),
+                            evento.metadata().eventType(), evento));
+                }
+                outboxService.registrarLote(eventos);
+            }
+        });
+    }
+
+    private List<String> validar(NuevaIncidenciaRequest request) {
+        Set<ConstraintViolation<NuevaIncidenciaRequest>> violaciones = validator.validate(request);
+        return violaciones.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private LectorLineas lectorNdjson(BufferedReader reader) {
+        long[] numero = {0};
+        return () -> {
+            String texto;
+            while ((texto = reader.readLine()) != null) {
+                numero[0]++;
+                if (texto.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new LineaLeida(numero[0], lectorJson.readValue(texto), null);
+                } catch (JsonProcessingException e) {
+                    return new LineaLeida(numero[0], null, "JSON no válido: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private LectorLineas lectorCsv(BufferedReader reader) throws IOException {
+        MappingIterator<Map<String, String>> filas = lectorCsv.readValues(reader);
+        return () -> {
+            if (!filas.hasNextValue()) {
+                return null;
+            }
+            // hasNextValue deja el parser en el primer campo de la fila: su posición es la de la línea
+            long numero = filas.getCurrentLocation().getLineNr();
+            Map<String, String> fila = filas.nextValue();
+            try {
+                return new LineaLeida(numero, new LineaImportacion(texto(fila, "tipo"), texto(fila, "descripcion"),
+                        texto(fila, "origen"), texto(fila, "ubicacion"), decimal(fila, "latitud"),
+                        decimal(fila, "longitud"), instante(fila, "creadaEn")), null);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                return new LineaLeida(numero, null, "Valor no válido: " + e.getMessage());
+            }
+        };
+    }
+
+    private static String texto(Map<String, String> fila, String columna) {
+        String valor = fila.get(columna);
+        return valor == null || valor.isEmpty() ? null : valor;
+    }
+
+    private static Double decimal(Map<String, String> fila, String columna) {
+        String valor = texto(fila, columna);
+        return valor == null ? null : Double.valueOf(valor.trim());
+    }
+
+    private static Instant instante(Map<String, String> fila, String columna) {
+        String valor = texto(fila, columna);
+        return valor == null ? null : Instant.parse(valor.trim());
+    }
+
+    @FunctionalInterface
+    private interface LectorLineas {
+        // null al llegar al final del cuerpo
+        LineaLeida siguiente() throws IOException;
+    }
+
+    private record LineaLeida(long numero, LineaImportacion linea, String error) {
+    }
+
+    private record Fila(NuevaIncidenciaRequest request, Instant creadaEn) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.id.GeneradorIds;
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import com.urbanevents.registro.api.ResultadoLoteResponse;
+import com.urbanevents.registro.domain.EventoOutbox;
+import com.urbanevents.registro.domain.Incidencia;
+import com.urbanevents.registro.domain.IncidenciaLoteRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Alta de incidencias por lotes.
+ * Valida cada elemento por separado (los inválidos se rechazan sin afectar al resto),
+ * persiste los válidos con un batch JDBC y escribe sus eventos en el outbox con otro batch,
+ * todo en la misma transacción. El OutboxRelay los publica después en lotes.
+ */
+@Service
+public class IncidenciaLoteService {
+    private static final Logger logger = LoggerFactory.getLogger(IncidenciaLoteService.class);
+
+    private final IncidenciaLoteRepository loteRepository;
+    private final OutboxService outboxService;
+    private final GeneradorIds generadorIds;
+    private final GeolocalizacionService geolocalizacionService;
+    private final Validator validator;
+    private final int maxTamano;
+    private final int tamanoBatchJdbc;
+
+    public IncidenciaLoteService(IncidenciaLoteRepository loteRepository,
+                                 OutboxService outboxService,
+                                 GeneradorIds generadorIds,
+                                 GeolocalizacionService geolocalizacionService,
+                                 Validator validator,
+                                 @Value("${registro.lote.max-tamano:1000}") int maxTamano,
+                                 @Value("${registro.lote.tamano-batch-jdbc:500}") int tamanoBatchJdbc) {
+        this.loteRepository = loteRepository;
+        this.outboxService = outboxService;
+        this.generadorIds = generadorIds;
+        this.geolocalizacionService = geolocalizacionService;
+        this.validator = validator;
+        this.maxTamano = maxTamano;
+        this.tamanoBatchJdbc = tamanoBatchJdbc;
+    }
+
+    @Transactional
+    public ResultadoLoteResponse crearLote(List<NuevaIncidenciaRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El lote no puede estar vacío");
+        }
+        if (requests.size() > maxTamano) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "El lote supera el máximo de " + maxTamano + " incidencias");
+        }
+
+        // 1. Validar cada elemento de forma independiente
+        ResultadoLoteResponse.Item[] resultados = new ResultadoLoteResponse.Item[requests.size()];
+        List<Integer> indicesValidos = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            List<String> errores = validar(requests.get(i));
+            if (errores.isEmpty()) {
+                indicesValidos.add(i);
+            } else {
+                resultados[i] = ResultadoLoteResponse.Item.rechazada(i, errores);
+            }
+        }
+
+        // 2. Asignar ids en memoria (bloques ya reservados) y persistir los válidos con un único batch
+        // Precisión de timestamptz, como en IncidenciaService.crear: el evento coincide con la fila guardada
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        long[] ids = generadorIds.siguientes(indicesValidos.size());
+        List<Incidencia> incidencias = new ArrayList<>(indicesValidos.size());
+        for (int j = 0; j < indicesValidos.size(); j++) {
+            NuevaIncidenciaRequest request = requests.get(indicesValidos.get(j));
+            Incidencia incidencia = new Incidencia(ids[j], request.tipo(), request.descripcion(), request.origen(),
+                    request.ubicacion(), "REGISTRADA", now);
+            geolocalizacionService.localizar(request).ifPresent(incidencia::ubicar);
+            incidencias.add(incidencia);
+        }
+        loteRepository.insertarLote(incidencias, tamanoBatchJdbc);
+
+        // 3. Registrar todos los eventos en el outbox con un único batch
+        List<EventoOutbox> eventosOutbox = new ArrayList<>(incidencias.size());
+        for (int j = 0; j < incidencias.size(); j++) {
+            Incidencia incidencia = incidencias.get(j);
+            IncidenciaCreadaEvent event = crearEvento(incidencia, now);
+            eventosOutbox.add(outboxService.crearEvento(Topics.INCIDENCIAS_CREADAS, incidencia.getId(),
+                    event.metadata().eventType(), event));
+            int indice = indicesValidos.get(j);
+            resultados[indice] = ResultadoLoteResponse.Item.aceptada(indice, event);
+        }
+        outboxService.registrarLote(eventosOutbox);
+
+        logger.info("Lote procesado: {} recibidas, {} aceptadas", requests.size(), incidencias.size());
+        return new ResultadoLoteResponse(requests.size(), incidencias.size(),
+                requests.size() - incidencias.size(), Arrays.asList(resultados));
+    }
+
+    private List<String> validar(NuevaIncidenciaRequest request) {
+        if (request == null) {
+            return List.of("La incidencia no puede ser nula");
+        }
+        Set<ConstraintViolation<NuevaIncidenciaRequest>> violaciones = validator.validate(request);
+        return violaciones.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private IncidenciaCreadaEvent crearEvento(Incidencia incidencia, Instant now) {
+        EventMetadata metadata = new EventMetadata(UUID.randomUUID().toString(), "IncidenciaCreada",
+                now, "registro-incidencias", outboxService.versionEsquema(), incidencia.getEstado());
+        return new IncidenciaCreadaEvent(metadata, incidencia.getId(), incidencia.getTipo(),
+                incidencia.getDescripcion(), incidencia.getOrigen(), incidencia.getUbicacion(), now);
+    }
+}
@@ -0,0 +1,205 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaChangedEvent;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.id.GeneradorIds;
+import com.urbanevents.registro.api.CambiarIncidenciaRequest;
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import com.urbanevents.registro.domain.EstadoIncidencia;
+import com.urbanevents.registro.domain.Incidencia;
+import com.urbanevents.registro.domain.IncidenciaRepository;
+import com.urbanevents.registro.domain.Transicion;
+import com.urbanevents.registro.domain.TransicionRepository;
+import com.urbanevents.registro.geo.Coordenadas;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Casos de uso de escritura sobre incidencias.
+ * Cada operación guarda la incidencia y su evento en la tabla outbox dentro de la misma transacción,
+ * de modo que base de datos y Kafka no pueden divergir y la petición no espera al broker.
+ */
+@Service
+public class IncidenciaService {
+    private static final List<String> ESTADOS_CERRADOS =
+            List.of(EstadoIncidencia.CERRADA.name(), EstadoIncidencia.CANCELADA.name());
+    private static final int MAX_COMENTARIO = 2000;
+
+    private final IncidenciaRepository repository;
+    private final OutboxService outboxService;
+    private final GeneradorIds generadorIds;
+    private final ComentarioService comentarioService;
+    private final TransicionRepository transicionRepository;
+    private final GeolocalizacionService geolocalizacionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public IncidenciaService(IncidenciaRepository repository, OutboxService outboxService,
+                             GeneradorIds generadorIds, ComentarioService comentarioService,
+                             TransicionRepository transicionRepository,
+                             GeolocalizacionService geolocalizacionService,
+                             ApplicationEventPublisher eventPublisher) {
+        this.repository = repository;
+        this.outboxService = outboxService;
+        this.generadorIds = generadorIds;
+        this.comentarioService = comentarioService;
+        this.transicionRepository = transicionRepository;
+        this.geolocalizacionService = geolocalizacionService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public IncidenciaCreadaEvent crear(NuevaIncidenciaRequest request) {
+        return crear(request, null);
+    }
+
+    /**
+     * Alta con clave de idempotencia opcional. Con clave, la fila se inserta antes que el evento del outbox
+     * (saveAndFlush) para que una clave repetida falle con DataIntegrityViolationException sin publicar nada.
+     */
+    @Transactional
+    public IncidenciaCreadaEvent crear(NuevaIncidenciaRequest request, String claveIdempotencia) {
+        return crear(request, claveIdempotencia, geolocalizacionService.localizar(request));
+    }
+
+    /**
+     * Alta con las coordenadas ya resueltas por {@link GeolocalizacionService} (la deduplicación las necesita
+     * antes), para no geolocalizar dos veces la misma petición.
+     */
+    @Transactional
+    public IncidenciaCreadaEvent crear(NuevaIncidenciaRequest request, String claveIdempotencia,
+                                       Optional<Coordenadas> coordenadas) {
+        // Precisión de timestamptz: el evento reconstruido desde la fila coincide con el original
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Incidencia incidencia = new Incidencia(generadorIds.siguiente(), request.tipo(), request.descripcion(), request.origen(),
+                request.ubicacion(), "REGISTRADA", now);
+        coordenadas.ifPresent(incidencia::ubicar);
+        if (claveIdempotencia != null) {
+            incidencia.setClaveIdempotencia(claveIdempotencia);
+            repository.saveAndFlush(incidencia);
+        } else {
+            repository.save(incidencia);
+        }
+
+        IncidenciaCreadaEvent event = eventoCreada(incidencia, idEvento(claveIdempotencia),
+                outboxService.versionEsquema());
+        outboxService.registrar(Topics.INCIDENCIAS_CREADAS, incidencia.getId(), event.metadata().eventType(), event);
+        return event;
+    }
+
+    @Transactional
+    public boolean agregarReporte(Long id, NuevaIncidenciaRequest request) {
+        return agregarReporte(id, request, null);
+    }
+
+    /**
+     * Suma un reporte duplicado a una incidencia abierta y guarda el del nuevo informante como comentario,
+     * con la clave de idempotencia del reporte si la trae (ver {@link #buscarAltaPorClave}).
+     * No genera evento: la incidencia ya se priorizó y notificó con el primer reporte.
+     * @return false si la incidencia ya no existe o está cerrada (el reporte debe dar de alta una nueva)
+     */
+    @Transactional
+    public boolean agregarReporte(Long id, NuevaIncidenciaRequest request, String claveIdempotencia) {
+        if (repository.sumarReporte(id, ESTADOS_CERRADOS) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(IncidenciasModificadas.de(id));
+        String comentario = "Reporte agrupado de " + request.origen()
+                + (request.descripcion() == null || request.descripcion().isBlank() ? "" : ": " + request.descripcion());
+        comentarioService.agregar(id, comentario.length() > MAX_COMENTARIO ? comentario.substring(0, MAX_COMENTARIO) : comentario,
+                request.origen(), Instant.now(), claveIdempotencia);
+        return true;
+    }
+
+    /**
+     * Evento de alta ya registrado para la clave, reconstruido desde la incidencia guardada: la que se creó con
+     * ella o, si el reporte se agrupó, aquella a la que se sumó (clave guardada en su comentario).
+     */
+    @Transactional(readOnly = true)
+    public Optional<IncidenciaCreadaEvent> buscarAltaPorClave(String claveIdempotencia) {
+        Optional<Incidencia> creada = repository.findByClaveIdempotencia(claveIdempotencia);
+        if (creada.isPresent()) {
+            return creada.map(incidencia -> eventoCreada(incidencia, idEvento(claveIdempotencia),
+                    outboxService.versionEsquema()));
+        }
+        // El eventId del alta original solo se puede reconstruir si también llegó con clave
+        return comentarioService.incidenciaDeReporte(claveIdempotencia)
+                .flatMap(repository::findById)
+                .map(incidencia -> eventoCreada(incidencia, idEvento(incidencia.getClaveIdempotencia() != null
+                                ? incidencia.getClaveIdempotencia()
+                                : claveIdempotencia),
+                        outboxService.versionEsquema()));
+    }
+
+    static IncidenciaCreadaEvent eventoCreada(Incidencia incidencia, String eventId, String versionEsquema) {
+        EventMetadata metadata = new EventMetadata(eventId, "IncidenciaCreada",
+                incidencia.getCreadaEn(), "registro-incidencias", versionEsquema, "REGISTRADA");
+        return new IncidenciaCreadaEvent(metadata, incidencia.getId(), incidencia.getTipo(),
+                incidencia.getDescripcion(), incidencia.getOrigen(), incidencia.getUbicacion(), incidencia.getCreadaEn());
+    }
+
+    // Con clave, el eventId se deriva de ella para que un reintento devuelva exactamente el mismo evento
+    private static String idEvento(String claveIdempotencia) {
+        if (claveIdempotencia == null) {
+            return UUID.randomUUID().toString();
+        }
+        return UUID.nameUUIDFromBytes(("IncidenciaCreada:" + claveIdempotencia).getBytes(StandardCharsets.UTF_8))
+                .toString();
+    }
+
+    /**
+     * Cambia el estado con un UPDATE directo, lo anota en el historial y añade el comentario como una fila nueva,
+     * sin cargar la incidencia ni sus comentarios.
+     */
+    @Transactional
+    public IncidenciaChangedEvent cambiar(Long id, CambiarIncidenciaRequest request) {
+        Instant now = Instant.now();
+
+        // 1. Actualizar estado (0 filas = la incidencia no existe)
+        if (repository.actualizarEstado(id, request.nuevoEstado()) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Incidencia no encontrada");
+        }
+
+        eventPublisher.publishEvent(IncidenciasModificadas.de(id));
+
+        // 2. Registrar la transición en el historial
+        transicionRepository.insertar(new Transicion(id, Transicion.CAMPO_ESTADO, request.nuevoEstado(),
+                request.autor(), now));
+
+        // 3. Agregar comentario si está presente
+        if (request.comentario() != null && !request.comentario().trim().isEmpty()) {
+            comentarioService.agregar(id, request.comentario(), request.autor(), now);
+        }
+
+        // 4. Crear evento y registrarlo en el outbox
+        EventMetadata metadata = new EventMetadata(
+                UUID.randomUUID().toString(),
+                "IncidenciaChanged",
+                now,
+                "registro-incidencias",
+                outboxService.versionEsquema(), request.nuevoEstado()
+        );
+
+        IncidenciaChangedEvent event = new IncidenciaChangedEvent(
+                metadata,
+                id,
+                request.nuevoEstado(),
+                request.comentario(),
+                now
+        );
+
+        outboxService.registrar(Topics.INCIDENCIAS_CAMBIADAS, id, metadata.eventType(), event);
+        return event;
+    }
+}
@@ -0,0 +1,13 @@
+package com.urbanevents.registro.service;
+
+import java.util.Set;
+
+/**
+ * Evento de aplicación: estas incidencias han cambiado (estado, prioridad o reportes).
+ * Se atiende después del commit para que nadie vuelva a cachear la versión anterior.
+ */
+public record IncidenciasModificadas(Set<Long> ids) {
+    public static IncidenciasModificadas de(Long id) {
+        return new IncidenciasModificadas(Set.of(id));
+    }
+}
@@ -0,0 +1,83 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.registro.geo.Coordenadas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Altas recientes indexadas por clave (tipo + celda o ubicación) en cubetas de tiempo del ancho de la ventana.
+ * Una búsqueda mira solo la cubeta actual y la anterior, así que cuesta O(claves) sin depender de cuántas altas
+ * haya en memoria; las cubetas más antiguas se descartan enteras al avanzar el reloj.
+ * Cada clave guarda como mucho {@code maxPorClave} altas (las más recientes).
+ */
+final class IndiceReportesRecientes {
+    private final long ventanaMs;
+    private final int maxPorClave;
+    private final LongSupplier reloj;
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<String, List<Reporte>>> cubetas = new ConcurrentHashMap<>();
+
+    IndiceReportesRecientes(long ventanaMs, int maxPorClave, LongSupplier reloj) {
+        this.ventanaMs = ventanaMs;
+        this.maxPorClave = maxPorClave;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Altas de las claves dentro de la ventana, de la más reciente a la más antigua.
+     */
+    List<Reporte> recientes(Collection<String> claves) {
+        long ahora = reloj.getAsLong();
+        long actual = ahora / ventanaMs;
+        List<Reporte> encontrados = new ArrayList<>();
+        for (long cubeta = actual; cubeta >= actual - 1; cubeta--) {
+            ConcurrentHashMap<String, List<Reporte>> porClave = cubetas.get(cubeta);
+            if (porClave == null) {
+                continue;
+            }
+            for (String clave : claves) {
+                List<Reporte> reportes = porClave.get(clave);
+                if (reportes == null) {
+                    continue;
+                }
+                for (int i = reportes.size() - 1; i >= 0; i--) {
+                    if (ahora - reportes.get(i).instanteMs() <= ventanaMs) {
+                        encontrados.add(reportes.get(i));
+                    }
+                }
+            }
+        }
+        encontrados.sort((a, b) -> Long.compare(b.instanteMs(), a.instanteMs()));
+        return encontrados;
+    }
+
+    void registrar(String clave, IncidenciaCreadaEvent evento, Coordenadas coordenadas) {
+        long ahora = reloj.getAsLong();
+        long actual = ahora / ventanaMs;
+        Reporte reporte = new Reporte(evento, coordenadas, ahora);
+        cubetas.computeIfAbsent(actual, cubeta -> new ConcurrentHashMap<>())
+                .merge(clave, List.of(reporte), (anteriores, nuevo) -> {
+                    int desde = Math.max(0, anteriores.size() + 1 - maxPorClave);
+                    List<Reporte> lista = new ArrayList<>(anteriores.subList(desde, anteriores.size()));
+                    lista.add(reporte);
+                    return List.copyOf(lista);
+                });
+        cubetas.keySet().removeIf(cubeta -> cubeta < actual - 1);
+    }
+
+    /**
+     * Quita una incidencia que ya no admite reportes (cerrada o borrada) de todas las cubetas vigentes.
+     */
+    void descartar(long incidenciaId) {
+        cubetas.values().forEach(porClave -> porClave.replaceAll((clave, reportes) -> reportes.stream()
+                .filter(reporte -> reporte.evento().incidenciaId() != incidenciaId)
+                .toList()));
+    }
+
+    record Reporte(IncidenciaCreadaEvent evento, Coordenadas coordenadas, long instanteMs) {
+    }
+}
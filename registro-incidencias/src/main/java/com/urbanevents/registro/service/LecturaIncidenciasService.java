@@ -0,0 +1,79 @@
+package com.urbanevents.registro.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.urbanevents.registro.api.IncidenciaResponse;
+import com.urbanevents.registro.domain.IncidenciaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Lectura de una incidencia por id con caché read-through (Caffeine, acotada por tamaño y TTL).
+ * Las escrituras publican {@link IncidenciasModificadas} y la entrada se invalida tras el commit; el TTL acota
+ * lo que una réplica puede servir desactualizado cuando el cambio se aplicó en otra instancia.
+ * Cada entrada lleva un ETag calculado al cargarla, así que responder 304 no cuesta ni serializar.
+ * Métricas: cache.* (etiqueta cache=incidencias) y registro.cache.incidencias.tasa_aciertos.
+ */
+@Service
+public class LecturaIncidenciasService {
+    private final IncidenciaRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, IncidenciaVersionada> cache;
+
+    public LecturaIncidenciasService(IncidenciaRepository repository,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${registro.cache-incidencias.max-entradas:10000}") long maxEntradas,
+                                     @Value("${registro.cache-incidencias.ttl:30s}") Duration ttl) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "incidencias");
+        Gauge.builder("registro.cache.incidencias.tasa_aciertos", cache, c -> c.stats().hitRate())
+                .register(meterRegistry);
+    }
+
+    public IncidenciaVersionada obtener(Long id) {
+        // El loader devuelve null si no existe: no se cachea y la siguiente petición vuelve a consultar
+        IncidenciaVersionada incidencia = cache.get(id, clave -> repository.findById(clave)
+                .map(encontrada -> versionar(IncidenciaResponse.desde(encontrada)))
+                .orElse(null));
+        if (incidencia == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Incidencia no encontrada");
+        }
+        return incidencia;
+    }
+
+    // Sin transacción (p. ej. el consumidor de prioridades, que escribe con JdbcTemplate) se invalida en el acto
+    @TransactionalEventListener(fallbackExecution = true)
+    public void invalidar(IncidenciasModificadas modificadas) {
+        cache.invalidateAll(modificadas.ids());
+    }
+
+    private IncidenciaVersionada versionar(IncidenciaResponse incidencia) {
+        try {
+            String etag = "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(incidencia)) + "\"";
+            return new IncidenciaVersionada(incidencia, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializando la incidencia " + incidencia.id(), e);
+        }
+    }
+
+    public record IncidenciaVersionada(IncidenciaResponse incidencia, String etag) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.events.EventoIncidencia;
+import com.urbanevents.events.codec.CabecerasEvento;
+import com.urbanevents.events.codec.CodecEventos;
+import com.urbanevents.registro.domain.EventoOutbox;
+import com.urbanevents.registro.domain.OutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Registra eventos en la tabla outbox.
+ * Exige una transacción activa: el evento solo existe si la escritura de la incidencia se confirma,
+ * y el OutboxRelay se encarga de publicarlo en Kafka fuera del hilo de la petición.
+ * El payload se guarda ya codificado en el formato de la versión de esquema del evento
+ * ({@code registro.eventos.version-esquema}: v1 JSON, v2 Smile), junto a las cabeceras de Kafka con su metadata.
+ */
+@Service
+public class OutboxService {
+    private final OutboxRepository outboxRepository;
+    private final CodecEventos codec;
+    private final int tamanoBatchJdbc;
+    private final String versionEsquema;
+
+    public OutboxService(OutboxRepository outboxRepository,
+                         CodecEventos codec,
+                         @Value("${registro.lote.tamano-batch-jdbc:500}") int tamanoBatchJdbc,
+                         @Value("${registro.eventos.version-esquema:v1}") String versionEsquema) {
+        this.outboxRepository = outboxRepository;
+        this.codec = codec;
+        this.tamanoBatchJdbc = tamanoBatchJdbc;
+        this.versionEsquema = versionEsquema;
+    }
+
+    /**
+     * Versión de esquema con la que se crean los eventos de este servicio (y, por tanto, su formato en Kafka).
+     */
+    public String versionEsquema() {
+        return versionEsquema;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String topic, Long agregadoId, String tipoEvento, EventoIncidencia evento) {
+        outboxRepository.insertar(crearEvento(topic, agregadoId, tipoEvento, evento));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarLote(List<EventoOutbox> eventos) {
+        outboxRepository.insertarLote(eventos, tamanoBatchJdbc);
+    }
+
+    public EventoOutbox crearEvento(String topic, Long agregadoId, String tipoEvento, EventoIncidencia evento) {
+        return new EventoOutbox(agregadoId, topic, tipoEvento, codec.codificar(evento),
+                CabecerasEvento.de(evento), Instant.now());
+    }
+}
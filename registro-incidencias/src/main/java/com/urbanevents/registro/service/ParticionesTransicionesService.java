@@ -0,0 +1,46 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.registro.domain.TransicionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Crea por adelantado las particiones mensuales de incidencia_transiciones, de modo que las filas
+ * nunca caigan en la partición por defecto (que impediría crear después la del mes).
+ * La operación es idempotente: se ejecuta al arrancar y una vez al día.
+ */
+@Service
+public class ParticionesTransicionesService {
+    private static final Logger logger = LoggerFactory.getLogger(ParticionesTransicionesService.class);
+
+    private final TransicionRepository transicionRepository;
+    private final int mesesAdelantados;
+
+    public ParticionesTransicionesService(TransicionRepository transicionRepository,
+                                          @Value("${registro.historial.meses-adelantados:2}") int mesesAdelantados) {
+        this.transicionRepository = transicionRepository;
+        this.mesesAdelantados = mesesAdelantados;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${registro.historial.cron-particiones:0 15 3 * * *}")
+    public void crearParticiones() {
+        LocalDate mesActual = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        try {
+            for (int i = 0; i <= mesesAdelantados; i++) {
+                transicionRepository.crearParticion(mesActual.plusMonths(i));
+            }
+        } catch (RuntimeException e) {
+            // No impide arrancar: el siguiente ciclo lo reintenta y la partición por defecto recoge las filas
+            logger.error("No se pudieron crear las particiones de incidencia_transiciones", e);
+        }
+    }
+}
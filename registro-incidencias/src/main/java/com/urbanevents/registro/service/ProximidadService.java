@@ -0,0 +1,67 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.registro.api.IncidenciaCercanaResponse;
+import com.urbanevents.registro.domain.IncidenciaConsultaRepository;
+import com.urbanevents.registro.domain.IncidenciaUbicada;
+import com.urbanevents.registro.geo.Coordenadas;
+import com.urbanevents.registro.geo.Geohash;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Incidencias a menos de un radio de un punto.
+ * 1. Prefiltro en base de datos: celdas geohash que cubren el rectángulo del círculo (índice) y el propio rectángulo,
+ *    hasta registro.geo.max-candidatos filas de la más cercana a la más lejana según una distancia aproximada.
+ * 2. Refinado en memoria con la distancia haversine exacta, ordenado de la más cercana a la más lejana.
+ */
+@Service
+public class ProximidadService {
+    private final IncidenciaConsultaRepository consultaRepository;
+    private final double radioMaximoMetros;
+    private final int maxCeldas;
+    private final int maxCandidatos;
+
+    public ProximidadService(IncidenciaConsultaRepository consultaRepository,
+                             @Value("${registro.geo.radio-maximo-m:10000}") double radioMaximoMetros,
+                             @Value("${registro.geo.max-celdas:16}") int maxCeldas,
+                             @Value("${registro.geo.max-candidatos:5000}") int maxCandidatos) {
+        this.consultaRepository = consultaRepository;
+        this.radioMaximoMetros = radioMaximoMetros;
+        this.maxCeldas = maxCeldas;
+        this.maxCandidatos = maxCandidatos;
+    }
+
+    public List<IncidenciaCercanaResponse> cercanas(double latitud, double longitud, double radioMetros,
+                                                    String estado, int limite) {
+        if (latitud < -90 || latitud > 90 || longitud < -180 || longitud > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Coordenadas fuera de rango");
+        }
+        if (radioMetros <= 0 || radioMetros > radioMaximoMetros) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El radio debe estar entre 0 y " + (long) radioMaximoMetros + " m");
+        }
+        if (limite < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El límite debe ser mayor que 0");
+        }
+
+        Coordenadas centro = new Coordenadas(latitud, longitud);
+        Geohash.Rectangulo rectangulo = Geohash.rectangulo(centro, radioMetros);
+        Set<String> celdas = Geohash.cobertura(rectangulo, maxCeldas);
+        List<IncidenciaUbicada> candidatas = consultaRepository.buscarEnCeldas(celdas, rectangulo, centro, estado,
+                maxCandidatos);
+
+        return candidatas.stream()
+                .map(incidencia -> IncidenciaCercanaResponse.desde(incidencia,
+                        centro.distanciaMetros(new Coordenadas(incidencia.latitud(), incidencia.longitud()))))
+                .filter(cercana -> cercana.distanciaMetros() <= radioMetros)
+                .sorted(Comparator.comparingLong(IncidenciaCercanaResponse::distanciaMetros))
+                .limit(limite)
+                .toList();
+    }
+}
@@ -0,0 +1,79 @@
+package com.urbanevents.registro.admision;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class LimitadorOrigenesTest {
+    private final AtomicLong reloj = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LimitadorOrigenes limitador;
+
+    @BeforeEach
+    void setUp() {
+        AdmisionProperties propiedades = new AdmisionProperties(true,
+                new AdmisionProperties.Limite(1, 2),
+                Map.of("sensor", new AdmisionProperties.Limite(10, 5)),
+                1000, Duration.ofMinutes(10), 10);
+        limitador = new LimitadorOrigenes(propiedades, meterRegistry, reloj::get);
+    }
+
+    @Test
+    void admiteLaRafagaYRechazaConRetryAfterHastaQueSeRepone() {
+        limitador.admitir("ciudadano");
+        limitador.admitir("ciudadano");
+
+        assertThatThrownBy(() -> limitador.admitir("ciudadano"))
+                .isInstanceOfSatisfying(OrigenLimitadoException.class, e -> {
+                    assertThat(e.getStatusCode().value()).isEqualTo(429);
+                    assertThat(e.getHeaders().getFirst("Retry-After")).isEqualTo("1");
+                });
+
+        // Otro origen tiene su propio cubo
+        assertThatNoException().isThrownBy(() -> limitador.admitir("sensor"));
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThatNoException().isThrownBy(() -> limitador.admitir("ciudadano"));
+
+        assertThat(meterRegistry.get("registro.admision.aceptadas").tag("origen", "ciudadano").counter().count())
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("registro.admision.rechazadas").tag("origen", "ciudadano").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void unLoteRechazadoDevuelveLosTokensDeLosDemasOrigenes() {
+        limitador.admitir("ciudadano");
+        limitador.admitir("ciudadano");
+
+        assertThatThrownBy(() -> limitador.admitir(Map.of("sensor", 5, "ciudadano", 1)))
+                .isInstanceOf(OrigenLimitadoException.class);
+
+        // Los 5 tokens de sensor se reintegraron
+        assertThatNoException().isThrownBy(() -> limitador.admitir(Map.of("sensor", 5)));
+        assertThatThrownBy(() -> limitador.admitir(Map.of("sensor", 6)))
+                .isInstanceOf(ResponseStatusException.class)
+                .isNotInstanceOf(OrigenLimitadoException.class);
+    }
+
+    @Test
+    void deshabilitadoNoLimita() {
+        LimitadorOrigenes sinLimite = new LimitadorOrigenes(
+                new AdmisionProperties(false, new AdmisionProperties.Limite(1, 1), null, 1000, Duration.ofMinutes(10), 10),
+                meterRegistry, reloj::get);
+
+        for (int i = 0; i < 100; i++) {
+            sinLimite.admitir("ciudadano");
+        }
+    }
+}
@@ -2,24 +2,57 @@ package com.urbanevents.registro.api;
 
 import com.urbanevents.events.IncidenciaCreadaEvent;
 import com.urbanevents.events.IncidenciaChangedEvent;
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.id.GeneradorIdsPorBloques;
+import com.urbanevents.registro.admision.AdmisionProperties;
+import com.urbanevents.registro.admision.LimitadorOrigenes;
+import com.urbanevents.registro.domain.ComentarioIncidencia;
+import com.urbanevents.registro.domain.ComentarioIncidenciaRepository;
 import com.urbanevents.registro.domain.Incidencia;
 import com.urbanevents.registro.domain.IncidenciaRepository;
+import com.urbanevents.registro.domain.Transicion;
+import com.urbanevents.registro.domain.TransicionRepository;
+import com.urbanevents.registro.service.AltaIdempotenteService;
+import com.urbanevents.registro.service.ComentarioService;
+import com.urbanevents.registro.service.ConsultaIncidenciasService;
+import com.urbanevents.registro.service.DeduplicacionService;
+import com.urbanevents.registro.service.ImportacionService;
+import com.urbanevents.registro.service.IncidenciaLoteService;
+import com.urbanevents.registro.service.IncidenciasModificadas;
+import com.urbanevents.registro.service.LecturaIncidenciasService;
+import com.urbanevents.registro.geo.Coordenadas;
+import com.urbanevents.registro.geo.Nomenclator;
+import com.urbanevents.registro.service.GeolocalizacionService;
+import com.urbanevents.registro.service.IncidenciaService;
+import com.urbanevents.registro.service.ProximidadService;
+import com.urbanevents.registro.service.OutboxService;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 
@@ -29,25 +62,58 @@ class IncidenciaControllerTest {
     private IncidenciaRepository repository;
 
     @Mock
-    private StreamBridge streamBridge;
+    private OutboxService outboxService;
+
+    @Mock
+    private IncidenciaLoteService loteService;
+
+    @Mock
+    private ComentarioIncidenciaRepository comentarioRepository;
+
+    @Mock
+    private ConsultaIncidenciasService consultaService;
+
+    @Mock
+    private TransicionRepository transicionRepository;
+
+    @Mock
+    private ProximidadService proximidadService;
+
+    @Mock
+    private ImportacionService importacionService;
+
+    private LecturaIncidenciasService lecturaService;
 
-    @InjectMocks
     private IncidenciaController controller;
 
+    @BeforeEach
+    void setUp() {
+        GeneradorIdsPorBloques generadorIds = new GeneradorIdsPorBloques(tamano -> 1L, 50);
+        ComentarioService comentarioService = new ComentarioService(comentarioRepository, repository, 100);
+        GeolocalizacionService geolocalizacionService =
+                new GeolocalizacionService(new Nomenclator(Map.of("Centro", new Coordenadas(40.416775, -3.703790))));
+        lecturaService = new LecturaIncidenciasService(repository, JsonMapper.builder().findAndAddModules().build(),
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        IncidenciaService incidenciaService = new IncidenciaService(repository, outboxService, generadorIds, comentarioService,
+                transicionRepository, geolocalizacionService,
+                evento -> lecturaService.invalidar((IncidenciasModificadas) evento));
+        DeduplicacionService deduplicacionService = new DeduplicacionService(incidenciaService, geolocalizacionService,
+                new SimpleMeterRegistry(), true, Duration.ofMinutes(10), 100, 8);
+        controller = new IncidenciaController(incidenciaService,
+                new AltaIdempotenteService(deduplicacionService, incidenciaService, 100, Duration.ofMinutes(5)),
+                loteService, comentarioService, consultaService, proximidadService,
+                new LimitadorOrigenes(new AdmisionProperties(false, null, null, 100, Duration.ofMinutes(10), 10),
+                        new SimpleMeterRegistry(), System::nanoTime),
+                importacionService, lecturaService);
+    }
+
     @Test
     void crearPersisteYPublicaEvento() throws Exception {
         NuevaIncidenciaRequest request = new NuevaIncidenciaRequest("fuego", "alerta de fuego", "sensor", "Centro");
 
-        when(repository.save(any())).thenAnswer(invocation -> {
-            Incidencia i = invocation.getArgument(0);
-            i.setId(1L);
-            return i;
-        });
-
-        // Mock de StreamBridge para que el send funcione correctamente
-        when(streamBridge.send(any(), any())).thenReturn(true);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
-        IncidenciaCreadaEvent event = controller.crear(request);
+        IncidenciaCreadaEvent event = controller.crear(null, request);
 
         assertThat(event.incidenciaId()).isNotNull();
         assertThat(event.incidenciaId()).isPositive();
@@ -58,20 +124,42 @@ class IncidenciaControllerTest {
 
         ArgumentCaptor<Incidencia> captor = ArgumentCaptor.forClass(Incidencia.class);
         verify(repository).save(captor.capture());
+        assertThat(captor.getValue().getId()).isEqualTo(1L);
+        assertThat(captor.getValue().isNew()).isTrue();
         assertThat(captor.getValue().getTipo()).isEqualTo("fuego");
         assertThat(captor.getValue().getEstado()).isEqualTo("REGISTRADA");
+        // Sin coordenadas en la petición se resuelven desde el nomenclátor por el texto de ubicación
+        assertThat(captor.getValue().getLatitud()).isEqualTo(40.416775);
+        assertThat(captor.getValue().getGeohash()).isEqualTo("ezjmgtwuz");
 
-        verify(streamBridge).send(eq("incidenciasCreadas-out-0"), any(IncidenciaCreadaEvent.class));
+        // El evento se registra en el outbox en lugar de enviarse a Kafka en la petición
+        verify(outboxService).registrar(eq(Topics.INCIDENCIAS_CREADAS), eq(1L), eq("IncidenciaCreada"),
+                any(IncidenciaCreadaEvent.class));
+    }
+
+    @Test
+    void unSegundoReporteCercanoSeSumaALaIncidenciaExistente() {
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.sumarReporte(eq(1L), any())).thenReturn(1);
+
+        IncidenciaCreadaEvent primero = controller.crear(null,
+                new NuevaIncidenciaRequest("alumbrado", "farola apagada", "sensor", "Centro"));
+        IncidenciaCreadaEvent segundo = controller.crear(null,
+                new NuevaIncidenciaRequest("alumbrado", "no hay luz en la plaza", "ciudadano", "Centro",
+                        40.4170, -3.7040));
+
+        assertThat(segundo).isEqualTo(primero);
+        verify(repository).save(any());
+        verify(comentarioRepository).save(any(ComentarioIncidencia.class));
+        // Solo el primer reporte genera evento (priorización y notificación)
+        verify(outboxService).registrar(any(), any(), any(), any());
     }
 
     @Test
     void cambiarIncidenciaActualizaEstadoYComentario() throws Exception {
-        Incidencia incidenciaExistente = new Incidencia(1L, "fuego", "alerta de fuego", "sensor", "Centro", "registrada", Instant.now());
-        CambiarIncidenciaRequest request = new CambiarIncidenciaRequest("EN_PROGRESO", "Se ha asignado al equipo");
+        CambiarIncidenciaRequest request = new CambiarIncidenciaRequest("EN_PROGRESO", "Se ha asignado al equipo", "operador-1");
 
-        when(repository.findById(1L)).thenReturn(Optional.of(incidenciaExistente));
-        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        when(streamBridge.send(any(), any())).thenReturn(true);
+        when(repository.actualizarEstado(1L, "EN_PROGRESO")).thenReturn(1);
 
         IncidenciaChangedEvent event = controller.cambiarIncidencia(1L, request);
 
@@ -79,22 +167,64 @@ class IncidenciaControllerTest {
         assertThat(event.nuevoEstado()).isEqualTo("EN_PROGRESO");
         assertThat(event.comentario()).isEqualTo("Se ha asignado al equipo");
 
-        ArgumentCaptor<Incidencia> captor = ArgumentCaptor.forClass(Incidencia.class);
-        verify(repository).save(captor.capture());
-        assertThat(captor.getValue().getEstado()).isEqualTo("EN_PROGRESO");
-        assertThat(captor.getValue().getComentarios()).contains("Se ha asignado al equipo");
+        // Ni se carga la incidencia ni se reescriben sus comentarios: UPDATE + un INSERT
+        verify(repository, never()).findById(any());
+        verify(repository, never()).save(any());
+        ArgumentCaptor<ComentarioIncidencia> captor = ArgumentCaptor.forClass(ComentarioIncidencia.class);
+        verify(comentarioRepository).save(captor.capture());
+        assertThat(captor.getValue().getIncidenciaId()).isEqualTo(1L);
+        assertThat(captor.getValue().getComentario()).isEqualTo("Se ha asignado al equipo");
+        assertThat(captor.getValue().getAutor()).isEqualTo("operador-1");
+        assertThat(captor.getValue().getCreadoEn()).isEqualTo(event.cambiadoEn());
+        verify(transicionRepository).insertar(new Transicion(1L, Transicion.CAMPO_ESTADO, "EN_PROGRESO",
+                "operador-1", event.cambiadoEn()));
 
-        verify(streamBridge).send(eq("incidenciasChanges-out-0"), any(IncidenciaChangedEvent.class));
+        verify(outboxService).registrar(eq(Topics.INCIDENCIAS_CAMBIADAS), eq(1L), eq("IncidenciaChanged"),
+                any(IncidenciaChangedEvent.class));
+    }
+
+    @Test
+    void obtenerServidoDesdeCacheConEtagYRevalidadoTrasUnCambio() {
+        Incidencia incidencia = new Incidencia(1L, "fuego", "alerta de fuego", "sensor", "Centro", "REGISTRADA",
+                Instant.parse("2025-03-01T10:15:30Z"));
+        when(repository.findById(1L)).thenReturn(Optional.of(incidencia));
+
+        ResponseEntity<IncidenciaResponse> primera = controller.obtener(1L, null);
+        String etag = primera.getHeaders().getETag();
+        assertThat(primera.getBody().estado()).isEqualTo("REGISTRADA");
+        assertThat(etag).isNotNull();
+
+        // Mismo ETag (también en forma débil o dentro de una lista): 304 sin cuerpo y sin volver a la base de datos
+        ResponseEntity<IncidenciaResponse> noModificada = controller.obtener(1L, "\"otro\", W/" + etag);
+        assertThat(noModificada.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(noModificada.getBody()).isNull();
+        verify(repository, times(1)).findById(1L);
+
+        // Un cambio de estado invalida la entrada y la siguiente lectura trae un ETag nuevo
+        when(repository.actualizarEstado(1L, "EN_PROGRESO")).thenReturn(1);
+        controller.cambiarIncidencia(1L, new CambiarIncidenciaRequest("EN_PROGRESO", null, "operador-1"));
+        incidencia.setEstado("EN_PROGRESO");
+
+        ResponseEntity<IncidenciaResponse> tras = controller.obtener(1L, etag);
+        assertThat(tras.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(tras.getBody().estado()).isEqualTo("EN_PROGRESO");
+        assertThat(tras.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void obtenerIncidenciaInexistenteDevuelve404() {
+        when(repository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> controller.obtener(999L, null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
     }
 
     @Test
     void cambiarIncidenciaSinComentario() throws Exception {
-        Incidencia incidenciaExistente = new Incidencia(1L, "fuego", "alerta de fuego", "sensor", "Centro", "registrada", Instant.now());
         CambiarIncidenciaRequest request = new CambiarIncidenciaRequest("CERRADA", null);
 
-        when(repository.findById(1L)).thenReturn(Optional.of(incidenciaExistente));
-        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        when(streamBridge.send(any(), any())).thenReturn(true);
+        when(repository.actualizarEstado(1L, "CERRADA")).thenReturn(1);
 
         IncidenciaChangedEvent event = controller.cambiarIncidencia(1L, request);
 
@@ -102,19 +232,44 @@ class IncidenciaControllerTest {
         assertThat(event.nuevoEstado()).isEqualTo("CERRADA");
         assertThat(event.comentario()).isNull();
 
-        ArgumentCaptor<Incidencia> captor = ArgumentCaptor.forClass(Incidencia.class);
-        verify(repository).save(captor.capture());
-        assertThat(captor.getValue().getEstado()).isEqualTo("CERRADA");
-        assertThat(captor.getValue().getComentarios()).isEmpty();
+        verify(repository).actualizarEstado(1L, "CERRADA");
+        verify(comentarioRepository, never()).save(any());
     }
 
     @Test
     void cambiarIncidenciaLanzaExcepcionSiNoExiste() {
         CambiarIncidenciaRequest request = new CambiarIncidenciaRequest("EN_PROGRESO", "comentario");
 
-        when(repository.findById(999L)).thenReturn(Optional.empty());
+        when(repository.actualizarEstado(999L, "EN_PROGRESO")).thenReturn(0);
 
         assertThatThrownBy(() -> controller.cambiarIncidencia(999L, request))
                 .isInstanceOf(ResponseStatusException.class);
+        verify(comentarioRepository, never()).save(any());
+        verify(transicionRepository, never()).insertar(any());
+        verify(outboxService, never()).registrar(any(), any(), any(), any());
+    }
+
+    @Test
+    void listarComentariosPaginaYLimitaTamano() {
+        ComentarioIncidencia comentario = new ComentarioIncidencia(1L, "Revisado", "operador-1", Instant.now());
+        when(comentarioRepository.findByIncidenciaIdOrderByIdAsc(eq(1L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(comentario), PageRequest.of(0, 100), true));
+
+        PaginaComentariosResponse pagina = controller.listarComentarios(1L, 0, 500);
+
+        assertThat(pagina.comentarios()).extracting(ComentarioResponse::comentario).containsExactly("Revisado");
+        assertThat(pagina.tamano()).isEqualTo(100);
+        assertThat(pagina.haySiguiente()).isTrue();
+        verify(repository, never()).existsById(any());
+    }
+
+    @Test
+    void listarComentariosDeIncidenciaInexistente() {
+        when(comentarioRepository.findByIncidenciaIdOrderByIdAsc(eq(999L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(repository.existsById(999L)).thenReturn(false);
+
+        assertThatThrownBy(() -> controller.listarComentarios(999L, 0, 20))
+                .isInstanceOf(ResponseStatusException.class);
     }
-}
\ No newline at end of file
+}
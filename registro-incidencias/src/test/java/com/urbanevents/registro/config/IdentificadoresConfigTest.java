@@ -0,0 +1,55 @@
+package com.urbanevents.registro.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.registro.api.ComentarioResponse;
+import com.urbanevents.registro.api.ResultadoLoteResponse;
+import com.urbanevents.registro.domain.IncidenciaResumen;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentificadoresConfigTest {
+    // Id temporal real: por encima de 2^53 (9007199254740992)
+    private static final long ID = 374_518_230_912_040_961L;
+
+    @Test
+    void conIdsTemporalesLasRespuestasDevuelvenLosIdsComoTexto() throws Exception {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new IdentificadoresConfig().idsComoTexto().customize(builder);
+        ObjectMapper mapper = builder.build();
+
+        JsonNode resumen = mapper.valueToTree(new IncidenciaResumen(ID, "alumbrado", null, null, null, null, null,
+                null));
+        IncidenciaCreadaEvent evento = new IncidenciaCreadaEvent(
+                new EventMetadata("e-1", "IncidenciaCreada", Instant.now(), "registro-incidencias", "v1"),
+                ID, "alumbrado", "farola apagada", "ciudadano", "calle mayor", Instant.now());
+        JsonNode lote = mapper.valueToTree(new ResultadoLoteResponse(1, 1, 0,
+                List.of(ResultadoLoteResponse.Item.aceptada(0, evento))));
+
+        assertThat(resumen.get("id").isTextual()).isTrue();
+        assertThat(resumen.get("id").asText()).isEqualTo(Long.toString(ID));
+        assertThat(lote.at("/resultados/0/evento/incidenciaId").asText()).isEqualTo(Long.toString(ID));
+        assertThat(lote.at("/resultados/0/evento/incidenciaId").isTextual()).isTrue();
+        assertThat(mapper.valueToTree(new ComentarioResponse(ID, "ok", "vecino", Instant.now())).get("id")
+                .isTextual()).isTrue();
+    }
+
+    @Test
+    void conIdsPorBloquesLosIdsSiguenSiendoNumeros() {
+        // Sin registro.ids.estrategia=temporal no se registra idsComoTexto
+        ObjectMapper mapper = new Jackson2ObjectMapperBuilder().build();
+
+        JsonNode resumen = mapper.valueToTree(new IncidenciaResumen(1234L, "alumbrado", null, null, null, null, null,
+                null));
+
+        assertThat(resumen.get("id").isNumber()).isTrue();
+        assertThat(resumen.get("id").asLong()).isEqualTo(1234L);
+    }
+}
@@ -0,0 +1,49 @@
+package com.urbanevents.registro.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeohashTest {
+
+    @Test
+    void codificaValoresConocidos() {
+        assertThat(Geohash.codificar(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.codificar(new Coordenadas(40.416775, -3.703790))).isEqualTo("ezjmgtwuz");
+    }
+
+    @Test
+    void laCoberturaIncluyeLaCeldaDeCualquierPuntoDelRectangulo() {
+        Coordenadas centro = new Coordenadas(40.416775, -3.703790);
+        Geohash.Rectangulo rectangulo = Geohash.rectangulo(centro, 500);
+        Set<String> celdas = Geohash.cobertura(rectangulo, 16);
+
+        assertThat(celdas).hasSizeLessThanOrEqualTo(16);
+        for (double lat = rectangulo.latMin(); lat <= rectangulo.latMax(); lat += 0.0007) {
+            for (double lon = rectangulo.lonMin(); lon <= rectangulo.lonMax(); lon += 0.0007) {
+                String hash = Geohash.codificar(lat, lon, Geohash.PRECISION_ALMACENADA);
+                assertThat(celdas).anySatisfy(prefijo -> assertThat(hash).startsWith(prefijo));
+            }
+        }
+    }
+
+    @Test
+    void distanciaHaversine() {
+        Coordenadas sol = new Coordenadas(40.416900, -3.703500);
+        Coordenadas atocha = new Coordenadas(40.406500, -3.689900);
+
+        assertThat(sol.distanciaMetros(atocha)).isCloseTo(1637, within(15.0));
+        assertThat(sol.distanciaMetros(sol)).isZero();
+    }
+
+    @Test
+    void nomenclatorNormalizaMayusculasTildesYEspacios() {
+        Nomenclator nomenclator = new Nomenclator(java.util.Map.of("Estación de Atocha", new Coordenadas(40.4065, -3.6899)));
+
+        assertThat(nomenclator.resolver("  ESTACION   de atocha ")).contains(new Coordenadas(40.4065, -3.6899));
+        assertThat(nomenclator.resolver("Chamartín")).isEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package com.urbanevents.registro.listeners;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import com.urbanevents.events.metricas.MedidorEventos;
+import com.urbanevents.registro.domain.IncidenciaLoteRepository;
+import com.urbanevents.registro.service.IncidenciasModificadas;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IncidenciaPriorizadaConsumerTest {
+    @Mock
+    private IncidenciaLoteRepository loteRepository;
+
+    @Test
+    void aplicaElLoteConUnaSolaActualizacionYCuentaLosNoEncontrados() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<Object> publicados = new ArrayList<>();
+        IncidenciaPriorizadaConsumer consumer = new IncidenciaPriorizadaConsumer(loteRepository, registry, publicados::add,
+                new MedidorEventos(registry));
+        when(loteRepository.actualizarPrioridades(any())).thenReturn(Set.of(1L, 2L));
+
+        consumer.consumirIncidenciaPriorizada().accept(List.of(
+                evento(1L, "BAJA"), evento(2L, "MEDIA"), evento(3L, "ALTA"), evento(1L, "ALTA")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, String>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(loteRepository, times(1)).actualizarPrioridades(captor.capture());
+        // Ids únicos; para una incidencia repetida gana el último evento
+        assertThat(captor.getValue()).containsExactly(Map.entry(1L, "ALTA"), Map.entry(2L, "MEDIA"), Map.entry(3L, "ALTA"));
+        assertThat(registry.get("registro.priorizaciones.aplicadas").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get("registro.priorizaciones.no_encontradas").counter().count()).isEqualTo(1.0);
+        // Edad por evento; procesamiento y UPDATE, uno por lote
+        assertThat(registry.get(MedidorEventos.EDAD).timer().count()).isEqualTo(4);
+        assertThat(registry.get(MedidorEventos.PROCESAMIENTO).timer().count()).isEqualTo(1);
+        assertThat(registry.get(MedidorEventos.BD).timer().count()).isEqualTo(1);
+        // Solo se invalidan en caché las que existían
+        assertThat(publicados).containsExactly(new IncidenciasModificadas(Set.of(1L, 2L)));
+    }
+
+    @Test
+    void siFallaElUpdateDelLoteLosAplicaDeUnoEnUnoYSenalaElQueFalla() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<Object> publicados = new ArrayList<>();
+        IncidenciaPriorizadaConsumer consumer = new IncidenciaPriorizadaConsumer(loteRepository, registry, publicados::add,
+                new MedidorEventos(registry));
+        // El lote entero y la incidencia 2 fallan; el resto se aplica
+        when(loteRepository.actualizarPrioridades(any())).thenAnswer(invocation -> {
+            Map<Long, String> prioridades = invocation.getArgument(0);
+            if (prioridades.size() > 1 || prioridades.containsKey(2L)) {
+                throw new IllegalStateException("valor fuera de rango");
+            }
+            return prioridades.keySet();
+        });
+
+        assertThatThrownBy(() -> consumer.consumirIncidenciaPriorizada().accept(List.of(
+                evento(1L, "BAJA"), evento(2L, "MEDIA"), evento(3L, "ALTA"))))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(1));
+
+        // La 3 no se aplica: el error handler vuelve a entregar desde la 2
+        verify(loteRepository, never()).actualizarPrioridades(Map.of(3L, "ALTA"));
+        assertThat(registry.get("registro.priorizaciones.aplicadas").counter().count()).isEqualTo(1.0);
+        assertThat(publicados).containsExactly(new IncidenciasModificadas(Set.of(1L)));
+    }
+
+    private static IncidenciaPriorizadaEvent evento(Long id, String prioridad) {
+        EventMetadata metadata = new EventMetadata("evt-" + id, "IncidenciaPriorizada", Instant.now(),
+                "priorizacion-incidencias", "v1", prioridad);
+        return new IncidenciaPriorizadaEvent(metadata, id, prioridad, "motivo", Instant.now());
+    }
+}
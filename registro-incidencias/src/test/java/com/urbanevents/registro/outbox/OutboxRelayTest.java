@@ -0,0 +1,111 @@
+package com.urbanevents.registro.outbox;
+
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.codec.CabecerasEvento;
+import com.urbanevents.registro.domain.EventoOutbox;
+import com.urbanevents.registro.domain.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private DataSourceProperties datosConexion;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publicaConElIdDeLaIncidenciaComoClaveYLaMetadataEnCabecerasYBorraLoConfirmado() throws Exception {
+        Instant ahora = Instant.now();
+        byte[] creada = {1};
+        byte[] cambiada = {2};
+        when(outboxRepository.pendientesDesde(0L, 10)).thenReturn(List.of(
+                new EventoOutbox(1L, 42L, Topics.INCIDENCIAS_CREADAS, "IncidenciaCreada", creada,
+                        Map.of(CabecerasEvento.EVENT_TYPE, "IncidenciaCreada"), ahora),
+                // Fila anterior a V16, sin cabeceras
+                new EventoOutbox(2L, 42L, Topics.INCIDENCIAS_CAMBIADAS, "IncidenciaChanged", cambiada, Map.of(), ahora)));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        OutboxRelay relay = new OutboxRelay(datosConexion, outboxRepository, kafkaTemplate, new SimpleMeterRegistry(),
+                true, 10, 100, 1000, 1000);
+
+        assertThat(relay.publicarPendientes()).isEqualTo(2);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> enviados = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(enviados.capture());
+        ProducerRecord<String, byte[]> primero = enviados.getAllValues().get(0);
+        ProducerRecord<String, byte[]> segundo = enviados.getAllValues().get(1);
+
+        // Los dos eventos de la incidencia 42 comparten clave y, por tanto, partición
+        assertThat(primero.topic()).isEqualTo(Topics.INCIDENCIAS_CREADAS);
+        assertThat(primero.key()).isEqualTo("42");
+        assertThat(primero.value()).isSameAs(creada);
+        assertThat(CabecerasEvento.leer(primero.headers(), CabecerasEvento.EVENT_TYPE)).isEqualTo("IncidenciaCreada");
+        assertThat(segundo.topic()).isEqualTo(Topics.INCIDENCIAS_CAMBIADAS);
+        assertThat(segundo.key()).isEqualTo("42");
+        assertThat(segundo.value()).isSameAs(cambiada);
+        assertThat(segundo.headers().toArray()).isEmpty();
+        verify(outboxRepository).eliminar(List.of(1L, 2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void siFallaUnEnvioNoBorraNiEnviaLoPosteriorDeEsaIncidencia() throws Exception {
+        when(outboxRepository.pendientesDesde(0L, 10)).thenReturn(List.of(
+                fila(1L, 42L), fila(2L, 42L), fila(3L, 42L), fila(4L, 7L)));
+        // El envío de la fila 1 falla cuando la 2 ya está en vuelo; la 2 se confirma después
+        CompletableFuture<Object> primero = new CompletableFuture<>();
+        AtomicInteger envios = new AtomicInteger();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            if (envios.incrementAndGet() == 1) {
+                return primero;
+            }
+            primero.completeExceptionally(new IllegalStateException("broker caído"));
+            return CompletableFuture.completedFuture(null);
+        });
+        OutboxRelay relay = new OutboxRelay(datosConexion, outboxRepository, kafkaTemplate, new SimpleMeterRegistry(),
+                true, 10, 100, 1000, 1000);
+
+        assertThat(relay.publicarPendientes()).isEqualTo(3);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> enviados = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(3)).send(enviados.capture());
+        // La fila 3 no se envía: va detrás de la fallida
+        assertThat(enviados.getAllValues()).extracting(ProducerRecord::value)
+                .containsExactly(new byte[]{1}, new byte[]{2}, new byte[]{4});
+        // La 2 está confirmada pero se queda para reenviarse detrás de la 1; la otra incidencia no se ve afectada
+        ArgumentCaptor<List<Long>> borrados = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository, atLeastOnce()).eliminar(borrados.capture());
+        assertThat(borrados.getAllValues().stream().flatMap(List::stream)).containsExactly(4L);
+    }
+
+    private static EventoOutbox fila(long id, long incidencia) {
+        return new EventoOutbox(id, incidencia, Topics.INCIDENCIAS_CAMBIADAS, "IncidenciaChanged",
+                new byte[]{(byte) id}, Map.of(), Instant.now());
+    }
+}
@@ -0,0 +1,60 @@
+package com.urbanevents.registro.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VentanaEnviosTest {
+    private static final BiConsumer<Object, Throwable> SIN_CALLBACK = (resultado, error) -> {
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void bloqueaConLaVentanaLlenaHastaQueLlegaUnaConfirmacion() throws Exception {
+        VentanaEnvios ventana = new VentanaEnvios(2, registry);
+        CompletableFuture<String> primero = new CompletableFuture<>();
+        ventana.enviar(() -> primero, SIN_CALLBACK);
+        ventana.enviar(CompletableFuture::new, SIN_CALLBACK);
+        assertThat(registry.get("outbox.envios.en_vuelo").gauge().value()).isEqualTo(2.0);
+
+        CompletableFuture<Void> tercero = CompletableFuture.runAsync(() -> {
+            try {
+                ventana.enviar(() -> CompletableFuture.completedFuture("ok"), SIN_CALLBACK);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(100);
+        assertThat(tercero).isNotDone();
+
+        primero.complete("ok");
+        tercero.get(5, TimeUnit.SECONDS);
+        assertThat(registry.get("outbox.envios.confirmacion").timer().count()).isEqualTo(2);
+        assertThat(ventana.enVuelo()).isEqualTo(1);
+    }
+
+    @Test
+    void esperarVaciaCuentaFallosYRespetaElTimeout() throws Exception {
+        VentanaEnvios ventana = new VentanaEnvios(4, registry);
+        CompletableFuture<String> pendiente = new CompletableFuture<>();
+        List<Throwable> errores = new CopyOnWriteArrayList<>();
+        ventana.enviar(() -> pendiente, (resultado, error) -> errores.add(error));
+
+        assertThat(ventana.esperarVacia(50)).isFalse();
+
+        pendiente.completeExceptionally(new IllegalStateException("broker caído"));
+        assertThat(ventana.esperarVacia(1000)).isTrue();
+        // El callback ya se ha ejecutado cuando la ventana queda vacía
+        assertThat(errores).hasSize(1);
+        assertThat(registry.get("outbox.envios.fallidos").counter().count()).isEqualTo(1.0);
+        assertThat(ventana.enVuelo()).isZero();
+    }
+}
@@ -0,0 +1,166 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.id.GeneradorIdsPorBloques;
+import com.urbanevents.registro.admision.OrigenLimitadoException;
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import com.urbanevents.registro.domain.Incidencia;
+import com.urbanevents.registro.domain.IncidenciaRepository;
+import com.urbanevents.registro.domain.TransicionRepository;
+import com.urbanevents.registro.geo.Nomenclator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AltaIdempotenteServiceTest {
+    private static final NuevaIncidenciaRequest REQUEST =
+            new NuevaIncidenciaRequest("fuego", "alerta de fuego", "sensor", "Centro");
+    private static final Runnable SIN_LIMITE = () -> { };
+
+    @Mock
+    private IncidenciaRepository repository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ComentarioService comentarioService;
+
+    @Mock
+    private TransicionRepository transicionRepository;
+
+    private AltaIdempotenteService service;
+
+    @BeforeEach
+    void setUp() {
+        IncidenciaService incidenciaService = new IncidenciaService(repository, outboxService,
+                new GeneradorIdsPorBloques(tamano -> 1L, 50), comentarioService, transicionRepository,
+                new GeolocalizacionService(new Nomenclator(Map.of())), evento -> { });
+        service = new AltaIdempotenteService(sinDeduplicacion(incidenciaService), incidenciaService, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void reintentoConLaMismaClaveDevuelveElEventoOriginal() {
+        when(repository.findByClaveIdempotencia("clave-1")).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        IncidenciaCreadaEvent original = service.crear(REQUEST, "clave-1", SIN_LIMITE);
+        IncidenciaCreadaEvent reintento = service.crear(REQUEST, "clave-1", SIN_LIMITE);
+
+        assertThat(reintento).isEqualTo(original);
+        ArgumentCaptor<Incidencia> captor = ArgumentCaptor.forClass(Incidencia.class);
+        verify(repository, times(1)).saveAndFlush(captor.capture());
+        assertThat(captor.getValue().getClaveIdempotencia()).isEqualTo("clave-1");
+        verify(outboxService, times(1)).registrar(anyString(), anyLong(), anyString(), any());
+    }
+
+    @Test
+    void reintentoConClaveRegistradaNoPasaPorLaAdmision() {
+        IncidenciaCreadaEvent original = crearConRepositorioVacio("clave-5");
+
+        // El origen se ha quedado sin tokens, pero el reintento recibe el alta original y no un 429
+        IncidenciaCreadaEvent reintento = service.crear(REQUEST, "clave-5", () -> {
+            throw new OrigenLimitadoException("sensor", 1);
+        });
+
+        assertThat(reintento).isEqualTo(original);
+        assertThatThrownBy(() -> service.crear(REQUEST, "clave-6", () -> {
+            throw new OrigenLimitadoException("sensor", 1);
+        })).isInstanceOf(OrigenLimitadoException.class);
+        verify(repository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void claveYaPersistidaSeResuelveDesdeLaBaseDeDatos() {
+        IncidenciaCreadaEvent original = crearConRepositorioVacio("clave-2");
+        Incidencia guardada = new Incidencia(original.incidenciaId(), "fuego", "alerta de fuego", "sensor", "Centro",
+                "EN_PROGRESO", original.creadaEn());
+        guardada.setClaveIdempotencia("clave-2");
+
+        // Otra instancia del servicio (caché vacía) encuentra la fila por la columna única
+        IncidenciaService otroIncidenciaService = new IncidenciaService(repository,
+                outboxService, new GeneradorIdsPorBloques(tamano -> 100L, 50), comentarioService, transicionRepository,
+                new GeolocalizacionService(new Nomenclator(Map.of())), evento -> { });
+        AltaIdempotenteService otraInstancia = new AltaIdempotenteService(sinDeduplicacion(otroIncidenciaService),
+                otroIncidenciaService, 100, Duration.ofMinutes(5));
+        when(repository.findByClaveIdempotencia("clave-2")).thenReturn(Optional.of(guardada));
+
+        assertThat(otraInstancia.crear(REQUEST, "clave-2", SIN_LIMITE)).isEqualTo(original);
+    }
+
+    @Test
+    void altaConcurrenteConLaMismaClaveDevuelveLaGanadora() {
+        Instant creadaEn = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Incidencia ganadora = new Incidencia(7L, "fuego", "alerta de fuego", "sensor", "Centro", "REGISTRADA", creadaEn);
+        when(repository.findByClaveIdempotencia("clave-3"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(ganadora));
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uq_incidencias_clave_idempotencia"));
+
+        IncidenciaCreadaEvent event = service.crear(REQUEST, "clave-3", SIN_LIMITE);
+
+        assertThat(event.incidenciaId()).isEqualTo(7L);
+        assertThat(event.creadaEn()).isEqualTo(creadaEn);
+        verify(outboxService, never()).registrar(anyString(), anyLong(), anyString(), any());
+    }
+
+    @Test
+    void reporteAgrupadoConClaveSeResuelveSinCacheYNoSumaOtroReporte() {
+        Incidencia existente = new Incidencia(9L, "fuego", "alerta de fuego", "sensor", "Centro", "REGISTRADA",
+                Instant.now().truncatedTo(ChronoUnit.MICROS));
+        // La clave no creó incidencia: está en el comentario del reporte que se sumó a la 9
+        when(repository.findByClaveIdempotencia("clave-4")).thenReturn(Optional.empty());
+        when(comentarioService.incidenciaDeReporte("clave-4")).thenReturn(Optional.of(9L));
+        when(repository.findById(9L)).thenReturn(Optional.of(existente));
+
+        IncidenciaCreadaEvent event = service.crear(REQUEST, "clave-4", SIN_LIMITE);
+
+        assertThat(event.incidenciaId()).isEqualTo(9L);
+        verify(repository, never()).sumarReporte(anyLong(), any());
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void sinClaveNoConsultaNiCachea() {
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.crear(REQUEST, null, SIN_LIMITE);
+        service.crear(REQUEST, null, SIN_LIMITE);
+
+        verify(repository, times(2)).save(any());
+        verify(repository, never()).findByClaveIdempotencia(any());
+    }
+
+    private IncidenciaCreadaEvent crearConRepositorioVacio(String clave) {
+        when(repository.findByClaveIdempotencia(clave)).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return service.crear(REQUEST, clave, SIN_LIMITE);
+    }
+
+    private static DeduplicacionService sinDeduplicacion(IncidenciaService incidenciaService) {
+        return new DeduplicacionService(incidenciaService, new GeolocalizacionService(new Nomenclator(Map.of())),
+                new SimpleMeterRegistry(), false, Duration.ofMinutes(10), 100, 8, System::currentTimeMillis);
+    }
+}
@@ -0,0 +1,147 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.registro.api.PaginaBusquedaResponse;
+import com.urbanevents.registro.api.PaginaIncidenciasResponse;
+import com.urbanevents.registro.api.TransicionResponse;
+import com.urbanevents.registro.domain.CampoIncidencia;
+import com.urbanevents.registro.domain.FiltroIncidencias;
+import com.urbanevents.registro.domain.IncidenciaConsultaRepository;
+import com.urbanevents.registro.domain.IncidenciaRepository;
+import com.urbanevents.registro.domain.IncidenciaResumen;
+import com.urbanevents.registro.domain.ResultadoBusqueda;
+import com.urbanevents.registro.domain.Transicion;
+import com.urbanevents.registro.domain.TransicionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConsultaIncidenciasServiceTest {
+    private static final FiltroIncidencias SIN_FILTRO = new FiltroIncidencias(null, null, null, null);
+
+    @Mock
+    private IncidenciaConsultaRepository consultaRepository;
+
+    @Mock
+    private TransicionRepository transicionRepository;
+
+    @Mock
+    private IncidenciaRepository incidenciaRepository;
+
+    private ConsultaIncidenciasService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ConsultaIncidenciasService(consultaRepository, transicionRepository, incidenciaRepository, 200, 1000);
+    }
+
+    @Test
+    void devuelveCursorDeLaUltimaFilaCuandoHayMasPaginas() {
+        Instant t = Instant.parse("2025-03-01T10:15:30.123456Z");
+        when(consultaRepository.buscar(eq(SIN_FILTRO), any(), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(resumen(30L, t), resumen(20L, t), resumen(10L, t.minusSeconds(1))));
+
+        PaginaIncidenciasResponse pagina = service.listar(SIN_FILTRO, null, null, 2);
+
+        assertThat(pagina.incidencias()).extracting(IncidenciaResumen::id).containsExactly(30L, 20L);
+        assertThat(pagina.siguienteCursor()).isNotNull();
+
+        // La página siguiente continúa justo después de (t, 20)
+        when(consultaRepository.buscar(eq(SIN_FILTRO), any(), eq(t), eq(20L), eq(3)))
+                .thenReturn(List.of(resumen(10L, t.minusSeconds(1))));
+
+        PaginaIncidenciasResponse siguiente = service.listar(SIN_FILTRO, null, pagina.siguienteCursor(), 2);
+
+        assertThat(siguiente.incidencias()).extracting(IncidenciaResumen::id).containsExactly(10L);
+        assertThat(siguiente.siguienteCursor()).isNull();
+    }
+
+    @Test
+    void proyectaSoloLosCamposPedidos() {
+        when(consultaRepository.buscar(eq(SIN_FILTRO), eq(EnumSet.of(CampoIncidencia.ID, CampoIncidencia.ESTADO)),
+                isNull(), isNull(), eq(51)))
+                .thenReturn(List.of(new IncidenciaResumen(1L, null, null, null, null, "REGISTRADA", null, Instant.now())));
+
+        PaginaIncidenciasResponse pagina = service.listar(SIN_FILTRO, List.of("id", "estado"), null, 50);
+
+        assertThat(pagina.incidencias()).containsExactly(
+                new IncidenciaResumen(1L, null, null, null, null, "REGISTRADA", null, null));
+    }
+
+    @Test
+    void rechazaCamposYCursoresNoValidos() {
+        assertThatThrownBy(() -> service.listar(SIN_FILTRO, List.of("password"), null, 10))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> service.listar(SIN_FILTRO, null, "no-es-un-cursor", 10))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void limitaElTamanoDePagina() {
+        when(consultaRepository.buscar(any(), any(), isNull(), isNull(), eq(201))).thenReturn(List.of());
+
+        service.listar(SIN_FILTRO, null, null, 10_000);
+
+        verify(consultaRepository).buscar(any(), any(), isNull(), isNull(), eq(201));
+    }
+
+    @Test
+    void historialDevuelveLasTransicionesYFallaSiLaIncidenciaNoExiste() {
+        Instant t = Instant.parse("2025-03-01T10:15:30Z");
+        when(transicionRepository.historial(1L, 1000)).thenReturn(List.of(
+                new Transicion(1L, Transicion.CAMPO_PRIORIDAD, "ALTA", null, t),
+                new Transicion(1L, Transicion.CAMPO_ESTADO, "EN_PROGRESO", "operador-1", t.plusSeconds(60))));
+
+        assertThat(service.historial(1L)).containsExactly(
+                new TransicionResponse("prioridad", "ALTA", null, t),
+                new TransicionResponse("estado", "EN_PROGRESO", "operador-1", t.plusSeconds(60)));
+
+        when(transicionRepository.historial(999L, 1000)).thenReturn(List.of());
+        when(incidenciaRepository.existsById(999L)).thenReturn(false);
+        assertThatThrownBy(() -> service.historial(999L)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void busquedaPaginaPorRelevanciaEIdYExigeConsulta() {
+        Instant t = Instant.parse("2025-03-01T10:15:30Z");
+        float relevancia = 0.123456789f;
+        when(consultaRepository.buscarTexto(eq("farola rota"), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(List.of(resultado(7L, relevancia, t), resultado(5L, relevancia, t)));
+
+        PaginaBusquedaResponse pagina = service.buscar("farola rota", null, null, 1);
+
+        assertThat(pagina.resultados()).extracting(ResultadoBusqueda::id).containsExactly(7L);
+        assertThat(pagina.siguienteCursor()).isNotNull();
+
+        // El cursor conserva exactamente la relevancia del real devuelto por PostgreSQL
+        when(consultaRepository.buscarTexto(eq("farola rota"), isNull(), eq(relevancia), eq(7L), eq(2)))
+                .thenReturn(List.of(resultado(5L, relevancia, t)));
+
+        assertThat(service.buscar("farola rota", null, pagina.siguienteCursor(), 1).siguienteCursor()).isNull();
+
+        assertThatThrownBy(() -> service.buscar("  ", null, null, 10)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    private static ResultadoBusqueda resultado(Long id, float relevancia, Instant creadaEn) {
+        return new ResultadoBusqueda(id, "alumbrado", "Farola rota", "REGISTRADA", null, "Centro", creadaEn, relevancia);
+    }
+
+    private static IncidenciaResumen resumen(Long id, Instant creadaEn) {
+        return new IncidenciaResumen(id, "fuego", null, "sensor", "Centro", "REGISTRADA", null, creadaEn);
+    }
+}
@@ -0,0 +1,107 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import com.urbanevents.registro.geo.Coordenadas;
+import com.urbanevents.registro.geo.Nomenclator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeduplicacionServiceTest {
+    private static final NuevaIncidenciaRequest FAROLA =
+            new NuevaIncidenciaRequest("alumbrado", "farola apagada", "sensor", "Calle Mayor 1", 40.4155, -3.7074);
+
+    @Mock
+    private IncidenciaService incidenciaService;
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DeduplicacionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DeduplicacionService(incidenciaService, new GeolocalizacionService(new Nomenclator(Map.of())),
+                meterRegistry, true, Duration.ofMinutes(10), 100, 8, reloj::get);
+    }
+
+    @Test
+    void agrupaSoloMismoTipoCercaYDentroDeLaVentana() {
+        IncidenciaCreadaEvent alta = evento(1L);
+        when(incidenciaService.crear(any(), any(), any())).thenReturn(alta, evento(2L), evento(3L), evento(4L));
+        when(incidenciaService.agregarReporte(eq(1L), any(), any())).thenReturn(true);
+
+        assertThat(service.crear(FAROLA, null)).isEqualTo(alta);
+        // El alta recibe las coordenadas ya resueltas para agrupar
+        verify(incidenciaService).crear(FAROLA, null, Optional.of(new Coordenadas(40.4155, -3.7074)));
+
+        // ~60 m y 5 minutos después: se suma al primero
+        reloj.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertThat(service.crear(reporte("alumbrado", 40.4160, -3.7072), null)).isEqualTo(alta);
+
+        // Otro tipo en el mismo sitio, o el mismo tipo a ~400 m: incidencias nuevas
+        assertThat(service.crear(reporte("limpieza", 40.4155, -3.7074), null).incidenciaId()).isEqualTo(2L);
+        assertThat(service.crear(reporte("alumbrado", 40.4191, -3.7074), null).incidenciaId()).isEqualTo(3L);
+
+        // Fuera de la ventana
+        reloj.addAndGet(Duration.ofMinutes(11).toMillis());
+        assertThat(service.crear(FAROLA, null).incidenciaId()).isEqualTo(4L);
+
+        assertThat(meterRegistry.get("registro.deduplicacion.agrupados").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unaIncidenciaCerradaNoAdmiteMasReportes() {
+        when(incidenciaService.crear(any(), any(), any())).thenReturn(evento(1L), evento(2L), evento(3L));
+        when(incidenciaService.agregarReporte(eq(1L), any(), any())).thenReturn(false);
+
+        service.crear(FAROLA, null);
+        assertThat(service.crear(FAROLA, null).incidenciaId()).isEqualTo(2L);
+
+        // La cerrada sale del índice; el siguiente reporte ya se compara con la nueva
+        when(incidenciaService.agregarReporte(eq(2L), any(), any())).thenReturn(true);
+        assertThat(service.crear(FAROLA, null).incidenciaId()).isEqualTo(2L);
+        verify(incidenciaService, never()).agregarReporte(eq(3L), any(), any());
+    }
+
+    @Test
+    void deshabilitadaSiempreDaDeAlta() {
+        DeduplicacionService sinAgrupar = new DeduplicacionService(incidenciaService,
+                new GeolocalizacionService(new Nomenclator(Map.of())), meterRegistry, false, Duration.ofMinutes(10),
+                100, 8, reloj::get);
+        when(incidenciaService.crear(any(), any())).thenReturn(evento(1L), evento(2L));
+
+        sinAgrupar.crear(FAROLA, null);
+        assertThat(sinAgrupar.crear(FAROLA, null).incidenciaId()).isEqualTo(2L);
+        verify(incidenciaService, never()).agregarReporte(anyLong(), any(), any());
+    }
+
+    private static NuevaIncidenciaRequest reporte(String tipo, double latitud, double longitud) {
+        return new NuevaIncidenciaRequest(tipo, "aviso vecinal", "ciudadano", "Calle Mayor", latitud, longitud);
+    }
+
+    private static IncidenciaCreadaEvent evento(Long id) {
+        Instant ahora = Instant.parse("2025-03-01T10:00:00Z");
+        return new IncidenciaCreadaEvent(new EventMetadata("e-" + id, "IncidenciaCreada", ahora,
+                "registro-incidencias", "v1", "REGISTRADA"), id, "alumbrado", null, "sensor", "Calle Mayor", ahora);
+    }
+}
@@ -0,0 +1,107 @@
+package com.urbanevents.registro.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.urbanevents.events.id.GeneradorIdsPorBloques;
+import com.urbanevents.registro.api.ImportacionResponse;
+import com.urbanevents.registro.domain.Incidencia;
+import com.urbanevents.registro.domain.IncidenciaLoteRepository;
+import com.urbanevents.registro.geo.Nomenclator;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ImportacionServiceTest {
+    @Mock
+    private IncidenciaLoteRepository loteRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImportacionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ImportacionService(loteRepository, outboxService, new GeneradorIdsPorBloques(tamano -> 10L, 50),
+                new GeolocalizacionService(new Nomenclator(Map.of())),
+                Validation.buildDefaultValidatorFactory().getValidator(), new TransactionTemplate(transactionManager),
+                JsonMapper.builder().findAndAddModules().build(), 2, 500, 10, 10, Duration.ofHours(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void ndjsonInsertaPorBloquesYAnotaLosErroresPorLinea() {
+        String cuerpo = """
+                {"tipo":"alumbrado","descripcion":"farola","origen":"sensor","ubicacion":"Centro","creadaEn":"2019-05-01T08:00:00Z"}
+                {"tipo":"","origen":"sensor","ubicacion":"Centro"}
+
+                {"tipo":"agua","origen":"ciudadano","ubicacion":"Norte"}
+                no es json
+                {"tipo":"ruido","origen":"ciudadano","ubicacion":"Sur"}
+                """;
+
+        ImportacionResponse resultado = service.importar(ImportacionService.Formato.NDJSON, cuerpo(cuerpo), false);
+
+        assertThat(resultado.estado()).isEqualTo("COMPLETADA");
+        assertThat(resultado.leidas()).isEqualTo(5);
+        assertThat(resultado.insertadas()).isEqualTo(3);
+        assertThat(resultado.rechazadas()).isEqualTo(2);
+        assertThat(resultado.errores()).extracting(ImportacionResponse.ErrorLinea::linea).containsExactly(2L, 5L);
+
+        // Bloques de 2 filas: uno lleno y el resto al final
+        ArgumentCaptor<List<Incidencia>> bloques = ArgumentCaptor.forClass(List.class);
+        verify(loteRepository, times(2)).insertarLote(bloques.capture(), anyInt());
+        assertThat(bloques.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(bloques.getAllValues().get(0).get(0).getCreadaEn()).isEqualTo(Instant.parse("2019-05-01T08:00:00Z"));
+        verifyNoInteractions(outboxService);
+
+        assertThat(service.estado(resultado.id())).isEqualTo(resultado);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void csvLeeLasColumnasPorCabecera() {
+        String cuerpo = """
+                ubicacion,tipo,origen,descripcion,latitud,longitud
+                Centro,alumbrado,sensor,"farola apagada, calle ""Mayor\""",40.4168,-3.7038
+                Norte,agua,ciudadano,,no-es-un-numero,-3.7
+                """;
+
+        ImportacionResponse resultado = service.importar(ImportacionService.Formato.CSV, cuerpo(cuerpo), false);
+
+        assertThat(resultado.insertadas()).isEqualTo(1);
+        assertThat(resultado.errores()).singleElement()
+                .satisfies(error -> assertThat(error.linea()).isEqualTo(3L));
+        ArgumentCaptor<List<Incidencia>> bloque = ArgumentCaptor.forClass(List.class);
+        verify(loteRepository).insertarLote(bloque.capture(), anyInt());
+        Incidencia incidencia = bloque.getValue().get(0);
+        assertThat(incidencia.getDescripcion()).isEqualTo("farola apagada, calle \"Mayor\"");
+        assertThat(incidencia.getGeohash()).startsWith("ezjmgtw");
+    }
+
+    private static ByteArrayInputStream cuerpo(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.urbanevents.registro.service;
+
+import com.urbanevents.events.Topics;
+import com.urbanevents.events.id.GeneradorIdsPorBloques;
+import com.urbanevents.registro.api.NuevaIncidenciaRequest;
+import com.urbanevents.registro.api.ResultadoLoteResponse;
+import com.urbanevents.registro.domain.EventoOutbox;
+import com.urbanevents.registro.domain.Incidencia;
+import com.urbanevents.registro.domain.IncidenciaLoteRepository;
+import com.urbanevents.registro.geo.Nomenclator;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IncidenciaLoteServiceTest {
+    @Mock
+    private IncidenciaLoteRepository loteRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    private IncidenciaLoteService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IncidenciaLoteService(loteRepository, outboxService, new GeneradorIdsPorBloques(tamano -> 10L, 50),
+                new GeolocalizacionService(new Nomenclator(Map.of())),
+                Validation.buildDefaultValidatorFactory().getValidator(), 3, 500);
+    }
+
+    @Test
+    void crearLotePersisteValidasYRechazaInvalidasSinAbortar() {
+        List<NuevaIncidenciaRequest> requests = List.of(
+                new NuevaIncidenciaRequest("fuego", "alerta de fuego", "sensor", "Centro"),
+                new NuevaIncidenciaRequest("", "sin tipo", "sensor", "Centro"),
+                new NuevaIncidenciaRequest("agua", "fuga", "ciudadano", "Norte"));
+        when(outboxService.crearEvento(eq(Topics.INCIDENCIAS_CREADAS), anyLong(), anyString(), any()))
+                .thenAnswer(invocation -> new EventoOutbox(invocation.getArgument(1), Topics.INCIDENCIAS_CREADAS,
+                        invocation.getArgument(2), new byte[0], Map.of(), Instant.now()));
+
+        ResultadoLoteResponse resultado = service.crearLote(requests);
+
+        assertThat(resultado.total()).isEqualTo(3);
+        assertThat(resultado.aceptadas()).isEqualTo(2);
+        assertThat(resultado.rechazadas()).isEqualTo(1);
+        assertThat(resultado.resultados().get(0).evento().incidenciaId()).isEqualTo(10L);
+        assertThat(resultado.resultados().get(1).aceptada()).isFalse();
+        assertThat(resultado.resultados().get(1).errores()).anyMatch(e -> e.startsWith("tipo"));
+        assertThat(resultado.resultados().get(2).evento().incidenciaId()).isEqualTo(11L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Incidencia>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loteRepository).insertarLote(captor.capture(), anyInt());
+        assertThat(captor.getValue()).extracting(Incidencia::getId).containsExactly(10L, 11L);
+        // Misma precisión que timestamptz: el evento reconstruido desde la fila coincide con el publicado
+        Instant creadaEn = resultado.resultados().get(0).evento().creadaEn();
+        assertThat(creadaEn.getNano() % 1000).isZero();
+        assertThat(captor.getValue()).extracting(Incidencia::getCreadaEn).containsOnly(creadaEn);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventoOutbox>> outboxCaptor = ArgumentCaptor.forClass(List.class);
+        verify(outboxService).registrarLote(outboxCaptor.capture());
+        assertThat(outboxCaptor.getValue()).extracting(EventoOutbox::agregadoId).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void crearLoteRechazaLotesDemasiadoGrandes() {
+        List<NuevaIncidenciaRequest> requests = Collections.nCopies(4,
+                new NuevaIncidenciaRequest("fuego", "alerta", "sensor", "Centro"));
+
+        assertThatThrownBy(() -> service.crearLote(requests))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(loteRepository, outboxService);
+    }
+}
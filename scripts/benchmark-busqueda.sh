@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Búsqueda por subcadena (ILIKE) frente a texto completo con índice GIN sobre una tabla de millones de filas.
+# Requiere PostgreSQL en marcha: docker compose -f docker-compose-postresql.yml up -d postgres
+# La tabla sembrada queda en el esquema benchmark_busqueda; para borrarla: DROP SCHEMA benchmark_busqueda CASCADE
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+JDBC_URL="${JDBC_URL:-jdbc:postgresql://localhost:5432/urban-events}"
+PG_USER="${PG_USER:-pguser}"
+PG_PASS="${PG_PASS:-localpass}"
+FILAS="${FILAS:-3000000}"
+REPETICIONES="${REPETICIONES:-5}"
+
+PG_JAR=$(ls "${HOME}"/.m2/repository/org/postgresql/postgresql/*/postgresql-*.jar | sort -V | tail -n1)
+
+java -cp "${PG_JAR}" "${RAIZ}/scripts/benchmark/BusquedaTexto.java" \
+  "${JDBC_URL}" "${PG_USER}" "${PG_PASS}" "${FILAS}" "${REPETICIONES}"
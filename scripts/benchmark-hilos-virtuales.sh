@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Benchmark comparativo de registro-incidencias: pool de hilos de plataforma vs hilos virtuales.
+# Requiere PostgreSQL (con migraciones) y Kafka en marcha, por ejemplo:
+#   docker compose -f docker-compose-postresql.yml up -d
+#   docker compose up -d kafka
+# Para cada modo arranca el servicio, lanza CargaRegistro con cada nivel de concurrencia y lo para.
+# Resultados en ${SALIDA}/resultados.csv
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+SALIDA="${SALIDA:-${RAIZ}/bench-results/hilos-virtuales}"
+CONCURRENCIAS="${CONCURRENCIAS:-100 500 2000}"
+DURACION="${DURACION:-30}"
+CALENTAMIENTO="${CALENTAMIENTO:-10}"
+PUERTO="${PUERTO:-8081}"
+# El perfil hilos-virtuales amplía el pool de Hikari; los dos modos usan el mismo para medir solo los hilos
+POOL_CONEXIONES="${POOL_CONEXIONES:-40}"
+TIMEOUT_CONEXION_MS="${TIMEOUT_CONEXION_MS:-10000}"
+URL="http://localhost:${PUERTO}/incidencias"
+
+mkdir -p "${SALIDA}"
+(cd "${RAIZ}" && mvn -q -pl registro-incidencias -am -DskipTests package)
+JAR=$(ls "${RAIZ}"/registro-incidencias/target/registro-incidencias-*.jar | grep -v original | head -n1)
+
+esperar_arranque() {
+  for _ in $(seq 1 60); do
+    if curl -s -o /dev/null "http://localhost:${PUERTO}/v3/api-docs"; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "ERROR: el servicio no arrancó en 60 s" >&2
+  return 1
+}
+
+echo "modo,concurrencia,peticiones,errores,throughput_rps,p50_ms,p95_ms,p99_ms,max_ms" > "${SALIDA}/resultados.csv"
+
+for modo in plataforma hilos-virtuales; do
+  if [ "${modo}" = "hilos-virtuales" ]; then
+    PERFIL="--spring.profiles.active=hilos-virtuales"
+    JVM_OPTS="-Djdk.tracePinnedThreads=short"
+  else
+    PERFIL=""
+    JVM_OPTS=""
+  fi
+  echo "== Modo ${modo}"
+  # Todas las peticiones llevan origen "benchmark" y el mismo tipo y ubicación: sin límite por origen (casi
+  # todas serían 429) ni agrupación de duplicados (se mediría sumarReporte en lugar de alta + outbox)
+  java ${JVM_OPTS} -jar "${JAR}" --server.port="${PUERTO}" ${PERFIL} \
+    --registro.admision.habilitada=false \
+    --registro.deduplicacion.habilitada=false \
+    --spring.datasource.hikari.maximum-pool-size="${POOL_CONEXIONES}" \
+    --spring.datasource.hikari.connection-timeout="${TIMEOUT_CONEXION_MS}" \
+    > "${SALIDA}/servicio-${modo}.log" 2>&1 &
+  PID=$!
+  trap 'kill ${PID} 2>/dev/null || true' EXIT
+  esperar_arranque
+
+  for c in ${CONCURRENCIAS}; do
+    echo "   concurrencia ${c}"
+    linea=$(java "${RAIZ}/scripts/benchmark/CargaRegistro.java" "${URL}" "${c}" "${DURACION}" "${CALENTAMIENTO}")
+    echo "${modo},${linea}" >> "${SALIDA}/resultados.csv"
+  done
+
+  kill "${PID}"
+  wait "${PID}" 2>/dev/null || true
+  trap - EXIT
+done
+
+echo
+column -s, -t < "${SALIDA}/resultados.csv"
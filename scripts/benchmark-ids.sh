@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Coste por inserción según la estrategia de ids (secuencia por fila, bloques de 50, temporal).
+# Requiere PostgreSQL en marcha: docker compose -f docker-compose-postresql.yml up -d postgres
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+JDBC_URL="${JDBC_URL:-jdbc:postgresql://localhost:5432/urban-events}"
+PG_USER="${PG_USER:-pguser}"
+PG_PASS="${PG_PASS:-localpass}"
+FILAS="${FILAS:-20000}"
+
+(cd "${RAIZ}" && mvn -q -pl shared-events -DskipTests package)
+SHARED_JAR=$(ls "${RAIZ}"/shared-events/target/shared-events-*.jar | head -n1)
+PG_JAR=$(ls "${HOME}"/.m2/repository/org/postgresql/postgresql/*/postgresql-*.jar | sort -V | tail -n1)
+
+java -cp "${SHARED_JAR}:${PG_JAR}" "${RAIZ}/scripts/benchmark/InsercionIds.java" \
+  "${JDBC_URL}" "${PG_USER}" "${PG_PASS}" "${FILAS}"
@@ -0,0 +1,145 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compara la búsqueda por subcadena (ILIKE '%termino%', recorrido secuencial) con la búsqueda de texto completo
+ * de GET /incidencias/buscar (columna tsvector generada + índice GIN, migración V13) sobre una tabla sembrada con
+ * millones de descripciones. Los términos van de muy frecuentes a raros: el GIN gana sobre todo con los raros,
+ * donde ILIKE tiene que leer la tabla entera para devolver pocas filas.
+ * La tabla vive en el esquema benchmark_busqueda y se reutiliza entre ejecuciones si ya tiene las filas pedidas.
+ *
+ * Uso (ver scripts/benchmark-busqueda.sh):
+ *   java -cp postgresql.jar scripts/benchmark/BusquedaTexto.java [jdbcUrl] [usuario] [clave] [filas] [repeticiones]
+ */
+public class BusquedaTexto {
+    private static final String[] TIPOS = {"alumbrado", "limpieza", "trafico", "ruido", "arbolado", "agua"};
+
+    // Ordenadas de más a menos frecuente: la siembra elige con sesgo hacia el principio
+    private static final String[] PALABRAS = {
+            "calle", "junto", "vecinos", "esquina", "portal", "noche", "acera", "plaza", "semaforo", "farola",
+            "contenedor", "bache", "ruidos", "coche", "aparcado", "papelera", "rama", "fuga", "alcantarilla",
+            "pintada", "banco", "parque", "fuente", "mobiliario", "señal", "desbordado", "apagada", "rota",
+            "caida", "atasco", "inundacion", "escombros", "jeringuilla", "enjambre", "derrumbe"};
+
+    // Aparece en una de cada FRECUENCIA_RARO filas: el caso en que ILIKE lee toda la tabla para devolver casi nada
+    private static final String TERMINO_RARO = "socavon";
+    private static final int FRECUENCIA_RARO = 50_000;
+
+    // "farolas" y "contenedores desbordados" no aparecen literalmente: ILIKE no las encuentra y el stemming sí
+    private static final String[] TERMINOS = {"calle", "farolas", "contenedores desbordados", "alcantarilla", TERMINO_RARO};
+
+    private static final Pattern TIEMPO = Pattern.compile("\"Execution Time\": ([0-9.]+)");
+    private static final Pattern BLOQUES = Pattern.compile("\"Shared (?:Hit|Read) Blocks\": ([0-9]+)");
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/urban-events";
+        String usuario = args.length > 1 ? args[1] : "pguser";
+        String clave = args.length > 2 ? args[2] : "localpass";
+        long filas = args.length > 3 ? Long.parseLong(args[3]) : 3_000_000L;
+        int repeticiones = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+        try (Connection con = DriverManager.getConnection(url, usuario, clave)) {
+            con.setAutoCommit(true);
+            preparar(con, filas);
+
+            System.out.println("consulta,termino,coincidencias,ms_mediana,bloques_leidos");
+            for (String termino : TERMINOS) {
+                String patron = "%" + termino.split(" ")[0] + "%";
+                medir(con, "ilike", termino, repeticiones,
+                        "SELECT id FROM benchmark_busqueda.incidencias WHERE descripcion ILIKE ? "
+                                + "ORDER BY id DESC LIMIT 20",
+                        "SELECT count(*) FROM benchmark_busqueda.incidencias WHERE descripcion ILIKE ?", patron);
+                medir(con, "tsvector_gin", termino, repeticiones,
+                        "SELECT id FROM (SELECT id, ts_rank_cd(busqueda, q) AS relevancia "
+                                + "FROM benchmark_busqueda.incidencias, websearch_to_tsquery('spanish', ?) q "
+                                + "WHERE busqueda @@ q) r ORDER BY relevancia DESC, id DESC LIMIT 20",
+                        "SELECT count(*) FROM benchmark_busqueda.incidencias "
+                                + "WHERE busqueda @@ websearch_to_tsquery('spanish', ?)", termino);
+            }
+        }
+    }
+
+    private static void preparar(Connection con, long filas) throws Exception {
+        try (Statement st = con.createStatement()) {
+            st.execute("CREATE SCHEMA IF NOT EXISTS benchmark_busqueda");
+            st.execute("CREATE TABLE IF NOT EXISTS benchmark_busqueda.incidencias (id int8 PRIMARY KEY, "
+                    + "tipo varchar(100), descripcion varchar(2000), creada_en timestamptz, "
+                    + "busqueda tsvector GENERATED ALWAYS AS ("
+                    + "setweight(to_tsvector('spanish', coalesce(tipo, '')), 'A') "
+                    + "|| setweight(to_tsvector('spanish', coalesce(descripcion, '')), 'B')) STORED)");
+            try (ResultSet rs = st.executeQuery("SELECT count(*) FROM benchmark_busqueda.incidencias")) {
+                rs.next();
+                if (rs.getLong(1) == filas) {
+                    System.err.printf("Reutilizando %d filas de benchmark_busqueda.incidencias%n", filas);
+                    return;
+                }
+            }
+            System.err.printf("Sembrando %d filas...%n", filas);
+            long inicio = System.nanoTime();
+            st.execute("DROP INDEX IF EXISTS benchmark_busqueda.idx_bench_busqueda");
+            st.execute("TRUNCATE benchmark_busqueda.incidencias");
+            // Ocho palabras por descripción; random()^3 favorece las primeras de la lista (términos frecuentes).
+            // La referencia a g en la subconsulta obliga a evaluarla por fila.
+            st.execute("INSERT INTO benchmark_busqueda.incidencias (id, tipo, descripcion, creada_en) "
+                    + "SELECT g, (" + arraySql(TIPOS) + ")[1 + (g % " + TIPOS.length + ")], "
+                    + "(SELECT string_agg(p[1 + floor(random() ^ 3 * " + PALABRAS.length + ")::int], ' ') "
+                    + " FROM generate_series(1, 8) n, (SELECT " + arraySql(PALABRAS) + " AS p) v WHERE g > 0) "
+                    + "|| CASE WHEN g % " + FRECUENCIA_RARO + " = 0 THEN ' " + TERMINO_RARO + "' ELSE '' END, "
+                    + "now() - g * interval '1 second' "
+                    + "FROM generate_series(1, " + filas + ") g");
+            st.execute("CREATE INDEX idx_bench_busqueda ON benchmark_busqueda.incidencias USING gin (busqueda)");
+            st.execute("VACUUM ANALYZE benchmark_busqueda.incidencias");
+            System.err.printf("Siembra e índice en %.1f s%n", (System.nanoTime() - inicio) / 1e9);
+        }
+    }
+
+    private static void medir(Connection con, String consulta, String termino, int repeticiones,
+                              String sql, String sqlConteo, String parametro) throws Exception {
+        long coincidencias;
+        try (PreparedStatement ps = con.prepareStatement(sqlConteo)) {
+            ps.setString(1, parametro);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                coincidencias = rs.getLong(1);
+            }
+        }
+        List<Double> tiempos = new ArrayList<>();
+        long bloques = 0;
+        try (PreparedStatement ps = con.prepareStatement("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql)) {
+            ps.setString(1, parametro);
+            for (int i = 0; i < repeticiones + 1; i++) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    String plan = rs.getString(1);
+                    if (i == 0) {
+                        continue; // calentamiento de caché
+                    }
+                    Matcher tiempo = TIEMPO.matcher(plan);
+                    tiempo.find();
+                    tiempos.add(Double.parseDouble(tiempo.group(1)));
+                    // El primer par hit/read es el del nodo raíz, que acumula los de sus hijos
+                    Matcher m = BLOQUES.matcher(plan);
+                    bloques = 0;
+                    for (int j = 0; j < 2 && m.find(); j++) {
+                        bloques += Long.parseLong(m.group(1));
+                    }
+                }
+            }
+        }
+        double[] ordenados = tiempos.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        System.out.printf("%s,\"%s\",%d,%.2f,%d%n", consulta, termino, coincidencias,
+                ordenados[ordenados.length / 2], bloques);
+    }
+
+    private static String arraySql(String[] valores) {
+        return "ARRAY[" + String.join(",", Arrays.stream(valores).map(v -> "'" + v + "'").toList()) + "]";
+    }
+}
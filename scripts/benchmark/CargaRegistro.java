@@ -0,0 +1,114 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de carga de bucle cerrado contra POST /incidencias.
+ * Lanza N clientes concurrentes (en hilos virtuales, para que el generador no sea el cuello de botella),
+ * descarta el calentamiento y mide throughput y percentiles de latencia.
+ *
+ * Uso (JDK 21, sin compilar):
+ *   java scripts/benchmark/CargaRegistro.java [url] [concurrencia] [segundosMedicion] [segundosCalentamiento]
+ *
+ * Imprime una línea CSV: concurrencia,peticiones,errores,throughput_rps,p50_ms,p95_ms,p99_ms,max_ms
+ */
+public class CargaRegistro {
+    private static final String CUERPO = """
+            {"tipo":"alumbrado","descripcion":"farola apagada tras tormenta","origen":"benchmark","ubicacion":"Centro"}""";
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:8081/incidencias";
+        int concurrencia = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int calentamiento = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(CUERPO))
+                .build();
+
+        long inicioMedicion = System.nanoTime() + Duration.ofSeconds(calentamiento).toNanos();
+        long fin = inicioMedicion + Duration.ofSeconds(segundos).toNanos();
+        AtomicLong errores = new AtomicLong();
+        List<long[]> latenciasPorCliente = new ArrayList<>(concurrencia);
+        int[] usados = new int[concurrencia];
+
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrencia; c++) {
+                long[] latencias = new long[1 << 16];
+                latenciasPorCliente.add(latencias);
+                final int cliente = c;
+                clientes.submit(() -> {
+                    int n = 0;
+                    long[] buffer = latencias;
+                    while (true) {
+                        long t0 = System.nanoTime();
+                        if (t0 >= fin) {
+                            break;
+                        }
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> r = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            ok = r.statusCode() / 100 == 2;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long t1 = System.nanoTime();
+                        if (t0 < inicioMedicion) {
+                            continue;
+                        }
+                        if (!ok) {
+                            errores.incrementAndGet();
+                            continue;
+                        }
+                        if (n == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, n * 2);
+                            latenciasPorCliente.set(cliente, buffer);
+                        }
+                        buffer[n++] = t1 - t0;
+                    }
+                    usados[cliente] = n;
+                    return null;
+                });
+            }
+        }
+
+        int total = 0;
+        for (int n : usados) {
+            total += n;
+        }
+        long[] todas = new long[total];
+        int pos = 0;
+        for (int c = 0; c < concurrencia; c++) {
+            System.arraycopy(latenciasPorCliente.get(c), 0, todas, pos, usados[c]);
+            pos += usados[c];
+        }
+        Arrays.sort(todas);
+        System.out.printf("%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f%n",
+                concurrencia, total, errores.get(), total / (double) segundos,
+                percentil(todas, 50), percentil(todas, 95), percentil(todas, 99),
+                todas.length == 0 ? 0 : todas[todas.length - 1] / 1e6);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+}
@@ -0,0 +1,91 @@
+import com.urbanevents.events.id.GeneradorIds;
+import com.urbanevents.events.id.GeneradorIdsPorBloques;
+import com.urbanevents.events.id.GeneradorIdsTemporales;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Compara el coste por inserción de las estrategias de id de registro-incidencias:
+ * - secuencia: nextval + INSERT por fila (el antiguo allocationSize = 1, dos round trips),
+ * - bloques: GeneradorIdsPorBloques con un nextval cada 50 filas,
+ * - temporal: GeneradorIdsTemporales, sin consultar la base de datos.
+ * Trabaja sobre una tabla y secuencia temporales en el esquema registro_incidencias.
+ *
+ * Uso (ver scripts/benchmark-ids.sh):
+ *   java -cp shared-events.jar:postgresql.jar scripts/benchmark/InsercionIds.java [jdbcUrl] [usuario] [clave] [filas]
+ */
+public class InsercionIds {
+    private static final int TAMANO_BLOQUE = 50;
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/urban-events";
+        String usuario = args.length > 1 ? args[1] : "pguser";
+        String clave = args.length > 2 ? args[2] : "localpass";
+        int filas = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+
+        try (Connection con = DriverManager.getConnection(url, usuario, clave)) {
+            con.setAutoCommit(true);
+            try (Statement st = con.createStatement()) {
+                st.execute("CREATE TEMP TABLE bench_incidencias (id int8 PRIMARY KEY, tipo varchar(100), "
+                        + "descripcion varchar(2000), creada_en timestamptz)");
+                st.execute("CREATE TEMP SEQUENCE bench_seq_1 INCREMENT BY 1");
+                st.execute("CREATE TEMP SEQUENCE bench_seq_50 INCREMENT BY " + TAMANO_BLOQUE);
+            }
+
+            GeneradorIds porBloques = new GeneradorIdsPorBloques(tamano -> nextval(con, "bench_seq_50"), TAMANO_BLOQUE);
+            GeneradorIds temporales = new GeneradorIdsTemporales(1);
+
+            // Calentamiento de JIT y caché de sentencias del driver
+            medir(con, filas / 10, () -> nextval(con, "bench_seq_1"));
+            medir(con, filas / 10, porBloques::siguiente);
+            medir(con, filas / 10, temporales::siguiente);
+
+            System.out.println("estrategia,filas,us_por_insercion,inserciones_por_segundo");
+            imprimir("secuencia", filas, medir(con, filas, () -> nextval(con, "bench_seq_1")));
+            imprimir("bloques", filas, medir(con, filas, porBloques::siguiente));
+            imprimir("temporal", filas, medir(con, filas, temporales::siguiente));
+        }
+    }
+
+    interface FuenteId {
+        long siguiente() throws Exception;
+    }
+
+    private static long medir(Connection con, int filas, FuenteId fuente) throws Exception {
+        try (Statement st = con.createStatement()) {
+            st.execute("TRUNCATE bench_incidencias");
+        }
+        long inicio = System.nanoTime();
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO bench_incidencias (id, tipo, descripcion, creada_en) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < filas; i++) {
+                ps.setLong(1, fuente.siguiente());
+                ps.setString(2, "alumbrado");
+                ps.setString(3, "farola apagada");
+                ps.setTimestamp(4, Timestamp.from(Instant.now()));
+                ps.executeUpdate();
+            }
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static long nextval(Connection con, String secuencia) {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT nextval('" + secuencia + "')")) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void imprimir(String estrategia, int filas, long nanos) {
+        System.out.printf("%s,%d,%.1f,%.0f%n", estrategia, filas, nanos / 1e3 / filas, filas / (nanos / 1e9));
+    }
+}
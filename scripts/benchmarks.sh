@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Ejecuta las suites JMH del módulo benchmarks y guarda los resultados en JSON, uno por ejecución, para comparar
+# antes y después de un cambio (https://jmh.morethan.io compara dos ficheros).
+#   scripts/benchmarks.sh                                    todas las suites
+#   scripts/benchmarks.sh 'CodecEventos|DeserializacionEventos'   codec y deserializadores de eventos
+#   scripts/benchmarks.sh Priorizacion -p palabrasCriticas=50
+#   PERFIL=notificaciones scripts/benchmarks.sh PlantillaEmail    renderizado de emails (compila notificaciones-quarkus)
+# El primer argumento es el filtro (expresión regular sobre el nombre del benchmark); el resto se pasa tal cual a
+# JMH (-p, -f, -wi...). Con el perfilador gc (PROF=gc por defecto, PROF= lo quita) gc.alloc.rate.norm son los
+# bytes asignados por operación.
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+DIR_RESULTADOS="${DIR_RESULTADOS:-${RAIZ}/benchmarks/resultados}"
+SALIDA="${DIR_RESULTADOS}/jmh-$(date +%Y%m%d-%H%M%S).json"
+PROF="${PROF-gc}"
+
+FILTRO="${1:-.*}"
+shift || true
+
+(cd "${RAIZ}" && mvn -q -pl benchmarks -am -DskipTests ${PERFIL:+-P "${PERFIL}"} package)
+
+mkdir -p "${DIR_RESULTADOS}"
+java -jar "${RAIZ}/benchmarks/target/benchmarks.jar" "${FILTRO}" "$@" ${PROF:+-prof "${PROF}"} \
+  -rf json -rff "${SALIDA}"
+echo "Resultados: ${SALIDA}"
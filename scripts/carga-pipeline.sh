@@ -0,0 +1,94 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Carga y latencias del pipeline completo (registro -> priorizacion -> notificaciones) en una sola máquina Linux,
+# sin Docker: el generador arranca Kafka, PostgreSQL (con db/migrations) y un sumidero SMTP en su propio proceso,
+# este script arranca los servicios contra ellos y el generador lanza la carga cuando se han conectado.
+#   scripts/carga-pipeline.sh
+#   TASAS=50,100,200,400 DURACION=60s scripts/carga-pipeline.sh
+#   MODO=kafka scripts/carga-pipeline.sh      IncidenciaCreada directo a Kafka, sin registro
+# PostgreSQL embebido no arranca como root. Resultados en ${SALIDA}: resumen.csv, histogramas .hgrm y logs.
+# El resto de opciones del generador (--tipos, --densidad-palabras...) se pasan como argumentos.
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+SALIDA="${SALIDA:-${RAIZ}/bench-results/carga-pipeline/$(date +%Y%m%d-%H%M%S)}"
+MODO="${MODO:-http}"
+TASAS="${TASAS:-50,100,200}"
+DURACION="${DURACION:-60s}"
+# priorizacion.delay-segundos simula un cálculo lento; a 0 se mide el pipeline en sí
+DELAY_PRIORIZACION="${DELAY_PRIORIZACION:-0}"
+PUERTO_REGISTRO="${PUERTO_REGISTRO:-18081}"
+ENTORNO="${SALIDA}/entorno.env"
+
+mkdir -p "${SALIDA}"
+(cd "${RAIZ}" && mvn -q -DskipTests package \
+  -pl generador-carga,registro-incidencias,priorizacion-incidencias,notificaciones-quarkus -am)
+
+# Los jar de los servicios Spring no se reempaquetan: classpath desde Maven
+classpath() {
+  local cp="${SALIDA}/$1.classpath"
+  (cd "${RAIZ}" && mvn -q -pl "$1" dependency:build-classpath -Dmdep.outputFile="${cp}")
+  echo "${RAIZ}/$1/target/classes:$(cat "${cp}")"
+}
+
+PIDS=()
+parar() {
+  for pid in "${PIDS[@]}"; do
+    kill "${pid}" 2>/dev/null || true
+  done
+  wait 2>/dev/null || true
+}
+trap parar EXIT
+
+java -jar "${RAIZ}/generador-carga/target/generador-carga.jar" local \
+  --entorno="${ENTORNO}" --migraciones="${RAIZ}/db/migrations" \
+  --modo-envio="${MODO}" --url="http://localhost:${PUERTO_REGISTRO}/incidencias" \
+  --tasas="${TASAS}" --duracion="${DURACION}" --salida="${SALIDA}" "$@" \
+  2>&1 | tee "${SALIDA}/generador.log" &
+GENERADOR=$!
+
+for _ in $(seq 1 120); do
+  [ -f "${ENTORNO}" ] && break
+  sleep 1
+done
+if [ ! -f "${ENTORNO}" ]; then
+  echo "ERROR: el entorno local no arrancó (ver ${SALIDA}/generador.log)" >&2
+  exit 1
+fi
+# shellcheck disable=SC1090
+source "${ENTORNO}"
+
+if [ "${MODO}" = "http" ]; then
+  # Sin límite por origen ni agrupación de duplicados: se mide el pipeline, no la admisión
+  java -cp "$(classpath registro-incidencias)" com.urbanevents.registro.RegistroIncidenciasApplication \
+    --server.port="${PUERTO_REGISTRO}" \
+    --spring.datasource.url="${JDBC_URL}?currentSchema=registro_incidencias&reWriteBatchedInserts=true" \
+    --spring.kafka.bootstrap-servers="${KAFKA_BOOTSTRAP}" \
+    --spring.cloud.stream.kafka.binder.brokers="${KAFKA_BOOTSTRAP}" \
+    --kafka.bootstrap-servers="${KAFKA_BOOTSTRAP}" \
+    --registro.admision.habilitada=false \
+    --registro.deduplicacion.habilitada=false \
+    > "${SALIDA}/registro.log" 2>&1 &
+  PIDS+=($!)
+fi
+
+java -cp "$(classpath priorizacion-incidencias)" com.urbanevents.priorizacion.PriorizacionApplication \
+  --server.port=18082 \
+  --spring.datasource.url="${JDBC_URL}?currentSchema=priorizacion_incidencias" \
+  --spring.cloud.stream.kafka.binder.brokers="${KAFKA_BOOTSTRAP}" \
+  --priorizacion.delay-segundos="${DELAY_PRIORIZACION}" \
+  > "${SALIDA}/priorizacion.log" 2>&1 &
+PIDS+=($!)
+
+java -Dquarkus.http.port=18083 \
+  -Dquarkus.datasource.reactive.url="postgresql://localhost:${PG_PUERTO}/urban-events?search_path=notificaciones" \
+  -Dkafka.bootstrap.servers="${KAFKA_BOOTSTRAP}" \
+  -Dmp.messaging.incoming.incidencias-priorizadas.bootstrap.servers="${KAFKA_BOOTSTRAP}" \
+  -Dmp.messaging.outgoing.incidencias-notificadas.bootstrap.servers="${KAFKA_BOOTSTRAP}" \
+  -Dquarkus.mailer.port="${SMTP_PUERTO}" \
+  -jar "${RAIZ}/notificaciones-quarkus/target/quarkus-app/quarkus-run.jar" \
+  > "${SALIDA}/notificaciones.log" 2>&1 &
+PIDS+=($!)
+
+wait "${GENERADOR}"
+echo "Resultados en ${SALIDA}"
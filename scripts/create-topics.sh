@@ -7,7 +7,9 @@ set -euo pipefail
 
 CONTAINER="${KAFKA_CONTAINER:-kraft-kafka-debug-commented}"
 BOOTSTRAP="${BOOTSTRAP_SERVER:-localhost:9092}"
-TOPICS=(incidencias.creadas incidencias.priorizadas incidencias.notificadas)
+# Mismos topics que com.urbanevents.events.Topics.TODOS. Los eventos llevan como clave el id de la incidencia:
+# las particiones marcan cuántos consumidores de un grupo trabajan en paralelo (registro.topics.particiones)
+TOPICS=(incidencias.creadas incidencias.priorizadas incidencias.notificadas incidencias.modificadas)
 PARTS="${PARTITIONS:-3}"
 REPL="${REPLICATION_FACTOR:-1}"
 
@@ -24,28 +26,28 @@ if ! container_exists; then
   exit 1
 fi
 
+# Detectar comando kafka-topics dentro del contenedor
+KTOP_CMD=$(docker exec -i "${CONTAINER}" bash -lc '\
+  if command -v kafka-topics >/dev/null 2>&1; then echo kafka-topics; \
+  elif command -v kafka-topics.sh >/dev/null 2>&1; then echo kafka-topics.sh; \
+  elif [ -x /opt/kafka/bin/kafka-topics.sh ]; then echo /opt/kafka/bin/kafka-topics.sh; \
+  elif [ -x /usr/bin/kafka-topics.sh ]; then echo /usr/bin/kafka-topics.sh; \
+  else echo ""; fi')
+
+if [ -z "${KTOP_CMD}" ]; then
+  echo "ERROR: no se encontró 'kafka-topics' dentro del contenedor ${CONTAINER}."
+  echo "Comprueba la imagen usada o ejecuta los comandos desde una imagen que incluya las utilidades de Kafka."
+  exit 2
+fi
+
 for t in "${TOPICS[@]}"; do
   echo "Creando topic: $t (partitions=$PARTS replication=$REPL)"
-  # Detectar comando kafka-topics dentro del contenedor
-  KTOP_CMD=$(docker exec -i "${CONTAINER}" bash -lc '\
-    if command -v kafka-topics >/dev/null 2>&1; then echo kafka-topics; \
-    elif command -v kafka-topics.sh >/dev/null 2>&1; then echo kafka-topics.sh; \
-    elif [ -x /opt/kafka/bin/kafka-topics.sh ]; then echo /opt/kafka/bin/kafka-topics.sh; \
-    elif [ -x /usr/bin/kafka-topics.sh ]; then echo /usr/bin/kafka-topics.sh; \
-    else echo ""; fi')
-
-  if [ -z "${KTOP_CMD}" ]; then
-    echo "ERROR: no se encontró 'kafka-topics' dentro del contenedor ${CONTAINER}."
-    echo "Comprueba la imagen usada o ejecuta los comandos desde una imagen que incluya las utilidades de Kafka."
-    exit 2
-  fi
-
   docker exec -i "${CONTAINER}" bash -lc "${KTOP_CMD} --bootstrap-server ${BOOTSTRAP} --create --if-not-exists --topic ${t} --partitions ${PARTS} --replication-factor ${REPL}"
 done
 
 echo
 echo "Listado de topics disponibles:"
-run_cmd "kafka-topics --bootstrap-server ${BOOTSTRAP} --list"
+docker exec -i "${CONTAINER}" bash -lc "${KTOP_CMD} --bootstrap-server ${BOOTSTRAP} --describe" | grep -E '^Topic:' || true
 
 echo
 echo "Hecho. Si hace falta, ejecuta: chmod +x scripts/create-topics.sh"
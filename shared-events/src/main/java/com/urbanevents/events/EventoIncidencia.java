@@ -0,0 +1,20 @@
+package com.urbanevents.events;
+
+/**
+ * Evento sobre una incidencia. Todos se publican en Kafka con {@link #clave()} (el id de la incidencia) como clave:
+ * los de una misma incidencia caen en la misma partición y se consumen en orden aunque el grupo tenga varios
+ * consumidores.
+ */
+public interface EventoIncidencia {
+    EventMetadata metadata();
+
+    Long incidenciaId();
+
+    default String clave() {
+        return clave(incidenciaId());
+    }
+
+    static String clave(Long incidenciaId) {
+        return incidenciaId == null ? null : Long.toString(incidenciaId);
+    }
+}
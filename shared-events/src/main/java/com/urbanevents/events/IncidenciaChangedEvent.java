@@ -22,5 +22,5 @@ public record IncidenciaChangedEvent(
 
         @NotNull
         Instant cambiadoEn
-) {
+) implements EventoIncidencia {
 }
@@ -34,7 +34,7 @@ public record IncidenciaCreadaEvent(
                 ,
                 @Size(max = 50)
                 String estado
-) {
+) implements EventoIncidencia {
         public IncidenciaCreadaEvent(EventMetadata metadata,
                                                                   Long incidenciaId,
                                                                   String tipo,
@@ -28,5 +28,5 @@ public record IncidenciaNotificadaEvent(
 
         @NotNull
         Instant notificadaEn
-) {
+) implements EventoIncidencia {
 }
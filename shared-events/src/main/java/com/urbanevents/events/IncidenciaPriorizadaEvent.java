@@ -23,5 +23,5 @@ public record IncidenciaPriorizadaEvent(
 
         @NotNull
         Instant priorizadaEn
-) {
+) implements EventoIncidencia {
 }
@@ -1,11 +1,19 @@
 package com.urbanevents.events;
 
+import java.util.List;
+
+/**
+ * Topics de eventos de incidencias. Todos llevan como clave el id de la incidencia ({@link EventoIncidencia#clave()}).
+ */
 public final class Topics {
     public static final String INCIDENCIAS_CREADAS = "incidencias.creadas";
     public static final String INCIDENCIAS_PRIORIZADAS = "incidencias.priorizadas";
     public static final String INCIDENCIAS_NOTIFICADAS = "incidencias.notificadas";
     public static final String INCIDENCIAS_CAMBIADAS = "incidencias.modificadas";
 
+    public static final List<String> TODOS =
+            List.of(INCIDENCIAS_CREADAS, INCIDENCIAS_PRIORIZADAS, INCIDENCIAS_NOTIFICADAS, INCIDENCIAS_CAMBIADAS);
+
     private Topics() {
     }
 }
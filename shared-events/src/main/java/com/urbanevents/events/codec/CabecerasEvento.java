@@ -0,0 +1,81 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.EventoIncidencia;
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copia de {@link EventMetadata} y de los campos de enrutado del evento en cabeceras de Kafka (texto UTF-8).
+ * Permiten a un consumidor decidir si un mensaje le interesa sin decodificar el payload; el payload sigue siendo
+ * la fuente de verdad y los consumidores deben aceptar mensajes sin cabeceras (productores anteriores).
+ */
+public final class CabecerasEvento {
+    public static final String EVENT_ID = "ue-event-id";
+    public static final String EVENT_TYPE = "ue-event-type";
+    public static final String SCHEMA_VERSION = "ue-schema-version";
+    public static final String TIMESTAMP = "ue-timestamp";
+    public static final String SOURCE_SERVICE = "ue-source-service";
+    public static final String ESTADO = "ue-estado";
+    public static final String PRIORIDAD = "ue-prioridad";
+
+    private CabecerasEvento() {
+    }
+
+    /**
+     * Cabeceras del evento, en orden estable y sin las de valor nulo.
+     */
+    public static Map<String, String> de(EventoIncidencia evento) {
+        Map<String, String> cabeceras = new LinkedHashMap<>();
+        EventMetadata metadata = evento.metadata();
+        if (metadata != null) {
+            poner(cabeceras, EVENT_ID, metadata.eventId());
+            poner(cabeceras, EVENT_TYPE, metadata.eventType());
+            poner(cabeceras, SCHEMA_VERSION, metadata.schemaVersion());
+            poner(cabeceras, TIMESTAMP, metadata.timestamp() == null ? null : metadata.timestamp().toString());
+            poner(cabeceras, SOURCE_SERVICE, metadata.sourceService());
+            poner(cabeceras, ESTADO, metadata.estado());
+        }
+        if (evento instanceof IncidenciaPriorizadaEvent priorizada) {
+            poner(cabeceras, PRIORIDAD, priorizada.prioridad());
+        }
+        return cabeceras;
+    }
+
+    public static Headers kafka(Map<String, String> cabeceras) {
+        RecordHeaders headers = new RecordHeaders();
+        cabeceras.forEach((nombre, valor) -> headers.add(nombre, bytes(valor)));
+        return headers;
+    }
+
+    public static Headers kafka(EventoIncidencia evento) {
+        return kafka(de(evento));
+    }
+
+    /**
+     * Valor de la última cabecera {@code nombre}, o null si el mensaje no la lleva.
+     */
+    public static String leer(Headers headers, String nombre) {
+        Header header = headers == null ? null : headers.lastHeader(nombre);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Valor tal y como viaja en Kafka; para cabeceras de Spring Messaging, que sin bytes se serializarían a JSON.
+     */
+    public static byte[] bytes(String valor) {
+        return valor.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void poner(Map<String, String> cabeceras, String nombre, String valor) {
+        if (valor != null) {
+            cabeceras.put(nombre, valor);
+        }
+    }
+}
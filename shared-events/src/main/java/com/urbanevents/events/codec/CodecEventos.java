@@ -0,0 +1,129 @@
+package com.urbanevents.events.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.EventoIncidencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Codifica y decodifica los eventos de incidencias en los formatos de {@link FormatoEvento}.
+ * Al codificar, el formato sale de {@code metadata.schemaVersion} del propio evento; al decodificar se detecta
+ * en los bytes. Los campos desconocidos se ignoran, de modo que añadir un campo a un evento no rompe a los
+ * consumidores que aún no lo conocen. Es inmutable y seguro entre hilos: basta una instancia por servicio
+ * ({@link #compartido()} para quien no tiene inyección, como los serializadores de Kafka).
+ *
+ * Los ObjectReader/ObjectWriter se resuelven una vez por tipo y formato y se reutilizan; Blackbird sustituye
+ * la reflexión de los accesores por código generado.
+ */
+public final class CodecEventos {
+    private static final CodecEventos COMPARTIDO = new CodecEventos();
+
+    private final Map<FormatoEvento, ObjectMapper> mappers = new EnumMap<>(FormatoEvento.class);
+    private final Map<FormatoEvento, ClassValue<ObjectReader>> lectores = new EnumMap<>(FormatoEvento.class);
+    private final Map<FormatoEvento, ClassValue<ObjectWriter>> escritores = new EnumMap<>(FormatoEvento.class);
+
+    public CodecEventos() {
+        // JSON con fechas ISO-8601, como lo escriben los ObjectMapper de Spring Boot y Quarkus
+        mappers.put(FormatoEvento.JSON, JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build());
+        // En Smile los instantes van como número (segundos.nanos), más corto que el texto ISO
+        mappers.put(FormatoEvento.SMILE, SmileMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new BlackbirdModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build());
+
+        mappers.forEach((formato, mapper) -> {
+            lectores.put(formato, new ClassValue<>() {
+                @Override
+                protected ObjectReader computeValue(Class<?> tipo) {
+                    return mapper.readerFor(tipo);
+                }
+            });
+            escritores.put(formato, new ClassValue<>() {
+                @Override
+                protected ObjectWriter computeValue(Class<?> tipo) {
+                    return mapper.writerFor(tipo);
+                }
+            });
+        });
+    }
+
+    /**
+     * Instancia común del proceso.
+     */
+    public static CodecEventos compartido() {
+        return COMPARTIDO;
+    }
+
+    /**
+     * Codifica el evento en el formato de su {@code schemaVersion}.
+     */
+    public byte[] codificar(EventoIncidencia evento) {
+        return codificar(evento, formato(evento));
+    }
+
+    public byte[] codificar(Object evento, FormatoEvento formato) {
+        try {
+            return escritores.get(formato).get(evento.getClass()).writeValueAsBytes(evento);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error codificando " + evento.getClass().getSimpleName()
+                    + " como " + formato, e);
+        }
+    }
+
+    /**
+     * Decodifica un evento en JSON o Smile, sin necesidad de saber cuál de los dos es.
+     */
+    public <T> T decodificar(byte[] datos, Class<T> tipo) {
+        return decodificar(datos, 0, datos.length, tipo);
+    }
+
+    public <T> T decodificar(byte[] datos, int desde, int longitud, Class<T> tipo) {
+        FormatoEvento formato = FormatoEvento.detectar(datos, desde, longitud);
+        try {
+            return lectores.get(formato).get(tipo).readValue(datos, desde, longitud);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error decodificando " + tipo.getSimpleName() + " (" + formato + ")", e);
+        }
+    }
+
+    /**
+     * Decodifica los bytes restantes del buffer sin copiarlos a un array intermedio; no mueve su posición.
+     */
+    public <T> T decodificar(ByteBuffer datos, Class<T> tipo) {
+        if (datos.hasArray()) {
+            return decodificar(datos.array(), datos.arrayOffset() + datos.position(), datos.remaining(), tipo);
+        }
+        ByteBuffer lectura = datos.duplicate();
+        FormatoEvento formato = FormatoEvento.detectar(lectura);
+        try {
+            return lectores.get(formato).get(tipo).readValue(new ByteBufferBackedInputStream(lectura));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error decodificando " + tipo.getSimpleName() + " (" + formato + ")", e);
+        }
+    }
+
+    public static FormatoEvento formato(EventoIncidencia evento) {
+        EventMetadata metadata = evento.metadata();
+        return FormatoEvento.deVersion(metadata == null ? null : metadata.schemaVersion());
+    }
+}
@@ -0,0 +1,47 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.EventoIncidencia;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conversor de Spring Messaging (Spring Cloud Stream) para los bindings con content-type {@link #TIPO}:
+ * escribe cada evento en el formato de su {@code schemaVersion} y lee JSON o Smile indistintamente.
+ * Solo lo usan los servicios Spring; spring-messaging es una dependencia opcional de shared-events.
+ */
+public class CodecEventosMessageConverter extends AbstractMessageConverter {
+    public static final MimeType TIPO = MimeType.valueOf("application/vnd.urbanevents.evento");
+
+    private final CodecEventos codec;
+
+    public CodecEventosMessageConverter(CodecEventos codec) {
+        super(TIPO);
+        this.codec = codec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EventoIncidencia.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        Object payload = message.getPayload();
+        if (payload instanceof byte[] datos) {
+            return codec.decodificar(datos, targetClass);
+        }
+        if (payload instanceof String texto) {
+            return codec.decodificar(texto.getBytes(StandardCharsets.UTF_8), targetClass);
+        }
+        return null;
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        return codec.codificar((EventoIncidencia) payload);
+    }
+}
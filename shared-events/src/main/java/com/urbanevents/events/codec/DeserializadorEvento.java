@@ -0,0 +1,39 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.EventoIncidencia;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Deserializador de Kafka para un tipo de evento: decodifica JSON o Smile con {@link CodecEventos} directamente
+ * desde los bytes del registro, sin pasar por String. Para configurarlo por nombre de clase
+ * ({@code value.deserializer}) hay una subclase por evento, p. ej. {@link DeserializadorIncidenciaCreada}.
+ */
+public class DeserializadorEvento<T extends EventoIncidencia> implements Deserializer<T> {
+    private final Class<T> tipo;
+    private final CodecEventos codec;
+
+    public DeserializadorEvento(Class<T> tipo, CodecEventos codec) {
+        this.tipo = tipo;
+        this.codec = codec;
+    }
+
+    protected DeserializadorEvento(Class<T> tipo) {
+        this(tipo, CodecEventos.compartido());
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] datos) {
+        return datos == null ? null : codec.decodificar(datos, tipo);
+    }
+
+    /**
+     * Variante que usa el consumidor de Kafka: lee del buffer del registro sin la copia a byte[] por defecto.
+     */
+    @Override
+    public T deserialize(String topic, Headers headers, ByteBuffer datos) {
+        return datos == null ? null : codec.decodificar(datos, tipo);
+    }
+}
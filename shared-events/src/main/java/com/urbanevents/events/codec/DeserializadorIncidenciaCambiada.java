@@ -0,0 +1,9 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.IncidenciaChangedEvent;
+
+public class DeserializadorIncidenciaCambiada extends DeserializadorEvento<IncidenciaChangedEvent> {
+    public DeserializadorIncidenciaCambiada() {
+        super(IncidenciaChangedEvent.class);
+    }
+}
@@ -0,0 +1,9 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.IncidenciaCreadaEvent;
+
+public class DeserializadorIncidenciaCreada extends DeserializadorEvento<IncidenciaCreadaEvent> {
+    public DeserializadorIncidenciaCreada() {
+        super(IncidenciaCreadaEvent.class);
+    }
+}
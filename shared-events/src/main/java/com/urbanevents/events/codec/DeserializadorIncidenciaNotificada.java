@@ -0,0 +1,9 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.IncidenciaNotificadaEvent;
+
+public class DeserializadorIncidenciaNotificada extends DeserializadorEvento<IncidenciaNotificadaEvent> {
+    public DeserializadorIncidenciaNotificada() {
+        super(IncidenciaNotificadaEvent.class);
+    }
+}
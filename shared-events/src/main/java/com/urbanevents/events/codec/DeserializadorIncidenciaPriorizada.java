@@ -0,0 +1,9 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+
+public class DeserializadorIncidenciaPriorizada extends DeserializadorEvento<IncidenciaPriorizadaEvent> {
+    public DeserializadorIncidenciaPriorizada() {
+        super(IncidenciaPriorizadaEvent.class);
+    }
+}
@@ -0,0 +1,74 @@
+package com.urbanevents.events.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codificación de un evento en Kafka, determinada por {@code EventMetadata.schemaVersion}.
+ * Todas las versiones tienen los mismos campos; cambia cómo se escriben. La lectura no depende de la versión:
+ * el formato se reconoce por los primeros bytes, así que un consumidor lee mensajes de productores de cualquier
+ * versión mientras dura una migración.
+ */
+public enum FormatoEvento {
+    /** JSON en UTF-8, legible con cualquier herramienta. */
+    JSON("v1", "application/json"),
+    /** Smile: JSON binario de Jackson (mismo modelo, sin comillas ni nombres repetidos, números en binario). */
+    SMILE("v2", "application/x-jackson-smile");
+
+    // Cabecera que Jackson escribe al principio de todo documento Smile: ":)\n"
+    private static final byte[] CABECERA_SMILE = {':', ')', '\n'};
+
+    private final String versionEsquema;
+    private final String contentType;
+
+    FormatoEvento(String versionEsquema, String contentType) {
+        this.versionEsquema = versionEsquema;
+        this.contentType = contentType;
+    }
+
+    public String versionEsquema() {
+        return versionEsquema;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Formato de una versión de esquema; sin versión, o desconocida, JSON.
+     */
+    public static FormatoEvento deVersion(String versionEsquema) {
+        for (FormatoEvento formato : values()) {
+            if (formato.versionEsquema.equalsIgnoreCase(versionEsquema)) {
+                return formato;
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Formato de un mensaje ya codificado.
+     */
+    public static FormatoEvento detectar(byte[] datos) {
+        return detectar(datos, 0, datos.length);
+    }
+
+    public static FormatoEvento detectar(byte[] datos, int desde, int longitud) {
+        if (longitud >= CABECERA_SMILE.length && datos[desde] == CABECERA_SMILE[0]
+                && datos[desde + 1] == CABECERA_SMILE[1] && datos[desde + 2] == CABECERA_SMILE[2]) {
+            return SMILE;
+        }
+        return JSON;
+    }
+
+    /**
+     * Formato de los bytes restantes del buffer, sin mover su posición.
+     */
+    public static FormatoEvento detectar(ByteBuffer datos) {
+        int p = datos.position();
+        if (datos.remaining() >= CABECERA_SMILE.length && datos.get(p) == CABECERA_SMILE[0]
+                && datos.get(p + 1) == CABECERA_SMILE[1] && datos.get(p + 2) == CABECERA_SMILE[2]) {
+            return SMILE;
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,35 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.EventoIncidencia;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Serializador de Kafka para cualquier evento de incidencia: lo codifica en el formato de su
+ * {@code schemaVersion} y, cuando el productor le pasa las cabeceras del registro, añade las de
+ * {@link CabecerasEvento}, de modo que payload y cabeceras salen siempre del mismo evento.
+ */
+public class SerializadorEvento implements Serializer<EventoIncidencia> {
+    private final CodecEventos codec;
+
+    public SerializadorEvento() {
+        this(CodecEventos.compartido());
+    }
+
+    public SerializadorEvento(CodecEventos codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, EventoIncidencia evento) {
+        return evento == null ? null : codec.codificar(evento);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, EventoIncidencia evento) {
+        if (evento != null && headers != null) {
+            CabecerasEvento.de(evento).forEach((nombre, valor) -> headers.add(nombre, CabecerasEvento.bytes(valor)));
+        }
+        return serialize(topic, evento);
+    }
+}
@@ -0,0 +1,21 @@
+package com.urbanevents.events.id;
+
+/**
+ * Genera identificadores de 64 bits sin ir a la base de datos en cada inserción.
+ * Las implementaciones son seguras para uso concurrente.
+ */
+public interface GeneradorIds {
+
+    long siguiente();
+
+    /**
+     * Devuelve {@code cantidad} identificadores únicos, en orden creciente.
+     */
+    default long[] siguientes(int cantidad) {
+        long[] ids = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            ids[i] = siguiente();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,73 @@
+package com.urbanevents.events.id;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reparte identificadores a partir de rangos reservados en bloque.
+ * Solo se consulta la fuente (normalmente una secuencia con INCREMENT BY igual al tamaño de bloque)
+ * una vez cada {@code tamanoBloque} identificadores; el resto se sirven desde memoria.
+ * Los rangos no usados al reiniciar la aplicación se pierden (huecos), nunca se repiten.
+ *
+ * Se usa un ReentrantLock en lugar de synchronized para no fijar hilos virtuales a su carrier
+ * mientras se reserva un bloque contra la base de datos.
+ */
+public class GeneradorIdsPorBloques implements GeneradorIds {
+
+    /**
+     * Reserva un rango contiguo de {@code tamano} identificadores y devuelve el primero.
+     */
+    @FunctionalInterface
+    public interface ReservaBloque {
+        long reservar(int tamano);
+    }
+
+    private final ReservaBloque reserva;
+    private final int tamanoBloque;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long siguiente;
+    private long limite;
+
+    public GeneradorIdsPorBloques(ReservaBloque reserva, int tamanoBloque) {
+        if (tamanoBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo");
+        }
+        this.reserva = reserva;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    @Override
+    public long siguiente() {
+        lock.lock();
+        try {
+            if (siguiente == limite) {
+                siguiente = reserva.reservar(tamanoBloque);
+                limite = siguiente + tamanoBloque;
+            }
+            return siguiente++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long[] siguientes(int cantidad) {
+        long[] ids = new long[cantidad];
+        lock.lock();
+        try {
+            for (int i = 0; i < cantidad; i++) {
+                if (siguiente == limite) {
+                    siguiente = reserva.reservar(tamanoBloque);
+                    limite = siguiente + tamanoBloque;
+                }
+                ids[i] = siguiente++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return ids;
+    }
+
+    public int getTamanoBloque() {
+        return tamanoBloque;
+    }
+}
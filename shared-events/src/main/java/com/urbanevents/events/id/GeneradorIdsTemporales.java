@@ -0,0 +1,63 @@
+package com.urbanevents.events.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Identificadores de 64 bits ordenados por tiempo, generados localmente sin coordinación:
+ * 41 bits de milisegundos desde {@link #EPOCH}, 10 bits de nodo y 12 bits de secuencia
+ * (hasta 4096 ids por milisegundo y nodo, unos 69 años de rango).
+ * Cada instancia de la aplicación debe usar un nodo distinto.
+ * Si el reloj retrocede se sigue usando el último milisegundo emitido, así que los ids nunca se repiten.
+ * Los ids superan 2^53 a partir de 2^31 ms (unos 24,8 días) desde {@link #EPOCH}: en JSON para clientes
+ * JavaScript deben serializarse como texto, o el cliente los redondea sin avisar.
+ */
+public class GeneradorIdsTemporales implements GeneradorIds {
+    public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    static final int BITS_NODO = 10;
+    static final int BITS_SECUENCIA = 12;
+    static final long MAX_NODO = (1L << BITS_NODO) - 1;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+
+    private final long nodo;
+    private final LongSupplier reloj;
+    // (milisegundo relativo << BITS_SECUENCIA) | secuencia del último id emitido
+    private final AtomicLong ultimo = new AtomicLong();
+
+    public GeneradorIdsTemporales(long nodo) {
+        this(nodo, System::currentTimeMillis);
+    }
+
+    GeneradorIdsTemporales(long nodo, LongSupplier reloj) {
+        if (nodo < 0 || nodo > MAX_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODO);
+        }
+        this.nodo = nodo;
+        this.reloj = reloj;
+    }
+
+    @Override
+    public long siguiente() {
+        long epochMs = EPOCH.toEpochMilli();
+        while (true) {
+            long anterior = ultimo.get();
+            long ahora = (reloj.getAsLong() - epochMs) << BITS_SECUENCIA;
+            // Mismo milisegundo (o reloj atrasado): incrementar la secuencia, que desborda al milisegundo siguiente
+            long nuevo = ahora > anterior ? ahora : anterior + 1;
+            if (ultimo.compareAndSet(anterior, nuevo)) {
+                long milis = nuevo >>> BITS_SECUENCIA;
+                long secuencia = nuevo & MASCARA_SECUENCIA;
+                return (milis << (BITS_NODO + BITS_SECUENCIA)) | (nodo << BITS_SECUENCIA) | secuencia;
+            }
+        }
+    }
+
+    /**
+     * Instante en que se generó un identificador.
+     */
+    public static Instant instanteDe(long id) {
+        return EPOCH.plusMillis(id >>> (BITS_NODO + BITS_SECUENCIA));
+    }
+}
@@ -0,0 +1,133 @@
+package com.urbanevents.events.metricas;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.EventoIncidencia;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Temporizadores comunes a todos los consumidores de eventos, etiquetados por {@code topic} y {@code evento}
+ * ({@code EventMetadata.eventType}):
+ * <ul>
+ *     <li>{@value #EDAD}: edad del evento al recibirlo, desde {@code EventMetadata.timestamp} (tiempo en cola más
+ *     la diferencia de relojes entre productor y consumidor).</li>
+ *     <li>{@value #PROCESAMIENTO}: duración del tratamiento del mensaje (o del lote) en el consumidor.</li>
+ *     <li>{@value #BD}: parte de ese tratamiento pasada en la base de datos.</li>
+ * </ul>
+ * Publican percentiles calculados en el propio servicio (Micrometer los lleva en un HdrHistogram por ventana) y
+ * el histograma en buckets, que es lo que permite agregar percentiles entre instancias en Prometheus. Los tiempos
+ * de proceso se toman del reloj monótono del registro; la edad, de su reloj de pared.
+ */
+public final class MedidorEventos {
+    public static final String EDAD = "eventos.edad";
+    public static final String PROCESAMIENTO = "eventos.procesamiento";
+    public static final String BD = "eventos.bd";
+    static final String DESCONOCIDO = "desconocido";
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final MeterRegistry registry;
+    private final Clock reloj;
+    private final Map<Clave, Timer> timers = new ConcurrentHashMap<>();
+
+    public MedidorEventos(MeterRegistry registry) {
+        this.registry = registry;
+        this.reloj = registry.config().clock();
+    }
+
+    /**
+     * Anota la edad del evento al recibirlo. Sin metadata o sin timestamp no se anota nada.
+     */
+    public void recibido(String topic, EventoIncidencia evento) {
+        EventMetadata metadata = evento.metadata();
+        if (metadata != null) {
+            recibido(topic, metadata.eventType(), metadata.timestamp());
+        }
+    }
+
+    /**
+     * Variante para quien solo tiene las cabeceras del mensaje (ver CabecerasEvento).
+     */
+    public void recibido(String topic, String tipoEvento, Instant timestamp) {
+        if (timestamp == null) {
+            return;
+        }
+        // Con relojes de máquinas distintas la edad puede salir negativa por poco: cuenta como 0
+        long millis = Math.max(0, reloj.wallTime() - timestamp.toEpochMilli());
+        timer(EDAD, topic, tipoEvento).record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Instante de inicio para {@link #procesado} y {@link #bd}, en el reloj monótono.
+     */
+    public long inicio() {
+        return reloj.monotonicTime();
+    }
+
+    public void procesado(String topic, String tipoEvento, long inicio) {
+        registrar(PROCESAMIENTO, topic, tipoEvento, inicio);
+    }
+
+    public void bd(String topic, String tipoEvento, long inicio) {
+        registrar(BD, topic, tipoEvento, inicio);
+    }
+
+    /**
+     * Ejecuta un acceso síncrono a la base de datos y anota su duración, también si falla.
+     */
+    public <T> T bd(String topic, String tipoEvento, Supplier<T> acceso) {
+        long inicio = inicio();
+        try {
+            return acceso.get();
+        } finally {
+            bd(topic, tipoEvento, inicio);
+        }
+    }
+
+    public void bd(String topic, String tipoEvento, Runnable acceso) {
+        long inicio = inicio();
+        try {
+            acceso.run();
+        } finally {
+            bd(topic, tipoEvento, inicio);
+        }
+    }
+
+    private void registrar(String nombre, String topic, String tipoEvento, long inicio) {
+        timer(nombre, topic, tipoEvento).record(reloj.monotonicTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String nombre, String topic, String tipoEvento) {
+        // Un Timer por combinación: Timer.builder(...).register(...) en cada mensaje crearía los tags cada vez
+        return timers.computeIfAbsent(new Clave(nombre, topic, tipoEvento == null ? DESCONOCIDO : tipoEvento),
+                clave -> Timer.builder(clave.nombre())
+                        .description(descripcion(clave.nombre()))
+                        .tag("topic", clave.topic())
+                        .tag("evento", clave.tipoEvento())
+                        .publishPercentiles(PERCENTILES)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        // La priorización puede tardar segundos (priorizacion.delay-segundos) y acumular cola
+                        .maximumExpectedValue(Duration.ofMinutes(5))
+                        .register(registry));
+    }
+
+    private static String descripcion(String nombre) {
+        return switch (nombre) {
+            case EDAD -> "Edad del evento al recibirlo (desde EventMetadata.timestamp)";
+            case PROCESAMIENTO -> "Duración del tratamiento del evento en el consumidor";
+            default -> "Tiempo en base de datos durante el tratamiento del evento";
+        };
+    }
+
+    private record Clave(String nombre, String topic, String tipoEvento) {
+    }
+}
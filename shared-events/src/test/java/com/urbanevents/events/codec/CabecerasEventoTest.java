@@ -0,0 +1,42 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CabecerasEventoTest {
+    private static final Instant T = Instant.parse("2025-03-01T10:15:30Z");
+
+    @Test
+    void copiaLaMetadataYLaPrioridadSinCabecerasNulas() {
+        IncidenciaPriorizadaEvent evento = new IncidenciaPriorizadaEvent(
+                new EventMetadata("e-1", "IncidenciaPriorizada", T, "priorizacion-incidencias", "v2"),
+                7L, "ALTA", "incendio", T);
+
+        Headers headers = CabecerasEvento.kafka(evento);
+
+        assertThat(CabecerasEvento.leer(headers, CabecerasEvento.EVENT_TYPE)).isEqualTo("IncidenciaPriorizada");
+        assertThat(CabecerasEvento.leer(headers, CabecerasEvento.SCHEMA_VERSION)).isEqualTo("v2");
+        assertThat(CabecerasEvento.leer(headers, CabecerasEvento.TIMESTAMP)).isEqualTo("2025-03-01T10:15:30Z");
+        assertThat(CabecerasEvento.leer(headers, CabecerasEvento.PRIORIDAD)).isEqualTo("ALTA");
+        assertThat(headers.lastHeader(CabecerasEvento.ESTADO)).isNull();
+    }
+
+    @Test
+    void soloLosEventosPriorizadosLlevanPrioridad() {
+        IncidenciaCreadaEvent creada = new IncidenciaCreadaEvent(
+                new EventMetadata("e-2", "IncidenciaCreada", T, "registro-incidencias", "v1", "REGISTRADA"),
+                8L, "alumbrado", "Farola apagada", "ciudadano", "Centro", T);
+
+        assertThat(CabecerasEvento.de(creada))
+                .containsEntry(CabecerasEvento.ESTADO, "REGISTRADA")
+                .doesNotContainKey(CabecerasEvento.PRIORIDAD);
+        assertThat(CabecerasEvento.leer(null, CabecerasEvento.PRIORIDAD)).isNull();
+    }
+}
@@ -0,0 +1,58 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaCreadaEvent;
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CodecEventosTest {
+    private final CodecEventos codec = new CodecEventos();
+
+    @Test
+    void codificaSegunLaVersionDeEsquemaYDecodificaAmbosFormatos() {
+        IncidenciaCreadaEvent v1 = creada("v1");
+        IncidenciaCreadaEvent v2 = creada("v2");
+
+        byte[] json = codec.codificar(v1);
+        byte[] smile = codec.codificar(v2);
+
+        assertThat(FormatoEvento.detectar(json)).isEqualTo(FormatoEvento.JSON);
+        assertThat(FormatoEvento.detectar(smile)).isEqualTo(FormatoEvento.SMILE);
+        assertThat(smile.length).isLessThan(json.length);
+
+        // El consumidor no necesita saber qué versión usa cada productor
+        assertThat(codec.decodificar(json, IncidenciaCreadaEvent.class)).isEqualTo(v1);
+        assertThat(codec.decodificar(smile, IncidenciaCreadaEvent.class)).isEqualTo(v2);
+    }
+
+    @Test
+    void leeElJsonDeVersionesAnterioresEIgnoraCamposNuevos() {
+        String json = """
+                {"metadata":{"eventId":"e-1","eventType":"IncidenciaPriorizada","timestamp":"2025-03-01T10:15:30Z",
+                 "sourceService":"priorizacion-incidencias","schemaVersion":"v1"},
+                 "incidenciaId":7,"prioridad":"ALTA","motivo":"m","priorizadaEn":"2025-03-01T10:15:31Z",
+                 "campoFuturo":"x"}
+                """;
+
+        IncidenciaPriorizadaEvent evento = codec.decodificar(json.getBytes(StandardCharsets.UTF_8),
+                IncidenciaPriorizadaEvent.class);
+
+        assertThat(evento.incidenciaId()).isEqualTo(7L);
+        assertThat(evento.priorizadaEn()).isEqualTo(Instant.parse("2025-03-01T10:15:31Z"));
+        // Versión desconocida o ausente: JSON
+        assertThat(FormatoEvento.deVersion("v9")).isEqualTo(FormatoEvento.JSON);
+        assertThat(FormatoEvento.deVersion(null)).isEqualTo(FormatoEvento.JSON);
+    }
+
+    private static IncidenciaCreadaEvent creada(String version) {
+        Instant ahora = Instant.parse("2025-03-01T10:15:30.123456Z");
+        return new IncidenciaCreadaEvent(
+                new EventMetadata("e-1", "IncidenciaCreada", ahora, "registro-incidencias", version, "REGISTRADA"),
+                42L, "alumbrado", "Farola apagada en la esquina de la plaza", "ciudadano", "Centro", ahora);
+    }
+}
@@ -0,0 +1,57 @@
+package com.urbanevents.events.codec;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerdeEventosTest {
+    private static final Instant T = Instant.parse("2025-03-01T10:15:30Z");
+
+    private final SerializadorEvento serializador = new SerializadorEvento();
+    private final DeserializadorIncidenciaPriorizada deserializador = new DeserializadorIncidenciaPriorizada();
+
+    @Test
+    void serializaConCabecerasYDeserializaDesdeCualquierBuffer() {
+        IncidenciaPriorizadaEvent evento = priorizada("v2");
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] datos = serializador.serialize("incidencias.priorizadas", headers, evento);
+
+        assertThat(CabecerasEvento.leer(headers, CabecerasEvento.PRIORIDAD)).isEqualTo("ALTA");
+        assertThat(deserializador.deserialize("incidencias.priorizadas", datos)).isEqualTo(evento);
+
+        // Trozo de un array mayor, como los buffers del consumidor de Kafka
+        byte[] conRelleno = new byte[datos.length + 7];
+        System.arraycopy(datos, 0, conRelleno, 5, datos.length);
+        ByteBuffer trozo = ByteBuffer.wrap(conRelleno, 5, datos.length).slice();
+        assertThat(deserializador.deserialize("t", headers, trozo)).isEqualTo(evento);
+        assertThat(trozo.remaining()).isEqualTo(datos.length);
+
+        ByteBuffer directo = ByteBuffer.allocateDirect(datos.length).put(datos).flip();
+        assertThat(deserializador.deserialize("t", headers, directo)).isEqualTo(evento);
+    }
+
+    @Test
+    void deserializaJsonYNulos() {
+        IncidenciaPriorizadaEvent evento = priorizada("v1");
+
+        byte[] json = serializador.serialize("t", evento);
+
+        assertThat(FormatoEvento.detectar(json)).isEqualTo(FormatoEvento.JSON);
+        assertThat(deserializador.deserialize("t", null, ByteBuffer.wrap(json))).isEqualTo(evento);
+        assertThat(deserializador.deserialize("t", (byte[]) null)).isNull();
+        assertThat(serializador.serialize("t", null)).isNull();
+    }
+
+    private static IncidenciaPriorizadaEvent priorizada(String version) {
+        return new IncidenciaPriorizadaEvent(
+                new EventMetadata("e-1", "IncidenciaPriorizada", T, "priorizacion-incidencias", version),
+                7L, "ALTA", "incendio", T);
+    }
+}
@@ -0,0 +1,88 @@
+package com.urbanevents.events.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeneradorIdsTest {
+
+    @Test
+    void porBloquesSoloReservaUnaVezPorBloque() {
+        AtomicLong secuencia = new AtomicLong(1);
+        AtomicInteger reservas = new AtomicInteger();
+        GeneradorIdsPorBloques generador = new GeneradorIdsPorBloques(tamano -> {
+            reservas.incrementAndGet();
+            return secuencia.getAndAdd(tamano);
+        }, 50);
+
+        long[] ids = generador.siguientes(120);
+
+        assertThat(ids[0]).isEqualTo(1L);
+        assertThat(ids[119]).isEqualTo(120L);
+        assertThat(reservas).hasValue(3);
+    }
+
+    @Test
+    void porBloquesNoRepiteIdsConConcurrencia() throws Exception {
+        AtomicLong secuencia = new AtomicLong(1);
+        GeneradorIdsPorBloques generador = new GeneradorIdsPorBloques(tamano -> secuencia.getAndAdd(tamano), 10);
+
+        Set<Long> vistos = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tareas.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        vistos.add(generador.siguiente());
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        }
+
+        assertThat(vistos).hasSize(8000);
+    }
+
+    @Test
+    void temporalesSonCrecientesYUnicosDentroDelMismoMilisegundo() {
+        long ms = Instant.parse("2025-06-01T10:00:00Z").toEpochMilli();
+        GeneradorIdsTemporales generador = new GeneradorIdsTemporales(7, () -> ms);
+
+        Set<Long> vistos = new HashSet<>();
+        long anterior = -1;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generador.siguiente();
+            assertThat(id).isGreaterThan(anterior);
+            assertThat(vistos.add(id)).isTrue();
+            anterior = id;
+        }
+        assertThat(GeneradorIdsTemporales.instanteDe(generador.siguiente()))
+                .isAfterOrEqualTo(Instant.ofEpochMilli(ms));
+    }
+
+    @Test
+    void temporalesNoRetrocedenSiElRelojVaHaciaAtras() {
+        long[] reloj = {Instant.parse("2025-06-01T10:00:00Z").toEpochMilli()};
+        GeneradorIdsTemporales generador = new GeneradorIdsTemporales(1, () -> reloj[0]);
+
+        long primero = generador.siguiente();
+        reloj[0] -= 5_000;
+        long segundo = generador.siguiente();
+
+        assertThat(segundo).isGreaterThan(primero);
+    }
+}
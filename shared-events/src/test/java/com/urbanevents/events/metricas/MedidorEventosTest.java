@@ -0,0 +1,61 @@
+package com.urbanevents.events.metricas;
+
+import com.urbanevents.events.EventMetadata;
+import com.urbanevents.events.IncidenciaPriorizadaEvent;
+import com.urbanevents.events.Topics;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MedidorEventosTest {
+    private final MockClock reloj = new MockClock();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, reloj);
+    private final MedidorEventos medidor = new MedidorEventos(registry);
+
+    @Test
+    void anotaLaEdadDesdeElTimestampDelEventoPorTopicYTipo() {
+        Instant publicado = Instant.ofEpochMilli(reloj.wallTime());
+        reloj.add(250, TimeUnit.MILLISECONDS);
+
+        medidor.recibido(Topics.INCIDENCIAS_PRIORIZADAS, evento(publicado));
+        // Reloj del productor adelantado: no hay edades negativas
+        medidor.recibido(Topics.INCIDENCIAS_PRIORIZADAS, evento(publicado.plusSeconds(5)));
+
+        Timer edad = registry.get(MedidorEventos.EDAD)
+                .tags("topic", Topics.INCIDENCIAS_PRIORIZADAS, "evento", "IncidenciaPriorizada").timer();
+        assertThat(edad.count()).isEqualTo(2);
+        assertThat(edad.max(TimeUnit.MILLISECONDS)).isEqualTo(250.0);
+        assertThat(edad.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(250.0);
+    }
+
+    @Test
+    void anotaProcesamientoYBaseDeDatosAunqueElAccesoFalle() {
+        long inicio = medidor.inicio();
+        assertThatThrownBy(() -> medidor.bd(Topics.INCIDENCIAS_CREADAS, "IncidenciaCreada", () -> {
+            reloj.add(40, TimeUnit.MILLISECONDS);
+            throw new IllegalStateException("conexión perdida");
+        })).isInstanceOf(IllegalStateException.class);
+        reloj.add(10, TimeUnit.MILLISECONDS);
+        medidor.procesado(Topics.INCIDENCIAS_CREADAS, null, inicio);
+
+        assertThat(registry.get(MedidorEventos.BD).tag("evento", "IncidenciaCreada").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40.0);
+        // Sin tipo de evento se etiqueta como desconocido en lugar de fallar
+        assertThat(registry.get(MedidorEventos.PROCESAMIENTO).tag("evento", MedidorEventos.DESCONOCIDO).timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(50.0);
+    }
+
+    private static IncidenciaPriorizadaEvent evento(Instant timestamp) {
+        return new IncidenciaPriorizadaEvent(
+                new EventMetadata("e-1", "IncidenciaPriorizada", timestamp, "priorizacion-incidencias", "v1"),
+                1L, "ALTA", "incendio", timestamp);
+    }
+}